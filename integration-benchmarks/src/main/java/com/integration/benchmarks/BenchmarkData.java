@@ -0,0 +1,129 @@
+package com.integration.benchmarks;
+
+import com.integration.model.OrderCsv;
+import com.integration.model.ProcessedOrder;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Generates inputs with the shape of {@code order-integration.csv}: the same columns, UUID pids, the
+ * card types and statuses found there and dates in the same range. A fixed seed keeps every run, and
+ * every size, reading the same rows.
+ */
+final class BenchmarkData {
+
+    static final String HEADER = "id,first_name,last_name,email,supplier_pid,credit_card_number,"
+            + "credit_card_type,order_id,product_pid,shipping_address,country,date_created,quantity,full_name,"
+            + "order_status";
+
+    private static final String[] FIRST_NAMES = {"Austin", "Willi", "Maria", "Chen", "Amara", "Lars", "Ines", "Omar"};
+
+    private static final String[] LAST_NAMES = {"Humphries", "Petheridge", "Silva", "Wang", "Okafor", "Berg", "Costa"};
+
+    private static final String[] CARD_TYPES = {"americanexpress", "mastercard", "visa", "visa-electron"};
+
+    private static final String[] COUNTRIES = {"Portugal", "Albania", "China", "Brazil", "Indonesia", "France"};
+
+    private static final String[] STREETS = {"Declaration Park", "Waxwing Point", "Main Street", "Oak Way"};
+
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ISO_OFFSET_DATE_TIME;
+
+    private static final long FIRST_DATE = Instant.parse("2022-01-01T00:00:00Z").getEpochSecond();
+
+    private static final long LAST_DATE = Instant.parse("2023-12-31T23:59:59Z").getEpochSecond();
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * Writes {@code rows} rows to a new file in the temp directory, which is deleted on exit.
+     */
+    static Path generateCsv(int rows) throws IOException {
+        Path file = Files.createTempFile("orders-" + rows + "-", ".csv");
+        file.toFile().deleteOnExit();
+        Random random = new Random(42);
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write(HEADER);
+            writer.write('\n');
+            for (int i = 1; i <= rows; i++) {
+                writer.write(line(i, random));
+                writer.write('\n');
+            }
+        }
+        return file;
+    }
+
+    /**
+     * The same rows as {@link #generateCsv(int)}, already bound.
+     */
+    static List<OrderCsv> generateOrders(int rows) {
+        Random random = new Random(42);
+        List<OrderCsv> orders = new ArrayList<>(rows);
+        for (int i = 1; i <= rows; i++) {
+            orders.add(toOrder(line(i, random).split(",", -1)));
+        }
+        return orders;
+    }
+
+    /**
+     * {@code rows} results drawn from a pool of distinct ones, so large outputs do not need the memory
+     * of a million distinct records.
+     */
+    static List<ProcessedOrder> generateProcessedOrders(int rows) {
+        ProcessedOrder[] pool = new ProcessedOrder[Math.min(rows, 4096)];
+        Random random = new Random(42);
+        for (int i = 0; i < pool.length; i++) {
+            pool[i] = new ProcessedOrder(uuid(random), uuid(random), uuid(random));
+        }
+        List<ProcessedOrder> processedOrders = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            processedOrders.add(pool[i % pool.length]);
+        }
+        return processedOrders;
+    }
+
+    static OrderCsv toOrder(String[] columns) {
+        return new OrderCsv(columns[0], columns[1], columns[2], columns[3], columns[4], columns[5], columns[6],
+                columns[7], columns[8], columns[9], columns[10], columns[11], columns[12], columns[13], columns[14]);
+    }
+
+    private static String line(int id, Random random) {
+        String firstName = pick(FIRST_NAMES, random);
+        String lastName = pick(LAST_NAMES, random);
+        String date = Instant.ofEpochSecond(FIRST_DATE + (long) (random.nextDouble() * (LAST_DATE - FIRST_DATE)))
+                .atOffset(ZoneOffset.UTC)
+                .format(DATE_FORMATTER);
+        return id + "," + firstName + "," + lastName + ","
+                + firstName.toLowerCase() + lastName.toLowerCase() + id + "@example.com,"
+                + uuid(random) + ","
+                + (4_000_000_000_000_000L + (random.nextLong() & Long.MAX_VALUE) % 1_000_000_000_000_000L) + ","
+                + pick(CARD_TYPES, random) + ","
+                + uuid(random) + ","
+                + uuid(random) + ","
+                + (1 + random.nextInt(999)) + " " + pick(STREETS, random) + ","
+                + pick(COUNTRIES, random) + ","
+                + date + ","
+                + (1 + random.nextInt(100)) + ","
+                + firstName + " " + lastName + ","
+                + random.nextInt(3);
+    }
+
+    private static String uuid(Random random) {
+        return new UUID(random.nextLong(), random.nextLong()).toString();
+    }
+
+    private static String pick(String[] values, Random random) {
+        return values[random.nextInt(values.length)];
+    }
+}
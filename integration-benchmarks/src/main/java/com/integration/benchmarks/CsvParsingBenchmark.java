@@ -0,0 +1,62 @@
+package com.integration.benchmarks;
+
+import com.integration.model.OrderCsv;
+import com.integration.service.CsvReaderService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Time to parse a whole file into {@link OrderCsv} rows with each parser {@link CsvReaderService} can
+ * be configured with: the opencsv bean binding and the fast parser that binds by column index.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CsvParsingBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int rows;
+
+    private final CsvReaderService csvReaderService = new CsvReaderService("opencsv");
+
+    private final CsvReaderService fastCsvReaderService = new CsvReaderService("fast");
+
+    private Path file;
+
+    @Setup
+    public void generateInput() throws IOException {
+        file = BenchmarkData.generateCsv(rows);
+    }
+
+    @Benchmark
+    public void opencsvBeanBinding(Blackhole blackhole) throws IOException {
+        try (Stream<OrderCsv> orders = csvReaderService.streamOrders(file.toString())) {
+            orders.forEach(blackhole::consume);
+        }
+    }
+
+    @Benchmark
+    public void fastParser(Blackhole blackhole) throws IOException {
+        try (Stream<OrderCsv> orders = fastCsvReaderService.streamOrders(file.toString())) {
+            orders.forEach(blackhole::consume);
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package com.integration.benchmarks;
+
+import io.grpc.Server;
+import io.grpc.ServerBuilder;
+import io.grpc.Status;
+import io.grpc.stub.StreamObserver;
+import order.Order;
+import order.OrderServiceGrpc;
+import product.Product;
+import product.ProductServiceGrpc;
+import supplier.Supplier;
+import supplier.SupplierServiceGrpc;
+import user.User;
+import user.UserServiceGrpc;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * User, product, supplier and order services that answer from memory after a configurable delay, on local
+ * ports of this JVM. Responses are scheduled rather than slept on, so a slow fake costs no threads
+ * and the concurrency the import achieves is not capped by the fakes.
+ * A share of calls fails with {@code UNAVAILABLE}, and a share of new users with {@code ALREADY_EXISTS},
+ * in which case the user can be found by its email as after a real conflict. Every supplier is known.
+ */
+class FakeDownstreams implements Closeable {
+
+    /**
+     * @param latencyMillis fixed delay of every answer
+     * @param jitterMillis  uniformly distributed extra delay, from 0 up to this
+     * @param errorRate     share of calls answered with {@code UNAVAILABLE}
+     */
+    record Behaviour(long latencyMillis, long jitterMillis, double errorRate) {
+    }
+
+    private final ScheduledExecutorService scheduler;
+
+    private final Server userServer;
+
+    private final Server productServer;
+
+    private final Server supplierServer;
+
+    private final Server orderServer;
+
+    private final Map<String, AtomicLong> calls = new ConcurrentHashMap<>();
+
+    FakeDownstreams(Behaviour user, Behaviour product, Behaviour supplier, Behaviour order, double alreadyExistsRatio)
+            throws IOException {
+        AtomicInteger threads = new AtomicInteger();
+        scheduler = Executors.newScheduledThreadPool(Math.max(2, Runtime.getRuntime().availableProcessors() / 2),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "fake-downstream-" + threads.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        userServer = start(new FakeUserService(user, alreadyExistsRatio));
+        productServer = start(new FakeProductService(product));
+        supplierServer = start(new FakeSupplierService(supplier));
+        orderServer = start(new FakeOrderService(order));
+    }
+
+    int getUserServicePort() {
+        return userServer.getPort();
+    }
+
+    int getProductServicePort() {
+        return productServer.getPort();
+    }
+
+    int getSupplierServicePort() {
+        return supplierServer.getPort();
+    }
+
+    int getOrderServicePort() {
+        return orderServer.getPort();
+    }
+
+    /**
+     * Calls answered per method and outcome, as seen by the fakes.
+     */
+    Map<String, AtomicLong> getCalls() {
+        return calls;
+    }
+
+    @Override
+    public void close() {
+        userServer.shutdownNow();
+        productServer.shutdownNow();
+        supplierServer.shutdownNow();
+        orderServer.shutdownNow();
+        scheduler.shutdownNow();
+    }
+
+    private static Server start(io.grpc.BindableService service) throws IOException {
+        return ServerBuilder.forPort(0).directExecutor().addService(service).build().start();
+    }
+
+    private <T> void answer(String method, Behaviour behaviour, StreamObserver<T> observer,
+                            java.util.function.Supplier<T> response) {
+        long delayMillis = behaviour.latencyMillis() + (behaviour.jitterMillis() > 0
+                ? ThreadLocalRandom.current().nextLong(behaviour.jitterMillis() + 1)
+                : 0);
+        scheduler.schedule(() -> {
+            if (ThreadLocalRandom.current().nextDouble() < behaviour.errorRate()) {
+                count(method, "UNAVAILABLE");
+                observer.onError(Status.UNAVAILABLE.withDescription("Injected failure").asRuntimeException());
+                return;
+            }
+            T value;
+            try {
+                value = response.get();
+            } catch (RuntimeException e) {
+                count(method, Status.fromThrowable(e).getCode().name());
+                observer.onError(e);
+                return;
+            }
+            count(method, "OK");
+            observer.onNext(value);
+            observer.onCompleted();
+        }, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void count(String method, String outcome) {
+        calls.computeIfAbsent(method + " " + outcome, key -> new AtomicLong()).incrementAndGet();
+    }
+
+    private class FakeUserService extends UserServiceGrpc.UserServiceImplBase {
+
+        private final Behaviour behaviour;
+
+        private final double alreadyExistsRatio;
+
+        private final Map<String, String> pidsByEmail = new ConcurrentHashMap<>();
+
+        FakeUserService(Behaviour behaviour, double alreadyExistsRatio) {
+            this.behaviour = behaviour;
+            this.alreadyExistsRatio = alreadyExistsRatio;
+        }
+
+        @Override
+        public void createUser(User.CreateUserRequest request, StreamObserver<User.UserResponse> responseObserver) {
+            answer("CreateUser", behaviour, responseObserver, () -> {
+                String pid = UUID.randomUUID().toString();
+                boolean preexisting = ThreadLocalRandom.current().nextDouble() < alreadyExistsRatio;
+                if (pidsByEmail.putIfAbsent(request.getEmail(), pid) != null || preexisting) {
+                    throw Status.ALREADY_EXISTS.withDescription("User already exists").asRuntimeException();
+                }
+                return User.UserResponse.newBuilder().setPid(pid).setEmail(request.getEmail()).build();
+            });
+        }
+
+        @Override
+        public void search(User.UserSearchFilter request, StreamObserver<User.UsersResponse> responseObserver) {
+            answer("Search", behaviour, responseObserver, () -> {
+                User.UsersResponse.Builder users = User.UsersResponse.newBuilder();
+                String email = request.getEmail().getValue();
+                String pid = pidsByEmail.get(email);
+                if (pid != null) {
+                    users.addUsers(User.UserResponse.newBuilder().setPid(pid).setEmail(email));
+                }
+                return users.build();
+            });
+        }
+    }
+
+    private class FakeProductService extends ProductServiceGrpc.ProductServiceImplBase {
+
+        private final Behaviour behaviour;
+
+        FakeProductService(Behaviour behaviour) {
+            this.behaviour = behaviour;
+        }
+
+        @Override
+        public void getProductByPid(com.google.protobuf.StringValue request,
+                                    StreamObserver<Product.ProductResponse> responseObserver) {
+            answer("GetProductByPid", behaviour, responseObserver, () -> product(request.getValue()));
+        }
+
+        @Override
+        public void getProductsByPids(Product.StringsRequest request,
+                                      StreamObserver<Product.ProductsResponse> responseObserver) {
+            answer("GetProductsByPids", behaviour, responseObserver, () -> {
+                Product.ProductsResponse.Builder products = Product.ProductsResponse.newBuilder();
+                request.getRequestList().forEach(pid -> products.addProducts(product(pid)));
+                return products.build();
+            });
+        }
+
+        private Product.ProductResponse product(String pid) {
+            return Product.ProductResponse.newBuilder()
+                    .setPid(pid)
+                    .setName("Product " + pid)
+                    .setPricePerUnit(1 + Math.abs(pid.hashCode() % 10_000) / 100f)
+                    .build();
+        }
+    }
+
+    private class FakeSupplierService extends SupplierServiceGrpc.SupplierServiceImplBase {
+
+        private final Behaviour behaviour;
+
+        FakeSupplierService(Behaviour behaviour) {
+            this.behaviour = behaviour;
+        }
+
+        @Override
+        public void getSuppliersByPids(Supplier.StringsRequest request,
+                                       StreamObserver<Supplier.SuppliersResponse> responseObserver) {
+            answer("GetSuppliersByPids", behaviour, responseObserver, () -> {
+                Supplier.SuppliersResponse.Builder suppliers = Supplier.SuppliersResponse.newBuilder();
+                request.getRequestList().forEach(pid -> suppliers.addSuppliers(
+                        Supplier.SupplierResponse.newBuilder().setPid(pid).setName("Supplier " + pid)));
+                return suppliers.build();
+            });
+        }
+    }
+
+    private class FakeOrderService extends OrderServiceGrpc.OrderServiceImplBase {
+
+        private final Behaviour behaviour;
+
+        FakeOrderService(Behaviour behaviour) {
+            this.behaviour = behaviour;
+        }
+
+        @Override
+        public void createOrder(Order.CreateOrderRequest request, StreamObserver<Order.OrderResponse> responseObserver) {
+            answer("CreateOrder", behaviour, responseObserver, () -> Order.OrderResponse.newBuilder()
+                    .setPid(UUID.randomUUID().toString())
+                    .setUserPid(request.getUserPid())
+                    .setStatus(request.getStatus())
+                    .addAllProducts(request.getProductsList())
+                    .build());
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.integration.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.integration.model.ProcessedOrder;
+import com.integration.output.JsonProcessedOrderWriter;
+import com.integration.output.ProcessedOrderWriter;
+import com.integration.output.ProtobufProcessedOrderWriter;
+import com.integration.util.Compression;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to serialize a run's results: the streaming writer in both of its JSON formats and the protobuf
+ * result log against collecting the results and writing the list with a pretty-printing
+ * {@link ObjectMapper}, as the service did before the writer existed. Output is discarded so that only serialization is measured; with
+ * {@code compression} it is compressed first, and {@code compressedBytes} reports how much would have
+ * been written.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonOutputBenchmark {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    @Param({"1000", "100000", "1000000"})
+    public int rows;
+
+    @Param({"none", "gzip", "zstd"})
+    public String compression;
+
+    /**
+     * Bytes leaving the codec, per operation.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Written {
+
+        public long compressedBytes;
+    }
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private List<ProcessedOrder> processedOrders;
+
+    @Setup
+    public void generateResults() {
+        processedOrders = BenchmarkData.generateProcessedOrders(rows);
+    }
+
+    @Benchmark
+    public void streamingPrettyArray(Written written) throws IOException {
+        writeAll(false, written);
+    }
+
+    @Benchmark
+    public void streamingNdjson(Written written) throws IOException {
+        writeAll(true, written);
+    }
+
+    @Benchmark
+    public void protobufLog(Written written) throws IOException {
+        try (ProcessedOrderWriter writer = new ProtobufProcessedOrderWriter(output(written), 500, 1000)) {
+            for (ProcessedOrder processedOrder : processedOrders) {
+                writer.write(processedOrder);
+            }
+        }
+    }
+
+    @Benchmark
+    public void objectMapperList(Written written) throws IOException {
+        try (OutputStream out = output(written)) {
+            mapper.writerWithDefaultPrettyPrinter().writeValue(out, processedOrders);
+        }
+    }
+
+    private void writeAll(boolean ndjson, Written written) throws IOException {
+        try (ProcessedOrderWriter writer = new JsonProcessedOrderWriter(output(written), ndjson, 500, 1000)) {
+            for (ProcessedOrder processedOrder : processedOrders) {
+                writer.write(processedOrder);
+            }
+        }
+    }
+
+    private OutputStream output(Written written) throws IOException {
+        OutputStream counting = new FilterOutputStream(OutputStream.nullOutputStream()) {
+            @Override
+            public void write(int b) {
+                written.compressedBytes++;
+            }
+
+            @Override
+            public void write(byte[] bytes, int offset, int length) {
+                written.compressedBytes += length;
+            }
+        };
+        return new BufferedOutputStream(Compression.of(compression).compress(counting), BUFFER_SIZE);
+    }
+}
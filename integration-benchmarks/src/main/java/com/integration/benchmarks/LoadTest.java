@@ -0,0 +1,212 @@
+package com.integration.benchmarks;
+
+import com.integration.OrderIntegrationApp;
+import com.integration.service.CsvReaderService;
+import integration.IntegrationServiceGrpc;
+import io.grpc.ManagedChannel;
+import io.grpc.ManagedChannelBuilder;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import static integration.IntegrationServiceProto.*;
+
+/**
+ * Runs one {@code ProcessCsvFile} import against {@link FakeDownstreams} and reports rows per second,
+ * p50/p99 of every downstream call as seen by the service, and heap usage. The service is started in
+ * this JVM with its usual configuration, so its settings can be varied from the command line:
+ * <pre>
+ * java -cp target/benchmarks.jar com.integration.benchmarks.LoadTest \
+ *     --load.rows=100000 --load.latency-ms=5 --load.error-rate=0.01 --integration.parallelism=16
+ * </pre>
+ * Options of the harness start with {@code --load.}: {@code rows} (10000) or {@code input} (an existing
+ * file instead of a generated one), {@code latency-ms} (5), {@code jitter-ms} (2), {@code error-rate} (0)
+ * and {@code already-exists-ratio} (0). The first three can be set per fake with a {@code user.},
+ * {@code product.}, {@code supplier.} or {@code order.} prefix, e.g. {@code --load.order.latency-ms=20}. Every other
+ * {@code --key=value} argument is a property of the service.
+ * The heap figures are those of the whole JVM, fakes included; the fakes keep no more than a pid per
+ * user.
+ */
+public final class LoadTest {
+
+    private static final String OPTION_PREFIX = "--load.";
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        Map<String, String> properties = new LinkedHashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0) {
+                throw new IllegalArgumentException("Expected --key=value: " + arg);
+            }
+            if (arg.startsWith(OPTION_PREFIX)) {
+                options.put(arg.substring(OPTION_PREFIX.length(), separator), arg.substring(separator + 1));
+            } else {
+                properties.put(arg.substring(2, separator), arg.substring(separator + 1));
+            }
+        }
+
+        Path input;
+        if (options.containsKey("input")) {
+            input = Paths.get(options.get("input"));
+        } else {
+            int rows = Integer.parseInt(options.getOrDefault("rows", "10000"));
+            System.out.println("Generating " + rows + " rows");
+            input = BenchmarkData.generateCsv(rows);
+        }
+        Path output = Files.createTempFile("processed-orders-", ".json");
+        output.toFile().deleteOnExit();
+
+        try (FakeDownstreams fakes = new FakeDownstreams(behaviour(options, "user"), behaviour(options, "product"),
+                behaviour(options, "supplier"), behaviour(options, "order"), Double.parseDouble(options.getOrDefault("already-exists-ratio", "0")))) {
+            // Command-line arguments take precedence over application.yml; explicit ones over these defaults
+            Map<String, String> serviceProperties = new LinkedHashMap<>();
+            serviceProperties.put("grpc.user-service.host", "localhost");
+            serviceProperties.put("grpc.user-service.port", String.valueOf(fakes.getUserServicePort()));
+            serviceProperties.put("grpc.product-service.host", "localhost");
+            serviceProperties.put("grpc.product-service.port", String.valueOf(fakes.getProductServicePort()));
+            serviceProperties.put("grpc.supplier-service.host", "localhost");
+            serviceProperties.put("grpc.supplier-service.port", String.valueOf(fakes.getSupplierServicePort()));
+            serviceProperties.put("grpc.order-service.host", "localhost");
+            serviceProperties.put("grpc.order-service.port", String.valueOf(fakes.getOrderServicePort()));
+            serviceProperties.put("integration.output.path", output.toString());
+            serviceProperties.put("server.port", "0");
+            serviceProperties.put("management.metrics.distribution.percentiles.grpc.client.calls", "0.5,0.99");
+            serviceProperties.putAll(properties);
+            String[] serviceArgs = serviceProperties.entrySet().stream()
+                    .map(property -> "--" + property.getKey() + "=" + property.getValue())
+                    .toArray(String[]::new);
+
+            try (ConfigurableApplicationContext context =
+                         new SpringApplicationBuilder(OrderIntegrationApp.class).run(serviceArgs)) {
+                // Counted as the service counts them, so a compressed input is counted decompressed
+                long rows = context.getBean(CsvReaderService.class).countRows(input.toString());
+                run(context, fakes, input, rows);
+            }
+        }
+    }
+
+    private static void run(ConfigurableApplicationContext context, FakeDownstreams fakes, Path input, long rows) {
+        int port = context.getEnvironment().getRequiredProperty("grpc.server.port", Integer.class);
+        ManagedChannel channel = ManagedChannelBuilder.forAddress("localhost", port)
+                .usePlaintext()
+                .build();
+        try {
+            System.gc();
+            List<MemoryPoolMXBean> heapPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+                    .filter(pool -> pool.getType() == MemoryType.HEAP)
+                    .toList();
+            heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+            long heapBefore = heapUsed(heapPools);
+            long gcCountBefore = gcCount();
+            long gcMillisBefore = gcMillis();
+
+            long start = System.nanoTime();
+            String message = IntegrationServiceGrpc.newBlockingStub(channel)
+                    .processCsvFile(ProcessCsvRequest.newBuilder()
+                            .setFilePath(input.toAbsolutePath().toString())
+                            .build())
+                    .getMessage();
+            long elapsedNanos = System.nanoTime() - start;
+
+            long heapPeak = heapPools.stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+            long heapAfter = heapUsed(heapPools);
+
+            System.out.println();
+            System.out.println("Response: " + message);
+            System.out.printf("Rows: %d in %.1f s, %.0f rows/s%n", rows, elapsedNanos / 1e9,
+                    rows * 1e9 / elapsedNanos);
+            System.out.printf("Heap: %d MB before, %d MB peak, %d MB after; %d collections, %d ms in GC%n",
+                    mb(heapBefore), mb(heapPeak), mb(heapAfter), gcCount() - gcCountBefore,
+                    gcMillis() - gcMillisBefore);
+            System.out.println();
+            printCallLatencies(context.getBean(MeterRegistry.class));
+            System.out.println();
+            System.out.println("Answered by the fakes:");
+            new TreeMap<>(fakes.getCalls()).forEach((call, count) -> System.out.printf("  %-32s %d%n", call, count.get()));
+        } finally {
+            channel.shutdownNow();
+        }
+    }
+
+    private static void printCallLatencies(MeterRegistry registry) {
+        System.out.printf("%-40s %-18s %10s %10s %10s %10s%n", "call", "status", "count", "p50 ms", "p99 ms", "max ms");
+        List<Timer> timers = new ArrayList<>(registry.find("grpc.client.calls").timers());
+        timers.sort(Comparator.comparing((Timer timer) -> timer.getId().getTag("service"))
+                .thenComparing(timer -> timer.getId().getTag("method"))
+                .thenComparing(timer -> timer.getId().getTag("status")));
+        for (Timer timer : timers) {
+            HistogramSnapshot snapshot = timer.takeSnapshot();
+            System.out.printf("%-40s %-18s %10d %10.2f %10.2f %10.2f%n",
+                    timer.getId().getTag("service") + "/" + timer.getId().getTag("method"),
+                    timer.getId().getTag("status"), snapshot.count(), percentile(snapshot, 0.5),
+                    percentile(snapshot, 0.99), snapshot.max(TimeUnit.MILLISECONDS));
+        }
+        for (String name : List.of("integration.csv.parse", "integration.output.write")) {
+            Timer timer = registry.find(name).timer();
+            if (timer != null) {
+                System.out.printf("%-40s total %.0f ms over %d calls%n", name,
+                        timer.totalTime(TimeUnit.MILLISECONDS), timer.count());
+            }
+        }
+    }
+
+    private static double percentile(HistogramSnapshot snapshot, double percentile) {
+        for (ValueAtPercentile value : snapshot.percentileValues()) {
+            if (value.percentile() == percentile) {
+                return value.value(TimeUnit.MILLISECONDS);
+            }
+        }
+        return Double.NaN;
+    }
+
+    private static FakeDownstreams.Behaviour behaviour(Map<String, String> options, String service) {
+        return new FakeDownstreams.Behaviour(
+                Long.parseLong(option(options, service, "latency-ms", "5")),
+                Long.parseLong(option(options, service, "jitter-ms", "2")),
+                Double.parseDouble(option(options, service, "error-rate", "0")));
+    }
+
+    private static String option(Map<String, String> options, String service, String name, String defaultValue) {
+        return options.getOrDefault(service + "." + name, options.getOrDefault(name, defaultValue));
+    }
+
+    private static long heapUsed(List<MemoryPoolMXBean> heapPools) {
+        return heapPools.stream().mapToLong(pool -> pool.getUsage().getUsed()).sum();
+    }
+
+    private static long gcCount() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream()
+                .mapToLong(GarbageCollectorMXBean::getCollectionCount).sum();
+    }
+
+    private static long gcMillis() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream()
+                .mapToLong(GarbageCollectorMXBean::getCollectionTime).sum();
+    }
+
+    private static long mb(long bytes) {
+        return bytes / (1024 * 1024);
+    }
+}
@@ -0,0 +1,86 @@
+package com.integration.benchmarks;
+
+import com.integration.model.OrderCsv;
+import com.integration.service.OrderRequestMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import product.Product;
+
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost per row of building the user and order requests, and of the date handling inside the order
+ * request on its own: parsing {@code date_created}, and formatting the run date with a formatter
+ * built per row as the mapper does versus one built once. Run with {@code -prof gc} for the
+ * allocation per row.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RequestMappingBenchmark {
+
+    private static final DateTimeFormatter RUN_DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+
+    private final Product.ProductResponse product = Product.ProductResponse.newBuilder()
+            .setPid("d73e6795-99d3-42fb-a33c-cd0d5cd60e36")
+            .setPricePerUnit(12.5f)
+            .build();
+
+    private OrderCsv[] orders;
+
+    private int next;
+
+    @Setup
+    public void generateRows() {
+        List<OrderCsv> generated = BenchmarkData.generateOrders(1024);
+        orders = generated.toArray(new OrderCsv[0]);
+    }
+
+    private OrderCsv nextOrder() {
+        OrderCsv order = orders[next];
+        next = (next + 1) & (orders.length - 1);
+        return order;
+    }
+
+    @Benchmark
+    public Object createUserRequest() {
+        return OrderRequestMapper.createUserRequest(nextOrder());
+    }
+
+    @Benchmark
+    public Object createOrderRequest() {
+        return OrderRequestMapper.createOrderRequest(nextOrder(), "user-pid", product);
+    }
+
+    @Benchmark
+    public String parseDateCreated() {
+        return ZonedDateTime.parse(nextOrder().getDateCreated(), DateTimeFormatter.ISO_OFFSET_DATE_TIME)
+                .toLocalDate()
+                .format(RUN_DATE_FORMATTER);
+    }
+
+    @Benchmark
+    public String runDateWithFormatterPerRow() {
+        return ZonedDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd"));
+    }
+
+    @Benchmark
+    public String runDateWithSharedFormatter() {
+        return LocalDate.now().format(RUN_DATE_FORMATTER);
+    }
+}
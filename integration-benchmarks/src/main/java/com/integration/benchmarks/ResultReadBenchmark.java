@@ -0,0 +1,80 @@
+package com.integration.benchmarks;
+
+import com.integration.model.ProcessedOrder;
+import com.integration.output.JsonProcessedOrderWriter;
+import com.integration.output.ProcessedOrderReader;
+import com.integration.output.ProcessedOrderWriter;
+import com.integration.output.ProtobufProcessedOrderWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Time for a consumer to read a run's results back, from the pretty-printed JSON array and from the
+ * protobuf result log. Both are read from memory so that only parsing is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResultReadBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int rows;
+
+    private byte[] json;
+
+    private byte[] log;
+
+    @Setup
+    public void writeResults() throws IOException {
+        ByteArrayOutputStream jsonOut = new ByteArrayOutputStream();
+        ByteArrayOutputStream logOut = new ByteArrayOutputStream();
+        try (ProcessedOrderWriter jsonWriter = new JsonProcessedOrderWriter(jsonOut, false, 500, 1000);
+             ProcessedOrderWriter logWriter = new ProtobufProcessedOrderWriter(logOut, 500, 1000)) {
+            for (ProcessedOrder processedOrder : BenchmarkData.generateProcessedOrders(rows)) {
+                jsonWriter.write(processedOrder);
+                logWriter.write(processedOrder);
+            }
+        }
+        json = jsonOut.toByteArray();
+        log = logOut.toByteArray();
+    }
+
+    @Benchmark
+    public void jsonArray(Blackhole blackhole) throws IOException {
+        readAll(json, blackhole);
+    }
+
+    @Benchmark
+    public void protobufLog(Blackhole blackhole) throws IOException {
+        readAll(log, blackhole);
+    }
+
+    private static void readAll(byte[] bytes, Blackhole blackhole) throws IOException {
+        try (Stream<ProcessedOrder> processedOrders = ProcessedOrderReader.read(new ByteArrayInputStream(bytes))) {
+            Iterator<ProcessedOrder> iterator = processedOrders.iterator();
+            while (iterator.hasNext()) {
+                blackhole.consume(iterator.next());
+            }
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package com.integration.benchmarks;
+
+import com.integration.OrderImportCommand;
+import com.integration.OrderIntegrationApp;
+import integration.IntegrationServiceGrpc;
+import io.grpc.ManagedChannel;
+import io.grpc.ManagedChannelBuilder;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static integration.IntegrationServiceProto.*;
+
+/**
+ * Compares the wall time of a cron-style import through the full service boot with the one-shot
+ * {@link OrderImportCommand}. Every round launches a new JVM per mode against {@link FakeDownstreams}
+ * and reports, from the launch, when it was ready to import, when the import was done and when the
+ * process had exited:
+ * <pre>
+ * java -cp target/benchmarks.jar com.integration.benchmarks.StartupTime \
+ *     --startup.rounds=5 --startup.rows=1000 --startup.jvm-options=-Xmx512m
+ * </pre>
+ * Options of the harness start with {@code --startup.}: {@code rounds} (5), {@code rows} (1000) and
+ * {@code jvm-options} (space-separated, none). Every other {@code --key=value} argument is a property of the
+ * service in both modes.
+ */
+public final class StartupTime {
+
+    private static final String OPTION_PREFIX = "--startup.";
+
+    private static final long TIMEOUT_SECONDS = 120;
+
+    private StartupTime() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        List<String> properties = new ArrayList<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0) {
+                throw new IllegalArgumentException("Expected --key=value: " + arg);
+            }
+            if (arg.startsWith(OPTION_PREFIX)) {
+                options.put(arg.substring(OPTION_PREFIX.length(), separator), arg.substring(separator + 1));
+            } else {
+                properties.add(arg);
+            }
+        }
+        int rounds = Integer.parseInt(options.getOrDefault("rounds", "5"));
+        int rows = Integer.parseInt(options.getOrDefault("rows", "1000"));
+        List<String> jvmOptions = options.getOrDefault("jvm-options", "").isBlank() ? List.of()
+                : Arrays.asList(options.get("jvm-options").trim().split("\\s+"));
+
+        Path input = BenchmarkData.generateCsv(rows);
+        Path output = Files.createTempFile("processed-orders-", ".json");
+        output.toFile().deleteOnExit();
+
+        FakeDownstreams.Behaviour instant = new FakeDownstreams.Behaviour(0, 0, 0);
+        List<Timings> full = new ArrayList<>();
+        List<Timings> headless = new ArrayList<>();
+        try (FakeDownstreams fakes = new FakeDownstreams(instant, instant, instant, instant, 0)) {
+            List<String> serviceProperties = new ArrayList<>(List.of(
+                    "--grpc.user-service.host=localhost",
+                    "--grpc.user-service.port=" + fakes.getUserServicePort(),
+                    "--grpc.product-service.host=localhost",
+                    "--grpc.product-service.port=" + fakes.getProductServicePort(),
+                    "--grpc.supplier-service.host=localhost",
+                    "--grpc.supplier-service.port=" + fakes.getSupplierServicePort(),
+                    "--grpc.order-service.host=localhost",
+                    "--grpc.order-service.port=" + fakes.getOrderServicePort(),
+                    // Every round imports the file afresh
+                    "--integration.checkpoint.enabled=false",
+                    "--integration.output.path=" + output));
+            serviceProperties.addAll(properties);
+            for (int round = 1; round <= rounds; round++) {
+                full.add(fullBoot(jvmOptions, serviceProperties, input));
+                headless.add(oneShot(jvmOptions, serviceProperties, input, output));
+                System.out.printf("Round %d: full boot %s; one-shot %s%n", round, full.get(round - 1),
+                        headless.get(round - 1));
+            }
+        }
+
+        System.out.println();
+        System.out.printf("Median ms from launch over %d rounds of %d rows%n", rounds, rows);
+        System.out.printf("%-12s %10s %10s %10s%n", "mode", "ready", "imported", "exited");
+        print("full boot", full);
+        print("one-shot", headless);
+    }
+
+    /**
+     * The service as it runs today, asked to import over gRPC as soon as it has started and then stopped.
+     */
+    private static Timings fullBoot(List<String> jvmOptions, List<String> serviceProperties, Path input)
+            throws Exception {
+        int port = freePort();
+        List<String> arguments = new ArrayList<>(serviceProperties);
+        arguments.add("--server.port=0");
+        arguments.add("--grpc.server.port=" + port);
+        Launch launch = new Launch(OrderIntegrationApp.class, jvmOptions, arguments,
+                "Started " + OrderIntegrationApp.class.getSimpleName() + " in");
+        try {
+            long ready = launch.awaitMarker();
+            ManagedChannel channel = ManagedChannelBuilder.forAddress("localhost", port).usePlaintext().build();
+            try {
+                IntegrationServiceGrpc.newBlockingStub(channel).processCsvFile(ProcessCsvRequest.newBuilder()
+                        .setFilePath(input.toAbsolutePath().toString())
+                        .build());
+            } finally {
+                channel.shutdownNow();
+            }
+            long imported = launch.elapsedMillis();
+            launch.process.destroy();
+            return new Timings(ready, imported, launch.awaitExit());
+        } finally {
+            launch.process.destroyForcibly();
+        }
+    }
+
+    private static Timings oneShot(List<String> jvmOptions, List<String> serviceProperties, Path input, Path output)
+            throws Exception {
+        List<String> arguments = new ArrayList<>(List.of(input.toString(), output.toString()));
+        arguments.addAll(serviceProperties);
+        Launch launch = new Launch(OrderImportCommand.class, jvmOptions, arguments, "Ready to import");
+        try {
+            long ready = launch.awaitMarker();
+            long exited = launch.awaitExit();
+            if (launch.process.exitValue() != 0) {
+                throw new IllegalStateException("OrderImportCommand exited with " + launch.process.exitValue());
+            }
+            return new Timings(ready, launch.importedMillis, exited);
+        } finally {
+            launch.process.destroyForcibly();
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static void print(String mode, List<Timings> timings) {
+        System.out.printf("%-12s %10d %10d %10d%n", mode,
+                median(timings.stream().mapToLong(Timings::readyMillis).toArray()),
+                median(timings.stream().mapToLong(Timings::importedMillis).toArray()),
+                median(timings.stream().mapToLong(Timings::exitedMillis).toArray()));
+    }
+
+    private static long median(long[] values) {
+        Arrays.sort(values);
+        return values[values.length / 2];
+    }
+
+    private record Timings(long readyMillis, long importedMillis, long exitedMillis) {
+
+        @Override
+        public String toString() {
+            return "ready " + readyMillis + " ms, imported " + importedMillis + " ms, exited " + exitedMillis + " ms";
+        }
+    }
+
+    /**
+     * A JVM running {@code mainClass} on this harness's class path, whose output is echoed with a prefix
+     * and watched for the line that says the service is ready.
+     */
+    private static final class Launch {
+
+        private final long startNanos = System.nanoTime();
+
+        private final Process process;
+
+        private final Thread reader;
+
+        private final CountDownLatch ready = new CountDownLatch(1);
+
+        private volatile long readyMillis;
+
+        private volatile long importedMillis;
+
+        Launch(Class<?> mainClass, List<String> jvmOptions, List<String> arguments, String readyMarker)
+                throws IOException {
+            List<String> command = new ArrayList<>();
+            command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+            command.addAll(jvmOptions);
+            command.add("-cp");
+            command.add(System.getProperty("java.class.path"));
+            command.add(mainClass.getName());
+            command.addAll(arguments);
+            process = new ProcessBuilder(command).redirectErrorStream(true).start();
+            String prefix = "  [" + mainClass.getSimpleName() + "] ";
+            reader = new Thread(() -> {
+                try (BufferedReader lines = new BufferedReader(
+                        new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+                    String line;
+                    while ((line = lines.readLine()) != null) {
+                        if (ready.getCount() > 0 && line.contains(readyMarker)) {
+                            readyMillis = elapsedMillis();
+                            ready.countDown();
+                        } else if (line.startsWith("Imported ")) {
+                            importedMillis = elapsedMillis();
+                        }
+                        System.out.println(prefix + line);
+                    }
+                } catch (IOException e) {
+                    System.err.println(prefix + "output lost: " + e.getMessage());
+                }
+            }, "startup-time-output");
+            reader.setDaemon(true);
+            reader.start();
+        }
+
+        long elapsedMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        }
+
+        long awaitMarker() throws InterruptedException, TimeoutException {
+            while (!ready.await(100, TimeUnit.MILLISECONDS)) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException("Exited with " + process.exitValue() + " before it was ready");
+                }
+                if (elapsedMillis() > TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS)) {
+                    throw new TimeoutException("Not ready after " + TIMEOUT_SECONDS + " s");
+                }
+            }
+            return readyMillis;
+        }
+
+        long awaitExit() throws InterruptedException, TimeoutException {
+            if (!process.waitFor(TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                throw new TimeoutException("Still running after " + TIMEOUT_SECONDS + " s");
+            }
+            long exitedMillis = elapsedMillis();
+            // The last lines may still be buffered in the pipe
+            reader.join(TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS));
+            return exitedMillis;
+        }
+    }
+}
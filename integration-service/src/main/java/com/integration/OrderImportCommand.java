@@ -0,0 +1,88 @@
+package com.integration;
+
+import com.integration.config.HeadlessImportConfig;
+import com.integration.service.ImportListener;
+import com.integration.service.ImportProgress;
+import com.integration.service.IntegrationService;
+import org.springframework.boot.Banner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Imports one file and exits, for cron jobs. Only {@link HeadlessImportConfig} is started, without the
+ * web server, the gRPC server or any auto-configuration. It runs on the class path of the service:
+ * <pre>
+ * mvn package dependency:build-classpath -DskipTests -Dmdep.includeScope=runtime -Dmdep.outputFile=target/classpath.txt
+ * java -cp "target/integration-service-0.0.1-SNAPSHOT.jar:$(cat target/classpath.txt)" \
+ *     com.integration.OrderImportCommand orders.csv processed-orders.json [--key=value ...]
+ * </pre>
+ * or {@code OrderIntegrationApp import orders.csv processed-orders.json}. {@code --key=value} arguments
+ * are service properties. The exit status is 0 when every row was imported, 1 when some rows failed,
+ * 2 for wrong arguments, 3 when the import could not run and 4 when it was stopped by an {@link Error}
+ * such as running out of memory.
+ */
+public final class OrderImportCommand {
+
+    static final int IMPORTED = 0;
+
+    static final int ROWS_FAILED = 1;
+
+    static final int USAGE = 2;
+
+    static final int ERROR = 3;
+
+    static final int CRASHED = 4;
+
+    private OrderImportCommand() {
+    }
+
+    public static void main(String[] args) {
+        System.exit(run(args));
+    }
+
+    public static int run(String[] args) {
+        List<String> files = new ArrayList<>();
+        List<String> properties = new ArrayList<>();
+        for (String arg : args) {
+            (arg.startsWith("--") ? properties : files).add(arg);
+        }
+        if (files.size() != 2) {
+            System.err.println("Usage: OrderImportCommand <input> <output> [--key=value ...]");
+            return USAGE;
+        }
+        // Restarting in a new class loader only makes sense for a long-running application
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        try (ConfigurableApplicationContext context = application().run(properties.toArray(String[]::new))) {
+            System.out.println("Ready to import " + ManagementFactory.getRuntimeMXBean().getUptime()
+                    + " ms after JVM start");
+            ImportProgress progress = context.getBean(IntegrationService.class)
+                    .processCsvFile(files.get(0), files.get(1), ImportListener.NONE);
+            System.out.printf("Imported %d rows, %d failed, %d resumed in %d ms%n", progress.getSucceeded(),
+                    progress.getFailed(), progress.getRowsResumed(), progress.getElapsedMillis());
+            return progress.getFailed() == 0 ? IMPORTED : ROWS_FAILED;
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Import of " + files.get(0) + " failed: " + e);
+            return ERROR;
+        } catch (Throwable e) {
+            // Not "rows failed": a cron job must not take a crash for a partly imported file
+            System.err.println("Import of " + files.get(0) + " crashed: " + e);
+            return CRASHED;
+        }
+    }
+
+    /**
+     * The application the command starts before importing.
+     */
+    public static SpringApplication application() {
+        SpringApplication application = new SpringApplication(HeadlessImportConfig.class);
+        application.setWebApplicationType(WebApplicationType.NONE);
+        application.setBannerMode(Banner.Mode.OFF);
+        return application;
+    }
+}
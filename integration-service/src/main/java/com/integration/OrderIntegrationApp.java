@@ -1,13 +1,23 @@
 package com.integration;
 
 import org.springframework.boot.SpringApplication;
+import com.integration.service.ImportSettings;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+
+import java.util.Arrays;
 
 @SpringBootApplication(exclude = {DataSourceAutoConfiguration.class})
+@EnableConfigurationProperties(ImportSettings.class)
 public class OrderIntegrationApp {
 
 	public static void main(String[] args) {
+		// "import <input> <output>" runs one import without starting the servers, see OrderImportCommand
+		if (args.length > 0 && args[0].equals("import")) {
+			OrderImportCommand.main(Arrays.copyOfRange(args, 1, args.length));
+			return;
+		}
 		SpringApplication.run(OrderIntegrationApp.class, args);
 	}
 
@@ -0,0 +1,303 @@
+package com.integration.batch;
+
+import com.integration.grpc.OrderServiceClient;
+import com.integration.model.OrderCsv;
+import com.integration.model.ProcessedOrder;
+import com.integration.output.ProcessedOrderWriterFactory;
+import com.integration.service.CsvReaderService;
+import com.integration.service.ProductCache;
+import com.integration.service.SupplierValidator;
+import com.integration.service.UserResolver;
+import com.integration.util.Compression;
+import com.opencsv.bean.CsvBindByName;
+import io.grpc.StatusRuntimeException;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.SkipListener;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.core.configuration.support.DefaultBatchConfiguration;
+import org.springframework.batch.core.job.builder.JobBuilder;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.step.builder.StepBuilder;
+import org.springframework.batch.item.file.FlatFileItemReader;
+import org.springframework.batch.item.file.FlatFileParseException;
+import org.springframework.batch.item.file.builder.FlatFileItemReaderBuilder;
+import org.springframework.batch.item.file.transform.DelimitedLineTokenizer;
+import org.springframework.batch.item.json.JacksonJsonObjectMarshaller;
+import org.springframework.batch.item.json.JsonFileItemWriter;
+import org.springframework.batch.item.json.builder.JsonFileItemWriterBuilder;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.jdbc.datasource.init.DatabasePopulatorUtils;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.jdbc.support.JdbcTransactionManager;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.DateTimeException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * The CSV import as a Spring Batch job, enabled with {@code integration.batch.enabled}. The input is split
+ * into row ranges that are imported by partitions in parallel, each in chunks with its own restart state;
+ * rows failing with a transient downstream error are retried and rows that still fail are skipped.
+ * A final step merges the partition results into the configured output.
+ * <p>
+ * The job repository is a file-based H2 database that is deliberately not exposed as a {@link DataSource}
+ * bean, so JPA and the Boot batch auto-configuration, which would run every job at startup, stay off.
+ */
+@Configuration
+@ConditionalOnProperty(name = "integration.batch.enabled", havingValue = "true")
+public class BatchImportConfig extends DefaultBatchConfiguration implements DisposableBean {
+
+    public static final String JOB = "orderImportJob";
+    static final String PARTITION_STEP = "importPartition";
+    static final String INPUT_FILE = "input.file";
+    static final String OUTPUT_FILE = "output.file";
+
+    // Properties by upper-cased column name, bound as the other readers bind them through opencsv
+    private static final Map<String, String> PROPERTIES = Arrays.stream(OrderCsv.class.getDeclaredFields())
+            .filter(field -> field.isAnnotationPresent(CsvBindByName.class))
+            .collect(Collectors.toUnmodifiableMap(BatchImportConfig::columnName, Field::getName));
+
+    private final DataSource dataSource;
+
+    private final PlatformTransactionManager transactionManager;
+
+    private final int chunkSize;
+
+    private final int partitions;
+
+    private final int skipLimit;
+
+    private final int retryLimit;
+
+    public BatchImportConfig(@Value("${integration.batch.repository-url:jdbc:h2:file:./batch/job-repository}")
+                             String repositoryUrl,
+                             @Value("${integration.batch.chunk-size:100}") int chunkSize,
+                             @Value("${integration.batch.partitions:4}") int partitions,
+                             @Value("${integration.batch.skip-limit:1000}") int skipLimit,
+                             @Value("${integration.batch.retry-limit:3}") int retryLimit) throws SQLException {
+        this.dataSource = DataSourceBuilder.create().url(repositoryUrl).username("sa").password("").build();
+        initializeSchema(dataSource);
+        this.transactionManager = new JdbcTransactionManager(dataSource);
+        this.chunkSize = Math.max(1, chunkSize);
+        this.partitions = Math.max(1, partitions);
+        this.skipLimit = Math.max(0, skipLimit);
+        this.retryLimit = Math.max(1, retryLimit);
+    }
+
+    private static void initializeSchema(DataSource dataSource) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             ResultSet tables = connection.getMetaData().getTables(null, null, "BATCH_JOB_INSTANCE", null)) {
+            if (tables.next()) {
+                return;
+            }
+        }
+        DatabasePopulatorUtils.execute(
+                new ResourceDatabasePopulator(new ClassPathResource("org/springframework/batch/core/schema-h2.sql")),
+                dataSource);
+    }
+
+    @Override
+    protected DataSource getDataSource() {
+        return dataSource;
+    }
+
+    @Override
+    protected PlatformTransactionManager getTransactionManager() {
+        return transactionManager;
+    }
+
+    @Bean
+    public Job orderImportJob(JobRepository jobRepository, Step partitionedImportStep, Step mergeOutputStep) {
+        return new JobBuilder(JOB, jobRepository)
+                .start(partitionedImportStep)
+                .next(mergeOutputStep)
+                .build();
+    }
+
+    @Bean
+    public Step partitionedImportStep(JobRepository jobRepository, Step importPartitionStep,
+                                      RowRangePartitioner rowRangePartitioner) {
+        SimpleAsyncTaskExecutor partitionExecutor = new SimpleAsyncTaskExecutor("batch-partition-");
+        partitionExecutor.setConcurrencyLimit(partitions);
+        return new StepBuilder("partitionedImport", jobRepository)
+                .partitioner(PARTITION_STEP, rowRangePartitioner)
+                .step(importPartitionStep)
+                .gridSize(partitions)
+                .taskExecutor(partitionExecutor)
+                .build();
+    }
+
+    @Bean
+    public Step importPartitionStep(JobRepository jobRepository, FlatFileItemReader<OrderCsv> orderCsvReader,
+                                    OrderItemProcessor orderItemProcessor,
+                                    JsonFileItemWriter<ProcessedOrder> partitionOutputWriter) {
+        return new StepBuilder(PARTITION_STEP, jobRepository)
+                .<OrderCsv, ProcessedOrder>chunk(chunkSize, transactionManager)
+                .reader(orderCsvReader)
+                .processor(orderItemProcessor)
+                .writer(partitionOutputWriter)
+                .faultTolerant()
+                .processorNonTransactional()
+                .retry(TransientDownstreamException.class)
+                .retryLimit(retryLimit)
+                .skip(TransientDownstreamException.class)
+                .skip(StatusRuntimeException.class)
+                .skip(FlatFileParseException.class)
+                .skip(IllegalArgumentException.class)
+                .skip(DateTimeException.class)
+                .skipLimit(skipLimit)
+                .listener(new LoggingSkipListener())
+                .build();
+    }
+
+    @Bean
+    public Step mergeOutputStep(JobRepository jobRepository, MergePartitionOutputTasklet mergePartitionOutputTasklet) {
+        return new StepBuilder("mergeOutput", jobRepository)
+                .tasklet(mergePartitionOutputTasklet, transactionManager)
+                .build();
+    }
+
+    @Bean
+    @StepScope
+    public RowRangePartitioner rowRangePartitioner(CsvReaderService csvReaderService,
+                                                   @Value("#{jobParameters['" + INPUT_FILE + "']}") String inputPath,
+                                                   @Value("#{stepExecution}") StepExecution stepExecution)
+            throws IOException {
+        boolean compressed = Compression.detect(Path.of(inputPath)) != Compression.NONE;
+        return new RowRangePartitioner(csvReaderService.countRows(inputPath), compressed ? 1 : Integer.MAX_VALUE,
+                stepExecution.getJobExecution().getExecutionContext());
+    }
+
+    @Bean
+    @StepScope
+    public FlatFileItemReader<OrderCsv> orderCsvReader(
+            @Value("#{jobParameters['" + INPUT_FILE + "']}") String inputPath,
+            @Value("#{stepExecutionContext['" + RowRangePartitioner.START + "']}") long start,
+            @Value("#{stepExecutionContext['" + RowRangePartitioner.END + "']}") long end) {
+        DelimitedLineTokenizer tokenizer = new DelimitedLineTokenizer();
+        return new FlatFileItemReaderBuilder<OrderCsv>()
+                .name("orderCsvReader")
+                .resource(new FileSystemResource(inputPath) {
+                    // A gzip or zstd input is decompressed as it is read
+                    @Override
+                    public InputStream getInputStream() throws IOException {
+                        return Compression.openInput(getFile().toPath());
+                    }
+                })
+                .encoding(StandardCharsets.UTF_8.name())
+                .linesToSkip(1)
+                .skippedLinesCallback(header -> bindColumns(tokenizer, header, inputPath))
+                .currentItemCount(Math.toIntExact(start))
+                .maxItemCount(Math.toIntExact(end))
+                .lineTokenizer(tokenizer)
+                .targetType(OrderCsv.class)
+                .build();
+    }
+
+    /**
+     * Binds the columns the header names to their properties, in the header's order. Columns no property is
+     * bound to are ignored and absent columns stay empty, as in the other readers; a header naming none of
+     * the columns fails the step.
+     */
+    private static void bindColumns(DelimitedLineTokenizer tokenizer, String header, String inputPath) {
+        String[] columns = tokenizer.tokenize(header).getValues();
+        List<Integer> included = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < columns.length; i++) {
+            String property = PROPERTIES.get(columns[i].strip().toUpperCase(Locale.ROOT));
+            if (property != null) {
+                included.add(i);
+                names.add(property);
+            }
+        }
+        if (names.isEmpty()) {
+            throw new IllegalStateException("The header of " + inputPath + " names no order column: " + header);
+        }
+        tokenizer.setIncludedFields(included.stream().mapToInt(Integer::intValue).toArray());
+        tokenizer.setNames(names.toArray(String[]::new));
+    }
+
+    private static String columnName(Field field) {
+        String column = field.getAnnotation(CsvBindByName.class).column();
+        return (column.isEmpty() ? field.getName() : column).toUpperCase(Locale.ROOT);
+    }
+
+    @Bean
+    @StepScope
+    public OrderItemProcessor orderItemProcessor(UserResolver userResolver, SupplierValidator supplierValidator,
+                                                 ProductCache productCache, OrderServiceClient orderServiceClient) {
+        // One session per partition; a customer shared by two partitions is found by the resolver's search
+        return new OrderItemProcessor(userResolver.newSession(), supplierValidator.newSession(), productCache,
+                orderServiceClient);
+    }
+
+    @Bean
+    @StepScope
+    public JsonFileItemWriter<ProcessedOrder> partitionOutputWriter(
+            @Value("#{jobParameters['" + OUTPUT_FILE + "']}") String outputPath,
+            @Value("#{stepExecutionContext['" + RowRangePartitioner.INDEX + "']}") int partition) throws IOException {
+        Path part = MergePartitionOutputTasklet.partPath(outputPath, partition);
+        if (part.toAbsolutePath().getParent() != null) {
+            Files.createDirectories(part.toAbsolutePath().getParent());
+        }
+        return new JsonFileItemWriterBuilder<ProcessedOrder>()
+                .name("partitionOutputWriter")
+                .resource(new FileSystemResource(part))
+                .jsonObjectMarshaller(new JacksonJsonObjectMarshaller<>())
+                .build();
+    }
+
+    @Bean
+    @StepScope
+    public MergePartitionOutputTasklet mergePartitionOutputTasklet(
+            ProcessedOrderWriterFactory processedOrderWriterFactory,
+            @Value("#{jobParameters['" + OUTPUT_FILE + "']}") String outputPath) {
+        return new MergePartitionOutputTasklet(processedOrderWriterFactory, outputPath);
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        if (dataSource instanceof Closeable closeable) {
+            closeable.close();
+        }
+    }
+
+    private static class LoggingSkipListener implements SkipListener<OrderCsv, ProcessedOrder> {
+
+        @Override
+        public void onSkipInRead(Throwable t) {
+            System.err.println("Skipping unreadable row: " + t.getMessage());
+        }
+
+        @Override
+        public void onSkipInProcess(OrderCsv item, Throwable t) {
+            System.err.println("Skipping row " + item.getId() + ": " + t.getMessage());
+        }
+    }
+}
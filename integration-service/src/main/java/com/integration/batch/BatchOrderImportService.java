@@ -0,0 +1,87 @@
+package com.integration.batch;
+
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobExecutionException;
+import org.springframework.batch.core.JobInstance;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.Paths;
+
+/**
+ * Runs the batch import of a file. When the last run of the job was for the same input and output and did
+ * not complete, it is restarted with the same parameters and continues from the last committed chunk of
+ * every partition; otherwise a new run is started.
+ */
+@Service
+@ConditionalOnProperty(name = "integration.batch.enabled", havingValue = "true")
+public class BatchOrderImportService {
+
+    private static final String RUN_ID = "run.id";
+
+    private final JobLauncher jobLauncher;
+
+    private final JobExplorer jobExplorer;
+
+    private final Job orderImportJob;
+
+    public BatchOrderImportService(JobLauncher jobLauncher, JobExplorer jobExplorer, Job orderImportJob) {
+        this.jobLauncher = jobLauncher;
+        this.jobExplorer = jobExplorer;
+        this.orderImportJob = orderImportJob;
+    }
+
+    public synchronized JobExecution run(String inputPath, String outputPath) throws JobExecutionException {
+        String input = Paths.get(inputPath).toAbsolutePath().normalize().toString();
+        String output = Paths.get(outputPath).toAbsolutePath().normalize().toString();
+        return jobLauncher.run(orderImportJob, parameters(input, output));
+    }
+
+    private JobParameters parameters(String input, String output) {
+        JobInstance lastInstance = jobExplorer.getLastJobInstance(BatchImportConfig.JOB);
+        JobExecution lastExecution = lastInstance == null ? null : jobExplorer.getLastJobExecution(lastInstance);
+        if (lastExecution != null) {
+            JobParameters last = lastExecution.getJobParameters();
+            if (lastExecution.getStatus().isUnsuccessful()
+                    && input.equals(last.getString(BatchImportConfig.INPUT_FILE))
+                    && output.equals(last.getString(BatchImportConfig.OUTPUT_FILE))) {
+                return last;
+            }
+        }
+        long runId = lastExecution == null ? 1 : lastExecution.getJobParameters().getLong(RUN_ID, 0L) + 1;
+        return new JobParametersBuilder()
+                .addString(BatchImportConfig.INPUT_FILE, input)
+                .addString(BatchImportConfig.OUTPUT_FILE, output)
+                .addLong(RUN_ID, runId)
+                .toJobParameters();
+    }
+
+    /**
+     * Read, written and skipped rows summed over the partitions of an execution.
+     */
+    public static String summary(JobExecution execution) {
+        long read = 0;
+        long written = 0;
+        long skipped = 0;
+        for (StepExecution step : execution.getStepExecutions()) {
+            if (step.getStepName().startsWith(BatchImportConfig.PARTITION_STEP + ":")) {
+                read += step.getReadCount();
+                written += step.getWriteCount();
+                skipped += step.getSkipCount();
+            }
+        }
+        return execution.getStatus() + ": " + read + " rows read, " + written + " orders written, "
+                + skipped + " rows skipped";
+    }
+
+    public static boolean isCompleted(JobExecution execution) {
+        return execution.getStatus() == BatchStatus.COMPLETED;
+    }
+}
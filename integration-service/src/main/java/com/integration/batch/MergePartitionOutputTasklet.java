@@ -0,0 +1,65 @@
+package com.integration.batch;
+
+import com.integration.model.ProcessedOrder;
+import com.integration.output.ProcessedOrderReader;
+import com.integration.output.ProcessedOrderWriter;
+import com.integration.output.ProcessedOrderWriterFactory;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.step.tasklet.Tasklet;
+import org.springframework.batch.repeat.RepeatStatus;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Concatenates the per-partition result files, in partition order, into the configured output format
+ * and removes them. Partitions cover consecutive row ranges, so the output keeps the input order.
+ */
+public class MergePartitionOutputTasklet implements Tasklet {
+
+    private final ProcessedOrderWriterFactory processedOrderWriterFactory;
+
+    private final String outputPath;
+
+    public MergePartitionOutputTasklet(ProcessedOrderWriterFactory processedOrderWriterFactory, String outputPath) {
+        this.processedOrderWriterFactory = processedOrderWriterFactory;
+        this.outputPath = outputPath;
+    }
+
+    static Path partPath(String outputPath, int partition) {
+        return Paths.get(outputPath + ".part-" + partition);
+    }
+
+    @Override
+    public RepeatStatus execute(StepContribution contribution, ChunkContext chunkContext) throws IOException {
+        // Taken from the job rather than the directory, so leftovers of an earlier run are ignored
+        int partitions = chunkContext.getStepContext().getStepExecution().getJobExecution().getExecutionContext()
+                .getInt(RowRangePartitioner.PARTITIONS, 0);
+        List<Path> parts = new ArrayList<>();
+        for (int partition = 0; partition < partitions; partition++) {
+            parts.add(partPath(outputPath, partition));
+        }
+        try (ProcessedOrderWriter writer = processedOrderWriterFactory.open(outputPath)) {
+            for (Path part : parts) {
+                try (Stream<ProcessedOrder> processedOrders = ProcessedOrderReader.read(part)) {
+                    Iterator<ProcessedOrder> iterator = processedOrders.iterator();
+                    while (iterator.hasNext()) {
+                        writer.write(iterator.next());
+                        contribution.incrementWriteCount(1);
+                    }
+                }
+            }
+        }
+        for (Path part : parts) {
+            Files.delete(part);
+        }
+        return RepeatStatus.FINISHED;
+    }
+}
@@ -0,0 +1,70 @@
+package com.integration.batch;
+
+import com.integration.grpc.OrderServiceClient;
+import com.integration.model.OrderCsv;
+import com.integration.model.ProcessedOrder;
+import com.integration.service.OrderValidator;
+import com.integration.service.ProductCache;
+import com.integration.service.SupplierValidator;
+import com.integration.service.UserResolver;
+import io.grpc.StatusRuntimeException;
+import org.springframework.batch.item.ItemProcessor;
+import product.Product;
+
+import java.util.List;
+
+import static com.integration.service.OrderRequestMapper.createOrderRequest;
+import static com.integration.service.OrderRequestMapper.createUserRequest;
+
+/**
+ * Resolves the user, looks up the product and creates the order of a row. Orders are created here rather
+ * than in the writer: the step is configured with a non-transactional processor, so when a chunk is rolled
+ * back and scanned item by item, rows that already have an order are not sent again.
+ * A row that fails {@link OrderValidator} or whose supplier does not exist is rejected with an
+ * {@link IllegalArgumentException}, which the step skips, before its user is created. A row whose order
+ * call timed out or lost its connection is skipped rather than retried, since the order may exist.
+ */
+public class OrderItemProcessor implements ItemProcessor<OrderCsv, ProcessedOrder> {
+
+    private final UserResolver.Session users;
+
+    private final SupplierValidator.Session suppliers;
+
+    private final ProductCache productCache;
+
+    private final OrderServiceClient orderServiceClient;
+
+    public OrderItemProcessor(UserResolver.Session users, SupplierValidator.Session suppliers,
+                              ProductCache productCache, OrderServiceClient orderServiceClient) {
+        this.users = users;
+        this.suppliers = suppliers;
+        this.productCache = productCache;
+        this.orderServiceClient = orderServiceClient;
+    }
+
+    @Override
+    public ProcessedOrder process(OrderCsv order) {
+        List<String> problems = OrderValidator.validate(order);
+        if (!problems.isEmpty()) {
+            throw new IllegalArgumentException(String.join("; ", problems));
+        }
+        String userPid;
+        Product.ProductResponse product;
+        try {
+            if (!suppliers.isKnown(order.getSupplierPid())) {
+                throw new IllegalArgumentException(SupplierValidator.rejection(order.getSupplierPid()));
+            }
+            // A retried row finds its user in the session, so only the failed call is repeated
+            userPid = users.resolve(createUserRequest(order));
+            product = productCache.get(order.getProductPid());
+        } catch (StatusRuntimeException e) {
+            throw TransientDownstreamException.classify(e);
+        }
+        try {
+            String orderPid = orderServiceClient.createOrder(createOrderRequest(order, userPid, product)).getPid();
+            return new ProcessedOrder(userPid, orderPid, order.getSupplierPid());
+        } catch (StatusRuntimeException e) {
+            throw TransientDownstreamException.classifyCreate(e);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.integration.batch;
+
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.item.ExecutionContext;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Splits the rows of the input into contiguous ranges, one per partition. Each partition reader skips
+ * to the start of its range and stops at its end; its position is saved per chunk, so a restarted
+ * partition continues from its last committed chunk.
+ * A compressed input is not split: every partition would decompress the file up to its range.
+ */
+public class RowRangePartitioner implements Partitioner {
+
+    static final String PARTITIONS = "partitions";
+    static final String INDEX = "partition.index";
+    static final String START = "partition.start";
+    static final String END = "partition.end";
+
+    private final long rows;
+
+    private final int maxPartitions;
+
+    private final ExecutionContext jobContext;
+
+    /**
+     * @param jobContext receives the number of partitions, for the step that merges their output
+     */
+    public RowRangePartitioner(long rows, ExecutionContext jobContext) {
+        this(rows, Integer.MAX_VALUE, jobContext);
+    }
+
+    public RowRangePartitioner(long rows, int maxPartitions, ExecutionContext jobContext) {
+        this.rows = rows;
+        this.maxPartitions = Math.max(1, maxPartitions);
+        this.jobContext = jobContext;
+    }
+
+    @Override
+    public Map<String, ExecutionContext> partition(int gridSize) {
+        int partitions = (int) Math.max(1, Math.min(Math.min(gridSize, maxPartitions), rows));
+        long size = (rows + partitions - 1) / partitions;
+        Map<String, ExecutionContext> contexts = new HashMap<>();
+        for (int i = 0; i < partitions; i++) {
+            ExecutionContext context = new ExecutionContext();
+            context.putInt(INDEX, i);
+            context.putLong(START, Math.min(rows, i * size));
+            context.putLong(END, Math.min(rows, (i + 1) * size));
+            contexts.put("partition" + i, context);
+        }
+        jobContext.putInt(PARTITIONS, partitions);
+        return contexts;
+    }
+}
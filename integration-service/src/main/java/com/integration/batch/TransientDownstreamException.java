@@ -0,0 +1,36 @@
+package com.integration.batch;
+
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * A downstream failure worth retrying. The batch step retries items by exception type, so transient
+ * gRPC statuses are wrapped in this type while permanent ones are left as they are and skipped.
+ * A call that creates something is only retried when the service refused it: after a timeout or a
+ * dropped connection it may have been applied, and retrying the row would create it twice.
+ */
+public class TransientDownstreamException extends RuntimeException {
+
+    private static final Set<Status.Code> TRANSIENT_CODES =
+            EnumSet.of(Status.Code.UNAVAILABLE, Status.Code.DEADLINE_EXCEEDED, Status.Code.RESOURCE_EXHAUSTED);
+
+    private static final Set<Status.Code> REFUSED_CODES = EnumSet.of(Status.Code.RESOURCE_EXHAUSTED);
+
+    public TransientDownstreamException(StatusRuntimeException cause) {
+        super(cause.getMessage(), cause);
+    }
+
+    static RuntimeException classify(StatusRuntimeException e) {
+        return TRANSIENT_CODES.contains(e.getStatus().getCode()) ? new TransientDownstreamException(e) : e;
+    }
+
+    /**
+     * Like {@link #classify} for a call that is not idempotent, such as creating an order.
+     */
+    static RuntimeException classifyCreate(StatusRuntimeException e) {
+        return REFUSED_CODES.contains(e.getStatus().getCode()) ? new TransientDownstreamException(e) : e;
+    }
+}
@@ -1,11 +1,15 @@
 package com.integration.config;
 
+import com.integration.grpc.TracingServerInterceptor;
 import com.integration.service.IntegrationService;
 import com.integration.service.IntegrationServiceImpl;
 import io.grpc.Server;
 import io.grpc.ServerBuilder;
+import io.grpc.ServerInterceptors;
 import io.grpc.protobuf.services.ProtoReflectionService;
+import io.opentelemetry.api.OpenTelemetry;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 import user.UserServiceGrpc;
 
@@ -18,21 +22,29 @@ public class GrpcServerConfig {
 
     private final IntegrationServiceImpl integrationServiceImpl;
 
+    private final OpenTelemetry openTelemetry;
+
+    private final int port;
+
     private Server server;
 
-    public GrpcServerConfig(IntegrationServiceImpl integrationServiceImpl) {
+    public GrpcServerConfig(IntegrationServiceImpl integrationServiceImpl, OpenTelemetry openTelemetry,
+                            @Value("${grpc.server.port:6565}") int port) {
         this.integrationServiceImpl = integrationServiceImpl;
+        this.openTelemetry = openTelemetry;
+        this.port = port;
 
     }
 
     @PostConstruct
     public void startServer() throws IOException {
-        server = ServerBuilder.forPort(6565)
-                .addService(integrationServiceImpl)
+        server = ServerBuilder.forPort(port)
+                .addService(ServerInterceptors.intercept(integrationServiceImpl,
+                        new TracingServerInterceptor(openTelemetry)))
                 .addService(ProtoReflectionService.newInstance())
                 .build()
                 .start();
-        System.out.println("gRPC server started on port 6565");
+        System.out.println("gRPC server started on port " + server.getPort());
 
         // Add a shutdown hook to stop the server gracefully
         Runtime.getRuntime().addShutdownHook(new Thread(() -> {
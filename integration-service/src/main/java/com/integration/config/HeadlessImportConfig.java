@@ -0,0 +1,47 @@
+package com.integration.config;
+
+import com.integration.grpc.GrpcChannelFactory;
+import com.integration.grpc.OrderServiceClient;
+import com.integration.grpc.ProductServiceClient;
+import com.integration.grpc.SupplierServiceClient;
+import com.integration.grpc.UserServiceClient;
+import com.integration.output.ProcessedOrderWriterFactory;
+import com.integration.service.CsvReaderService;
+import com.integration.service.ImportCheckpointStore;
+import com.integration.service.ImportMetrics;
+import com.integration.service.ImportSettings;
+import com.integration.service.IntegrationService;
+import com.integration.service.ProductCache;
+import com.integration.service.SupplierValidator;
+import com.integration.service.UserResolver;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.support.PropertySourcesPlaceholderConfigurer;
+
+/**
+ * The beans of a one-shot import and nothing else: no component scan and no auto-configuration, so
+ * there is no web server, gRPC server, JPA, batch or actuator. Settings still come from application.yml
+ * and the command line.
+ */
+@Configuration(proxyBeanMethods = false)
+@Import({TracingConfig.class, GrpcChannelFactory.class, UserServiceClient.class, OrderServiceClient.class,
+        ProductServiceClient.class, SupplierServiceClient.class, CsvReaderService.class, UserResolver.class,
+        ProductCache.class, SupplierValidator.class, ProcessedOrderWriterFactory.class,
+        ImportCheckpointStore.class, ImportMetrics.class, IntegrationService.class})
+@EnableConfigurationProperties(ImportSettings.class)
+public class HeadlessImportConfig {
+
+    @Bean
+    public static PropertySourcesPlaceholderConfigurer propertySourcesPlaceholderConfigurer() {
+        return new PropertySourcesPlaceholderConfigurer();
+    }
+
+    @Bean
+    public MeterRegistry meterRegistry() {
+        return new SimpleMeterRegistry();
+    }
+}
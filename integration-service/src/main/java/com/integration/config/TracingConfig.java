@@ -0,0 +1,51 @@
+package com.integration.config;
+
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.api.trace.propagation.W3CTraceContextPropagator;
+import io.opentelemetry.context.propagation.ContextPropagators;
+import io.opentelemetry.exporter.otlp.trace.OtlpGrpcSpanExporter;
+import io.opentelemetry.sdk.OpenTelemetrySdk;
+import io.opentelemetry.sdk.resources.Resource;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.SdkTracerProviderBuilder;
+import io.opentelemetry.sdk.trace.export.BatchSpanProcessor;
+import io.opentelemetry.sdk.trace.samplers.Sampler;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Tracing of gRPC calls and import rows. Spans are only exported when
+ * {@code integration.tracing.otlp-endpoint} is set, e.g. to the OTLP port of the Jaeger container;
+ * without it they are still created, so trace context keeps being passed on to downstream services.
+ */
+@Configuration
+public class TracingConfig {
+
+    @Bean(destroyMethod = "close")
+    public OpenTelemetrySdk openTelemetry(@Value("${spring.application.name}") String serviceName,
+                                          @Value("${integration.tracing.otlp-endpoint:}") String otlpEndpoint,
+                                          @Value("${integration.tracing.sample-ratio:1.0}") double sampleRatio) {
+        SdkTracerProviderBuilder tracerProvider = SdkTracerProvider.builder()
+                .setResource(Resource.getDefault().merge(
+                        Resource.create(Attributes.of(AttributeKey.stringKey("service.name"), serviceName))))
+                .setSampler(Sampler.parentBased(Sampler.traceIdRatioBased(sampleRatio)));
+        if (!otlpEndpoint.isEmpty()) {
+            tracerProvider.addSpanProcessor(BatchSpanProcessor.builder(
+                    OtlpGrpcSpanExporter.builder().setEndpoint(otlpEndpoint).build()).build());
+            System.out.println("Exporting traces to " + otlpEndpoint);
+        }
+        return OpenTelemetrySdk.builder()
+                .setTracerProvider(tracerProvider.build())
+                .setPropagators(ContextPropagators.create(W3CTraceContextPropagator.getInstance()))
+                .build();
+    }
+
+    @Bean
+    public Tracer tracer(OpenTelemetry openTelemetry) {
+        return openTelemetry.getTracer("com.integration.service");
+    }
+}
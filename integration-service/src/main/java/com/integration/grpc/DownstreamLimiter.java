@@ -0,0 +1,324 @@
+package com.integration.grpc;
+
+import io.grpc.Status;
+import io.opentelemetry.context.Context;
+
+import java.util.ArrayDeque;
+import java.util.EnumSet;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Caps the number of calls in flight towards a single downstream service,
+ * so a parallel import cannot open more concurrent requests than the service is sized for.
+ * Blocking calls wait for a permit; asynchronous calls are queued and started as permits free up,
+ * so no thread is parked on their behalf. A queued call starts in the trace context it was queued in.
+ * <p>
+ * The cap adapts to the service (additive increase, multiplicative decrease): it grows by about one
+ * call per round trip while calls succeed within {@code latencyTolerance} times the usual latency, and
+ * shrinks by {@code backoffRatio} when a call is rejected ({@code RESOURCE_EXHAUSTED}, {@code UNAVAILABLE}),
+ * times out or takes longer than that. It never leaves {@code [minLimit, maxConcurrentCalls]}, and
+ * shrinks at most once for the calls that were in flight together, so one slow burst does not collapse it.
+ * Calls rejected with {@code RESOURCE_EXHAUSTED} or {@code UNAVAILABLE} are retried after an exponential
+ * backoff with full jitter, without holding a permit meanwhile. That is only safe for reads: a call that
+ * creates something goes through {@link #callCreate} or {@link #callCreateAsync}, which retry
+ * {@code RESOURCE_EXHAUSTED} only, because the service refused it before doing anything, whereas an
+ * {@code UNAVAILABLE} call may have been applied before its answer was lost.
+ */
+public class DownstreamLimiter {
+
+    /**
+     * Settings shared by the limiters of all downstream services.
+     *
+     * @param initialLimit         calls allowed in flight before anything has been observed
+     * @param minLimit             the cap never shrinks below this
+     * @param latencyTolerance     a call slower than this multiple of the usual latency counts as overload
+     * @param backoffRatio         factor the cap is multiplied with on overload
+     * @param maxAttempts          attempts per call, the first included, for retryable codes
+     * @param initialBackoffMillis upper bound of the first random backoff, doubled per attempt
+     * @param maxBackoffMillis     upper bound of any backoff
+     */
+    public record Settings(int initialLimit, int minLimit, double latencyTolerance, double backoffRatio,
+                           int maxAttempts, long initialBackoffMillis, long maxBackoffMillis) {
+
+        public static final Settings DEFAULTS = new Settings(4, 1, 2.0, 0.7, 3, 50, 2000);
+    }
+
+    // Samples after which the usual latency is taken from the latest window only, so it follows the service
+    private static final int LATENCY_WINDOW = 1000;
+
+    private static final Set<Status.Code> RETRYABLE_CODES =
+            EnumSet.of(Status.Code.RESOURCE_EXHAUSTED, Status.Code.UNAVAILABLE);
+
+    // Codes by which the service says it did not act on the call
+    private static final Set<Status.Code> REFUSED_CODES = EnumSet.of(Status.Code.RESOURCE_EXHAUSTED);
+
+    private final String name;
+
+    private final int minLimit;
+
+    private final int maxLimit;
+
+    private final Settings settings;
+
+    private final Object lock = new Object();
+
+    private final Queue<Runnable> waiting = new ArrayDeque<>();
+
+    private final AtomicLong retries = new AtomicLong();
+
+    private double limit;
+
+    private int inFlight;
+
+    private long baselineLatencyNanos = Long.MAX_VALUE;
+
+    private long windowMinLatencyNanos = Long.MAX_VALUE;
+
+    private int windowSamples;
+
+    private long lastDecreaseNanos = System.nanoTime();
+
+    public DownstreamLimiter(String name, int maxConcurrentCalls) {
+        this(name, maxConcurrentCalls, Settings.DEFAULTS);
+    }
+
+    public DownstreamLimiter(String name, int maxConcurrentCalls, Settings settings) {
+        if (maxConcurrentCalls < 1) {
+            throw new IllegalArgumentException("max-concurrent-calls for " + name + " must be at least 1");
+        }
+        if (settings.minLimit() < 1 || settings.backoffRatio() <= 0 || settings.backoffRatio() >= 1
+                || settings.latencyTolerance() < 1 || settings.maxAttempts() < 1) {
+            throw new IllegalArgumentException("Invalid limiter settings for " + name + ": " + settings);
+        }
+        this.name = name;
+        this.minLimit = Math.min(settings.minLimit(), maxConcurrentCalls);
+        this.maxLimit = maxConcurrentCalls;
+        this.settings = settings;
+        this.limit = clamp(settings.initialLimit());
+    }
+
+    /**
+     * Makes an idempotent call, such as a read.
+     */
+    public <T> T call(Supplier<T> call) {
+        return call(call, RETRYABLE_CODES);
+    }
+
+    /**
+     * Makes a call that is not idempotent, such as creating an order.
+     */
+    public <T> T callCreate(Supplier<T> call) {
+        return call(call, REFUSED_CODES);
+    }
+
+    /**
+     * Makes an idempotent call, such as a read, once a permit is free.
+     */
+    public <T> CompletableFuture<T> callAsync(Supplier<CompletableFuture<T>> call) {
+        return callAsync(call, RETRYABLE_CODES);
+    }
+
+    /**
+     * Makes a call that is not idempotent, such as creating an order, once a permit is free.
+     */
+    public <T> CompletableFuture<T> callCreateAsync(Supplier<CompletableFuture<T>> call) {
+        return callAsync(call, REFUSED_CODES);
+    }
+
+    private <T> T call(Supplier<T> call, Set<Status.Code> retryableCodes) {
+        for (int attempt = 1; ; attempt++) {
+            acquire();
+            long start = System.nanoTime();
+            T value;
+            try {
+                value = call.get();
+            } catch (RuntimeException e) {
+                release(start, e);
+                if (!shouldRetry(e, attempt, retryableCodes)) {
+                    throw e;
+                }
+                sleep(backoffMillis(attempt));
+                continue;
+            }
+            release(start, null);
+            return value;
+        }
+    }
+
+    private <T> CompletableFuture<T> callAsync(Supplier<CompletableFuture<T>> call, Set<Status.Code> retryableCodes) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Context context = Context.current();
+        enqueue(context.wrap(() -> attempt(call, retryableCodes, result, context, 1)));
+        return result;
+    }
+
+    private <T> void attempt(Supplier<CompletableFuture<T>> call, Set<Status.Code> retryableCodes,
+                             CompletableFuture<T> result, Context context, int attempt) {
+        long start = System.nanoTime();
+        CompletableFuture<T> started;
+        try {
+            started = call.get();
+        } catch (RuntimeException e) {
+            started = CompletableFuture.failedFuture(e);
+        }
+        started.whenComplete((value, error) -> {
+            Throwable failure = error == null ? null : GrpcFutures.unwrap(error);
+            release(start, failure);
+            if (failure == null) {
+                result.complete(value);
+            } else if (shouldRetry(failure, attempt, retryableCodes)) {
+                CompletableFuture.delayedExecutor(backoffMillis(attempt), TimeUnit.MILLISECONDS).execute(() ->
+                        enqueue(context.wrap(() -> attempt(call, retryableCodes, result, context, attempt + 1))));
+            } else {
+                result.completeExceptionally(failure);
+            }
+        });
+    }
+
+    private void acquire() {
+        synchronized (lock) {
+            // Queued asynchronous calls were first
+            while (inFlight >= (int) limit || !waiting.isEmpty()) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while waiting for a " + name + " permit", e);
+                }
+            }
+            inFlight++;
+        }
+    }
+
+    private void enqueue(Runnable call) {
+        synchronized (lock) {
+            waiting.add(call);
+        }
+        startWaiting();
+    }
+
+    private void release(long startNanos, Throwable failure) {
+        synchronized (lock) {
+            adjustLimit(startNanos, System.nanoTime(), failure);
+            inFlight--;
+            lock.notifyAll();
+        }
+        startWaiting();
+    }
+
+    private void startWaiting() {
+        while (true) {
+            Runnable next;
+            synchronized (lock) {
+                if (waiting.isEmpty() || inFlight >= (int) limit) {
+                    return;
+                }
+                next = waiting.poll();
+                inFlight++;
+                if (waiting.isEmpty()) {
+                    lock.notifyAll();
+                }
+            }
+            next.run();
+        }
+    }
+
+    /**
+     * Called with the lock held, before the finished call leaves {@link #inFlight}.
+     */
+    private void adjustLimit(long startNanos, long endNanos, Throwable failure) {
+        long latencyNanos = endNanos - startNanos;
+        boolean overloaded;
+        if (failure != null) {
+            Status.Code code = Status.fromThrowable(failure).getCode();
+            overloaded = code == Status.Code.RESOURCE_EXHAUSTED || code == Status.Code.UNAVAILABLE
+                    || code == Status.Code.DEADLINE_EXCEEDED;
+            if (!overloaded) {
+                // The service answered; an application error says nothing about its load
+                return;
+            }
+        } else {
+            recordLatency(latencyNanos);
+            overloaded = latencyNanos > baselineLatencyNanos * settings.latencyTolerance();
+        }
+        if (overloaded) {
+            // Calls started before the last decrease saw the old limit and do not shrink it again
+            if (startNanos - lastDecreaseNanos > 0) {
+                limit = clamp(limit * settings.backoffRatio());
+                lastDecreaseNanos = endNanos;
+            }
+        } else if (inFlight * 2 >= (int) limit) {
+            // Only grow while the limit is actually used
+            limit = clamp(limit + 1 / limit);
+        }
+    }
+
+    private void recordLatency(long latencyNanos) {
+        windowMinLatencyNanos = Math.min(windowMinLatencyNanos, latencyNanos);
+        baselineLatencyNanos = Math.min(baselineLatencyNanos, latencyNanos);
+        if (++windowSamples == LATENCY_WINDOW) {
+            baselineLatencyNanos = windowMinLatencyNanos;
+            windowMinLatencyNanos = Long.MAX_VALUE;
+            windowSamples = 0;
+        }
+    }
+
+    private boolean shouldRetry(Throwable failure, int attempt, Set<Status.Code> retryableCodes) {
+        if (attempt >= settings.maxAttempts()
+                || !retryableCodes.contains(Status.fromThrowable(failure).getCode())) {
+            return false;
+        }
+        retries.incrementAndGet();
+        return true;
+    }
+
+    private long backoffMillis(int attempt) {
+        long bound = Math.min(settings.maxBackoffMillis(), settings.initialBackoffMillis() << Math.min(attempt - 1, 20));
+        return bound > 0 ? ThreadLocalRandom.current().nextLong(bound + 1) : 0;
+    }
+
+    private void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while backing off from " + name, e);
+        }
+    }
+
+    private double clamp(double value) {
+        return Math.max(minLimit, Math.min(maxLimit, value));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Calls currently allowed in flight.
+     */
+    public int getLimit() {
+        synchronized (lock) {
+            return (int) limit;
+        }
+    }
+
+    public int getInFlight() {
+        synchronized (lock) {
+            return inFlight;
+        }
+    }
+
+    /**
+     * Attempts repeated after a retryable failure so far.
+     */
+    public long getRetries() {
+        return retries.get();
+    }
+}
@@ -0,0 +1,167 @@
+package com.integration.grpc;
+
+import io.grpc.Channel;
+import io.grpc.ClientInterceptor;
+import io.grpc.ClientInterceptors;
+import io.grpc.ManagedChannel;
+import io.grpc.netty.shaded.io.grpc.netty.NettyChannelBuilder;
+import io.grpc.netty.shaded.io.netty.channel.EventLoopGroup;
+import io.grpc.netty.shaded.io.netty.channel.nio.NioEventLoopGroup;
+import io.grpc.netty.shaded.io.netty.channel.socket.nio.NioSocketChannel;
+import io.grpc.netty.shaded.io.netty.util.concurrent.DefaultThreadFactory;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.opentelemetry.api.OpenTelemetry;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Builds the channels of all downstream clients from the {@code grpc.channel} settings.
+ * The channels share one Netty event loop and one callback executor, and are shut down
+ * together when the Spring context closes. Every channel records call metrics through
+ * {@link MetricsClientInterceptor} and a span per call through {@link TracingClientInterceptor}.
+ * Limiters are built from the {@code grpc.limiter} settings, and publish their current limit,
+ * calls in flight and retries.
+ */
+@Component
+public class GrpcChannelFactory implements DisposableBean {
+
+    private final int subChannels;
+
+    private final long keepAliveTimeMillis;
+
+    private final long keepAliveTimeoutMillis;
+
+    private final boolean keepAliveWithoutCalls;
+
+    private final long idleTimeoutMillis;
+
+    private final int maxInboundMessageSize;
+
+    private final long shutdownTimeoutMillis;
+
+    private final EventLoopGroup eventLoopGroup;
+
+    private final ExecutorService executor;
+
+    private final ClientInterceptor metricsInterceptor;
+
+    private final ClientInterceptor tracingInterceptor;
+
+    private final MeterRegistry meterRegistry;
+
+    private final DownstreamLimiter.Settings limiterSettings;
+
+    private final List<ManagedChannel> channels = new CopyOnWriteArrayList<>();
+
+    public GrpcChannelFactory(MeterRegistry meterRegistry, OpenTelemetry openTelemetry,
+                              @Value("${grpc.channel.sub-channels:2}") int subChannels,
+                              @Value("${grpc.channel.keep-alive-time-ms:30000}") long keepAliveTimeMillis,
+                              @Value("${grpc.channel.keep-alive-timeout-ms:10000}") long keepAliveTimeoutMillis,
+                              @Value("${grpc.channel.keep-alive-without-calls:false}") boolean keepAliveWithoutCalls,
+                              @Value("${grpc.channel.idle-timeout-ms:300000}") long idleTimeoutMillis,
+                              @Value("${grpc.channel.max-inbound-message-size:16777216}") int maxInboundMessageSize,
+                              @Value("${grpc.channel.event-loop-threads:0}") int eventLoopThreads,
+                              @Value("${grpc.channel.executor-threads:0}") int executorThreads,
+                              @Value("${grpc.channel.shutdown-timeout-ms:5000}") long shutdownTimeoutMillis,
+                              @Value("${grpc.limiter.initial-limit:4}") int limiterInitialLimit,
+                              @Value("${grpc.limiter.min-limit:1}") int limiterMinLimit,
+                              @Value("${grpc.limiter.latency-tolerance:2.0}") double limiterLatencyTolerance,
+                              @Value("${grpc.limiter.backoff-ratio:0.7}") double limiterBackoffRatio,
+                              @Value("${grpc.limiter.max-attempts:3}") int limiterMaxAttempts,
+                              @Value("${grpc.limiter.initial-backoff-ms:50}") long limiterInitialBackoffMillis,
+                              @Value("${grpc.limiter.max-backoff-ms:2000}") long limiterMaxBackoffMillis) {
+        int cores = Runtime.getRuntime().availableProcessors();
+        this.subChannels = Math.max(1, subChannels);
+        this.keepAliveTimeMillis = keepAliveTimeMillis;
+        this.keepAliveTimeoutMillis = keepAliveTimeoutMillis;
+        this.keepAliveWithoutCalls = keepAliveWithoutCalls;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.maxInboundMessageSize = maxInboundMessageSize;
+        this.shutdownTimeoutMillis = shutdownTimeoutMillis;
+        this.eventLoopGroup = new NioEventLoopGroup(eventLoopThreads > 0 ? eventLoopThreads : cores,
+                new DefaultThreadFactory("grpc-client-event-loop", true));
+        this.executor = Executors.newFixedThreadPool(executorThreads > 0 ? executorThreads : cores * 2,
+                daemonThreadFactory("grpc-client-executor-"));
+        this.metricsInterceptor = new MetricsClientInterceptor(meterRegistry);
+        this.tracingInterceptor = new TracingClientInterceptor(openTelemetry);
+        this.meterRegistry = meterRegistry;
+        this.limiterSettings = new DownstreamLimiter.Settings(limiterInitialLimit, limiterMinLimit,
+                limiterLatencyTolerance, limiterBackoffRatio, limiterMaxAttempts, limiterInitialBackoffMillis,
+                limiterMaxBackoffMillis);
+    }
+
+    public DownstreamLimiter createLimiter(String service, int maxConcurrentCalls) {
+        DownstreamLimiter limiter = new DownstreamLimiter(service, maxConcurrentCalls, limiterSettings);
+        Gauge.builder("grpc.client.limit", limiter, DownstreamLimiter::getLimit)
+                .description("Calls currently allowed in flight towards a downstream service")
+                .tag("service", service)
+                .register(meterRegistry);
+        Gauge.builder("grpc.client.in.flight", limiter, DownstreamLimiter::getInFlight)
+                .description("Calls in flight towards a downstream service")
+                .tag("service", service)
+                .register(meterRegistry);
+        FunctionCounter.builder("grpc.client.retries", limiter, DownstreamLimiter::getRetries)
+                .description("Calls repeated after RESOURCE_EXHAUSTED or UNAVAILABLE")
+                .tag("service", service)
+                .register(meterRegistry);
+        return limiter;
+    }
+
+    public Channel createChannel(String host, int port) {
+        List<ManagedChannel> targetChannels = new ArrayList<>(subChannels);
+        for (int i = 0; i < subChannels; i++) {
+            ManagedChannel channel = NettyChannelBuilder.forAddress(host, port)
+                    .eventLoopGroup(eventLoopGroup)
+                    .channelType(NioSocketChannel.class)
+                    .executor(executor)
+                    .keepAliveTime(keepAliveTimeMillis, TimeUnit.MILLISECONDS)
+                    .keepAliveTimeout(keepAliveTimeoutMillis, TimeUnit.MILLISECONDS)
+                    .keepAliveWithoutCalls(keepAliveWithoutCalls)
+                    .idleTimeout(idleTimeoutMillis, TimeUnit.MILLISECONDS)
+                    .maxInboundMessageSize(maxInboundMessageSize)
+                    .usePlaintext()
+                    .build();
+            targetChannels.add(channel);
+            channels.add(channel);
+        }
+        Channel channel = targetChannels.size() == 1 ? targetChannels.get(0) : new RoundRobinChannel(targetChannels);
+        return ClientInterceptors.intercept(channel, metricsInterceptor, tracingInterceptor);
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        for (ManagedChannel channel : channels) {
+            channel.shutdown();
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(shutdownTimeoutMillis);
+        for (ManagedChannel channel : channels) {
+            long remaining = deadline - System.nanoTime();
+            if (!channel.awaitTermination(Math.max(0, remaining), TimeUnit.NANOSECONDS)) {
+                channel.shutdownNow();
+            }
+        }
+        executor.shutdown();
+        eventLoopGroup.shutdownGracefully(0, shutdownTimeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private static ThreadFactory daemonThreadFactory(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,61 @@
+package com.integration.grpc;
+
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanBuilder;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.propagation.TextMapGetter;
+import io.opentelemetry.context.propagation.TextMapSetter;
+
+/**
+ * What the client and server interceptors share: carrying trace context in gRPC metadata
+ * and naming, tagging and ending RPC spans the same way on both sides.
+ */
+final class GrpcTracing {
+
+    static final TextMapSetter<Metadata> SETTER = (headers, key, value) -> {
+        if (headers != null) {
+            headers.put(Metadata.Key.of(key, Metadata.ASCII_STRING_MARSHALLER), value);
+        }
+    };
+
+    static final TextMapGetter<Metadata> GETTER = new TextMapGetter<>() {
+        @Override
+        public Iterable<String> keys(Metadata headers) {
+            return headers.keys();
+        }
+
+        @Override
+        public String get(Metadata headers, String key) {
+            return headers == null ? null : headers.get(Metadata.Key.of(key, Metadata.ASCII_STRING_MARSHALLER));
+        }
+    };
+
+    static final String INSTRUMENTATION_NAME = "com.integration.grpc";
+
+    private GrpcTracing() {
+    }
+
+    static SpanBuilder spanBuilder(Tracer tracer, MethodDescriptor<?, ?> method, SpanKind kind) {
+        return tracer.spanBuilder(method.getFullMethodName())
+                .setSpanKind(kind)
+                .setAttribute("rpc.system", "grpc")
+                .setAttribute("rpc.service", method.getServiceName())
+                .setAttribute("rpc.method", method.getBareMethodName());
+    }
+
+    static void end(Span span, Status status) {
+        span.setAttribute("rpc.grpc.status_code", status.getCode().value());
+        if (!status.isOk()) {
+            span.setStatus(StatusCode.ERROR, status.getCode().name());
+            if (status.getCause() != null) {
+                span.recordException(status.getCause());
+            }
+        }
+        span.end();
+    }
+}
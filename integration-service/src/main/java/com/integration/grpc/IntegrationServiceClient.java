@@ -3,11 +3,12 @@ package com.integration.grpc;
 
 import integration.IntegrationServiceGrpc;
 import integration.IntegrationServiceProto;
-import io.grpc.ManagedChannel;
-import io.grpc.ManagedChannelBuilder;
+import io.grpc.Channel;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.util.Iterator;
+
 import static integration.IntegrationServiceProto.*;
 
 
@@ -16,11 +17,10 @@ public class IntegrationServiceClient {
 
     private final IntegrationServiceGrpc.IntegrationServiceBlockingStub integrationServiceBlockingStub;
 
-    public IntegrationServiceClient(@Value("${grpc.integration-service.host}") String host,
+    public IntegrationServiceClient(GrpcChannelFactory channelFactory,
+                                    @Value("${grpc.integration-service.host}") String host,
                                     @Value("${grpc.integration-service.port}") int port) {
-        ManagedChannel channel = ManagedChannelBuilder.forAddress(host, port)
-                .usePlaintext()
-                .build();
+        Channel channel = channelFactory.createChannel(host, port);
         integrationServiceBlockingStub = IntegrationServiceGrpc.newBlockingStub(channel);
     }
 
@@ -31,4 +31,11 @@ public class IntegrationServiceClient {
         ProcessCsvResponse response = integrationServiceBlockingStub.processCsvFile(request);
         return response.getMessage();
     }
+
+    public Iterator<ProcessCsvEvent> processCsvFileStream(String filePath) {
+        ProcessCsvRequest request = ProcessCsvRequest.newBuilder()
+                .setFilePath(filePath)
+                .build();
+        return integrationServiceBlockingStub.processCsvFileStream(request);
+    }
 }
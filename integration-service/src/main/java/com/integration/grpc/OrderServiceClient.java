@@ -1,30 +1,71 @@
 package com.integration.grpc;
 
-import io.grpc.ManagedChannel;
-import io.grpc.ManagedChannelBuilder;
+import io.grpc.Channel;
 import order.Order;
 import order.OrderServiceGrpc;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static com.integration.grpc.GrpcFutures.toCompletableFuture;
+
 @Service
 public class OrderServiceClient {
 
     private final OrderServiceGrpc.OrderServiceBlockingStub orderServiceBlockingStub;
 
-    public OrderServiceClient(@Value("${grpc.order-service.host}") String host,
-                              @Value("${grpc.order-service.port}") int port) {
-        ManagedChannel channel = ManagedChannelBuilder.forAddress(host, port)
-                .usePlaintext()
-                .build();
+    private final OrderServiceGrpc.OrderServiceFutureStub orderServiceFutureStub;
+
+    private final DownstreamLimiter limiter;
+
+    private final long createOrderDeadlineMillis;
+
+    private final long getOrdersByPidsDeadlineMillis;
+
+    private final long getAllOrdersDeadlineMillis;
+
+    public OrderServiceClient(GrpcChannelFactory channelFactory,
+                              @Value("${grpc.order-service.host}") String host,
+                              @Value("${grpc.order-service.port}") int port,
+                              @Value("${grpc.order-service.max-concurrent-calls:16}") int maxConcurrentCalls,
+                              @Value("${grpc.order-service.deadlines.create-order-ms:${grpc.order-service.deadlines.default-ms:10000}}")
+                              long createOrderDeadlineMillis,
+                              @Value("${grpc.order-service.deadlines.get-orders-by-pids-ms:${grpc.order-service.deadlines.default-ms:10000}}")
+                              long getOrdersByPidsDeadlineMillis,
+                              @Value("${grpc.order-service.deadlines.get-all-orders-ms:${grpc.order-service.deadlines.default-ms:10000}}")
+                              long getAllOrdersDeadlineMillis) {
+        Channel channel = channelFactory.createChannel(host, port);
         orderServiceBlockingStub = OrderServiceGrpc.newBlockingStub(channel);
+        orderServiceFutureStub = OrderServiceGrpc.newFutureStub(channel);
+        limiter = channelFactory.createLimiter("order-service", maxConcurrentCalls);
+        this.createOrderDeadlineMillis = createOrderDeadlineMillis;
+        this.getOrdersByPidsDeadlineMillis = getOrdersByPidsDeadlineMillis;
+        this.getAllOrdersDeadlineMillis = getAllOrdersDeadlineMillis;
     }
 
     public Order.OrderResponse createOrder(Order.CreateOrderRequest request) {
-        return orderServiceBlockingStub.createOrder(request);
+        return limiter.callCreate(() -> orderServiceBlockingStub
+                .withDeadlineAfter(createOrderDeadlineMillis, TimeUnit.MILLISECONDS)
+                .createOrder(request));
+    }
+
+    public CompletableFuture<Order.OrderResponse> createOrderAsync(Order.CreateOrderRequest request) {
+        return limiter.callCreateAsync(() -> toCompletableFuture(orderServiceFutureStub
+                .withDeadlineAfter(createOrderDeadlineMillis, TimeUnit.MILLISECONDS)
+                .createOrder(request)));
+    }
+
+    public Order.OrdersResponse getOrdersByPids(Order.StringsRequest request) {
+        return limiter.call(() -> orderServiceBlockingStub
+                .withDeadlineAfter(getOrdersByPidsDeadlineMillis, TimeUnit.MILLISECONDS)
+                .getOrdersByPids(request));
     }
 
     public Order.PageableResponse getALlOrders(Order.PageableRequest request){
-        return  orderServiceBlockingStub.getAllOrdersPageable(request);
+        return limiter.call(() -> orderServiceBlockingStub
+                .withDeadlineAfter(getAllOrdersDeadlineMillis, TimeUnit.MILLISECONDS)
+                .getAllOrdersPageable(request));
     }
-}
\ No newline at end of file
+}
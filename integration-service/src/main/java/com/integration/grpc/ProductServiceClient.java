@@ -1,29 +1,61 @@
 package com.integration.grpc;
 
 import com.google.protobuf.StringValue;
-import io.grpc.ManagedChannel;
-import io.grpc.ManagedChannelBuilder;
-import order.Order;
-import order.OrderServiceGrpc;
+import io.grpc.Channel;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import product.Product;
 import product.ProductServiceGrpc;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static com.integration.grpc.GrpcFutures.toCompletableFuture;
+
 @Service
 public class ProductServiceClient {
 
     private final ProductServiceGrpc.ProductServiceBlockingStub productServiceBlockingStub;
 
-    public ProductServiceClient(@Value("${grpc.product-service.host}") String host,
-                                @Value("${grpc.product-service.port}") int port) {
-        ManagedChannel channel = ManagedChannelBuilder.forAddress(host, port)
-                .usePlaintext()
-                .build();
+    private final ProductServiceGrpc.ProductServiceFutureStub productServiceFutureStub;
+
+    private final DownstreamLimiter limiter;
+
+    private final long getProductByPidDeadlineMillis;
+
+    private final long getProductsByPidsDeadlineMillis;
+
+    public ProductServiceClient(GrpcChannelFactory channelFactory,
+                                @Value("${grpc.product-service.host}") String host,
+                                @Value("${grpc.product-service.port}") int port,
+                                @Value("${grpc.product-service.max-concurrent-calls:16}") int maxConcurrentCalls,
+                                @Value("${grpc.product-service.deadlines.get-product-by-pid-ms:${grpc.product-service.deadlines.default-ms:10000}}")
+                                long getProductByPidDeadlineMillis,
+                                @Value("${grpc.product-service.deadlines.get-products-by-pids-ms:${grpc.product-service.deadlines.default-ms:10000}}")
+                                long getProductsByPidsDeadlineMillis) {
+        Channel channel = channelFactory.createChannel(host, port);
         productServiceBlockingStub = ProductServiceGrpc.newBlockingStub(channel);
+        productServiceFutureStub = ProductServiceGrpc.newFutureStub(channel);
+        limiter = channelFactory.createLimiter("product-service", maxConcurrentCalls);
+        this.getProductByPidDeadlineMillis = getProductByPidDeadlineMillis;
+        this.getProductsByPidsDeadlineMillis = getProductsByPidsDeadlineMillis;
     }
 
     public Product.ProductResponse getProductByPid(StringValue request) {
-        return productServiceBlockingStub.getProductByPid(request);
+        return limiter.call(() -> productServiceBlockingStub
+                .withDeadlineAfter(getProductByPidDeadlineMillis, TimeUnit.MILLISECONDS)
+                .getProductByPid(request));
+    }
+
+    public CompletableFuture<Product.ProductResponse> getProductByPidAsync(StringValue request) {
+        return limiter.callAsync(() -> toCompletableFuture(productServiceFutureStub
+                .withDeadlineAfter(getProductByPidDeadlineMillis, TimeUnit.MILLISECONDS)
+                .getProductByPid(request)));
+    }
+
+    public Product.ProductsResponse getProductsByPids(Product.StringsRequest request) {
+        return limiter.call(() -> productServiceBlockingStub
+                .withDeadlineAfter(getProductsByPidsDeadlineMillis, TimeUnit.MILLISECONDS)
+                .getProductsByPids(request));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,40 @@
+package com.integration.grpc;
+
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.ClientCall;
+import io.grpc.ManagedChannel;
+import io.grpc.MethodDescriptor;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Spreads calls over several channels to the same target. Each channel holds its own HTTP/2
+ * connection, so the pool is not capped by the server's max-concurrent-streams on a single connection.
+ */
+public class RoundRobinChannel extends Channel {
+
+    private final List<ManagedChannel> channels;
+
+    private final AtomicInteger next = new AtomicInteger();
+
+    public RoundRobinChannel(List<ManagedChannel> channels) {
+        if (channels.isEmpty()) {
+            throw new IllegalArgumentException("At least one channel is required");
+        }
+        this.channels = List.copyOf(channels);
+    }
+
+    @Override
+    public <ReqT, RespT> ClientCall<ReqT, RespT> newCall(MethodDescriptor<ReqT, RespT> methodDescriptor,
+                                                         CallOptions callOptions) {
+        int index = Math.floorMod(next.getAndIncrement(), channels.size());
+        return channels.get(index).newCall(methodDescriptor, callOptions);
+    }
+
+    @Override
+    public String authority() {
+        return channels.get(0).authority();
+    }
+}
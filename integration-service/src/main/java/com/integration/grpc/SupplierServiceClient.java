@@ -0,0 +1,49 @@
+package com.integration.grpc;
+
+import io.grpc.Channel;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import supplier.Supplier;
+import supplier.SupplierServiceGrpc;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static com.integration.grpc.GrpcFutures.toCompletableFuture;
+
+@Service
+public class SupplierServiceClient {
+
+    private final SupplierServiceGrpc.SupplierServiceBlockingStub supplierServiceBlockingStub;
+
+    private final SupplierServiceGrpc.SupplierServiceFutureStub supplierServiceFutureStub;
+
+    private final DownstreamLimiter limiter;
+
+    private final long getSuppliersByPidsDeadlineMillis;
+
+    public SupplierServiceClient(GrpcChannelFactory channelFactory,
+                                 @Value("${grpc.supplier-service.host}") String host,
+                                 @Value("${grpc.supplier-service.port}") int port,
+                                 @Value("${grpc.supplier-service.max-concurrent-calls:16}") int maxConcurrentCalls,
+                                 @Value("${grpc.supplier-service.deadlines.get-suppliers-by-pids-ms:${grpc.supplier-service.deadlines.default-ms:10000}}")
+                                 long getSuppliersByPidsDeadlineMillis) {
+        Channel channel = channelFactory.createChannel(host, port);
+        supplierServiceBlockingStub = SupplierServiceGrpc.newBlockingStub(channel);
+        supplierServiceFutureStub = SupplierServiceGrpc.newFutureStub(channel);
+        limiter = channelFactory.createLimiter("supplier-service", maxConcurrentCalls);
+        this.getSuppliersByPidsDeadlineMillis = getSuppliersByPidsDeadlineMillis;
+    }
+
+    public Supplier.SuppliersResponse getSuppliersByPids(Supplier.StringsRequest request) {
+        return limiter.call(() -> supplierServiceBlockingStub
+                .withDeadlineAfter(getSuppliersByPidsDeadlineMillis, TimeUnit.MILLISECONDS)
+                .getSuppliersByPids(request));
+    }
+
+    public CompletableFuture<Supplier.SuppliersResponse> getSuppliersByPidsAsync(Supplier.StringsRequest request) {
+        return limiter.callAsync(() -> toCompletableFuture(supplierServiceFutureStub
+                .withDeadlineAfter(getSuppliersByPidsDeadlineMillis, TimeUnit.MILLISECONDS)
+                .getSuppliersByPids(request)));
+    }
+}
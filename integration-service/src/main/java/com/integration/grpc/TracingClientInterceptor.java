@@ -0,0 +1,59 @@
+package com.integration.grpc;
+
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.ClientCall;
+import io.grpc.ClientInterceptor;
+import io.grpc.ForwardingClientCall;
+import io.grpc.ForwardingClientCallListener;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.propagation.TextMapPropagator;
+
+/**
+ * Records a client span for every downstream call, as a child of the span current when the call is
+ * created, and sends the span's context along in the request headers (W3C {@code traceparent}),
+ * so the downstream service can continue the trace.
+ */
+public class TracingClientInterceptor implements ClientInterceptor {
+
+    private final Tracer tracer;
+
+    private final TextMapPropagator propagator;
+
+    public TracingClientInterceptor(OpenTelemetry openTelemetry) {
+        this.tracer = openTelemetry.getTracer(GrpcTracing.INSTRUMENTATION_NAME);
+        this.propagator = openTelemetry.getPropagators().getTextMapPropagator();
+    }
+
+    @Override
+    public <ReqT, RespT> ClientCall<ReqT, RespT> interceptCall(MethodDescriptor<ReqT, RespT> method,
+                                                               CallOptions callOptions, Channel next) {
+        Span span = GrpcTracing.spanBuilder(tracer, method, SpanKind.CLIENT).startSpan();
+        Context context = Context.current().with(span);
+        return new ForwardingClientCall.SimpleForwardingClientCall<>(next.newCall(method, callOptions)) {
+            @Override
+            public void start(Listener<RespT> responseListener, Metadata headers) {
+                propagator.inject(context, headers, GrpcTracing.SETTER);
+                try {
+                    super.start(new ForwardingClientCallListener.SimpleForwardingClientCallListener<>(responseListener) {
+                        @Override
+                        public void onClose(Status status, Metadata trailers) {
+                            GrpcTracing.end(span, status);
+                            super.onClose(status, trailers);
+                        }
+                    }, headers);
+                } catch (RuntimeException e) {
+                    GrpcTracing.end(span, Status.fromThrowable(e));
+                    throw e;
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,99 @@
+package com.integration.grpc;
+
+import io.grpc.ForwardingServerCall;
+import io.grpc.ForwardingServerCallListener;
+import io.grpc.Metadata;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import io.grpc.Status;
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.Scope;
+import io.opentelemetry.context.propagation.TextMapPropagator;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Records a server span for every call to this service, continuing the caller's trace when the
+ * request carries one. The span is current while the handler runs, so an import started by the
+ * call, and the downstream calls it makes, end up in the same trace.
+ */
+public class TracingServerInterceptor implements ServerInterceptor {
+
+    private final Tracer tracer;
+
+    private final TextMapPropagator propagator;
+
+    public TracingServerInterceptor(OpenTelemetry openTelemetry) {
+        this.tracer = openTelemetry.getTracer(GrpcTracing.INSTRUMENTATION_NAME);
+        this.propagator = openTelemetry.getPropagators().getTextMapPropagator();
+    }
+
+    @Override
+    public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> call, Metadata headers,
+                                                                 ServerCallHandler<ReqT, RespT> next) {
+        Context parent = propagator.extract(Context.root(), headers, GrpcTracing.GETTER);
+        Span span = GrpcTracing.spanBuilder(tracer, call.getMethodDescriptor(), SpanKind.SERVER)
+                .setParent(parent)
+                .startSpan();
+        Context context = parent.with(span);
+        AtomicBoolean ended = new AtomicBoolean();
+
+        ServerCall<ReqT, RespT> tracedCall = new ForwardingServerCall.SimpleForwardingServerCall<>(call) {
+            @Override
+            public void close(Status status, Metadata trailers) {
+                if (ended.compareAndSet(false, true)) {
+                    GrpcTracing.end(span, status);
+                }
+                super.close(status, trailers);
+            }
+        };
+        ServerCall.Listener<ReqT> listener;
+        try (Scope ignored = context.makeCurrent()) {
+            listener = next.startCall(tracedCall, headers);
+        }
+        return new ForwardingServerCallListener.SimpleForwardingServerCallListener<>(listener) {
+            @Override
+            public void onMessage(ReqT message) {
+                try (Scope ignored = context.makeCurrent()) {
+                    super.onMessage(message);
+                }
+            }
+
+            @Override
+            public void onHalfClose() {
+                try (Scope ignored = context.makeCurrent()) {
+                    super.onHalfClose();
+                }
+            }
+
+            @Override
+            public void onCancel() {
+                if (ended.compareAndSet(false, true)) {
+                    GrpcTracing.end(span, Status.CANCELLED);
+                }
+                try (Scope ignored = context.makeCurrent()) {
+                    super.onCancel();
+                }
+            }
+
+            @Override
+            public void onComplete() {
+                try (Scope ignored = context.makeCurrent()) {
+                    super.onComplete();
+                }
+            }
+
+            @Override
+            public void onReady() {
+                try (Scope ignored = context.makeCurrent()) {
+                    super.onReady();
+                }
+            }
+        };
+    }
+}
@@ -2,38 +2,93 @@ package com.integration.grpc;
 
 import com.google.protobuf.StringValue;
 import com.integration.exception.UserAlreadyExistsException;
-import io.grpc.ManagedChannel;
-import io.grpc.ManagedChannelBuilder;
+import io.grpc.Channel;
 import io.grpc.StatusRuntimeException;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import user.UserServiceGrpc;
 import user.User;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+import static com.integration.grpc.GrpcFutures.toCompletableFuture;
+
 
 @Service
 public class UserServiceClient {
 
     private final UserServiceGrpc.UserServiceBlockingStub userServiceBlockingStub;
 
-    public UserServiceClient(@Value("${grpc.user-service.host}") String host,
-                             @Value("${grpc.user-service.port}") int port) {
-        ManagedChannel channel = ManagedChannelBuilder.forAddress(host, port)
-                .usePlaintext()
-                .build();
+    private final UserServiceGrpc.UserServiceFutureStub userServiceFutureStub;
+
+    private final DownstreamLimiter limiter;
+
+    private final long createUserDeadlineMillis;
+
+    private final long searchDeadlineMillis;
+
+    public UserServiceClient(GrpcChannelFactory channelFactory,
+                             @Value("${grpc.user-service.host}") String host,
+                             @Value("${grpc.user-service.port}") int port,
+                             @Value("${grpc.user-service.max-concurrent-calls:16}") int maxConcurrentCalls,
+                             @Value("${grpc.user-service.deadlines.create-user-ms:${grpc.user-service.deadlines.default-ms:10000}}")
+                             long createUserDeadlineMillis,
+                             @Value("${grpc.user-service.deadlines.search-ms:${grpc.user-service.deadlines.default-ms:10000}}")
+                             long searchDeadlineMillis) {
+        Channel channel = channelFactory.createChannel(host, port);
         userServiceBlockingStub = UserServiceGrpc.newBlockingStub(channel);
+        userServiceFutureStub = UserServiceGrpc.newFutureStub(channel);
+        limiter = channelFactory.createLimiter("user-service", maxConcurrentCalls);
+        this.createUserDeadlineMillis = createUserDeadlineMillis;
+        this.searchDeadlineMillis = searchDeadlineMillis;
     }
 
     public User.UserResponse createUser(User.CreateUserRequest request) {
         try {
-            return userServiceBlockingStub.createUser(request);
+            return limiter.callCreate(() -> userServiceBlockingStub
+                    .withDeadlineAfter(createUserDeadlineMillis, TimeUnit.MILLISECONDS)
+                    .createUser(request));
         } catch (StatusRuntimeException e) {
-            if (e.getStatus().getCode() == io.grpc.Status.Code.ALREADY_EXISTS) {
-                // Handle the case where the user already exists
-                throw new UserAlreadyExistsException("User already exists with email: " + request.getEmail());
-            }
-            throw e;
+            throw translate(e, request);
+        }
+    }
+
+    public CompletableFuture<User.UserResponse> createUserAsync(User.CreateUserRequest request) {
+        return limiter.callCreateAsync(() -> toCompletableFuture(userServiceFutureStub
+                        .withDeadlineAfter(createUserDeadlineMillis, TimeUnit.MILLISECONDS)
+                        .createUser(request)))
+                .exceptionally(error -> {
+                    if (GrpcFutures.unwrap(error) instanceof StatusRuntimeException e) {
+                        throw translate(e, request);
+                    }
+                    throw new CompletionException(error);
+                });
+    }
+
+    public User.UsersResponse searchByEmail(String email) {
+        return limiter.call(() -> userServiceBlockingStub
+                .withDeadlineAfter(searchDeadlineMillis, TimeUnit.MILLISECONDS)
+                .search(emailFilter(email)));
+    }
+
+    public CompletableFuture<User.UsersResponse> searchByEmailAsync(String email) {
+        return limiter.callAsync(() -> toCompletableFuture(userServiceFutureStub
+                .withDeadlineAfter(searchDeadlineMillis, TimeUnit.MILLISECONDS)
+                .search(emailFilter(email))));
+    }
+
+    private static User.UserSearchFilter emailFilter(String email) {
+        return User.UserSearchFilter.newBuilder().setEmail(StringValue.of(email)).build();
+    }
+
+    private static RuntimeException translate(StatusRuntimeException e, User.CreateUserRequest request) {
+        if (e.getStatus().getCode() == io.grpc.Status.Code.ALREADY_EXISTS) {
+            // Handle the case where the user already exists
+            return new UserAlreadyExistsException("User already exists with email: " + request.getEmail());
         }
+        return e;
     }
 }
 
@@ -0,0 +1,86 @@
+package com.integration.output;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.DefaultPrettyPrinter;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.integration.model.ProcessedOrder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Streams processed orders through a single {@link JsonGenerator}, either as the pretty-printed
+ * JSON array we have always produced or as newline-delimited JSON.
+ * Buffered output is flushed once {@code flushEveryRecords} records or {@code flushIntervalMillis}
+ * have accumulated, whichever comes first. Both are only checked when a record is written: there is
+ * no timer, so records written before the import goes quiet stay buffered until the next write,
+ * {@link #flush()} or {@link #close()}.
+ */
+public class JsonProcessedOrderWriter implements ProcessedOrderWriter {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static final ObjectWriter WRITER = MAPPER.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+    private final JsonGenerator generator;
+
+    private final boolean ndjson;
+
+    private final int flushEveryRecords;
+
+    private final long flushIntervalNanos;
+
+    private int unflushedRecords;
+
+    private long lastFlushNanos = System.nanoTime();
+
+    public JsonProcessedOrderWriter(OutputStream out, boolean ndjson, int flushEveryRecords, long flushIntervalMillis)
+            throws IOException {
+        JsonFactory factory = MAPPER.getFactory();
+        this.generator = factory.createGenerator(out, JsonEncoding.UTF8);
+        this.ndjson = ndjson;
+        this.flushEveryRecords = Math.max(1, flushEveryRecords);
+        this.flushIntervalNanos = flushIntervalMillis * 1_000_000L;
+
+        if (ndjson) {
+            generator.setPrettyPrinter(new MinimalPrettyPrinter("\n"));
+        } else {
+            generator.setPrettyPrinter(new DefaultPrettyPrinter());
+            generator.writeStartArray();
+        }
+    }
+
+    @Override
+    public synchronized void write(ProcessedOrder processedOrder) throws IOException {
+        WRITER.writeValue(generator, processedOrder);
+        unflushedRecords++;
+        if (unflushedRecords >= flushEveryRecords || System.nanoTime() - lastFlushNanos >= flushIntervalNanos) {
+            flush();
+        }
+    }
+
+    @Override
+    public synchronized void flush() throws IOException {
+        generator.flush();
+        unflushedRecords = 0;
+        lastFlushNanos = System.nanoTime();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (generator.isClosed()) {
+            return;
+        }
+        if (ndjson) {
+            generator.writeRaw('\n');
+        } else {
+            generator.writeEndArray();
+        }
+        generator.close();
+    }
+}
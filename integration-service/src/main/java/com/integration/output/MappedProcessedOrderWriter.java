@@ -0,0 +1,100 @@
+package com.integration.output;
+
+import com.google.protobuf.CodedOutputStream;
+import com.integration.model.ProcessedOrder;
+
+import java.io.IOException;
+import java.lang.invoke.VarHandle;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static integration.IntegrationServiceProto.*;
+
+/**
+ * Writes a {@link ProcessedOrderLog} into memory-mapped regions of the file, so appending a record is a
+ * copy into the page cache without a system call. The file grows one region at a time and is cut to
+ * its records on close. The unwritten rest of a region is zeros, and a record is published by the first
+ * byte of its size, which is never zero: the record's bytes and the rest of its size are stored first,
+ * and the first size byte last behind a release fence. A reader following the log through the page
+ * cache therefore never decodes the size of a record whose bytes are missing.
+ * {@link #flush()} does nothing: the records are visible to other readers of the file as soon as they
+ * are written, and forcing them to disk is left to the operating system.
+ */
+public class MappedProcessedOrderWriter implements ProcessedOrderWriter {
+
+    static final int REGION_SIZE = 64 * 1024 * 1024;
+
+    private final FileChannel channel;
+
+    private final int regionSize;
+
+    private MappedByteBuffer region;
+
+    // File position of the start of the region
+    private long regionStart;
+
+    private boolean closed;
+
+    public MappedProcessedOrderWriter(Path path) throws IOException {
+        this(path, REGION_SIZE);
+    }
+
+    MappedProcessedOrderWriter(Path path, int regionSize) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        this.regionSize = Math.max(regionSize, ProcessedOrderLog.MAGIC.length);
+        try {
+            map(0, ProcessedOrderLog.MAGIC.length);
+            region.put(ProcessedOrderLog.MAGIC);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public synchronized void write(ProcessedOrder processedOrder) throws IOException {
+        byte[] bytes = ProcessedOrderLog.toRecord(processedOrder).toByteArray();
+        int sizeLength = CodedOutputStream.computeUInt32SizeNoTag(bytes.length);
+        if (region.remaining() < sizeLength + bytes.length) {
+            // The next region starts right after the last record, so the log has no gaps
+            map(regionStart + region.position(), sizeLength + bytes.length);
+        }
+        int start = region.position();
+        region.put(start + sizeLength, bytes);
+        int size = bytes.length;
+        byte first = (byte) (sizeLength == 1 ? size : (size & 0x7f) | 0x80);
+        for (int i = 1; i < sizeLength; i++) {
+            size >>>= 7;
+            region.put(start + i, (byte) (i == sizeLength - 1 ? size : (size & 0x7f) | 0x80));
+        }
+        // Everything before the first size byte must be visible before it is
+        VarHandle.releaseFence();
+        region.put(start, first);
+        region.position(start + sizeLength + bytes.length);
+    }
+
+    private void map(long start, int needed) throws IOException {
+        region = channel.map(FileChannel.MapMode.READ_WRITE, start, Math.max(regionSize, needed));
+        regionStart = start;
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        long size = regionStart + region.position();
+        region = null;
+        try (channel) {
+            channel.truncate(size);
+        }
+    }
+}
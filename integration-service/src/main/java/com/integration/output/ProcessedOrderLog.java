@@ -0,0 +1,47 @@
+package com.integration.output;
+
+import com.integration.model.ProcessedOrder;
+
+import java.util.Arrays;
+
+import static integration.IntegrationServiceProto.*;
+
+/**
+ * The result log format: the bytes {@code PBL1}, then one {@link ProcessedOrderRecord} per result, each
+ * prefixed with its size as a varint. A zero size byte marks the end of the written part: a mapped log
+ * is longer than its records until it is closed, and the extra space reads as zeros. A record is
+ * therefore never empty.
+ */
+public final class ProcessedOrderLog {
+
+    static final byte[] MAGIC = {'P', 'B', 'L', '1'};
+
+    private ProcessedOrderLog() {
+    }
+
+    static boolean isLog(byte[] head, int length) {
+        return length >= MAGIC.length && Arrays.equals(head, 0, MAGIC.length, MAGIC, 0, MAGIC.length);
+    }
+
+    static ProcessedOrderRecord toRecord(ProcessedOrder processedOrder) {
+        ProcessedOrderRecord.Builder record = ProcessedOrderRecord.newBuilder();
+        if (processedOrder.getUserPid() != null) {
+            record.setUserPid(processedOrder.getUserPid());
+        }
+        if (processedOrder.getOrderPid() != null) {
+            record.setOrderPid(processedOrder.getOrderPid());
+        }
+        if (processedOrder.getSupplierPid() != null) {
+            record.setSupplierPid(processedOrder.getSupplierPid());
+        }
+        ProcessedOrderRecord built = record.build();
+        if (built.getSerializedSize() == 0) {
+            throw new IllegalArgumentException("A processed order without any pid cannot be logged");
+        }
+        return built;
+    }
+
+    static ProcessedOrder fromRecord(ProcessedOrderRecord record) {
+        return new ProcessedOrder(record.getUserPid(), record.getOrderPid(), record.getSupplierPid());
+    }
+}
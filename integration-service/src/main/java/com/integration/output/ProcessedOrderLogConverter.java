@@ -0,0 +1,51 @@
+package com.integration.output;
+
+import com.integration.model.ProcessedOrder;
+import com.integration.util.Compression;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Converts a result log, or any other output, to the JSON array or ndjson the service writes with
+ * {@code integration.output.format: json|ndjson}, for consumers that do not read protobuf:
+ * <pre>
+ * java -cp integration-service.jar com.integration.output.ProcessedOrderLogConverter \
+ *     processed-orders.pblog processed-orders.json [--ndjson]
+ * </pre>
+ * The JSON is compressed if its name ends in .gz or .zst.
+ */
+public final class ProcessedOrderLogConverter {
+
+    private ProcessedOrderLogConverter() {
+    }
+
+    /**
+     * Returns the number of results converted.
+     */
+    public static long toJson(Path log, Path json, boolean ndjson) throws IOException {
+        long converted = 0;
+        try (Stream<ProcessedOrder> processedOrders = ProcessedOrderReader.read(log);
+             ProcessedOrderWriter writer = new JsonProcessedOrderWriter(
+                     Compression.fromFileName(json).openOutput(json), ndjson, 10_000, 60_000)) {
+            Iterator<ProcessedOrder> iterator = processedOrders.iterator();
+            while (iterator.hasNext()) {
+                writer.write(iterator.next());
+                converted++;
+            }
+        }
+        return converted;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2 || args.length > 3 || (args.length == 3 && !args[2].equals("--ndjson"))) {
+            System.err.println("Usage: ProcessedOrderLogConverter <log> <json> [--ndjson]");
+            System.exit(2);
+        }
+        long converted = toJson(Paths.get(args[0]), Paths.get(args[1]), args.length == 3);
+        System.out.println("Converted " + converted + " processed orders to " + args[1]);
+    }
+}
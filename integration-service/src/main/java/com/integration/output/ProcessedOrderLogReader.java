@@ -0,0 +1,123 @@
+package com.integration.output;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.integration.model.ProcessedOrder;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static integration.IntegrationServiceProto.*;
+
+/**
+ * Follows an uncompressed {@link ProcessedOrderLog} while it is being written, like {@code tail -f}.
+ * {@link #poll()} returns the next complete record, or {@code null} when the writer has not got further
+ * yet; a record whose bytes are only partly written is picked up by a later poll. Not thread-safe.
+ */
+public class ProcessedOrderLogReader implements Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final int MAX_SIZE_LENGTH = 5;
+
+    private final FileChannel channel;
+
+    // Bytes read from the file but not consumed yet, between position and limit
+    private ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE).flip();
+
+    // File position of the buffer's limit
+    private long filePosition;
+
+    private boolean headerRead;
+
+    private long recordsRead;
+
+    public ProcessedOrderLogReader(Path log) throws IOException {
+        this.channel = FileChannel.open(log, StandardOpenOption.READ);
+    }
+
+    /**
+     * The next record, or {@code null} if none is complete yet.
+     */
+    public ProcessedOrder poll() throws IOException {
+        if (!headerRead) {
+            if (!fill(ProcessedOrderLog.MAGIC.length)) {
+                return unread();
+            }
+            byte[] head = new byte[ProcessedOrderLog.MAGIC.length];
+            buffer.get(head);
+            if (!ProcessedOrderLog.isLog(head, head.length)) {
+                throw new IOException("Not a processed order log");
+            }
+            headerRead = true;
+        }
+        int size = 0;
+        int sizeLength = 0;
+        byte next;
+        do {
+            if (!fill(sizeLength + 1)) {
+                return unread();
+            }
+            next = buffer.get(buffer.position() + sizeLength);
+            if (sizeLength == 0 && next == 0) {
+                // The unwritten rest of a mapped log
+                return unread();
+            }
+            size |= (next & 0x7f) << (7 * sizeLength);
+            sizeLength++;
+        } while (next < 0 && sizeLength < MAX_SIZE_LENGTH);
+        if (next < 0 || size < 0) {
+            throw new InvalidProtocolBufferException("Malformed record size at record " + recordsRead);
+        }
+        if (!fill(sizeLength + size)) {
+            return unread();
+        }
+        int start = buffer.position() + sizeLength;
+        ProcessedOrderRecord record = ProcessedOrderRecord.parseFrom(buffer.slice(start, size));
+        buffer.position(start + size);
+        recordsRead++;
+        return ProcessedOrderLog.fromRecord(record);
+    }
+
+    public long getRecordsRead() {
+        return recordsRead;
+    }
+
+    /**
+     * Makes sure at least {@code needed} unconsumed bytes are buffered, reading what the file has.
+     */
+    private boolean fill(int needed) throws IOException {
+        if (buffer.remaining() >= needed) {
+            return true;
+        }
+        if (buffer.capacity() < needed) {
+            buffer = ByteBuffer.allocate(Math.max(needed, buffer.capacity() * 2)).put(buffer);
+        } else {
+            buffer.compact();
+        }
+        int read;
+        while (buffer.position() < needed && (read = channel.read(buffer, filePosition)) > 0) {
+            filePosition += read;
+        }
+        buffer.flip();
+        return buffer.remaining() >= needed;
+    }
+
+    /**
+     * Drops the buffered bytes after the last complete record, so the next poll reads them again from the
+     * file: the writer may not have written them yet, as with the zeros of a mapped log.
+     */
+    private ProcessedOrder unread() {
+        filePosition -= buffer.remaining();
+        buffer.limit(buffer.position());
+        return null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
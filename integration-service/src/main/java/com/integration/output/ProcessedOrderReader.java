@@ -0,0 +1,147 @@
+package com.integration.output;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.google.protobuf.CodedInputStream;
+import com.integration.model.ProcessedOrder;
+import com.integration.util.Compression;
+
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static integration.IntegrationServiceProto.*;
+
+/**
+ * Reads a finished output in any of the formats the writers produce (JSON array, ndjson or
+ * {@link ProcessedOrderLog}), compressed or not, telling them apart by their first bytes.
+ */
+public final class ProcessedOrderReader {
+
+    private static final ObjectReader READER = new ObjectMapper().readerFor(ProcessedOrder.class);
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private ProcessedOrderReader() {
+    }
+
+    /**
+     * Reads the results of a file lazily; the returned stream must be closed.
+     */
+    public static Stream<ProcessedOrder> read(Path path) throws IOException {
+        return read(Compression.openInput(path));
+    }
+
+    /**
+     * Reads results from a decompressed stream lazily; closing the returned stream closes {@code in}.
+     */
+    public static Stream<ProcessedOrder> read(InputStream in) throws IOException {
+        InputStream buffered = in.markSupported() ? in : new BufferedInputStream(in, BUFFER_SIZE);
+        Iterator<ProcessedOrder> iterator;
+        try {
+            byte[] head = new byte[ProcessedOrderLog.MAGIC.length];
+            buffered.mark(head.length);
+            int length = buffered.readNBytes(head, 0, head.length);
+            if (ProcessedOrderLog.isLog(head, length)) {
+                iterator = new LogIterator(buffered);
+            } else {
+                buffered.reset();
+                iterator = json(READER.readValues(buffered));
+            }
+        } catch (IOException | RuntimeException e) {
+            buffered.close();
+            throw e;
+        }
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator,
+                        Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(() -> {
+                    try {
+                        buffered.close();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+    }
+
+    private static Iterator<ProcessedOrder> json(MappingIterator<ProcessedOrder> values) {
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                try {
+                    return values.hasNextValue();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+
+            @Override
+            public ProcessedOrder next() {
+                try {
+                    return values.nextValue();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+    }
+
+    private static final class LogIterator implements Iterator<ProcessedOrder> {
+
+        private final InputStream in;
+
+        private ProcessedOrder next;
+
+        private boolean done;
+
+        LogIterator(InputStream in) {
+            this.in = in;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next == null && !done) {
+                try {
+                    next = readRecord();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                done = next == null;
+            }
+            return next != null;
+        }
+
+        @Override
+        public ProcessedOrder next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            ProcessedOrder processedOrder = next;
+            next = null;
+            return processedOrder;
+        }
+
+        private ProcessedOrder readRecord() throws IOException {
+            int first = in.read();
+            // A zero size is the unwritten tail of a mapped log that was not closed
+            if (first <= 0) {
+                return null;
+            }
+            int size = CodedInputStream.readRawVarint32(first, in);
+            byte[] bytes = in.readNBytes(size);
+            if (bytes.length < size) {
+                throw new EOFException("Truncated record at the end of the log");
+            }
+            return ProcessedOrderLog.fromRecord(ProcessedOrderRecord.parseFrom(bytes));
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.integration.output;
+
+import com.integration.model.ProcessedOrder;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Append-only sink for import results. Every record is written exactly once;
+ * {@link #close()} completes the file so it is valid even when a run stops early.
+ */
+public interface ProcessedOrderWriter extends Closeable {
+
+    void write(ProcessedOrder processedOrder) throws IOException;
+
+    void flush() throws IOException;
+}
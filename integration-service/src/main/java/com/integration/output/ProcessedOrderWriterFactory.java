@@ -0,0 +1,88 @@
+package com.integration.output;
+
+import com.integration.util.Compression;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+@Service
+public class ProcessedOrderWriterFactory {
+
+    private final String defaultOutputPath;
+
+    private final String format;
+
+    private final int flushEveryRecords;
+
+    private final long flushIntervalMillis;
+
+    private final Compression compression;
+
+    private final boolean mmap;
+
+    public ProcessedOrderWriterFactory(@Value("${integration.output.path}") String defaultOutputPath,
+                                       @Value("${integration.output.format:json}") String format,
+                                       @Value("${integration.output.flush-every-records:500}") int flushEveryRecords,
+                                       @Value("${integration.output.flush-interval-ms:1000}") long flushIntervalMillis,
+                                       @Value("${integration.output.compression:none}") String compression,
+                                       @Value("${integration.output.mmap:false}") boolean mmap) {
+        this.defaultOutputPath = defaultOutputPath;
+        this.format = format;
+        this.flushEveryRecords = flushEveryRecords;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.compression = Compression.of(compression);
+        this.mmap = mmap;
+    }
+
+    public String getDefaultOutputPath() {
+        return defaultOutputPath;
+    }
+
+    /**
+     * Opens an output with the configured compression, or the one its name ends in (.gz, .zst).
+     * Readers of the output detect the compression themselves. With {@code mmap}, an uncompressed
+     * pblog output is written through memory-mapped regions.
+     */
+    public ProcessedOrderWriter open(String outputPath) throws IOException {
+        Path path = Paths.get(outputPath);
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        Compression byName = Compression.fromFileName(path);
+        Compression outputCompression = byName != Compression.NONE ? byName : compression;
+        if (format.equals("pblog") && mmap && outputCompression == Compression.NONE) {
+            return new MappedProcessedOrderWriter(path);
+        }
+        OutputStream out = outputCompression.openOutput(path);
+        return switch (format) {
+            case "json" -> new JsonProcessedOrderWriter(out, false, flushEveryRecords, flushIntervalMillis);
+            case "ndjson" -> new JsonProcessedOrderWriter(out, true, flushEveryRecords, flushIntervalMillis);
+            case "pblog" -> new ProtobufProcessedOrderWriter(out, flushEveryRecords, flushIntervalMillis);
+            default -> {
+                out.close();
+                throw new IllegalArgumentException("Unknown output format: " + format);
+            }
+        };
+    }
+
+    /**
+     * Opens the rejects file of an output, e.g. processed-orders.rejects.csv next to processed-orders.json.
+     */
+    public RejectedRowWriter openRejects(String outputPath) throws IOException {
+        return RejectedRowWriter.open(rejectsPath(outputPath));
+    }
+
+    public static Path rejectsPath(String outputPath) {
+        Path path = Paths.get(outputPath);
+        String fileName = path.getFileName().toString();
+        Compression byName = Compression.fromFileName(path);
+        fileName = fileName.substring(0, fileName.length() - byName.getExtension().length());
+        int extension = fileName.lastIndexOf('.');
+        return path.resolveSibling((extension > 0 ? fileName.substring(0, extension) : fileName) + ".rejects.csv");
+    }
+}
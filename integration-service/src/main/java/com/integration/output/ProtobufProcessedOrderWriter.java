@@ -0,0 +1,70 @@
+package com.integration.output;
+
+import com.google.protobuf.CodedOutputStream;
+import com.integration.model.ProcessedOrder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import static integration.IntegrationServiceProto.*;
+
+/**
+ * Appends processed orders to a {@link ProcessedOrderLog} through an output stream, compressed or not.
+ * Like the JSON writer it flushes every {@code flushEveryRecords} records or {@code flushIntervalMillis},
+ * checked on write, so an uncompressed log can be followed with {@link ProcessedOrderLogReader} while
+ * the import runs.
+ */
+public class ProtobufProcessedOrderWriter implements ProcessedOrderWriter {
+
+    private final OutputStream out;
+
+    private final CodedOutputStream coded;
+
+    private final int flushEveryRecords;
+
+    private final long flushIntervalNanos;
+
+    private int unflushedRecords;
+
+    private long lastFlushNanos = System.nanoTime();
+
+    private boolean closed;
+
+    public ProtobufProcessedOrderWriter(OutputStream out, int flushEveryRecords, long flushIntervalMillis)
+            throws IOException {
+        this.out = out;
+        this.coded = CodedOutputStream.newInstance(out);
+        this.flushEveryRecords = Math.max(1, flushEveryRecords);
+        this.flushIntervalNanos = flushIntervalMillis * 1_000_000L;
+        out.write(ProcessedOrderLog.MAGIC);
+    }
+
+    @Override
+    public synchronized void write(ProcessedOrder processedOrder) throws IOException {
+        ProcessedOrderRecord record = ProcessedOrderLog.toRecord(processedOrder);
+        coded.writeUInt32NoTag(record.getSerializedSize());
+        record.writeTo(coded);
+        unflushedRecords++;
+        if (unflushedRecords >= flushEveryRecords || System.nanoTime() - lastFlushNanos >= flushIntervalNanos) {
+            flush();
+        }
+    }
+
+    @Override
+    public synchronized void flush() throws IOException {
+        coded.flush();
+        out.flush();
+        unflushedRecords = 0;
+        lastFlushNanos = System.nanoTime();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        coded.flush();
+        out.close();
+    }
+}
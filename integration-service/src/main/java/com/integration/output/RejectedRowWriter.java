@@ -0,0 +1,73 @@
+package com.integration.output;
+
+import com.integration.model.OrderCsv;
+import com.opencsv.CSVWriter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Writes the rows an import rejected, with their row number and the reasons, as CSV. The rejects of an
+ * earlier run are removed when the writer is opened, and the file is only created once a row is
+ * rejected. A resumed import rejects its rows again, since a rejected row ends the committed part of
+ * the checkpoint.
+ */
+public class RejectedRowWriter implements Closeable {
+
+    public static final RejectedRowWriter NONE = new RejectedRowWriter(null);
+
+    private static final String[] HEADER = {"row_number", "reasons", "id", "first_name", "last_name", "email",
+            "supplier_pid", "credit_card_number", "credit_card_type", "order_id", "product_pid", "shipping_address",
+            "country", "date_created", "quantity", "full_name", "order_status"};
+
+    private final Path path;
+
+    private CSVWriter writer;
+
+    private long written;
+
+    RejectedRowWriter(Path path) {
+        this.path = path;
+    }
+
+    static RejectedRowWriter open(Path path) throws IOException {
+        Files.deleteIfExists(path);
+        return new RejectedRowWriter(path);
+    }
+
+    public void write(long rowNumber, OrderCsv order, List<String> reasons) throws IOException {
+        if (path == null) {
+            return;
+        }
+        if (writer == null) {
+            writer = new CSVWriter(Files.newBufferedWriter(path, StandardCharsets.UTF_8));
+            writer.writeNext(HEADER, false);
+        }
+        writer.writeNext(new String[]{String.valueOf(rowNumber), String.join("; ", reasons), order.getId(),
+                order.getFirstName(), order.getLastName(), order.getEmail(), order.getSupplierPid(),
+                order.getCreditCardNumber(), order.getCreditCardType(), order.getOrderId(), order.getProductPid(),
+                order.getShippingAddress(), order.getCountry(), order.getDateCreated(), order.getQuantity(),
+                order.getFullName(), order.getOrderStatus()}, false);
+        written++;
+    }
+
+    public long getWritten() {
+        return written;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (writer != null) {
+            writer.close();
+            System.out.println("Rejected " + written + " rows, see " + path);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.integration.service;
+
+import com.google.protobuf.ByteString;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Turns the chunks of a client-streaming upload into an {@link InputStream} for the CSV parser.
+ * At most {@code capacity} chunks are held at a time; each chunk taken by the reader calls
+ * {@code onChunkConsumed}, which the upload handler uses to request the next message from gRPC,
+ * so the sender is throttled by the parser rather than by server memory.
+ */
+class ChunkQueueInputStream extends InputStream {
+
+    private static final Chunk END = new Chunk(ByteString.EMPTY, null);
+
+    private final BlockingQueue<Chunk> chunks;
+
+    private final Runnable onChunkConsumed;
+
+    private InputStream current = InputStream.nullInputStream();
+
+    private boolean finished;
+
+    ChunkQueueInputStream(int capacity, Runnable onChunkConsumed) {
+        // One extra slot for the end or error marker, which is not flow controlled
+        this.chunks = new ArrayBlockingQueue<>(capacity + 1);
+        this.onChunkConsumed = onChunkConsumed;
+    }
+
+    /**
+     * Never blocks: the caller only requests as many chunks as there is room for.
+     */
+    void add(ByteString data) {
+        if (!chunks.offer(new Chunk(data, null))) {
+            throw new IllegalStateException("Upload sent more chunks than were requested");
+        }
+    }
+
+    void complete() {
+        chunks.offer(END);
+    }
+
+    void fail(Throwable error) {
+        chunks.clear();
+        chunks.offer(new Chunk(ByteString.EMPTY, error));
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] single = new byte[1];
+        int read = read(single, 0, 1);
+        return read == -1 ? -1 : single[0] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        }
+        while (!finished) {
+            int read = current.read(buffer, offset, length);
+            if (read != -1) {
+                return read;
+            }
+            nextChunk();
+        }
+        return -1;
+    }
+
+    private void nextChunk() throws IOException {
+        Chunk chunk;
+        try {
+            chunk = chunks.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for upload data");
+        }
+        if (chunk.error() != null) {
+            finished = true;
+            throw new IOException("Upload failed: " + chunk.error().getMessage(), chunk.error());
+        }
+        if (chunk == END) {
+            finished = true;
+            return;
+        }
+        current = chunk.data().newInput();
+        onChunkConsumed.run();
+    }
+
+    private record Chunk(ByteString data, Throwable error) {
+    }
+}
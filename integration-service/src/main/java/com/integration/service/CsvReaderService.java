@@ -1,27 +1,135 @@
 package com.integration.service;
 
 import com.integration.model.OrderCsv;
+import com.integration.util.Compression;
 import com.opencsv.bean.CsvToBean;
 import com.opencsv.bean.CsvToBeanBuilder;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.io.FileReader;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 @Service
 public class CsvReaderService {
 
-    public List<OrderCsv> readOrders(String filePath) {
-        try (Reader reader = new FileReader(filePath)) {
-            CsvToBean<OrderCsv> csvToBean = new CsvToBeanBuilder<OrderCsv>(reader)
-                    .withType(OrderCsv.class)
-                    .withIgnoreLeadingWhiteSpace(true)
-                    .build();
-            return csvToBean.parse();
-        } catch (Exception e) {
-            e.printStackTrace();
-            return null;
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+    // opencsv bean binding, or the allocation-lean FastOrderCsvParser
+    private final String parser;
+
+    public CsvReaderService(@Value("${integration.csv.parser:opencsv}") String parser) {
+        if (!parser.equals("opencsv") && !parser.equals("fast")) {
+            throw new IllegalArgumentException("Unknown CSV parser: " + parser);
+        }
+        this.parser = parser;
+    }
+
+    public List<OrderCsv> readOrders(String filePath) throws IOException {
+        try (Stream<OrderCsv> orders = streamOrders(filePath)) {
+            return orders.toList();
+        }
+    }
+
+    /**
+     * Opens the file and parses it lazily, one row per pull. Nothing is read ahead of the consumer,
+     * so memory stays flat regardless of file size. A gzip or zstd file is decompressed as it is read.
+     * The returned stream must be closed.
+     */
+    public Stream<OrderCsv> streamOrders(String filePath) throws IOException {
+        return streamOrders(openReader(filePath));
+    }
+
+    /**
+     * Opens a file for reading as UTF-8 text, decompressing it if needed. Malformed input fails the read,
+     * as with {@code Files.newBufferedReader}.
+     */
+    public static Reader openReader(String filePath) throws IOException {
+        return new BufferedReader(new InputStreamReader(Compression.openInput(Paths.get(filePath)),
+                StandardCharsets.UTF_8.newDecoder()), READ_BUFFER_SIZE);
+    }
+
+    /**
+     * Parses rows from the reader as they are pulled; closing the stream closes the reader.
+     * Uses {@link CsvToBean#iterator()} rather than {@code parse()} or {@code stream()},
+     * both of which read the whole input on a background executor.
+     */
+    public Stream<OrderCsv> streamOrders(Reader reader) {
+        Iterator<OrderCsv> iterator;
+        try {
+            iterator = parser.equals("fast") ? new FastOrderCsvParser(reader) : opencsvIterator(reader);
+        } catch (IOException e) {
+            closeQuietly(reader, e);
+            throw new UncheckedIOException(e);
+        } catch (RuntimeException e) {
+            closeQuietly(reader, e);
+            throw e;
+        }
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator,
+                        Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(() -> close(reader));
+    }
+
+    private static Iterator<OrderCsv> opencsvIterator(Reader reader) {
+        CsvToBean<OrderCsv> csvToBean = new CsvToBeanBuilder<OrderCsv>(reader)
+                .withType(OrderCsv.class)
+                .withIgnoreLeadingWhiteSpace(true)
+                .build();
+        return csvToBean.iterator();
+    }
+
+    /**
+     * Counts the data rows of a file by counting line breaks, without parsing. This is an estimate
+     * for progress reporting: quoted values spanning several lines are counted once per line.
+     * A compressed file is counted decompressed, which costs a full decompression pass.
+     */
+    public long countRows(String filePath) throws IOException {
+        long lines = 0;
+        int last = '\n';
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream in = Compression.openInput(Paths.get(filePath))) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                for (int i = 0; i < read; i++) {
+                    if (buffer[i] == '\n') {
+                        lines++;
+                    }
+                }
+                last = buffer[read - 1];
+            }
+        }
+        if (last != '\n') {
+            lines++;
+        }
+        // The header is not a row
+        return Math.max(0, lines - 1);
+    }
+
+    private static void close(Reader reader) {
+        try {
+            reader.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void closeQuietly(Reader reader, Exception cause) {
+        try {
+            reader.close();
+        } catch (IOException e) {
+            cause.addSuppressed(e);
         }
     }
-}
\ No newline at end of file
+}
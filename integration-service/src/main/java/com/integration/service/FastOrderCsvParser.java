@@ -0,0 +1,277 @@
+package com.integration.service;
+
+import com.integration.model.OrderCsv;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Parses order rows without reflection: the header is matched to the {@link OrderCsv} columns once,
+ * after which every value goes by column index straight into the constructor. Characters are read
+ * through one reusable buffer, and columns with few distinct values (country, card type, status,
+ * quantity, product and supplier pids) reuse the string of an earlier row with the same characters,
+ * so a row allocates little more than its distinct values.
+ * Follows the opencsv settings of {@link CsvReaderService}: quoted values may contain commas, line
+ * breaks and doubled quotes, and blanks before an opening quote are dropped while those of an unquoted
+ * value are kept. Unlike opencsv, blank lines are skipped instead of failing the row count check.
+ */
+final class FastOrderCsvParser implements Iterator<OrderCsv> {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final int END = -1;
+
+    private static final int UNMAPPED = -1;
+
+    // Constructor order of OrderCsv
+    private static final String[] COLUMNS = {"id", "first_name", "last_name", "email", "supplier_pid",
+            "credit_card_number", "credit_card_type", "order_id", "product_pid", "shipping_address", "country",
+            "date_created", "quantity", "full_name", "order_status"};
+
+    private static final Map<String, Integer> FIELDS = fieldsByColumn();
+
+    private static final boolean[] CACHED = cachedFields("supplier_pid", "credit_card_type", "product_pid",
+            "country", "quantity", "order_status");
+
+    private final Reader reader;
+
+    private final char[] buffer = new char[BUFFER_SIZE];
+
+    private int position;
+
+    private int limit;
+
+    private boolean skipLineFeed;
+
+    private char[] value = new char[256];
+
+    private int valueLength;
+
+    private final int[] fieldOfColumn;
+
+    private final String[] fields = new String[COLUMNS.length];
+
+    private final StringCache[] caches = new StringCache[COLUMNS.length];
+
+    private long rows;
+
+    private OrderCsv next;
+
+    FastOrderCsvParser(Reader reader) throws IOException {
+        this.reader = reader;
+        String[] header = readHeader();
+        fieldOfColumn = new int[header.length];
+        for (int column = 0; column < header.length; column++) {
+            Integer field = FIELDS.get(header[column].trim().toLowerCase(Locale.ROOT));
+            fieldOfColumn[column] = field == null ? UNMAPPED : field;
+        }
+        for (int field = 0; field < COLUMNS.length; field++) {
+            if (CACHED[field]) {
+                caches[field] = new StringCache();
+            }
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null) {
+            try {
+                next = readRow();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return next != null;
+    }
+
+    @Override
+    public OrderCsv next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        OrderCsv row = next;
+        next = null;
+        return row;
+    }
+
+    private String[] readHeader() throws IOException {
+        String[] header = new String[COLUMNS.length];
+        int columns = 0;
+        int terminator;
+        do {
+            terminator = readValue();
+            if (columns == header.length) {
+                header = Arrays.copyOf(header, columns * 2);
+            }
+            header[columns++] = new String(value, 0, valueLength);
+        } while (terminator == ',');
+        if (columns == 1 && valueLength == 0 && terminator == END) {
+            throw new IllegalArgumentException("The CSV input is empty");
+        }
+        // A byte order mark is not part of the first column name
+        if (!header[0].isEmpty() && header[0].charAt(0) == '\uFEFF') {
+            header[0] = header[0].substring(1);
+        }
+        return Arrays.copyOf(header, columns);
+    }
+
+    private OrderCsv readRow() throws IOException {
+        while (true) {
+            Arrays.fill(fields, null);
+            int column = 0;
+            int terminator;
+            do {
+                terminator = readValue();
+                if (column < fieldOfColumn.length && fieldOfColumn[column] != UNMAPPED) {
+                    int field = fieldOfColumn[column];
+                    fields[field] = caches[field] != null
+                            ? caches[field].get(value, valueLength)
+                            : new String(value, 0, valueLength);
+                }
+                column++;
+            } while (terminator == ',');
+            if (column == 1 && valueLength == 0) {
+                if (terminator == END) {
+                    return null;
+                }
+                continue;
+            }
+            rows++;
+            if (column != fieldOfColumn.length) {
+                throw new IllegalArgumentException("Row " + rows + " has " + column + " values, the header has "
+                        + fieldOfColumn.length);
+            }
+            return new OrderCsv(fields[0], fields[1], fields[2], fields[3], fields[4], fields[5], fields[6],
+                    fields[7], fields[8], fields[9], fields[10], fields[11], fields[12], fields[13], fields[14]);
+        }
+    }
+
+    /**
+     * Reads one value into {@link #value} and returns what ended it: a comma, a line break or
+     * {@link #END}.
+     */
+    private int readValue() throws IOException {
+        valueLength = 0;
+        int c = read();
+        if (skipLineFeed) {
+            skipLineFeed = false;
+            if (c == '\n') {
+                c = read();
+            }
+        }
+        while (c == ' ' || c == '\t') {
+            append((char) c);
+            c = read();
+        }
+        if (c == '"') {
+            // Blanks before an opening quote are dropped, those of an unquoted value are kept
+            valueLength = 0;
+            while (true) {
+                c = read();
+                if (c == END) {
+                    throw new IllegalArgumentException("Unterminated quoted value in row " + (rows + 1));
+                }
+                if (c == '"') {
+                    c = read();
+                    if (c != '"') {
+                        break;
+                    }
+                }
+                append((char) c);
+            }
+            // Like opencsv, text between the closing quote and the separator is kept
+            while (c != ',' && c != '\n' && c != '\r' && c != END) {
+                append((char) c);
+                c = read();
+            }
+        } else {
+            while (c != ',' && c != '\n' && c != '\r' && c != END) {
+                append((char) c);
+                c = read();
+            }
+        }
+        if (c == '\r') {
+            skipLineFeed = true;
+            return '\n';
+        }
+        return c;
+    }
+
+    private int read() throws IOException {
+        if (position == limit) {
+            limit = reader.read(buffer, 0, buffer.length);
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return END;
+            }
+        }
+        return buffer[position++];
+    }
+
+    private void append(char c) {
+        if (valueLength == value.length) {
+            value = Arrays.copyOf(value, valueLength * 2);
+        }
+        value[valueLength++] = c;
+    }
+
+    private static Map<String, Integer> fieldsByColumn() {
+        Map<String, Integer> fields = new HashMap<>();
+        for (int field = 0; field < COLUMNS.length; field++) {
+            fields.put(COLUMNS[field], field);
+        }
+        return Map.copyOf(fields);
+    }
+
+    private static boolean[] cachedFields(String... columns) {
+        boolean[] cached = new boolean[COLUMNS.length];
+        for (String column : columns) {
+            cached[FIELDS.get(column)] = true;
+        }
+        return cached;
+    }
+
+    /**
+     * Remembers the last string seen per hash slot, so a value repeated across rows is returned
+     * without allocating; a value that is not repeated only costs the slot it overwrites.
+     */
+    private static final class StringCache {
+
+        private final String[] slots = new String[1024];
+
+        String get(char[] chars, int length) {
+            int hash = 0;
+            for (int i = 0; i < length; i++) {
+                hash = 31 * hash + chars[i];
+            }
+            int slot = (hash ^ (hash >>> 16)) & (slots.length - 1);
+            String cached = slots[slot];
+            if (cached != null && matches(cached, chars, length)) {
+                return cached;
+            }
+            String value = new String(chars, 0, length);
+            slots[slot] = value;
+            return value;
+        }
+
+        private static boolean matches(String cached, char[] chars, int length) {
+            if (cached.length() != length) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                if (cached.charAt(i) != chars[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
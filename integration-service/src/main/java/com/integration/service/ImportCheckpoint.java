@@ -0,0 +1,253 @@
+package com.integration.service;
+
+import com.integration.model.ProcessedOrder;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Journal of the remote side effects of one import, kept next to its output file. Every created user
+ * and order is appended as soon as the service has answered, so a run that dies part-way can be
+ * restarted without creating any of them again: rows whose order exists are answered from the journal,
+ * rows whose user exists go straight to order creation. Failed rows are not journaled and are retried.
+ * <p>
+ * Appends are flushed to the operating system immediately, which survives the death of the process;
+ * with {@code fsync} they are also forced to disk, which survives the loss of the machine.
+ * <p>
+ * The journal is locked exclusively while the import runs, so a second import into the same output,
+ * in this process or another, is refused instead of truncating the output and journal of the first.
+ */
+public class ImportCheckpoint implements Closeable {
+
+    private static final ImportCheckpoint NONE = new ImportCheckpoint(null, null, null, new HashMap<>(), 0, false);
+
+    private static final String INPUT = "I";
+    private static final String USER = "U";
+    private static final String ORDER = "O";
+
+    private final Path path;
+
+    private final Writer journal;
+
+    private final FileChannel channel;
+
+    private final Map<Long, Entry> entries;
+
+    private final long committedRows;
+
+    private final boolean fsync;
+
+    private ImportCheckpoint(Path path, Writer journal, FileChannel channel, Map<Long, Entry> entries,
+                             long committedRows, boolean fsync) {
+        this.path = path;
+        this.journal = journal;
+        this.channel = channel;
+        this.entries = entries;
+        this.committedRows = committedRows;
+        this.fsync = fsync;
+    }
+
+    /**
+     * A checkpoint that remembers nothing, for inputs that cannot be read again such as uploads.
+     */
+    static ImportCheckpoint none() {
+        return NONE;
+    }
+
+    /**
+     * Opens the journal at {@code path}, resuming from it when it was written for the same input,
+     * and starting a new one otherwise.
+     *
+     * @throws ImportInProgressException when another import holds the journal
+     */
+    static ImportCheckpoint open(Path path, String inputId, boolean fsync) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        Map<Long, Entry> entries = new HashMap<>();
+        boolean resume;
+        try {
+            lock(channel, path);
+            resume = channel.size() > 0 && load(channel, path, inputId, entries);
+            if (!resume) {
+                entries.clear();
+                channel.truncate(0);
+            }
+            channel.position(channel.size());
+            if (resume && !endsWithLineBreak(channel)) {
+                // Ends the line cut short by a crash, so the next entry is not appended to it
+                channel.write(ByteBuffer.wrap(new byte[]{'\n'}));
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        long committedRows = 0;
+        while (entries.containsKey(committedRows + 1) && entries.get(committedRows + 1).isFinished()) {
+            committedRows++;
+        }
+        // Closing the writer closes the channel and so releases the lock
+        Writer journal = new BufferedWriter(new OutputStreamWriter(Channels.newOutputStream(channel),
+                StandardCharsets.UTF_8));
+        ImportCheckpoint checkpoint = new ImportCheckpoint(path, journal, channel, entries, committedRows, fsync);
+        if (!resume) {
+            checkpoint.append(INPUT + "\t" + inputId);
+        } else {
+            System.out.println("Resuming import from " + path + ": " + committedRows + " rows already committed, "
+                    + entries.size() + " rows journaled");
+        }
+        return checkpoint;
+    }
+
+    private static boolean endsWithLineBreak(FileChannel channel) throws IOException {
+        ByteBuffer last = ByteBuffer.allocate(1);
+        return channel.read(last, channel.size() - 1) == 1 && last.get(0) == '\n';
+    }
+
+    private static void lock(FileChannel channel, Path path) throws IOException {
+        FileLock lock;
+        try {
+            lock = channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            // Held by another import of this process
+            lock = null;
+        }
+        if (lock == null) {
+            throw new ImportInProgressException("Another import is writing to the output of " + path);
+        }
+    }
+
+    private static boolean load(FileChannel channel, Path path, String inputId, Map<Long, Entry> entries)
+            throws IOException {
+        // Not closed: that would close the channel, and release the lock with it
+        BufferedReader reader = new BufferedReader(new InputStreamReader(Channels.newInputStream(channel),
+                StandardCharsets.UTF_8));
+        String first = reader.readLine();
+        if (first == null || !first.equals(INPUT + "\t" + inputId)) {
+            System.out.println("Ignoring checkpoint " + path + ": it was written for another input");
+            return false;
+        }
+        String line;
+        while ((line = reader.readLine()) != null) {
+            String[] fields = line.split("\t", -1);
+            // A line cut short by a crash is skipped; its row is simply processed again
+            if (fields[0].equals(USER) && fields.length == 3) {
+                entries.putIfAbsent(Long.parseLong(fields[1]), new Entry(fields[2], null, null));
+            } else if (fields[0].equals(ORDER) && fields.length == 5) {
+                entries.put(Long.parseLong(fields[1]), new Entry(fields[2], fields[3], fields[4]));
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Number of leading rows whose orders all exist; a resumed run makes no calls for them, but still
+     * parses them to find where to start.
+     */
+    public long getCommittedRows() {
+        return committedRows;
+    }
+
+    /**
+     * Hands the orders of the committed rows to the sink in input order, so the output of a resumed
+     * run is complete.
+     */
+    void replayCommitted(Consumer<ProcessedOrder> sink) {
+        for (long row = 1; row <= committedRows; row++) {
+            sink.accept(entries.remove(row).toProcessedOrder());
+        }
+    }
+
+    /**
+     * What an earlier attempt already did for the row, or {@code null}.
+     */
+    Entry find(long rowNumber) {
+        return entries.isEmpty() ? null : entries.get(rowNumber);
+    }
+
+    void userCreated(long rowNumber, String userPid) {
+        if (journal != null) {
+            append(USER + "\t" + rowNumber + "\t" + clean(userPid));
+        }
+    }
+
+    void orderCreated(long rowNumber, ProcessedOrder processedOrder) {
+        if (journal != null) {
+            append(ORDER + "\t" + rowNumber + "\t" + clean(processedOrder.getUserPid()) + "\t"
+                    + clean(processedOrder.getOrderPid()) + "\t" + clean(processedOrder.getSupplierPid()));
+        }
+    }
+
+    private synchronized void append(String line) {
+        try {
+            journal.write(line);
+            journal.write('\n');
+            journal.flush();
+            if (fsync) {
+                channel.force(false);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write checkpoint " + path, e);
+        }
+    }
+
+    private static String clean(String value) {
+        return value == null ? "" : value.replace('\t', ' ').replace('\n', ' ').replace('\r', ' ');
+    }
+
+    /**
+     * Marks the import as finished: the journal is removed so the next run starts from scratch.
+     */
+    void complete() throws IOException {
+        if (journal != null) {
+            // Deleted while still locked, so it cannot be the journal of an import that started meanwhile
+            Files.deleteIfExists(path);
+            close();
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (journal != null) {
+            journal.close();
+        }
+    }
+
+    /**
+     * Thrown when the output of an import is already being written by another import.
+     */
+    public static final class ImportInProgressException extends IOException {
+
+        ImportInProgressException(String message) {
+            super(message);
+        }
+    }
+
+    record Entry(String userPid, String orderPid, String supplierPid) {
+
+        boolean isFinished() {
+            return orderPid != null;
+        }
+
+        ProcessedOrder toProcessedOrder() {
+            return new ProcessedOrder(userPid, orderPid, supplierPid);
+        }
+    }
+}
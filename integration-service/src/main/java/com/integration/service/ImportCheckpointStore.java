@@ -0,0 +1,56 @@
+package com.integration.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Opens the checkpoint of a file import. The journal lives next to the output as
+ * {@code <output>.checkpoint} and is tied to the input by its absolute path and size, so a stale
+ * journal of a different input is never replayed. The journal is locked while its import runs, so only
+ * one import at a time writes to an output.
+ */
+@Service
+public class ImportCheckpointStore {
+
+    private final boolean enabled;
+
+    private final boolean fsync;
+
+    public ImportCheckpointStore(@Value("${integration.checkpoint.enabled:true}") boolean enabled,
+                                 @Value("${integration.checkpoint.fsync:false}") boolean fsync) {
+        this.enabled = enabled;
+        this.fsync = fsync;
+    }
+
+    public ImportCheckpoint open(String inputPath, String outputPath) throws IOException {
+        if (!enabled) {
+            return ImportCheckpoint.none();
+        }
+        Path input = Paths.get(inputPath).toAbsolutePath().normalize();
+        return openForInput(input + "\t" + Files.size(input), outputPath);
+    }
+
+    /**
+     * Opens the checkpoint of an input that is not a whole file, such as one partition of it.
+     * {@code inputId} has to identify the input uniquely and must not contain line breaks.
+     */
+    public ImportCheckpoint openForInput(String inputId, String outputPath) throws IOException {
+        if (!enabled) {
+            return ImportCheckpoint.none();
+        }
+        Path checkpoint = checkpointPath(outputPath);
+        if (checkpoint.getParent() != null) {
+            Files.createDirectories(checkpoint.getParent());
+        }
+        return ImportCheckpoint.open(checkpoint, inputId, fsync);
+    }
+
+    public static Path checkpointPath(String outputPath) {
+        return Paths.get(outputPath + ".checkpoint");
+    }
+}
@@ -0,0 +1,185 @@
+package com.integration.service;
+
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+
+/**
+ * A queued or running import. The job listens to its own import to keep the live counters
+ * and forwards every callback to the listener it was created with.
+ */
+public class ImportJob implements ImportListener {
+
+    public enum State {
+        QUEUED, RUNNING, SUCCEEDED, FAILED, CANCELLED;
+
+        public boolean isFinished() {
+            return this == SUCCEEDED || this == FAILED || this == CANCELLED;
+        }
+    }
+
+    private final String id = UUID.randomUUID().toString();
+
+    private final String description;
+
+    private final ImportListener delegate;
+
+    private final CompletableFuture<ImportProgress> completion = new CompletableFuture<>();
+
+    private State state = State.QUEUED;
+
+    private String message = "Queued";
+
+    private volatile ImportProgress progress;
+
+    private volatile long totalRows = -1;
+
+    private Future<?> future;
+
+    ImportJob(String description, ImportListener delegate) {
+        this.description = description;
+        this.delegate = delegate;
+    }
+
+    void run(ImportTask task) {
+        synchronized (this) {
+            if (state != State.QUEUED) {
+                return;
+            }
+            state = State.RUNNING;
+            message = "Running";
+        }
+        ImportProgress result = null;
+        Throwable failure = null;
+        try {
+            result = task.run(this);
+        } catch (Throwable e) {
+            // Errors too: the job must not stay running with a completion that never comes
+            failure = e;
+        }
+        synchronized (this) {
+            if (state == State.RUNNING) {
+                if (failure == null) {
+                    state = State.SUCCEEDED;
+                    message = "Completed: " + result.getSucceeded() + " rows imported, "
+                            + result.getFailed() + " rows failed.";
+                } else {
+                    boolean cancelled = failure instanceof CancellationException
+                            || Thread.currentThread().isInterrupted();
+                    state = cancelled ? State.CANCELLED : State.FAILED;
+                    message = failure.getMessage() != null ? failure.getMessage() : failure.toString();
+                }
+            } else if (failure == null) {
+                failure = new CancellationException("Job " + id + " was cancelled");
+            }
+        }
+        // Completed from the worker even when cancelled, so whoever reacts to the outcome
+        // never overlaps with the import still running
+        if (failure == null) {
+            completion.complete(result);
+        } else {
+            completion.completeExceptionally(failure);
+        }
+    }
+
+    /**
+     * Cancels the job. A queued job is dropped; a running one has its worker interrupted and stops
+     * after the row in progress.
+     */
+    public boolean cancel() {
+        Future<?> running;
+        boolean queued;
+        synchronized (this) {
+            if (state.isFinished()) {
+                return false;
+            }
+            queued = state == State.QUEUED;
+            state = State.CANCELLED;
+            message = "Cancelled";
+            running = future;
+        }
+        if (running != null) {
+            running.cancel(true);
+        }
+        if (queued) {
+            completion.completeExceptionally(new CancellationException("Job " + id + " was cancelled"));
+        }
+        return true;
+    }
+
+    synchronized void setFuture(Future<?> future) {
+        this.future = future;
+    }
+
+    public void setTotalRows(long totalRows) {
+        this.totalRows = totalRows;
+    }
+
+    @Override
+    public void onStart(ImportProgress progress) {
+        this.progress = progress;
+        delegate.onStart(progress);
+    }
+
+    @Override
+    public void beforeRow(long rowNumber) {
+        delegate.beforeRow(rowNumber);
+    }
+
+    @Override
+    public void onRow(RowResult rowResult) {
+        delegate.onRow(rowResult);
+    }
+
+    @Override
+    public void onProgress(ImportProgress progress) {
+        delegate.onProgress(progress);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public synchronized String getMessage() {
+        return message;
+    }
+
+    /**
+     * Counters of the run, or {@code null} while the job is still queued.
+     */
+    public ImportProgress getProgress() {
+        return progress;
+    }
+
+    /**
+     * Expected number of rows, or -1 when the input size is not known in advance.
+     */
+    public long getTotalRows() {
+        return totalRows;
+    }
+
+    /**
+     * Estimated time to completion at the current throughput, or -1 when it cannot be estimated yet.
+     */
+    public long getEtaMillis() {
+        ImportProgress current = progress;
+        if (current == null || totalRows < 0 || current.getRowsPerSecond() == 0) {
+            return -1;
+        }
+        long remaining = Math.max(0, totalRows - current.getRowsResumed() - current.getRowsCompleted());
+        return (long) (remaining * 1000 / current.getRowsPerSecond());
+    }
+
+    public CompletableFuture<ImportProgress> getCompletion() {
+        return completion;
+    }
+}
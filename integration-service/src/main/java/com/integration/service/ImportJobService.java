@@ -0,0 +1,112 @@
+package com.integration.service;
+
+import io.opentelemetry.context.Context;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs imports on a bounded worker pool so that concurrent requests cannot overload the user,
+ * order and product services. Jobs beyond the pool size wait in a bounded queue; once that is full,
+ * submissions are rejected with a {@link RejectedExecutionException}.
+ */
+@Service
+public class ImportJobService implements DisposableBean {
+
+    private final IntegrationService integrationService;
+
+    private final CsvReaderService csvReaderService;
+
+    private final PartitionedImportService partitionedImportService;
+
+    private final ThreadPoolExecutor workers;
+
+    private final int maxRetainedJobs;
+
+    private final Map<String, ImportJob> jobs = new LinkedHashMap<>();
+
+    public ImportJobService(IntegrationService integrationService,
+                            CsvReaderService csvReaderService,
+                            PartitionedImportService partitionedImportService,
+                            @Value("${integration.max-concurrent-imports:4}") int maxConcurrentImports,
+                            @Value("${integration.jobs.queue-capacity:16}") int queueCapacity,
+                            @Value("${integration.jobs.max-retained:100}") int maxRetainedJobs) {
+        this.integrationService = integrationService;
+        this.csvReaderService = csvReaderService;
+        this.partitionedImportService = partitionedImportService;
+        int poolSize = Math.max(1, maxConcurrentImports);
+        AtomicInteger counter = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                runnable -> new Thread(runnable, "import-job-" + counter.incrementAndGet()));
+        this.maxRetainedJobs = Math.max(1, maxRetainedJobs);
+    }
+
+    /**
+     * Queues the import of a file on the server. The row count is taken with a cheap pre-scan
+     * so the job can report an ETA.
+     */
+    public ImportJob submitFile(String filePath, String outputPath) {
+        return submit("file " + filePath, ImportListener.NONE, job -> {
+            job.setTotalRows(csvReaderService.countRows(filePath));
+            return integrationService.processCsvFile(filePath, outputPath, job);
+        });
+    }
+
+    /**
+     * Queues this instance's share of a partitioned import. The total is not known up front, since other
+     * instances may process part of the input.
+     */
+    public ImportJob submitPartitioned(String inputPath, String outputPath) {
+        return submit("partitioned " + inputPath, ImportListener.NONE,
+                job -> partitionedImportService.importPartitioned(inputPath, outputPath, job));
+    }
+
+    public ImportJob submit(String description, ImportListener listener, ImportTask task) {
+        ImportJob job = new ImportJob(description, listener);
+        synchronized (jobs) {
+            jobs.put(job.getId(), job);
+            evictFinishedJobs();
+        }
+        try {
+            // The job is traced as part of the call that submitted it
+            job.setFuture(workers.submit(Context.current().wrap(() -> job.run(task))));
+        } catch (RejectedExecutionException e) {
+            synchronized (jobs) {
+                jobs.remove(job.getId());
+            }
+            throw new RejectedExecutionException("Import queue is full, try again later", e);
+        }
+        return job;
+    }
+
+    public Optional<ImportJob> getJob(String jobId) {
+        synchronized (jobs) {
+            return Optional.ofNullable(jobs.get(jobId));
+        }
+    }
+
+    private void evictFinishedJobs() {
+        Iterator<ImportJob> oldestFirst = jobs.values().iterator();
+        while (jobs.size() > maxRetainedJobs && oldestFirst.hasNext()) {
+            if (oldestFirst.next().getState().isFinished()) {
+                oldestFirst.remove();
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+        workers.shutdownNow();
+    }
+}
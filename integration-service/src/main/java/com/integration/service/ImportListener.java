@@ -0,0 +1,31 @@
+package com.integration.service;
+
+/**
+ * Receives the results of an import as they complete. Calls arrive in input order from the single
+ * thread that drains the pipeline, so implementations do not need to be thread-safe.
+ * Throwing from a callback aborts the import.
+ */
+public interface ImportListener {
+
+    ImportListener NONE = new ImportListener() {
+    };
+
+    /**
+     * Called before the first row is read with the counters that the run will keep updating.
+     */
+    default void onStart(ImportProgress progress) {
+    }
+
+    /**
+     * Called before any call is made for a row. Throwing stops the import before the row is started;
+     * rows already in flight are not waited for.
+     */
+    default void beforeRow(long rowNumber) {
+    }
+
+    default void onRow(RowResult rowResult) {
+    }
+
+    default void onProgress(ImportProgress progress) {
+    }
+}
@@ -0,0 +1,99 @@
+package com.integration.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Meters of the import pipeline itself; the downstream calls are timed by the channels.
+ * Parsing is timed per row pull, which is where the lazy CSV parser does its work, and writing per
+ * record handed to the output. {@code integration.rows.per.second} is the combined rate of the
+ * imports currently running.
+ */
+@Component
+public class ImportMetrics {
+
+    private final Timer parseTimer;
+
+    private final Timer writeTimer;
+
+    private final Timer importTimer;
+
+    private final Counter rowsSucceeded;
+
+    private final Counter rowsFailed;
+
+    private final Set<ImportProgress> running = ConcurrentHashMap.newKeySet();
+
+    public ImportMetrics(MeterRegistry registry) {
+        parseTimer = Timer.builder("integration.csv.parse")
+                .description("Time spent parsing one CSV row")
+                .publishPercentileHistogram()
+                .register(registry);
+        writeTimer = Timer.builder("integration.output.write")
+                .description("Time spent writing one processed order to the output")
+                .publishPercentileHistogram()
+                .register(registry);
+        importTimer = Timer.builder("integration.imports")
+                .description("Duration of whole imports")
+                .register(registry);
+        rowsSucceeded = Counter.builder("integration.rows").tag("outcome", "succeeded").register(registry);
+        rowsFailed = Counter.builder("integration.rows").tag("outcome", "failed").register(registry);
+        Gauge.builder("integration.rows.per.second", running,
+                        imports -> imports.stream().mapToDouble(ImportProgress::getRowsPerSecond).sum())
+                .description("Rows completed per second by the running imports")
+                .register(registry);
+        Gauge.builder("integration.imports.running", running, Set::size).register(registry);
+    }
+
+    /**
+     * Times every {@code hasNext} and {@code next} of the parser's iterator.
+     */
+    <T> Iterator<T> timeParsing(Iterator<T> rows) {
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                long start = System.nanoTime();
+                try {
+                    return rows.hasNext();
+                } finally {
+                    parseTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                }
+            }
+
+            @Override
+            public T next() {
+                long start = System.nanoTime();
+                try {
+                    return rows.next();
+                } finally {
+                    parseTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                }
+            }
+        };
+    }
+
+    void timeWrite(Runnable write) {
+        writeTimer.record(write);
+    }
+
+    void importStarted(ImportProgress progress) {
+        running.add(progress);
+    }
+
+    void rowCompleted(RowResult rowResult) {
+        (rowResult.isSuccess() ? rowsSucceeded : rowsFailed).increment();
+    }
+
+    void importFinished(ImportProgress progress) {
+        running.remove(progress);
+        importTimer.record(progress.getElapsedMillis(), TimeUnit.MILLISECONDS);
+    }
+}
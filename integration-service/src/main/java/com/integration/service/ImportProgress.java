@@ -0,0 +1,70 @@
+package com.integration.service;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Live counters of a running import. Updated by the thread that drains the pipeline
+ * and safe to read from any other thread.
+ */
+public class ImportProgress {
+
+    private final long startNanos = System.nanoTime();
+
+    private final AtomicLong rowsRead = new AtomicLong();
+
+    private final AtomicLong succeeded = new AtomicLong();
+
+    private final AtomicLong failed = new AtomicLong();
+
+    private volatile long rowsResumed;
+
+    void resumed(long rows) {
+        rowsResumed = rows;
+    }
+
+    void rowRead() {
+        rowsRead.incrementAndGet();
+    }
+
+    void rowCompleted(RowResult rowResult) {
+        if (rowResult.isSuccess()) {
+            succeeded.incrementAndGet();
+        } else {
+            failed.incrementAndGet();
+        }
+    }
+
+    /**
+     * Rows committed by an earlier, interrupted run of the same import and skipped by this one.
+     * They are not part of the other counters.
+     */
+    public long getRowsResumed() {
+        return rowsResumed;
+    }
+
+    public long getRowsRead() {
+        return rowsRead.get();
+    }
+
+    public long getSucceeded() {
+        return succeeded.get();
+    }
+
+    public long getFailed() {
+        return failed.get();
+    }
+
+    public long getRowsCompleted() {
+        return succeeded.get() + failed.get();
+    }
+
+    public long getElapsedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    public double getRowsPerSecond() {
+        long elapsedMillis = getElapsedMillis();
+        return elapsedMillis == 0 ? 0 : getRowsCompleted() * 1000.0 / elapsedMillis;
+    }
+}
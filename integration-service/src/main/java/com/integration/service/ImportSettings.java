@@ -0,0 +1,46 @@
+package com.integration.service;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * How {@link IntegrationService} runs an import, bound from the {@code integration} settings.
+ *
+ * @param parallelism rows in flight at once
+ * @param async       whether the downstream calls of each row are chained on future stubs instead of
+ *                    blocking a worker
+ * @param progress    how often progress is reported
+ * @param validation  the check of every row before any call is made for it
+ */
+@ConfigurationProperties("integration")
+public record ImportSettings(@DefaultValue("1") int parallelism,
+                             @DefaultValue("false") boolean async,
+                             @DefaultValue Progress progress,
+                             @DefaultValue Validation validation) {
+
+    public ImportSettings {
+        parallelism = Math.max(1, parallelism);
+    }
+
+    /**
+     * @param everyRows rows between two progress reports
+     */
+    public record Progress(@DefaultValue("100") int everyRows) {
+
+        public Progress {
+            everyRows = Math.max(1, everyRows);
+        }
+    }
+
+    /**
+     * @param enabled   whether rows are validated
+     * @param chunkSize rows read ahead and validated together
+     */
+    public record Validation(@DefaultValue("true") boolean enabled,
+                             @DefaultValue("1024") int chunkSize) {
+
+        public Validation {
+            chunkSize = Math.max(1, chunkSize);
+        }
+    }
+}
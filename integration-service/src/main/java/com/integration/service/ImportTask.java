@@ -0,0 +1,13 @@
+package com.integration.service;
+
+import java.io.IOException;
+
+/**
+ * The work of an {@link ImportJob}. The job is passed in as the listener of the import,
+ * so it can track progress, and may be given the expected row count up front.
+ */
+@FunctionalInterface
+public interface ImportTask {
+
+    ImportProgress run(ImportJob job) throws IOException;
+}
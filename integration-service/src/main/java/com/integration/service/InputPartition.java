@@ -0,0 +1,174 @@
+package com.integration.service;
+
+import com.integration.util.Compression;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * A byte range of an input file that starts and ends on a line boundary. Partitions other than the first
+ * of a file are read with the file's header line in front, so each parses as a CSV file of its own.
+ * Splitting on line breaks assumes that quoted values do not span several lines.
+ * A compressed file cannot be read from the middle, so it is a single partition, decompressed as it is read.
+ */
+public record InputPartition(int index, Path file, long start, long end) {
+
+    private static final int SCAN_BUFFER_SIZE = 8 * 1024;
+
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Splits a file, or every file of a directory in name order, into partitions of about
+     * {@code partitionSize} bytes.
+     */
+    public static List<InputPartition> plan(Path input, long partitionSize) throws IOException {
+        List<InputPartition> partitions = new ArrayList<>();
+        for (Path file : files(input)) {
+            split(file, Math.max(1, partitionSize), partitions);
+        }
+        return partitions;
+    }
+
+    /**
+     * The files an input stands for: the file itself, or the visible files of a directory in name order.
+     */
+    static List<Path> files(Path input) throws IOException {
+        if (!Files.isDirectory(input)) {
+            return List.of(input.toAbsolutePath().normalize());
+        }
+        try (Stream<Path> entries = Files.list(input)) {
+            return entries.filter(Files::isRegularFile)
+                    .filter(file -> !file.getFileName().toString().startsWith("."))
+                    .sorted()
+                    .map(file -> file.toAbsolutePath().normalize())
+                    .toList();
+        }
+    }
+
+    private static void split(Path file, long partitionSize, List<InputPartition> partitions) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (Compression.detect(file) != Compression.NONE) {
+                partitions.add(new InputPartition(partitions.size(), file, 0, size));
+                return;
+            }
+            long headerEnd = nextLineStart(channel, 0);
+            long start = 0;
+            while (start < size) {
+                long end = start + partitionSize >= size
+                        ? size
+                        : nextLineStart(channel, Math.max(start + partitionSize, headerEnd));
+                partitions.add(new InputPartition(partitions.size(), file, start, end));
+                start = end;
+            }
+        }
+    }
+
+    /**
+     * Position just after the first line break at or after {@code position}, or the end of the file.
+     */
+    private static long nextLineStart(FileChannel channel, long position) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+        long offset = position;
+        int read;
+        while ((read = channel.read(buffer.clear(), offset)) > 0) {
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return offset + i + 1;
+                }
+            }
+            offset += read;
+        }
+        return channel.size();
+    }
+
+    /**
+     * Identifies the partition for its checkpoint.
+     */
+    public String id() {
+        return file + "\t" + start + "-" + end;
+    }
+
+    public Reader open() throws IOException {
+        if (start == 0 && Compression.detect(file) != Compression.NONE) {
+            return CsvReaderService.openReader(file.toString());
+        }
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            InputStream body = new RangeInputStream(channel, start, end);
+            InputStream in = start == 0
+                    ? body
+                    : new SequenceInputStream(new ByteArrayInputStream(readHeader(channel)), body);
+            return new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), READ_BUFFER_SIZE);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private static byte[] readHeader(FileChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(Math.toIntExact(nextLineStart(channel, 0)));
+        int read;
+        do {
+            read = channel.read(header, header.position());
+        } while (read > 0 && header.hasRemaining());
+        return header.array();
+    }
+
+    /**
+     * Reads {@code [start, end)} of a channel with positional reads; closing it closes the channel.
+     */
+    private static final class RangeInputStream extends InputStream {
+
+        private final FileChannel channel;
+
+        private final long end;
+
+        private long position;
+
+        RangeInputStream(FileChannel channel, long start, long end) {
+            this.channel = channel;
+            this.position = start;
+            this.end = end;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            return read(single, 0, 1) == -1 ? -1 : single[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) throws IOException {
+            if (position >= end) {
+                return -1;
+            }
+            int wanted = (int) Math.min(length, end - position);
+            int read = channel.read(ByteBuffer.wrap(bytes, offset, wanted), position);
+            if (read <= 0) {
+                return -1;
+            }
+            position += read;
+            return read;
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
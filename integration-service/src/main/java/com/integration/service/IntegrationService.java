@@ -1,158 +1,536 @@
 package com.integration.service;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.ObjectWriter;
-import com.google.protobuf.Int64Value;
-import com.google.protobuf.StringValue;
+import com.integration.grpc.GrpcFutures;
 import com.integration.grpc.OrderServiceClient;
-import com.integration.grpc.ProductServiceClient;
-import com.integration.grpc.UserServiceClient;
 import com.integration.model.OrderCsv;
 import com.integration.model.ProcessedOrder;
-import com.integration.util.OrderStatusUtil;
+import com.integration.output.ProcessedOrderWriter;
+import com.integration.output.ProcessedOrderWriterFactory;
+import com.integration.output.RejectedRowWriter;
 import io.grpc.StatusRuntimeException;
-import order.Order;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.Scope;
 import org.springframework.stereotype.Service;
 import product.Product;
 
-import java.io.File;
 import java.io.IOException;
-import java.nio.file.Paths;
-import java.time.LocalDate;
-import java.time.ZonedDateTime;
-import java.time.format.DateTimeFormatter;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Optional;
-
-import static com.google.protobuf.StringValue.of;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import static com.integration.service.OrderRequestMapper.createOrderRequest;
+import static com.integration.service.OrderRequestMapper.createUserRequest;
 import static order.Order.*;
-import static order.Order.OrderStatus.*;
-import static user.User.*;
 
 @Service
 public class IntegrationService {
 
     private final CsvReaderService csvReaderService;
 
-    private final UserServiceClient userServiceClient;
+    private final UserResolver userResolver;
 
     private final OrderServiceClient orderServiceClient;
 
-    private final ProductServiceClient productServiceClient;
+    private final ProductCache productCache;
+
+    private final SupplierValidator supplierValidator;
+
+    private final ProcessedOrderWriterFactory processedOrderWriterFactory;
+
+    private final ImportCheckpointStore importCheckpointStore;
+
+    private final ImportMetrics importMetrics;
+
+    private final Tracer tracer;
 
-    private static final String OUTPUT_FILE_PATH = "/Users/fayaazuddinalimohammad/Downloads/ohs-api-test/integration-service/src/main/resources/output/processed-orders.json";
-    private static final DateTimeFormatter INPUT_DATE_FORMATTER = DateTimeFormatter.ISO_OFFSET_DATE_TIME;
-    private static final DateTimeFormatter OUTPUT_DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private final int parallelism;
+
+    private final boolean async;
+
+    private final int progressEveryRows;
+
+    private final boolean validationEnabled;
+
+    private final int validationChunkSize;
 
     public IntegrationService(CsvReaderService csvReaderService,
-                              UserServiceClient userServiceClient,
-                              OrderServiceClient orderServiceClient, ProductServiceClient productServiceClient) {
+                              UserResolver userResolver,
+                              OrderServiceClient orderServiceClient, ProductCache productCache,
+                              SupplierValidator supplierValidator,
+                              ProcessedOrderWriterFactory processedOrderWriterFactory,
+                              ImportCheckpointStore importCheckpointStore,
+                              ImportMetrics importMetrics, Tracer tracer, ImportSettings settings) {
         this.csvReaderService = csvReaderService;
-        this.userServiceClient = userServiceClient;
+        this.userResolver = userResolver;
         this.orderServiceClient = orderServiceClient;
-        this.productServiceClient = productServiceClient;
-
+        this.productCache = productCache;
+        this.supplierValidator = supplierValidator;
+        this.processedOrderWriterFactory = processedOrderWriterFactory;
+        this.importCheckpointStore = importCheckpointStore;
+        this.importMetrics = importMetrics;
+        this.tracer = tracer;
+        this.parallelism = settings.parallelism();
+        this.async = settings.async();
+        this.progressEveryRows = settings.progress().everyRows();
+        this.validationEnabled = settings.validation().enabled();
+        this.validationChunkSize = settings.validation().chunkSize();
     }
 
     public void processCsvFile(String filePath) throws IOException {
-        List<OrderCsv> orders = csvReaderService.readOrders(filePath);
-        List<ProcessedOrder> processedOrders = new ArrayList<>();
+        processCsvFile(filePath, processedOrderWriterFactory.getDefaultOutputPath());
+    }
+
+    public void processCsvFile(String filePath, String outputPath) throws IOException {
+        processCsvFile(filePath, outputPath, ImportListener.NONE);
+    }
 
-        for (OrderCsv order : orders) {
-            String userPid = getUserIdFromUserService(order);
-            if (userPid == null) continue;
-            Result result = getOrderAndSupplierId(order, userPid);
-            writeProcessedDataToJsonFile(userPid, result, processedOrders);
+    /**
+     * Imports a file, journaling created users and orders in a checkpoint next to the output. If an
+     * earlier run for the same input and output did not finish, its committed rows are skipped and
+     * their orders copied to the output from the checkpoint, so nothing is created twice. Skipping
+     * still parses those rows: the journal records row numbers, not input offsets, so a resume costs a
+     * parse of the committed part of the file, though no calls.
+     */
+    public ImportProgress processCsvFile(String filePath, String outputPath, ImportListener listener)
+            throws IOException {
+        SupplierValidator.Session suppliers = supplierValidator.newSession();
+        prefetch(filePath, suppliers);
+        try (ImportCheckpoint checkpoint = importCheckpointStore.open(filePath, outputPath)) {
+            ImportProgress progress = process(csvReaderService.streamOrders(filePath), outputPath, listener, checkpoint,
+                    suppliers);
+            checkpoint.complete();
+            return progress;
         }
     }
 
-    private String getUserIdFromUserService(OrderCsv order) {
-        String userPid;
+    /**
+     * Imports rows parsed from a reader, e.g. an upload that is still arriving. The input can only be
+     * read once, so products and suppliers are not prefetched and are looked up on first use instead.
+     */
+    public ImportProgress processCsv(Reader reader, String outputPath, ImportListener listener) throws IOException {
+        return process(csvReaderService.streamOrders(reader), outputPath, listener, ImportCheckpoint.none(),
+                supplierValidator.newSession());
+    }
+
+    /**
+     * Imports one slice of a larger input, with a checkpoint identified by {@code inputId} so that a run
+     * taken over from another node resumes where that node stopped. Closes the reader.
+     */
+    public ImportProgress processCsvPartition(Reader reader, String inputId, String outputPath,
+                                              ImportListener listener) throws IOException {
+        try (reader; ImportCheckpoint checkpoint = importCheckpointStore.openForInput(inputId, outputPath)) {
+            ImportProgress progress = process(csvReaderService.streamOrders(reader), outputPath, listener, checkpoint,
+                    supplierValidator.newSession());
+            checkpoint.complete();
+            return progress;
+        }
+    }
+
+    private ImportProgress process(Stream<OrderCsv> orders, String outputPath, ImportListener listener,
+                                   ImportCheckpoint checkpoint, SupplierValidator.Session suppliers)
+            throws IOException {
+        ImportProgress progress;
+        try (orders; ProcessedOrderWriter writer = processedOrderWriterFactory.open(outputPath);
+             RejectedRowWriter rejects = validationEnabled
+                     ? processedOrderWriterFactory.openRejects(outputPath)
+                     : RejectedRowWriter.NONE) {
+            Consumer<ProcessedOrder> sink =
+                    processedOrder -> importMetrics.timeWrite(() -> writeProcessedOrder(processedOrder, writer));
+            checkpoint.replayCommitted(sink);
+            // Committed rows are parsed and dropped; quoted values may span lines, so there is no cheap way to seek
+            progress = processOrders(orders.skip(checkpoint.getCommittedRows()), sink, listener, checkpoint,
+                    suppliers, rejects);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return progress;
+    }
+
+    /**
+     * Pre-pass over the input that only keeps the distinct product and supplier pids, so products and
+     * suppliers can be resolved with a handful of batched calls before the first row is processed.
+     */
+    private void prefetch(String filePath, SupplierValidator.Session suppliers) throws IOException {
+        boolean products = productCache.isPrefetchEnabled();
+        if (!products && !supplierValidator.isEnabled()) {
+            return;
+        }
+        Set<String> productPids = new HashSet<>();
+        Set<String> supplierPids = new HashSet<>();
+        try (Stream<OrderCsv> orders = csvReaderService.streamOrders(filePath)) {
+            orders.forEach(order -> {
+                productPids.add(order.getProductPid());
+                supplierPids.add(order.getSupplierPid());
+            });
+        }
+        if (products) {
+            productCache.prefetch(productPids);
+        }
+        suppliers.prefetch(supplierPids);
+    }
+
+    public void processOrders(Stream<OrderCsv> orders, Consumer<ProcessedOrder> sink) {
+        processOrders(orders, sink, ImportListener.NONE);
+    }
+
+    /**
+     * Runs every row through the user, product and order services and hands the results to the sink
+     * and the listener in input order. With a parallelism of 1 this is the plain sequential loop; above
+     * that the rows are spread over a bounded pool, with at most twice as many rows in flight as there
+     * are workers. In async mode no worker pool is used: each row is a non-blocking chain of future-stub
+     * calls and the same in-flight window bounds how many rows are outstanding.
+     * Rows are pulled from the stream only when there is room for them, so a lazily parsed input is
+     * never read further ahead than the in-flight window, plus the chunk being validated: unless
+     * validation is disabled, rows are checked in chunks on all cores before any call is made for them,
+     * and rows with problems fail without a call.
+     * Interrupting the calling thread cancels the import: no further rows are started and a
+     * {@link CancellationException} is thrown once the current row has been handled.
+     */
+    public ImportProgress processOrders(Stream<OrderCsv> orders, Consumer<ProcessedOrder> sink,
+                                        ImportListener listener) {
+        return processOrders(orders, sink, listener, ImportCheckpoint.none(), supplierValidator.newSession(),
+                RejectedRowWriter.NONE);
+    }
+
+    /**
+     * Same as {@link #processOrders(Stream, Consumer, ImportListener)} for a stream that starts after
+     * the committed rows of the checkpoint; rows are numbered from there on.
+     */
+    private ImportProgress processOrders(Stream<OrderCsv> orders, Consumer<ProcessedOrder> sink,
+                                         ImportListener listener, ImportCheckpoint checkpoint,
+                                         SupplierValidator.Session suppliers, RejectedRowWriter rejects) {
+        ImportProgress progress = new ImportProgress();
+        progress.resumed(checkpoint.getCommittedRows());
+        importMetrics.importStarted(progress);
+        // Child of the span of the call that started the import; every row gets a span below it
+        Span importSpan = tracer.spanBuilder("import").startSpan();
+        try (Scope ignored = importSpan.makeCurrent()) {
+            return processOrders(orders, sink, listener, checkpoint, suppliers, rejects, progress);
+        } catch (RuntimeException | Error e) {
+            importSpan.recordException(e);
+            importSpan.setStatus(StatusCode.ERROR);
+            throw e;
+        } finally {
+            importSpan.setAttribute("import.rows.resumed", progress.getRowsResumed());
+            importSpan.setAttribute("import.rows.succeeded", progress.getSucceeded());
+            importSpan.setAttribute("import.rows.failed", progress.getFailed());
+            importSpan.end();
+            importMetrics.importFinished(progress);
+        }
+    }
+
+    private ImportProgress processOrders(Stream<OrderCsv> orders, Consumer<ProcessedOrder> sink,
+                                         ImportListener listener, ImportCheckpoint checkpoint,
+                                         SupplierValidator.Session suppliers, RejectedRowWriter rejects,
+                                         ImportProgress progress) {
+        listener.onStart(progress);
+        UserResolver.Session users = userResolver.newSession();
+        Consumer<RowResult> completion = rowResult -> {
+            if (rowResult.isSuccess()) {
+                sink.accept(rowResult.processedOrder());
+            }
+            progress.rowCompleted(rowResult);
+            importMetrics.rowCompleted(rowResult);
+            listener.onRow(rowResult);
+            if (progress.getRowsCompleted() % progressEveryRows == 0) {
+                listener.onProgress(progress);
+            }
+        };
+
+        Iterator<ValidatedRows.Row> rows =
+                new ValidatedRows(importMetrics.timeParsing(orders.iterator()), validationEnabled, validationChunkSize);
+        long rowNumber = checkpoint.getCommittedRows();
+        if (parallelism == 1 && !async) {
+            while (rows.hasNext()) {
+                checkCancelled();
+                ValidatedRows.Row row = rows.next();
+                progress.rowRead();
+                long number = ++rowNumber;
+                listener.beforeRow(number);
+                completion.accept(row.isValid()
+                        ? processOrder(number, row.order(), checkpoint, users, suppliers)
+                        : reject(number, row, rejects));
+            }
+            listener.onProgress(progress);
+            return progress;
+        }
+
+        ExecutorService executor = async ? null : Context.taskWrapping(Executors.newFixedThreadPool(parallelism));
+        Deque<CompletableFuture<RowResult>> inFlight = new ArrayDeque<>();
+        try {
+            while (rows.hasNext()) {
+                checkCancelled();
+                ValidatedRows.Row row = rows.next();
+                progress.rowRead();
+                long number = ++rowNumber;
+                if (inFlight.size() >= parallelism * 2) {
+                    completion.accept(awaitHead(inFlight));
+                }
+                listener.beforeRow(number);
+                if (!row.isValid()) {
+                    // Completed in input order behind the rows still in flight
+                    inFlight.add(CompletableFuture.completedFuture(reject(number, row, rejects)));
+                    continue;
+                }
+                OrderCsv order = row.order();
+                inFlight.add(async
+                        ? processOrderAsync(number, order, checkpoint, users, suppliers)
+                        : CompletableFuture.supplyAsync(() -> processOrder(number, order, checkpoint, users, suppliers),
+                        executor));
+            }
+            while (!inFlight.isEmpty()) {
+                completion.accept(awaitHead(inFlight));
+            }
+        } finally {
+            inFlight.forEach(future -> future.cancel(true));
+            if (executor != null) {
+                executor.shutdownNow();
+            }
+        }
+        listener.onProgress(progress);
+        return progress;
+    }
+
+    private RowResult processOrder(long rowNumber, OrderCsv order, ImportCheckpoint checkpoint,
+                                   UserResolver.Session users, SupplierValidator.Session suppliers) {
+        Span span = startRowSpan(rowNumber, order);
+        try (Scope ignored = span.makeCurrent()) {
+            return endRowSpan(span, importOrder(rowNumber, order, checkpoint, users, suppliers));
+        } catch (RuntimeException e) {
+            failRowSpan(span, e);
+            throw e;
+        }
+    }
 
-        // Create user
-        CreateUserRequest userRequest = CreateUserRequest.newBuilder()
-                .setFullName(of(order.getFirstName() + " " + order.getLastName()))
-                .setEmail(order.getEmail())
-                .setAddress(ShippingAddress
-                        .newBuilder()
-                        .setAddress(of(order.getShippingAddress()))
-                        .setCountry(of(order.getCountry()))
-                        .build())
-                .addPaymentMethods(PaymentMethod.newBuilder()
-                        .setCreditCardNumber(of(order.getCreditCardNumber()))
-                        .setCreditCardType(of(order.getCreditCardType()))
-                        .build())
-                .setPassword(of(" "))
-                .build();
+    private RowResult importOrder(long rowNumber, OrderCsv order, ImportCheckpoint checkpoint,
+                                  UserResolver.Session users, SupplierValidator.Session suppliers) {
+        ImportCheckpoint.Entry journaled = checkpoint.find(rowNumber);
+        if (journaled != null && journaled.isFinished()) {
+            return RowResult.succeeded(rowNumber, order.getId(), journaled.toProcessedOrder());
+        }
+        String userPid;
+        if (journaled != null) {
+            // The supplier was checked before this user was created
+            userPid = journaled.userPid();
+        } else {
+            try {
+                if (!suppliers.isKnown(order.getSupplierPid())) {
+                    return rejectSupplier(rowNumber, order);
+                }
+                userPid = users.resolve(createUserRequest(order));
+            } catch (StatusRuntimeException e) {
+                System.err.println(e.getMessage());
+                return RowResult.failed(rowNumber, order.getId(), e.getMessage());
+            }
+            checkpoint.userCreated(rowNumber, userPid);
+        }
+        Result result;
         try {
-            UserResponse userResponse = userServiceClient.createUser(userRequest);
-            userPid = userResponse.getPid();
+            result = getOrderAndSupplierId(order, userPid);
         } catch (StatusRuntimeException e) {
+            // The user stays journaled, so a resumed import only retries the order
             System.err.println(e.getMessage());
-            return null;
+            return RowResult.failed(rowNumber, order.getId(), e.getMessage());
         }
-        return userPid;
+        ProcessedOrder processedOrder = new ProcessedOrder(userPid, result.orderId(), result.supplierPid());
+        checkpoint.orderCreated(rowNumber, processedOrder);
+        return RowResult.succeeded(rowNumber, order.getId(), processedOrder);
     }
 
+    private CompletableFuture<RowResult> processOrderAsync(long rowNumber, OrderCsv order,
+                                                           ImportCheckpoint checkpoint, UserResolver.Session users,
+                                                           SupplierValidator.Session suppliers) {
+        Span span = startRowSpan(rowNumber, order);
+        CompletableFuture<RowResult> result;
+        try (Scope ignored = span.makeCurrent()) {
+            result = importOrderAsync(rowNumber, order, checkpoint, users, suppliers);
+        } catch (RuntimeException e) {
+            failRowSpan(span, e);
+            throw e;
+        }
+        return result.whenComplete((rowResult, error) -> {
+            if (error == null) {
+                endRowSpan(span, rowResult);
+            } else {
+                failRowSpan(span, GrpcFutures.unwrap(error));
+            }
+        });
+    }
 
-    private void writeProcessedDataToJsonFile(String userPid, Result result, List<ProcessedOrder> processedOrders) {
-        ProcessedOrder processedOrder = new ProcessedOrder(userPid, result.orderId(), result.supplierPid());
-        processedOrders.add(processedOrder);
+    private CompletableFuture<RowResult> importOrderAsync(long rowNumber, OrderCsv order,
+                                                          ImportCheckpoint checkpoint, UserResolver.Session users,
+                                                          SupplierValidator.Session suppliers) {
+        ImportCheckpoint.Entry journaled = checkpoint.find(rowNumber);
+        if (journaled != null && journaled.isFinished()) {
+            return CompletableFuture.completedFuture(
+                    RowResult.succeeded(rowNumber, order.getId(), journaled.toProcessedOrder()));
+        }
+        if (journaled != null) {
+            return importCheckedOrderAsync(rowNumber, order, checkpoint, users, journaled);
+        }
+        // Prefetched suppliers are answered at once; others are looked up before any user is created
+        return suppliers.isKnownAsync(order.getSupplierPid())
+                .handle(Context.current().wrapFunction((Boolean known, Throwable error) -> {
+                    if (error == null) {
+                        return known
+                                ? importCheckedOrderAsync(rowNumber, order, checkpoint, users, null)
+                                : CompletableFuture.completedFuture(rejectSupplier(rowNumber, order));
+                    }
+                    return failRow(rowNumber, order, error);
+                }))
+                .thenCompose(Function.identity());
+    }
 
-        writeProcessedOrdersToJson(processedOrders);
+    private CompletableFuture<RowResult> importCheckedOrderAsync(long rowNumber, OrderCsv order,
+                                                                 ImportCheckpoint checkpoint,
+                                                                 UserResolver.Session users,
+                                                                 ImportCheckpoint.Entry journaled) {
+        // The product lookup does not depend on the user, so both go out at once
+        CompletableFuture<Product.ProductResponse> product = productCache.getAsync(order.getProductPid());
+        CompletableFuture<String> user = journaled != null
+                ? CompletableFuture.completedFuture(journaled.userPid())
+                : users.resolveAsync(createUserRequest(order)).thenApply(userPid -> {
+                    checkpoint.userCreated(rowNumber, userPid);
+                    return userPid;
+                });
+        // The order is created on a callback thread, where the row's span has to be made current again
+        return user
+                .handle(Context.current().wrapFunction((String userPid, Throwable error) -> {
+                    if (error == null) {
+                        return createOrderAsync(rowNumber, order, userPid, product, checkpoint);
+                    }
+                    return failRow(rowNumber, order, error);
+                }))
+                .thenCompose(Function.identity());
     }
 
-    private Result getOrderAndSupplierId(OrderCsv order, String userPid) {
-        // Create order
-        Product.ProductResponse productResponse = productServiceClient.getProductByPid(of(order.getProductPid()));
-        Order.Product productDetails = Order.Product.newBuilder()
-                .setPid(productResponse.getPid())
-                .setPricePerUnit(productResponse.getPricePerUnit())
-                .setQuantity(Integer.parseInt(order.getQuantity()))
-                .build();
-        String dateCreatedStr = order.getDateCreated();
-        LocalDate dateCreated = ZonedDateTime.parse(dateCreatedStr, INPUT_DATE_FORMATTER).toLocalDate();
-        String formattedDateCreated = dateCreated.format(OUTPUT_DATE_FORMATTER);
-        var orderStatus = order.getOrderStatus();
-
-        CreateOrderRequest orderRequest = CreateOrderRequest.newBuilder()
-                .addProducts(productDetails)
-                .setUserPid(userPid)
-                .setDateCreated(of(formattedDateCreated))
-                .setStatus(OrderStatusUtil.mapStringToOrderStatus(orderStatus))
-                .setPricePerUnit(productResponse.getPricePerUnit())
-                .setQuantity(Integer.parseInt(order.getQuantity()))
-                .setDateDelivered(of(ZonedDateTime
-                        .now()
-                        .format(DateTimeFormatter.ofPattern("yyyy-MM-dd"))))
-                .build();
-        //Creating order in Order-Service
-        orderServiceClient.createOrder(orderRequest);
-
-        PageableRequest requestPageable = PageableRequest.newBuilder().setNumberPerPage(Int64Value.of(100)).build();
-        PageableResponse pageableResponse = orderServiceClient.getALlOrders(requestPageable);
-
-        String supplierPid = order.getSupplierPid();
-        String orderId = pageableResponse.getDataList().stream().filter(s -> s.getUserPid().equals(userPid))
-                .findFirst()
-                .map(OrderResponse::getPid)
-                .orElse(null);
-
-        return new Result(supplierPid, orderId);
+    /**
+     * A downstream error fails the row; anything else fails the import.
+     */
+    private static CompletableFuture<RowResult> failRow(long rowNumber, OrderCsv order, Throwable error) {
+        if (GrpcFutures.unwrap(error) instanceof StatusRuntimeException e) {
+            System.err.println(e.getMessage());
+            return CompletableFuture.completedFuture(RowResult.failed(rowNumber, order.getId(), e.getMessage()));
+        }
+        throw new CompletionException(GrpcFutures.unwrap(error));
     }
 
-    private record Result(String supplierPid, String orderId) {
+    private static RowResult reject(long rowNumber, ValidatedRows.Row row, RejectedRowWriter rejects) {
+        String message = String.join("; ", row.problems());
+        System.err.println("Row " + row.order().getId() + ": " + message);
+        try {
+            rejects.write(rowNumber, row.order(), row.problems());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return RowResult.failed(rowNumber, row.order().getId(), message);
+    }
+
+    private static RowResult rejectSupplier(long rowNumber, OrderCsv order) {
+        String message = SupplierValidator.rejection(order.getSupplierPid());
+        System.err.println("Row " + order.getId() + ": " + message);
+        return RowResult.failed(rowNumber, order.getId(), message);
+    }
+
+    private CompletableFuture<RowResult> createOrderAsync(long rowNumber, OrderCsv order, String userPid,
+                                                          CompletableFuture<Product.ProductResponse> product,
+                                                          ImportCheckpoint checkpoint) {
+        return product
+                .thenCompose(Context.current().wrapFunction(productResponse -> orderServiceClient
+                        .createOrderAsync(createOrderRequest(order, userPid, productResponse))))
+                .thenApply(orderResponse -> {
+                    ProcessedOrder processedOrder =
+                            new ProcessedOrder(userPid, orderResponse.getPid(), order.getSupplierPid());
+                    checkpoint.orderCreated(rowNumber, processedOrder);
+                    return RowResult.succeeded(rowNumber, order.getId(), processedOrder);
+                })
+                // A failed product lookup or order call fails the row, not the import
+                .handle((rowResult, error) -> error == null
+                        ? CompletableFuture.completedFuture(rowResult)
+                        : failRow(rowNumber, order, error))
+                .thenCompose(Function.identity());
     }
 
-    private void writeProcessedOrdersToJson(List<ProcessedOrder> processedOrders) {
-        ObjectMapper mapper = new ObjectMapper();
-        ObjectWriter writer = mapper.writerWithDefaultPrettyPrinter();
+    private Span startRowSpan(long rowNumber, OrderCsv order) {
+        return tracer.spanBuilder("import row")
+                .setAttribute("row.number", rowNumber)
+                .setAttribute("row.id", order.getId() == null ? "" : order.getId())
+                .startSpan();
+    }
+
+    private static RowResult endRowSpan(Span span, RowResult rowResult) {
+        if (!rowResult.isSuccess()) {
+            span.setStatus(StatusCode.ERROR, rowResult.error() == null ? "" : rowResult.error());
+        }
+        span.end();
+        return rowResult;
+    }
+
+    private static void failRowSpan(Span span, Throwable error) {
+        span.recordException(error);
+        span.setStatus(StatusCode.ERROR);
+        span.end();
+    }
+
+    private static RowResult awaitHead(Deque<CompletableFuture<RowResult>> inFlight) {
+        try {
+            return inFlight.removeFirst().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Import cancelled while waiting for an order row");
+        } catch (ExecutionException e) {
+            Throwable cause = GrpcFutures.unwrap(e);
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    private static void checkCancelled() {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new CancellationException("Import cancelled");
+        }
+    }
 
+    private static void writeProcessedOrder(ProcessedOrder processedOrder, ProcessedOrderWriter writer) {
         try {
-            writer.writeValue(new File(OUTPUT_FILE_PATH), processedOrders);
+            writer.write(processedOrder);
         } catch (IOException e) {
-            e.printStackTrace();
+            throw new UncheckedIOException(e);
         }
     }
+
+    private Result getOrderAndSupplierId(OrderCsv order, String userPid) {
+        // Create order
+        Product.ProductResponse productResponse = productCache.get(order.getProductPid());
+        CreateOrderRequest orderRequest = createOrderRequest(order, userPid, productResponse);
+
+        //Creating order in Order-Service; the response already carries the pid of the new order
+        OrderResponse orderResponse = orderServiceClient.createOrder(orderRequest);
+
+        return new Result(order.getSupplierPid(), orderResponse.getPid());
+    }
+
+    private record Result(String supplierPid, String orderId) {
+    }
 }
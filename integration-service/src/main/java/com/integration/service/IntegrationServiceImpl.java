@@ -1,11 +1,26 @@
 package com.integration.service;
 
+import com.integration.batch.BatchOrderImportService;
+import com.integration.grpc.GrpcFutures;
+import com.integration.output.ProcessedOrderWriterFactory;
+import com.integration.util.Compression;
 import integration.IntegrationServiceGrpc;
-import integration.IntegrationServiceProto;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.stub.ServerCallStreamObserver;
 import io.grpc.stub.StreamObserver;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobExecutionException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.RejectedExecutionException;
 
 import static integration.IntegrationServiceProto.*;
 
@@ -14,15 +29,66 @@ public class IntegrationServiceImpl extends IntegrationServiceGrpc.IntegrationSe
 
     private final IntegrationService integrationService;
 
-    public IntegrationServiceImpl(IntegrationService integrationService) {
+    private final OrderReconciliationService orderReconciliationService;
+
+    private final ProcessedOrderWriterFactory processedOrderWriterFactory;
+
+    // Streaming imports and uploads run as jobs rather than on the handler thread, which has to stay free
+    // to deliver the call's onReady and cancel callbacks
+    private final ImportJobService importJobService;
+
+    private final PartitionedImportService partitionedImportService;
+
+    // Only present with integration.batch.enabled; file imports then run as the Spring Batch job
+    private final BatchOrderImportService batchOrderImportService;
+
+    private final int uploadBufferChunks;
+
+    public IntegrationServiceImpl(IntegrationService integrationService,
+                                  OrderReconciliationService orderReconciliationService,
+                                  ProcessedOrderWriterFactory processedOrderWriterFactory,
+                                  ImportJobService importJobService,
+                                  PartitionedImportService partitionedImportService,
+                                  ObjectProvider<BatchOrderImportService> batchOrderImportService,
+                                  @Value("${integration.upload.buffer-chunks:8}") int uploadBufferChunks) {
         this.integrationService = integrationService;
+        this.orderReconciliationService = orderReconciliationService;
+        this.processedOrderWriterFactory = processedOrderWriterFactory;
+        this.importJobService = importJobService;
+        this.partitionedImportService = partitionedImportService;
+        this.batchOrderImportService = batchOrderImportService.getIfAvailable();
+        this.uploadBufferChunks = Math.max(1, uploadBufferChunks);
     }
 
     @Override
     public void processCsvFile(ProcessCsvRequest request, StreamObserver<ProcessCsvResponse> responseObserver) {
         String filePath = request.getFilePath();
+        String outputPath = outputPath(request.getOutputPath());
+        if (request.getAsync()) {
+            try {
+                ImportJob job = request.getPartitioned()
+                        ? importJobService.submitPartitioned(filePath, outputPath)
+                        : importJobService.submitFile(filePath, outputPath);
+                responseObserver.onNext(ProcessCsvResponse.newBuilder()
+                        .setMessage("CSV file queued for processing.")
+                        .setJobId(job.getId())
+                        .build());
+                responseObserver.onCompleted();
+            } catch (RejectedExecutionException e) {
+                responseObserver.onError(Status.RESOURCE_EXHAUSTED.withDescription(e.getMessage()).asRuntimeException());
+            }
+            return;
+        }
+        if (request.getPartitioned()) {
+            processCsvFilePartitioned(filePath, outputPath, responseObserver);
+            return;
+        }
+        if (batchOrderImportService != null) {
+            processCsvFileWithBatch(filePath, outputPath, responseObserver);
+            return;
+        }
         try {
-            integrationService.processCsvFile(filePath);
+            integrationService.processCsvFile(filePath, outputPath);
             ProcessCsvResponse response = ProcessCsvResponse.newBuilder()
                     .setMessage("CSV file processed successfully.")
                     .build();
@@ -36,4 +102,208 @@ public class IntegrationServiceImpl extends IntegrationServiceGrpc.IntegrationSe
             responseObserver.onCompleted();
         }
     }
+
+    private void processCsvFilePartitioned(String filePath, String outputPath,
+                                           StreamObserver<ProcessCsvResponse> responseObserver) {
+        String message;
+        try {
+            ImportProgress progress = partitionedImportService.importPartitioned(filePath, outputPath, ImportListener.NONE);
+            message = "CSV file processed successfully: " + progress.getSucceeded() + " rows imported, "
+                    + progress.getFailed() + " rows failed on this instance.";
+        } catch (IOException | RuntimeException e) {
+            message = "Error processing CSV file: " + e.getMessage();
+        }
+        responseObserver.onNext(ProcessCsvResponse.newBuilder().setMessage(message).build());
+        responseObserver.onCompleted();
+    }
+
+    private void processCsvFileWithBatch(String filePath, String outputPath,
+                                         StreamObserver<ProcessCsvResponse> responseObserver) {
+        String message;
+        try {
+            JobExecution execution = batchOrderImportService.run(filePath, outputPath);
+            message = BatchOrderImportService.isCompleted(execution)
+                    ? "CSV file processed successfully. " + BatchOrderImportService.summary(execution)
+                    : "Error processing CSV file: " + BatchOrderImportService.summary(execution);
+        } catch (JobExecutionException e) {
+            message = "Error processing CSV file: " + e.getMessage();
+        }
+        responseObserver.onNext(ProcessCsvResponse.newBuilder().setMessage(message).build());
+        responseObserver.onCompleted();
+    }
+
+    @Override
+    public void processCsvFileStream(ProcessCsvRequest request, StreamObserver<ProcessCsvEvent> responseObserver) {
+        StreamingImportListener listener =
+                new StreamingImportListener((ServerCallStreamObserver<ProcessCsvEvent>) responseObserver);
+        String filePath = request.getFilePath();
+        String outputPath = outputPath(request.getOutputPath());
+        ImportJob job;
+        try {
+            job = importJobService.submit("stream " + filePath, listener,
+                    streamJob -> integrationService.processCsvFile(filePath, outputPath, streamJob));
+        } catch (RejectedExecutionException e) {
+            responseObserver.onError(Status.RESOURCE_EXHAUSTED.withDescription(e.getMessage()).asRuntimeException());
+            return;
+        }
+        job.getCompletion().whenComplete((progress, error) -> {
+            if (error == null) {
+                listener.onCompleted("CSV file processed successfully.");
+            } else {
+                listener.onError(GrpcFutures.unwrap(error));
+            }
+        });
+    }
+
+    @Override
+    public StreamObserver<UploadCsvChunk> uploadCsv(StreamObserver<ProcessCsvResponse> responseObserver) {
+        ServerCallStreamObserver<ProcessCsvResponse> serverObserver =
+                (ServerCallStreamObserver<ProcessCsvResponse>) responseObserver;
+        // gRPC still makes the first request itself; every chunk the parser consumes requests one more
+        serverObserver.disableAutoInboundFlowControl();
+        ChunkQueueInputStream upload = new ChunkQueueInputStream(uploadBufferChunks, () -> serverObserver.request(1));
+        if (uploadBufferChunks > 1) {
+            serverObserver.request(uploadBufferChunks - 1);
+        }
+
+        return new StreamObserver<>() {
+
+            private boolean started;
+
+            private boolean rejected;
+
+            @Override
+            public void onNext(UploadCsvChunk chunk) {
+                if (rejected) {
+                    return;
+                }
+                if (!started) {
+                    started = true;
+                    String outputPath = outputPath(chunk.getOutputPath());
+                    try {
+                        startUpload(upload, outputPath, serverObserver);
+                    } catch (RejectedExecutionException e) {
+                        rejected = true;
+                        responseObserver.onError(Status.RESOURCE_EXHAUSTED.withDescription(e.getMessage())
+                                .asRuntimeException());
+                        return;
+                    }
+                }
+                upload.add(chunk.getData());
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                upload.fail(t);
+            }
+
+            @Override
+            public void onCompleted() {
+                if (rejected) {
+                    return;
+                }
+                if (!started) {
+                    responseObserver.onNext(ProcessCsvResponse.newBuilder()
+                            .setMessage("Error processing CSV upload: no data received")
+                            .build());
+                    responseObserver.onCompleted();
+                    return;
+                }
+                upload.complete();
+            }
+        };
+    }
+
+    private void startUpload(ChunkQueueInputStream upload, String outputPath,
+                             ServerCallStreamObserver<ProcessCsvResponse> responseObserver) {
+        ImportJob job = importJobService.submit("upload to " + outputPath, ImportListener.NONE, uploadJob -> {
+            // Uploads may be gzip or zstd compressed, like files
+            try (Reader reader = new BufferedReader(new InputStreamReader(Compression.decompressing(upload),
+                    StandardCharsets.UTF_8))) {
+                return integrationService.processCsv(reader, outputPath, uploadJob);
+            }
+        });
+        job.getCompletion().whenComplete((progress, error) -> {
+            String message = error == null
+                    ? "CSV upload processed successfully: " + progress.getSucceeded() + " rows imported, "
+                    + progress.getFailed() + " rows failed."
+                    : "Error processing CSV upload: " + GrpcFutures.unwrap(error).getMessage();
+            if (responseObserver.isCancelled()) {
+                return;
+            }
+            responseObserver.onNext(ProcessCsvResponse.newBuilder().setMessage(message).setJobId(job.getId()).build());
+            responseObserver.onCompleted();
+        });
+    }
+
+    private String outputPath(String requested) {
+        return requested.isEmpty() ? processedOrderWriterFactory.getDefaultOutputPath() : requested;
+    }
+
+    @Override
+    public void getJobStatus(JobRequest request, StreamObserver<JobStatusResponse> responseObserver) {
+        importJobService.getJob(request.getJobId()).ifPresentOrElse(job -> {
+            responseObserver.onNext(toJobStatus(job));
+            responseObserver.onCompleted();
+        }, () -> responseObserver.onError(unknownJob(request.getJobId())));
+    }
+
+    @Override
+    public void cancelJob(JobRequest request, StreamObserver<JobStatusResponse> responseObserver) {
+        importJobService.getJob(request.getJobId()).ifPresentOrElse(job -> {
+            job.cancel();
+            responseObserver.onNext(toJobStatus(job));
+            responseObserver.onCompleted();
+        }, () -> responseObserver.onError(unknownJob(request.getJobId())));
+    }
+
+    private static RuntimeException unknownJob(String jobId) {
+        return Status.NOT_FOUND.withDescription("Unknown import job: " + jobId).asRuntimeException();
+    }
+
+    private static JobStatusResponse toJobStatus(ImportJob job) {
+        JobStatusResponse.Builder status = JobStatusResponse.newBuilder()
+                .setJobId(job.getId())
+                .setState(JobState.valueOf(job.getState().name()))
+                .setTotalRows(job.getTotalRows())
+                .setEtaMs(job.getEtaMillis())
+                .setMessage(job.getMessage());
+        ImportProgress progress = job.getProgress();
+        if (progress != null) {
+            status.setRowsRead(progress.getRowsRead())
+                    .setSucceeded(progress.getSucceeded())
+                    .setFailed(progress.getFailed())
+                    .setRowsPerSecond(progress.getRowsPerSecond())
+                    .setElapsedMs(progress.getElapsedMillis());
+        }
+        return status.build();
+    }
+
+    @Override
+    public void reconcileOrders(ReconcileOrdersRequest request, StreamObserver<ReconcileOrdersResponse> responseObserver) {
+        String outputPath = outputPath(request.getOutputPath());
+        try {
+            OrderReconciliationService.Report report = orderReconciliationService.reconcile(outputPath);
+            ReconcileOrdersResponse response = ReconcileOrdersResponse.newBuilder()
+                    .setChecked(report.getChecked())
+                    .setVerified(report.getVerified())
+                    .setMissing(report.getMissing())
+                    .setUserMismatches(report.getUserMismatches())
+                    .setWithoutOrderPid(report.getWithoutOrderPid())
+                    .addAllFailedOrderPids(report.getFailedOrderPids())
+                    .setMessage("Reconciliation completed.")
+                    .build();
+            responseObserver.onNext(response);
+            responseObserver.onCompleted();
+        } catch (IOException e) {
+            ReconcileOrdersResponse response = ReconcileOrdersResponse.newBuilder()
+                    .setMessage("Error reading processed orders: " + e.getMessage())
+                    .build();
+            responseObserver.onNext(response);
+            responseObserver.onCompleted();
+        } catch (StatusRuntimeException e) {
+            // The order service's status, rather than UNKNOWN
+            responseObserver.onError(e.getStatus().asRuntimeException());
+        }
+    }
 }
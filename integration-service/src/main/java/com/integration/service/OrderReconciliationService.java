@@ -0,0 +1,132 @@
+package com.integration.service;
+
+import com.integration.grpc.OrderServiceClient;
+import com.integration.model.ProcessedOrder;
+import com.integration.output.ProcessedOrderReader;
+import order.Order;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Verifies a completed run against the order service. The processed orders are streamed back from
+ * the output file and looked up in batches through {@code GetOrdersByPids}, so a run of N rows costs
+ * N / batch-size round-trips instead of one per row.
+ */
+@Service
+public class OrderReconciliationService {
+
+    private static final int MAX_REPORTED_PIDS = 100;
+
+    private final OrderServiceClient orderServiceClient;
+
+    private final int batchSize;
+
+    public OrderReconciliationService(OrderServiceClient orderServiceClient,
+                                      @Value("${integration.reconciliation.batch-size:100}") int batchSize) {
+        this.orderServiceClient = orderServiceClient;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    public Report reconcile(String outputPath) throws IOException {
+        Report report = new Report();
+        List<ProcessedOrder> batch = new ArrayList<>(batchSize);
+
+        try (Stream<ProcessedOrder> processedOrders = ProcessedOrderReader.read(Paths.get(outputPath))) {
+            Iterator<ProcessedOrder> iterator = processedOrders.iterator();
+            while (iterator.hasNext()) {
+                ProcessedOrder processedOrder = iterator.next();
+                if (processedOrder.getOrderPid() == null || processedOrder.getOrderPid().isEmpty()) {
+                    report.withoutOrderPid++;
+                    continue;
+                }
+                batch.add(processedOrder);
+                if (batch.size() == batchSize) {
+                    verifyBatch(batch, report);
+                    batch.clear();
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            verifyBatch(batch, report);
+        }
+        return report;
+    }
+
+    private void verifyBatch(List<ProcessedOrder> batch, Report report) {
+        Order.StringsRequest.Builder request = Order.StringsRequest.newBuilder();
+        batch.forEach(processedOrder -> request.addRequest(processedOrder.getOrderPid()));
+
+        Map<String, String> userPidByOrderPid = new HashMap<>();
+        for (Order.OrderResponse order : orderServiceClient.getOrdersByPids(request.build()).getOrdersList()) {
+            userPidByOrderPid.put(order.getPid(), order.getUserPid());
+        }
+
+        for (ProcessedOrder processedOrder : batch) {
+            report.checked++;
+            String userPid = userPidByOrderPid.get(processedOrder.getOrderPid());
+            if (userPid == null) {
+                report.missing++;
+                report.record(processedOrder.getOrderPid());
+            } else if (!userPid.equals(processedOrder.getUserPid())) {
+                report.userMismatches++;
+                report.record(processedOrder.getOrderPid());
+            } else {
+                report.verified++;
+            }
+        }
+    }
+
+    public static class Report {
+
+        private long checked;
+
+        private long verified;
+
+        private long missing;
+
+        private long userMismatches;
+
+        private long withoutOrderPid;
+
+        private final List<String> failedOrderPids = new ArrayList<>();
+
+        private void record(String orderPid) {
+            if (failedOrderPids.size() < MAX_REPORTED_PIDS) {
+                failedOrderPids.add(orderPid);
+            }
+        }
+
+        public long getChecked() {
+            return checked;
+        }
+
+        public long getVerified() {
+            return verified;
+        }
+
+        public long getMissing() {
+            return missing;
+        }
+
+        public long getUserMismatches() {
+            return userMismatches;
+        }
+
+        public long getWithoutOrderPid() {
+            return withoutOrderPid;
+        }
+
+        public List<String> getFailedOrderPids() {
+            return failedOrderPids;
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.integration.service;
+
+import com.google.protobuf.StringValue;
+import com.integration.model.OrderCsv;
+import com.integration.util.OrderStatusUtil;
+import order.Order;
+import product.Product;
+
+import java.time.Month;
+import java.time.Year;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.google.protobuf.StringValue.of;
+import static order.Order.*;
+import static user.User.*;
+
+/**
+ * Builds the user and order service requests for a CSV row. Shared by the import pipeline and the
+ * batch job.
+ * Values that repeat across rows (countries, card types, dates) are wrapped in a {@link StringValue}
+ * once, and the delivery date is formatted once per day rather than once per row.
+ */
+public final class OrderRequestMapper {
+
+    private static final DateTimeFormatter INPUT_DATE_FORMATTER = DateTimeFormatter.ISO_OFFSET_DATE_TIME;
+    private static final DateTimeFormatter OUTPUT_DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+
+    private static final StringValue PASSWORD = of(" ");
+
+    private static final int MAX_CACHED_VALUES = 4096;
+
+    private static final Map<String, StringValue> CACHED_VALUES = new ConcurrentHashMap<>();
+
+    private static volatile RunDate runDate = RunDate.today();
+
+    private OrderRequestMapper() {
+    }
+
+    public static CreateUserRequest createUserRequest(OrderCsv order) {
+        return CreateUserRequest.newBuilder()
+                .setFullName(of(order.getFirstName() + " " + order.getLastName()))
+                .setEmail(order.getEmail())
+                .setAddress(ShippingAddress
+                        .newBuilder()
+                        .setAddress(of(order.getShippingAddress()))
+                        .setCountry(cached(order.getCountry()))
+                        .build())
+                .addPaymentMethods(PaymentMethod.newBuilder()
+                        .setCreditCardNumber(of(order.getCreditCardNumber()))
+                        .setCreditCardType(cached(order.getCreditCardType()))
+                        .build())
+                .setPassword(PASSWORD)
+                .build();
+    }
+
+    public static CreateOrderRequest createOrderRequest(OrderCsv order, String userPid,
+                                                        Product.ProductResponse productResponse) {
+        int quantity = Integer.parseInt(order.getQuantity());
+        Order.Product productDetails = Order.Product.newBuilder()
+                .setPid(productResponse.getPid())
+                .setPricePerUnit(productResponse.getPricePerUnit())
+                .setQuantity(quantity)
+                .build();
+        var orderStatus = order.getOrderStatus();
+
+        return CreateOrderRequest.newBuilder()
+                .addProducts(productDetails)
+                .setUserPid(userPid)
+                .setDateCreated(dateCreated(order.getDateCreated()))
+                .setStatus(OrderStatusUtil.mapStringToOrderStatus(orderStatus))
+                .setPricePerUnit(productResponse.getPricePerUnit())
+                .setQuantity(quantity)
+                .setDateDelivered(runDate())
+                .build();
+    }
+
+    /**
+     * The local date of an ISO offset date-time, e.g. 2022-06-24 for 2022-06-24T10:45:52Z. Values of
+     * the usual shape are checked and cut instead of parsed; anything else, including invalid values,
+     * goes through {@link ZonedDateTime#parse} and fails the same way as always.
+     */
+    static StringValue dateCreated(String dateCreated) {
+        if (isPlainOffsetDateTime(dateCreated)) {
+            return cached(dateCreated.substring(0, 10));
+        }
+        return cached(ZonedDateTime.parse(dateCreated, INPUT_DATE_FORMATTER).toLocalDate().format(OUTPUT_DATE_FORMATTER));
+    }
+
+    /**
+     * Today's date, formatted again only once the day is over.
+     */
+    static StringValue runDate() {
+        RunDate current = runDate;
+        if (System.currentTimeMillis() >= current.validUntilMillis()) {
+            current = RunDate.today();
+            runDate = current;
+        }
+        return current.value();
+    }
+
+    private static StringValue cached(String value) {
+        StringValue cached = CACHED_VALUES.get(value);
+        if (cached == null) {
+            cached = of(value);
+            if (CACHED_VALUES.size() < MAX_CACHED_VALUES) {
+                CACHED_VALUES.putIfAbsent(value, cached);
+            }
+        }
+        return cached;
+    }
+
+    /**
+     * yyyy-MM-ddTHH:mm:ss, optionally with a fraction of up to nine digits, followed by Z or
+     * +HH:MM / -HH:MM, with every field in range.
+     */
+    private static boolean isPlainOffsetDateTime(String value) {
+        int length = value.length();
+        if (length < 20 || value.charAt(4) != '-' || value.charAt(7) != '-' || value.charAt(10) != 'T'
+                || value.charAt(13) != ':' || value.charAt(16) != ':') {
+            return false;
+        }
+        int year = digits(value, 0, 4);
+        int month = digits(value, 5, 2);
+        int day = digits(value, 8, 2);
+        int hour = digits(value, 11, 2);
+        int minute = digits(value, 14, 2);
+        int second = digits(value, 17, 2);
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > Month.of(month).length(Year.isLeap(year))
+                || hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59) {
+            return false;
+        }
+        int offset = 19;
+        if (value.charAt(offset) == '.') {
+            int fractionStart = ++offset;
+            while (offset < length && Character.isDigit(value.charAt(offset))) {
+                offset++;
+            }
+            int fractionDigits = offset - fractionStart;
+            if (fractionDigits < 1 || fractionDigits > 9 || offset == length) {
+                return false;
+            }
+        }
+        char sign = value.charAt(offset);
+        if (sign == 'Z') {
+            return offset + 1 == length;
+        }
+        if ((sign != '+' && sign != '-') || offset + 6 != length || value.charAt(offset + 3) != ':') {
+            return false;
+        }
+        int offsetHours = digits(value, offset + 1, 2);
+        int offsetMinutes = digits(value, offset + 4, 2);
+        return offsetHours >= 0 && offsetHours <= 18 && offsetMinutes >= 0 && offsetMinutes <= 59
+                && (offsetHours < 18 || offsetMinutes == 0);
+    }
+
+    private static int digits(String value, int start, int count) {
+        int result = 0;
+        for (int i = start; i < start + count; i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            result = result * 10 + (c - '0');
+        }
+        return result;
+    }
+
+    private record RunDate(StringValue value, long validUntilMillis) {
+
+        static RunDate today() {
+            ZonedDateTime now = ZonedDateTime.now();
+            long nextMidnight = now.toLocalDate().plusDays(1).atStartOfDay(now.getZone()).toInstant().toEpochMilli();
+            return new RunDate(of(now.format(OUTPUT_DATE_FORMATTER)), nextMidnight);
+        }
+    }
+}
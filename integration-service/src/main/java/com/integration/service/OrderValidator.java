@@ -0,0 +1,99 @@
+package com.integration.service;
+
+import com.integration.model.OrderCsv;
+import com.integration.util.OrderStatusUtil;
+
+import java.time.DateTimeException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Checks a row for everything the user and order requests built from it rely on, so that a row which
+ * would fail halfway through, after its user was created, is rejected before any call is made.
+ * Every problem of a row is reported, not only the first.
+ */
+public final class OrderValidator {
+
+    private OrderValidator() {
+    }
+
+    /**
+     * The problems of a row, empty if it can be imported.
+     */
+    public static List<String> validate(OrderCsv order) {
+        List<String> problems = new ArrayList<>(0);
+        String email = order.getEmail();
+        if (isBlank(email)) {
+            problems.add("email is missing");
+        } else {
+            int at = email.indexOf('@');
+            if (at <= 0 || at == email.length() - 1 || email.indexOf('@', at + 1) >= 0) {
+                problems.add("email is not an address: " + email);
+            }
+        }
+        requirePresent(order.getShippingAddress(), "shipping_address", problems);
+        requirePresent(order.getCountry(), "country", problems);
+        requirePresent(order.getCreditCardNumber(), "credit_card_number", problems);
+        requirePresent(order.getCreditCardType(), "credit_card_type", problems);
+        if (isBlank(order.getSupplierPid())) {
+            problems.add("supplier_pid is missing");
+        }
+        if (isBlank(order.getProductPid())) {
+            problems.add("product_pid is missing");
+        }
+        validateQuantity(order.getQuantity(), problems);
+        validateDateCreated(order.getDateCreated(), problems);
+        validateOrderStatus(order.getOrderStatus(), problems);
+        return problems;
+    }
+
+    private static void validateQuantity(String quantity, List<String> problems) {
+        if (isBlank(quantity)) {
+            problems.add("quantity is missing");
+            return;
+        }
+        try {
+            if (Integer.parseInt(quantity) <= 0) {
+                problems.add("quantity is not positive: " + quantity);
+            }
+        } catch (NumberFormatException e) {
+            problems.add("quantity is not a whole number: " + quantity);
+        }
+    }
+
+    private static void validateDateCreated(String dateCreated, List<String> problems) {
+        if (isBlank(dateCreated)) {
+            problems.add("date_created is missing");
+            return;
+        }
+        try {
+            // The same conversion the order request makes
+            OrderRequestMapper.dateCreated(dateCreated);
+        } catch (DateTimeException e) {
+            problems.add("date_created is not an ISO date-time with offset: " + dateCreated);
+        }
+    }
+
+    private static void validateOrderStatus(String orderStatus, List<String> problems) {
+        if (isBlank(orderStatus)) {
+            problems.add("order_status is missing");
+            return;
+        }
+        try {
+            OrderStatusUtil.mapStringToOrderStatus(orderStatus);
+        } catch (IllegalArgumentException e) {
+            problems.add("order_status is unknown: " + orderStatus);
+        }
+    }
+
+    // Sent as is, so an empty value is fine, but the column has to be there
+    private static void requirePresent(String value, String column, List<String> problems) {
+        if (value == null) {
+            problems.add(column + " is missing");
+        }
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
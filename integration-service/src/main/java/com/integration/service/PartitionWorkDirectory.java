@@ -0,0 +1,257 @@
+package com.integration.service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Shared directory through which the nodes importing the same input divide the work. Every unit of work
+ * is claimed by atomically creating {@code <name>.claim}, kept alive by touching it, and finished by
+ * creating {@code <name>.done}. A claim that has not been touched for the claim timeout belongs to a
+ * node that died; it is renamed away, which only one node can do, and claimed afresh.
+ * Every claim holds a token of its own, so a node that was presumed dead can tell that its claim has been
+ * taken over and must not finish the work. The files of the work are named after the token, so such a node
+ * never writes to the files of the node that took over; {@code <name>.done} holds the token whose files
+ * are the result.
+ * The directory must be on a file system that all nodes share and that creates files atomically.
+ */
+class PartitionWorkDirectory {
+
+    private static final String PLAN = "plan";
+
+    private final Path directory;
+
+    private final String nodeId;
+
+    private final long claimTimeoutMillis;
+
+    // Token written into each claim this node holds, by name
+    private final Map<String, String> held = new ConcurrentHashMap<>();
+
+    // Token of the stale claim each held claim took over, by name
+    private final Map<String, String> predecessors = new ConcurrentHashMap<>();
+
+    PartitionWorkDirectory(Path directory, String nodeId, long claimTimeoutMillis) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.nodeId = nodeId;
+        this.claimTimeoutMillis = claimTimeoutMillis;
+    }
+
+    interface Planner {
+        List<InputPartition> plan() throws IOException;
+    }
+
+    /**
+     * The partitions of the import. The first node to get here writes the plan; every other node reads it,
+     * so all nodes work on the same partitions even if they are configured differently.
+     */
+    List<InputPartition> plan(Planner planner) throws IOException {
+        Path plan = directory.resolve(PLAN);
+        if (!Files.exists(plan)) {
+            List<String> lines = new ArrayList<>();
+            for (InputPartition partition : planner.plan()) {
+                lines.add(partition.index() + "\t" + partition.start() + "\t" + partition.end() + "\t"
+                        + partition.file());
+            }
+            Path draft = Files.createTempFile(directory, PLAN, ".tmp");
+            Files.write(draft, lines, StandardCharsets.UTF_8);
+            try {
+                Files.move(draft, plan);
+            } catch (FileAlreadyExistsException e) {
+                Files.delete(draft);
+            }
+        }
+        List<InputPartition> partitions = new ArrayList<>();
+        for (String line : Files.readAllLines(plan, StandardCharsets.UTF_8)) {
+            String[] fields = line.split("\t", 4);
+            partitions.add(new InputPartition(Integer.parseInt(fields[0]), Path.of(fields[3]),
+                    Long.parseLong(fields[1]), Long.parseLong(fields[2])));
+        }
+        return partitions;
+    }
+
+    Path resolve(String name) {
+        return directory.resolve(name);
+    }
+
+    boolean tryClaim(String name) throws IOException {
+        Path claim = directory.resolve(name + ".claim");
+        try {
+            String token = nodeId + " " + UUID.randomUUID();
+            Files.writeString(Files.createFile(claim), token, StandardCharsets.UTF_8);
+            held.put(name, token);
+            predecessors.remove(name);
+            return true;
+        } catch (FileAlreadyExistsException e) {
+            if (!isStale(claim)) {
+                return false;
+            }
+        }
+        String previous;
+        try {
+            previous = Files.readString(claim, StandardCharsets.UTF_8);
+            moveAway(claim);
+        } catch (NoSuchFileException e) {
+            // Another node took the stale claim over first
+            return false;
+        }
+        System.out.println("Taking over stale claim " + claim);
+        if (!tryClaim(name)) {
+            return false;
+        }
+        if (!previous.isBlank()) {
+            predecessors.put(name, previous);
+        }
+        return true;
+    }
+
+    /**
+     * A file of the work this node holds the claim on, e.g. {@code partition-3-<token>.out}.
+     */
+    Path claimedFile(String name, String suffix) {
+        String token = held.get(name);
+        if (token == null) {
+            throw new ClaimLostException(name);
+        }
+        return file(name, token, suffix);
+    }
+
+    /**
+     * The same file of the stale claim this node took over, or {@code null} if it claimed the work afresh.
+     */
+    Path predecessorFile(String name, String suffix) {
+        String token = predecessors.get(name);
+        return token == null ? null : file(name, token, suffix);
+    }
+
+    /**
+     * The same file of the claim that finished the work.
+     */
+    Path doneFile(String name, String suffix) throws IOException {
+        return file(name, Files.readString(directory.resolve(name + ".done"), StandardCharsets.UTF_8), suffix);
+    }
+
+    /**
+     * Every file of the work, of whichever claim.
+     */
+    List<Path> files(String name) throws IOException {
+        try (Stream<Path> paths = Files.list(directory)) {
+            return paths.filter(path -> path.getFileName().toString().startsWith(name + "-")).toList();
+        }
+    }
+
+    private Path file(String name, String token, String suffix) {
+        // The node id may hold anything; the random part is enough to tell the claims apart
+        return directory.resolve(name + "-" + token.substring(token.lastIndexOf(' ') + 1) + suffix);
+    }
+
+    private boolean isStale(Path claim) throws IOException {
+        try {
+            long age = System.currentTimeMillis() - Files.getLastModifiedTime(claim).toMillis();
+            return age > claimTimeoutMillis && !isDone(claim.getFileName().toString().replace(".claim", ""));
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+    }
+
+    private void moveAway(Path claim) throws IOException {
+        Path stale = claim.resolveSibling(claim.getFileName() + ".stale-" + nodeId + "-" + System.nanoTime());
+        try {
+            Files.move(claim, stale, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(claim, stale);
+        }
+    }
+
+    /**
+     * Tells the other nodes that the claims of this node are still being worked on. Called on a timer,
+     * so a claim stays alive however long its work goes without progress; a claim found taken over is
+     * given up.
+     */
+    void renewHeld() {
+        for (String name : held.keySet()) {
+            try {
+                if (owns(name)) {
+                    Files.setLastModifiedTime(directory.resolve(name + ".claim"),
+                            FileTime.fromMillis(System.currentTimeMillis()));
+                } else {
+                    held.remove(name);
+                    System.err.println("Claim on " + name + " was taken over by another node");
+                }
+            } catch (IOException e) {
+                System.err.println("Could not renew the claim on " + name + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Whether this node still holds the claim, as far as the last renewal could tell.
+     */
+    boolean isHeld(String name) {
+        return held.containsKey(name);
+    }
+
+    /**
+     * Fails with {@link ClaimLostException} unless the claim file still holds this node's token.
+     */
+    void checkOwned(String name) throws IOException {
+        if (!owns(name)) {
+            held.remove(name);
+            throw new ClaimLostException(name);
+        }
+    }
+
+    private boolean owns(String name) throws IOException {
+        String token = held.get(name);
+        try {
+            return token != null
+                    && token.equals(Files.readString(directory.resolve(name + ".claim"), StandardCharsets.UTF_8));
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+    }
+
+    boolean isDone(String name) {
+        return Files.exists(directory.resolve(name + ".done"));
+    }
+
+    /**
+     * Finishes the work of a claim this node still holds, or fails with {@link ClaimLostException}.
+     */
+    void markDone(String name) throws IOException {
+        checkOwned(name);
+        // Written aside and moved into place, so the token is never read half-written
+        Path draft = Files.createTempFile(directory, name, ".tmp");
+        Files.writeString(draft, held.get(name), StandardCharsets.UTF_8);
+        try {
+            Files.move(draft, directory.resolve(name + ".done"));
+        } catch (FileAlreadyExistsException e) {
+            // Finished before by a node that was presumed dead; its files are the result
+            Files.delete(draft);
+        }
+        held.remove(name);
+        predecessors.remove(name);
+    }
+
+    /**
+     * The claim on some work was taken over by another node, which will finish it.
+     */
+    static final class ClaimLostException extends IllegalStateException {
+
+        ClaimLostException(String name) {
+            super("Claim on " + name + " was taken over by another node");
+        }
+    }
+}
@@ -0,0 +1,415 @@
+package com.integration.service;
+
+import com.integration.model.ProcessedOrder;
+import com.integration.output.ProcessedOrderReader;
+import com.integration.output.ProcessedOrderWriter;
+import com.integration.output.ProcessedOrderWriterFactory;
+import com.opencsv.CSVReader;
+import com.opencsv.CSVWriter;
+import com.opencsv.exceptions.CsvValidationException;
+import io.opentelemetry.context.Context;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Imports a large file, or a directory of files, as independent partitions. The partitions are claimed
+ * through a shared work directory, so the same import can be started on several instances and every
+ * instance processes whatever is still unclaimed with its local workers. Each claim on a partition writes
+ * its own result, rejects and checkpoint files; the instance that finds all partitions done merges the
+ * results of the claims that finished them, in partition order, into the output and its rejects file.
+ * A claim taken over from a node presumed dead resumes from a copy of that node's checkpoint. The work directory is kept per input, so that an instance started
+ * late finds the import done rather than starting it again.
+ */
+@Service
+public class PartitionedImportService {
+
+    private static final String MERGE = "merge";
+
+    private static final String OUT = ".out";
+
+    private final IntegrationService integrationService;
+
+    private final ProcessedOrderWriterFactory processedOrderWriterFactory;
+
+    private final long partitionSizeBytes;
+
+    private final int localWorkers;
+
+    private final String workDirectory;
+
+    private final long claimTimeoutMillis;
+
+    private final long pollIntervalMillis;
+
+    private final String nodeId;
+
+    public PartitionedImportService(IntegrationService integrationService,
+                                    ProcessedOrderWriterFactory processedOrderWriterFactory,
+                                    @Value("${integration.partitioning.partition-size:256MB}") DataSize partitionSize,
+                                    @Value("${integration.partitioning.local-workers:2}") int localWorkers,
+                                    @Value("${integration.partitioning.work-dir:}") String workDirectory,
+                                    @Value("${integration.partitioning.claim-timeout-ms:600000}") long claimTimeoutMillis,
+                                    @Value("${integration.partitioning.poll-interval-ms:2000}") long pollIntervalMillis,
+                                    @Value("${integration.partitioning.node-id:}") String nodeId) {
+        this.integrationService = integrationService;
+        this.processedOrderWriterFactory = processedOrderWriterFactory;
+        this.partitionSizeBytes = Math.max(1, partitionSize.toBytes());
+        this.localWorkers = Math.max(1, localWorkers);
+        this.workDirectory = workDirectory;
+        this.claimTimeoutMillis = claimTimeoutMillis;
+        this.pollIntervalMillis = Math.max(1, pollIntervalMillis);
+        // RuntimeMXBean names are pid@host, unique enough to tell the nodes apart in claim files
+        this.nodeId = nodeId.isBlank() ? ManagementFactory.getRuntimeMXBean().getName() : nodeId;
+    }
+
+    /**
+     * Takes part in the partitioned import of {@code inputPath} into {@code outputPath} and returns once all
+     * partitions are done. The returned counters only cover the partitions this instance processed.
+     */
+    public ImportProgress importPartitioned(String inputPath, String outputPath, ImportListener listener)
+            throws IOException {
+        Path outputWork = workDirectory.isBlank()
+                ? Paths.get(outputPath + ".work")
+                : Paths.get(workDirectory).resolve(Paths.get(outputPath).getFileName() + ".work");
+        Path work = outputWork.resolve(inputKey(Paths.get(inputPath)));
+        PartitionWorkDirectory claims = new PartitionWorkDirectory(work, nodeId, claimTimeoutMillis);
+        List<InputPartition> partitions =
+                claims.plan(() -> InputPartition.plan(Paths.get(inputPath), partitionSizeBytes));
+
+        ImportProgress total = new ImportProgress();
+        listener.onStart(total);
+        ImportListener combined = new CombinedListener(total, listener);
+
+        // Claims are renewed on a timer rather than on progress, so a slow partition is not taken for dead
+        ScheduledExecutorService heartbeat = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "partition-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long renewMillis = Math.max(1, claimTimeoutMillis / 3);
+        heartbeat.scheduleWithFixedDelay(claims::renewHeld, renewMillis, renewMillis, TimeUnit.MILLISECONDS);
+        try {
+            importPartitions(partitions, claims, combined);
+            mergeOnce(partitions, claims, outputPath);
+        } finally {
+            heartbeat.shutdownNow();
+        }
+        listener.onProgress(total);
+        return total;
+    }
+
+    private void importPartitions(List<InputPartition> partitions, PartitionWorkDirectory claims,
+                                  ImportListener listener) throws IOException {
+        ExecutorService workers = Context.taskWrapping(
+                Executors.newFixedThreadPool(Math.max(1, Math.min(localWorkers, partitions.size()))));
+        try {
+            List<Future<Void>> running = new ArrayList<>();
+            for (int i = 0; i < Math.min(localWorkers, partitions.size()); i++) {
+                running.add(workers.submit(() -> {
+                    work(partitions, claims, listener);
+                    return null;
+                }));
+            }
+            for (Future<Void> worker : running) {
+                worker.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Partitioned import cancelled");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    /**
+     * Merges the partitions unless another node does: a node that loses the merge claim waits until the
+     * merge is done, and takes it over if the merging node dies.
+     */
+    private void mergeOnce(List<InputPartition> partitions, PartitionWorkDirectory claims, String outputPath)
+            throws IOException {
+        while (!claims.isDone(MERGE)) {
+            if (claims.tryClaim(MERGE)) {
+                try {
+                    merge(partitions, claims, outputPath);
+                    claims.markDone(MERGE);
+                } catch (PartitionWorkDirectory.ClaimLostException e) {
+                    System.err.println(e.getMessage());
+                    continue;
+                }
+                // Kept until the merge is done, in case a node taking it over has to start again
+                for (InputPartition partition : partitions) {
+                    for (Path file : claims.files(partitionName(partition))) {
+                        Files.deleteIfExists(file);
+                    }
+                }
+                System.out.println("Merged " + partitions.size() + " partitions into " + outputPath);
+                return;
+            }
+            try {
+                Thread.sleep(pollIntervalMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CancellationException("Partitioned import cancelled");
+            }
+        }
+    }
+
+    /**
+     * Claims and processes partitions until every partition is done. Partitions claimed by someone else
+     * are waited for, so a claim left behind by a dead node is taken over once it goes stale.
+     */
+    private void work(List<InputPartition> partitions, PartitionWorkDirectory claims, ImportListener listener)
+            throws IOException, InterruptedException {
+        while (true) {
+            boolean pending = false;
+            for (InputPartition partition : partitions) {
+                String name = partitionName(partition);
+                if (claims.isDone(name)) {
+                    continue;
+                }
+                if (!claims.tryClaim(name)) {
+                    pending = true;
+                    continue;
+                }
+                try {
+                    process(partition, claims, listener);
+                    claims.markDone(name);
+                } catch (PartitionWorkDirectory.ClaimLostException e) {
+                    // The node that took the partition over finishes it
+                    System.err.println(e.getMessage());
+                    pending = true;
+                }
+            }
+            if (!pending) {
+                return;
+            }
+            Thread.sleep(pollIntervalMillis);
+        }
+    }
+
+    private void process(InputPartition partition, PartitionWorkDirectory claims, ImportListener listener)
+            throws IOException {
+        String name = partitionName(partition);
+        System.out.println("Importing partition " + partition.index() + " of " + partition.file()
+                + " [" + partition.start() + ", " + partition.end() + ")");
+        String output = claims.claimedFile(name, OUT).toString();
+        Path previous = claims.predecessorFile(name, OUT);
+        if (previous != null) {
+            // A copy, since the node presumed dead may still be appending to its own
+            Path checkpoint = ImportCheckpointStore.checkpointPath(previous.toString());
+            if (Files.exists(checkpoint)) {
+                Files.copy(checkpoint, ImportCheckpointStore.checkpointPath(output),
+                        StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        integrationService.processCsvPartition(partition.open(), partition.id(), output, new ImportListener() {
+
+            @Override
+            public void beforeRow(long rowNumber) {
+                // No new row once another node has the partition
+                if (!claims.isHeld(name)) {
+                    throw new PartitionWorkDirectory.ClaimLostException(name);
+                }
+                listener.beforeRow(rowNumber);
+            }
+
+            @Override
+            public void onRow(RowResult rowResult) {
+                listener.onRow(rowResult);
+            }
+
+            @Override
+            public void onProgress(ImportProgress progress) {
+                listener.onProgress(progress);
+            }
+        });
+    }
+
+    /**
+     * Writes the merged results and rejects next to the output and only replaces the output while this
+     * node still holds the merge claim, so a merge taken over from this node is never overwritten by it.
+     */
+    private void merge(List<InputPartition> partitions, PartitionWorkDirectory claims, String outputPath)
+            throws IOException {
+        Path output = Paths.get(outputPath).toAbsolutePath();
+        Path rejects = ProcessedOrderWriterFactory.rejectsPath(output.toString());
+        // Named with the output's extensions, which select its compression
+        String prefix = ".merging-" + UUID.randomUUID() + "-";
+        Path merged = output.resolveSibling(prefix + output.getFileName());
+        Path mergedRejects = rejects.resolveSibling(prefix + rejects.getFileName());
+        try {
+            writeMerged(partitions, claims, merged);
+            boolean rejected = writeMergedRejects(partitions, claims, mergedRejects);
+            claims.checkOwned(MERGE);
+            replace(merged, output);
+            if (rejected) {
+                replace(mergedRejects, rejects);
+            } else {
+                Files.deleteIfExists(rejects);
+            }
+        } finally {
+            Files.deleteIfExists(merged);
+            Files.deleteIfExists(mergedRejects);
+        }
+    }
+
+    private static void replace(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private void writeMerged(List<InputPartition> partitions, PartitionWorkDirectory claims, Path merged)
+            throws IOException {
+        try (ProcessedOrderWriter writer = processedOrderWriterFactory.open(merged.toString())) {
+            for (InputPartition partition : partitions) {
+                Path part = claims.doneFile(partitionName(partition), OUT);
+                if (!Files.exists(part)) {
+                    continue;
+                }
+                try (Stream<ProcessedOrder> processedOrders = ProcessedOrderReader.read(part)) {
+                    Iterator<ProcessedOrder> iterator = processedOrders.iterator();
+                    while (iterator.hasNext()) {
+                        writer.write(iterator.next());
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Concatenates the rejects of the partitions, in partition order, behind a {@code partition} column:
+     * their row numbers count from the start of their partition.
+     *
+     * @return whether any row was rejected
+     */
+    private static boolean writeMergedRejects(List<InputPartition> partitions, PartitionWorkDirectory claims,
+                                              Path merged) throws IOException {
+        CSVWriter writer = null;
+        try {
+            for (InputPartition partition : partitions) {
+                Path part = ProcessedOrderWriterFactory.rejectsPath(
+                        claims.doneFile(partitionName(partition), OUT).toString());
+                if (!Files.exists(part)) {
+                    continue;
+                }
+                try (CSVReader reader = new CSVReader(Files.newBufferedReader(part, StandardCharsets.UTF_8))) {
+                    String[] header = reader.readNext();
+                    if (writer == null) {
+                        writer = new CSVWriter(Files.newBufferedWriter(merged, StandardCharsets.UTF_8));
+                        writer.writeNext(withPartition("partition", header), false);
+                    }
+                    String[] row;
+                    while ((row = reader.readNext()) != null) {
+                        writer.writeNext(withPartition(String.valueOf(partition.index()), row), false);
+                    }
+                } catch (CsvValidationException e) {
+                    throw new IOException("Cannot read rejects " + part, e);
+                }
+            }
+        } finally {
+            if (writer != null) {
+                writer.close();
+            }
+        }
+        return writer != null;
+    }
+
+    private static String[] withPartition(String partition, String[] row) {
+        String[] extended = new String[row.length + 1];
+        extended[0] = partition;
+        System.arraycopy(row, 0, extended, 1, row.length);
+        return extended;
+    }
+
+    /**
+     * Names the work of one input, from the path, size and modification time of its files, so that an
+     * import of new data into the same output starts afresh while the nodes importing the same data meet
+     * in the same place. An input that was imported before is not imported again until it changes.
+     */
+    static String inputKey(Path input) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        for (Path file : InputPartition.files(input)) {
+            String identity = file + "\t" + Files.size(file) + "\t" + Files.getLastModifiedTime(file).toMillis();
+            digest.update((identity + "\n").getBytes(StandardCharsets.UTF_8));
+        }
+        return HexFormat.of().formatHex(digest.digest(), 0, 8);
+    }
+
+    private static String partitionName(InputPartition partition) {
+        return "partition-" + partition.index();
+    }
+
+    /**
+     * Adds the rows of all local partitions to one set of counters. Partitions complete rows concurrently,
+     * so the callbacks of the caller's listener are serialized here.
+     */
+    private static final class CombinedListener implements ImportListener {
+
+        private final ImportProgress total;
+
+        private final ImportListener delegate;
+
+        CombinedListener(ImportProgress total, ImportListener delegate) {
+            this.total = total;
+            this.delegate = delegate;
+        }
+
+        @Override
+        public synchronized void beforeRow(long rowNumber) {
+            delegate.beforeRow(rowNumber);
+        }
+
+        @Override
+        public synchronized void onRow(RowResult rowResult) {
+            total.rowRead();
+            total.rowCompleted(rowResult);
+            delegate.onRow(rowResult);
+        }
+
+        @Override
+        public synchronized void onProgress(ImportProgress progress) {
+            delegate.onProgress(total);
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.integration.service;
+
+import com.integration.grpc.ProductServiceClient;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import product.Product;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.google.protobuf.StringValue.of;
+
+/**
+ * Read-through cache in front of {@link ProductServiceClient}. Order files reuse a small catalogue of
+ * products, so most rows can be served without a round-trip. Entries are evicted least-recently-used
+ * once {@code max-size} is reached and expire after {@code ttl-ms}.
+ */
+@Service
+public class ProductCache implements MeterBinder {
+
+    private final ProductServiceClient productServiceClient;
+
+    private final int maxSize;
+
+    private final long ttlNanos;
+
+    private final int batchSize;
+
+    private final boolean prefetchEnabled;
+
+    private final Map<String, Entry> entries;
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    private final AtomicLong prefetched = new AtomicLong();
+
+    private final AtomicLong prefetchCalls = new AtomicLong();
+
+    public ProductCache(ProductServiceClient productServiceClient,
+                        @Value("${integration.product-cache.max-size:10000}") int maxSize,
+                        @Value("${integration.product-cache.ttl-ms:600000}") long ttlMillis,
+                        @Value("${integration.product-cache.batch-size:100}") int batchSize,
+                        @Value("${integration.product-cache.prefetch:true}") boolean prefetchEnabled) {
+        this.productServiceClient = productServiceClient;
+        this.maxSize = Math.max(1, maxSize);
+        this.ttlNanos = ttlMillis * 1_000_000L;
+        this.batchSize = Math.max(1, batchSize);
+        this.prefetchEnabled = prefetchEnabled;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > ProductCache.this.maxSize;
+            }
+        };
+    }
+
+    public Product.ProductResponse get(String productPid) {
+        Product.ProductResponse product = lookup(productPid);
+        if (product != null) {
+            hits.incrementAndGet();
+            return product;
+        }
+        misses.incrementAndGet();
+        product = productServiceClient.getProductByPid(of(productPid));
+        put(productPid, product);
+        return product;
+    }
+
+    public CompletableFuture<Product.ProductResponse> getAsync(String productPid) {
+        Product.ProductResponse product = lookup(productPid);
+        if (product != null) {
+            hits.incrementAndGet();
+            return CompletableFuture.completedFuture(product);
+        }
+        misses.incrementAndGet();
+        return productServiceClient.getProductByPidAsync(of(productPid))
+                .thenApply(loaded -> {
+                    put(productPid, loaded);
+                    return loaded;
+                });
+    }
+
+    public boolean isPrefetchEnabled() {
+        return prefetchEnabled;
+    }
+
+    /**
+     * Loads the given products through batched {@code GetProductsByPids} calls. Pids the product
+     * service does not return are left to the single lookup in {@link #get(String)}.
+     */
+    public void prefetch(Collection<String> productPids) {
+        if (!prefetchEnabled) {
+            return;
+        }
+        List<String> batch = new ArrayList<>(batchSize);
+        for (String productPid : productPids) {
+            if (lookup(productPid) != null) {
+                continue;
+            }
+            batch.add(productPid);
+            if (batch.size() == batchSize) {
+                prefetchBatch(batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            prefetchBatch(batch);
+        }
+    }
+
+    private void prefetchBatch(List<String> productPids) {
+        Product.StringsRequest request = Product.StringsRequest.newBuilder().addAllRequest(productPids).build();
+        Product.ProductsResponse response = productServiceClient.getProductsByPids(request);
+        prefetchCalls.incrementAndGet();
+        for (Product.ProductResponse product : response.getProductsList()) {
+            put(product.getPid(), product);
+            prefetched.incrementAndGet();
+        }
+    }
+
+    private synchronized Product.ProductResponse lookup(String productPid) {
+        Entry entry = entries.get(productPid);
+        if (entry == null) {
+            return null;
+        }
+        if (System.nanoTime() - entry.loadedAtNanos() > ttlNanos) {
+            entries.remove(productPid);
+            return null;
+        }
+        return entry.product();
+    }
+
+    private synchronized void put(String productPid, Product.ProductResponse product) {
+        entries.put(productPid, new Entry(product, System.nanoTime()));
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getPrefetched() {
+        return prefetched.get();
+    }
+
+    /**
+     * Round-trips avoided so far: every hit would have been a {@code GetProductByPid} call,
+     * minus the batched calls spent on prefetching. Zero while the prefetch calls outnumber the hits.
+     */
+    public long getRoundTripsSaved() {
+        return Math.max(0, hits.get() - prefetchCalls.get());
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("integration.product.cache.requests", hits, AtomicLong::get)
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("integration.product.cache.requests", misses, AtomicLong::get)
+                .tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder("integration.product.cache.prefetched", prefetched, AtomicLong::get)
+                .register(registry);
+        Gauge.builder("integration.product.cache.size", this, ProductCache::size)
+                .register(registry);
+    }
+
+    @Override
+    public String toString() {
+        return "hits=" + getHits() + ", misses=" + getMisses() + ", prefetched=" + getPrefetched()
+                + ", roundTripsSaved=" + getRoundTripsSaved();
+    }
+
+    private record Entry(Product.ProductResponse product, long loadedAtNanos) {
+    }
+}
@@ -0,0 +1,23 @@
+package com.integration.service;
+
+import com.integration.model.ProcessedOrder;
+
+/**
+ * Outcome of a single input row. {@code rowNumber} is the 1-based position in the input,
+ * {@code rowId} the value of its {@code id} column. Exactly one of {@code processedOrder}
+ * and {@code error} is set.
+ */
+public record RowResult(long rowNumber, String rowId, ProcessedOrder processedOrder, String error) {
+
+    public static RowResult succeeded(long rowNumber, String rowId, ProcessedOrder processedOrder) {
+        return new RowResult(rowNumber, rowId, processedOrder, null);
+    }
+
+    public static RowResult failed(long rowNumber, String rowId, String error) {
+        return new RowResult(rowNumber, rowId, null, error);
+    }
+
+    public boolean isSuccess() {
+        return processedOrder != null;
+    }
+}
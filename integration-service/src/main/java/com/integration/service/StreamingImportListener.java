@@ -0,0 +1,104 @@
+package com.integration.service;
+
+import com.integration.model.ProcessedOrder;
+import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
+
+import java.util.concurrent.CancellationException;
+
+import static integration.IntegrationServiceProto.*;
+
+/**
+ * Forwards import results to a server-streaming call. When the client reads slower than rows complete,
+ * the import thread waits for the transport to become ready again instead of buffering events without
+ * bound; when the client cancels, the import is aborted.
+ */
+class StreamingImportListener implements ImportListener {
+
+    private final ServerCallStreamObserver<ProcessCsvEvent> observer;
+
+    private final Object readyLock = new Object();
+
+    /**
+     * Must be created inside the service method, before it returns, so the handlers can still be registered.
+     */
+    StreamingImportListener(ServerCallStreamObserver<ProcessCsvEvent> observer) {
+        this.observer = observer;
+        observer.setOnReadyHandler(this::signal);
+        observer.setOnCancelHandler(this::signal);
+    }
+
+    @Override
+    public void onRow(RowResult rowResult) {
+        RowEvent.Builder row = RowEvent.newBuilder()
+                .setRowNumber(rowResult.rowNumber())
+                .setRowId(rowResult.rowId() == null ? "" : rowResult.rowId());
+        if (rowResult.isSuccess()) {
+            ProcessedOrder processedOrder = rowResult.processedOrder();
+            row.setUserPid(nullToEmpty(processedOrder.getUserPid()))
+                    .setOrderPid(nullToEmpty(processedOrder.getOrderPid()))
+                    .setSupplierPid(nullToEmpty(processedOrder.getSupplierPid()));
+        } else {
+            row.setError(nullToEmpty(rowResult.error()));
+        }
+        send(ProcessCsvEvent.newBuilder().setRow(row).build());
+    }
+
+    @Override
+    public void onProgress(ImportProgress progress) {
+        send(ProcessCsvEvent.newBuilder().setProgress(toProgressEvent(progress)).build());
+    }
+
+    void onCompleted(String message) {
+        send(ProcessCsvEvent.newBuilder()
+                .setCompleted(ProcessCsvResponse.newBuilder().setMessage(message))
+                .build());
+        observer.onCompleted();
+    }
+
+    void onError(Throwable error) {
+        if (!observer.isCancelled()) {
+            Status status = error instanceof CancellationException ? Status.CANCELLED
+                    : error instanceof ImportCheckpoint.ImportInProgressException ? Status.ABORTED
+                    : Status.INTERNAL;
+            observer.onError(status.withDescription(error.getMessage()).withCause(error).asRuntimeException());
+        }
+    }
+
+    static ProgressEvent toProgressEvent(ImportProgress progress) {
+        return ProgressEvent.newBuilder()
+                .setRowsRead(progress.getRowsRead())
+                .setSucceeded(progress.getSucceeded())
+                .setFailed(progress.getFailed())
+                .setRowsPerSecond(progress.getRowsPerSecond())
+                .setElapsedMs(progress.getElapsedMillis())
+                .build();
+    }
+
+    private void send(ProcessCsvEvent event) {
+        synchronized (readyLock) {
+            while (!observer.isReady() && !observer.isCancelled()) {
+                try {
+                    readyLock.wait(1000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new CancellationException("Import interrupted");
+                }
+            }
+        }
+        if (observer.isCancelled()) {
+            throw new CancellationException("Client cancelled the import");
+        }
+        observer.onNext(event);
+    }
+
+    private void signal() {
+        synchronized (readyLock) {
+            readyLock.notifyAll();
+        }
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+}
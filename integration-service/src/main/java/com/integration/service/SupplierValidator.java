@@ -0,0 +1,169 @@
+package com.integration.service;
+
+import com.integration.grpc.GrpcFutures;
+import com.integration.grpc.SupplierServiceClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import supplier.Supplier;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Checks that the supplier of a row exists before any user or order is created for it. A file import
+ * collects the distinct supplier pids in its pre-pass and resolves them through batched
+ * {@code GetSuppliersByPids} calls, after which every row is checked against an in-memory set without
+ * a call. Inputs without a pre-pass, such as uploads and partitions, look up each supplier the first
+ * time it is seen instead.
+ */
+@Service
+public class SupplierValidator {
+
+    private static final CompletableFuture<Boolean> KNOWN = CompletableFuture.completedFuture(true);
+
+    private static final CompletableFuture<Boolean> UNKNOWN = CompletableFuture.completedFuture(false);
+
+    private final SupplierServiceClient supplierServiceClient;
+
+    private final boolean enabled;
+
+    private final int batchSize;
+
+    public SupplierValidator(SupplierServiceClient supplierServiceClient,
+                             @Value("${integration.suppliers.validate:true}") boolean enabled,
+                             @Value("${integration.suppliers.batch-size:500}") int batchSize) {
+        this.supplierServiceClient = supplierServiceClient;
+        this.enabled = enabled;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Session newSession() {
+        return new Session();
+    }
+
+    public static String rejection(String supplierPid) {
+        return supplierPid == null || supplierPid.isBlank()
+                ? "Row has no supplier"
+                : "Unknown supplier " + supplierPid;
+    }
+
+    private static Supplier.StringsRequest request(Collection<String> supplierPids) {
+        return Supplier.StringsRequest.newBuilder().addAllRequest(supplierPids).build();
+    }
+
+    /**
+     * The suppliers seen by one run. Safe to use from the worker threads and future callbacks of the run.
+     */
+    public class Session {
+
+        private final Set<String> known = ConcurrentHashMap.newKeySet();
+
+        private final Set<String> unknown = ConcurrentHashMap.newKeySet();
+
+        // Suppliers looked up one by one whose answer is still outstanding
+        private final Map<String, CompletableFuture<Boolean>> pending = new ConcurrentHashMap<>();
+
+        private final AtomicLong batchCalls = new AtomicLong();
+
+        private final AtomicLong singleLookups = new AtomicLong();
+
+        private Session() {
+        }
+
+        /**
+         * Resolves the given suppliers through batched calls, so rows with any of them are checked
+         * without a round-trip.
+         */
+        public void prefetch(Collection<String> supplierPids) {
+            if (!enabled) {
+                return;
+            }
+            List<String> batch = new ArrayList<>(batchSize);
+            for (String supplierPid : supplierPids) {
+                if (supplierPid == null || supplierPid.isBlank() || known.contains(supplierPid)
+                        || unknown.contains(supplierPid)) {
+                    continue;
+                }
+                batch.add(supplierPid);
+                if (batch.size() == batchSize) {
+                    remember(batch, supplierServiceClient.getSuppliersByPids(request(batch)));
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                remember(batch, supplierServiceClient.getSuppliersByPids(request(batch)));
+            }
+        }
+
+        public boolean isKnown(String supplierPid) {
+            try {
+                return isKnownAsync(supplierPid).join();
+            } catch (CompletionException e) {
+                Throwable cause = GrpcFutures.unwrap(e);
+                if (cause instanceof RuntimeException runtimeException) {
+                    throw runtimeException;
+                }
+                throw e;
+            }
+        }
+
+        public CompletableFuture<Boolean> isKnownAsync(String supplierPid) {
+            if (!enabled) {
+                return KNOWN;
+            }
+            if (supplierPid == null || supplierPid.isBlank() || unknown.contains(supplierPid)) {
+                return UNKNOWN;
+            }
+            if (known.contains(supplierPid)) {
+                return KNOWN;
+            }
+            CompletableFuture<Boolean> lookup = new CompletableFuture<>();
+            CompletableFuture<Boolean> outstanding = pending.putIfAbsent(supplierPid, lookup);
+            if (outstanding != null) {
+                return outstanding;
+            }
+            singleLookups.incrementAndGet();
+            List<String> single = List.of(supplierPid);
+            supplierServiceClient.getSuppliersByPidsAsync(request(single)).whenComplete((response, error) -> {
+                if (error == null) {
+                    remember(single, response);
+                    lookup.complete(known.contains(supplierPid));
+                } else {
+                    // Not remembered, so a later row of the same supplier asks again
+                    lookup.completeExceptionally(GrpcFutures.unwrap(error));
+                }
+                pending.remove(supplierPid, lookup);
+            });
+            return lookup;
+        }
+
+        private void remember(List<String> requested, Supplier.SuppliersResponse response) {
+            batchCalls.incrementAndGet();
+            for (Supplier.SupplierResponse supplier : response.getSuppliersList()) {
+                known.add(supplier.getPid());
+            }
+            for (String supplierPid : requested) {
+                if (!known.contains(supplierPid)) {
+                    unknown.add(supplierPid);
+                }
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "known=" + known.size() + ", unknown=" + unknown.size() + ", calls=" + batchCalls
+                    + ", singleLookups=" + singleLookups;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.integration.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Email to user pid mapping that outlives a run, kept as an append-only file of
+ * {@code email<TAB>pid} lines and loaded into memory when first used.
+ */
+class UserIndex {
+
+    private final Path path;
+
+    private Map<String, String> pids;
+
+    private Writer writer;
+
+    // Whether the file ends in a line cut short by a crash, which the next line must not be appended to
+    private boolean cutShort;
+
+    UserIndex(Path path) {
+        this.path = path;
+    }
+
+    synchronized String get(String email) {
+        return load().get(email);
+    }
+
+    synchronized void put(String email, String userPid) {
+        if (userPid.equals(load().put(email, userPid))) {
+            return;
+        }
+        try {
+            if (writer == null) {
+                if (path.getParent() != null) {
+                    Files.createDirectories(path.getParent());
+                }
+                writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+                if (cutShort) {
+                    writer.write('\n');
+                    cutShort = false;
+                }
+            }
+            writer.write(email + "\t" + userPid + "\n");
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write user index " + path, e);
+        }
+    }
+
+    synchronized int size() {
+        return load().size();
+    }
+
+    private Map<String, String> load() {
+        if (pids != null) {
+            return pids;
+        }
+        pids = new HashMap<>();
+        if (Files.exists(path)) {
+            try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                cutShort = !endsWithLineBreak();
+                String line;
+                String previous = null;
+                while ((line = reader.readLine()) != null) {
+                    if (previous != null) {
+                        add(previous);
+                    }
+                    previous = line;
+                }
+                // A last line without its line break was cut short by a crash, maybe inside the pid
+                if (previous != null && !cutShort) {
+                    add(previous);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot read user index " + path, e);
+            }
+        }
+        return pids;
+    }
+
+    // Later lines win
+    private void add(String line) {
+        int tab = line.indexOf('\t');
+        if (tab > 0 && tab < line.length() - 1) {
+            pids.put(line.substring(0, tab), line.substring(tab + 1));
+        }
+    }
+
+    private boolean endsWithLineBreak() throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() == 0) {
+                return true;
+            }
+            ByteBuffer last = ByteBuffer.allocate(1);
+            channel.read(last, channel.size() - 1);
+            return last.get(0) == '\n';
+        }
+    }
+
+    synchronized void close() throws IOException {
+        if (writer != null) {
+            writer.close();
+            writer = null;
+        }
+    }
+}
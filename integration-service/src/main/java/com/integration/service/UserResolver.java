@@ -0,0 +1,190 @@
+package com.integration.service;
+
+import com.integration.exception.UserAlreadyExistsException;
+import com.integration.grpc.GrpcFutures;
+import com.integration.grpc.UserServiceClient;
+import io.grpc.Status;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import user.User;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Turns the customer of a row into a user pid, creating the user only the first time its email is seen.
+ * Within a run every email is resolved once, also when rows of the same customer are in flight together;
+ * with {@code integration.users.index-path} set, emails resolved by earlier runs are known too.
+ * A user that already exists in the user service is looked up by email instead of failing the row.
+ */
+@Service
+public class UserResolver implements DisposableBean {
+
+    private final UserServiceClient userServiceClient;
+
+    private final UserIndex index;
+
+    public UserResolver(UserServiceClient userServiceClient,
+                        @Value("${integration.users.index-path:}") String indexPath) {
+        this.userServiceClient = userServiceClient;
+        this.index = indexPath.isBlank() ? null : new UserIndex(Paths.get(indexPath));
+    }
+
+    public Session newSession() {
+        return new Session();
+    }
+
+    private static String key(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static String findByEmail(String email, User.UsersResponse users) {
+        return users.getUsersList().stream()
+                .filter(user -> key(user.getEmail()).equals(key(email)))
+                .map(User.UserResponse::getPid)
+                .findFirst()
+                .orElseThrow(() -> Status.NOT_FOUND
+                        .withDescription("User with email " + email + " already exists but cannot be found")
+                        .asRuntimeException());
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        if (index != null) {
+            index.close();
+        }
+    }
+
+    /**
+     * The users of one run. Safe to use from the worker threads and future callbacks of the run.
+     */
+    public class Session {
+
+        private final Map<String, CompletableFuture<String>> pids = new ConcurrentHashMap<>();
+
+        private final AtomicLong created = new AtomicLong();
+
+        private final AtomicLong reused = new AtomicLong();
+
+        private final AtomicLong fromIndex = new AtomicLong();
+
+        private final AtomicLong searched = new AtomicLong();
+
+        private Session() {
+        }
+
+        public String resolve(User.CreateUserRequest request) {
+            String email = key(request.getEmail());
+            CompletableFuture<String> pid = new CompletableFuture<>();
+            CompletableFuture<String> known = pids.putIfAbsent(email, pid);
+            if (known != null) {
+                reused.incrementAndGet();
+                return await(known);
+            }
+            try {
+                String resolved = lookupOrCreate(email, request);
+                pid.complete(resolved);
+                return resolved;
+            } catch (RuntimeException e) {
+                // Let a later row of the same customer try again
+                pids.remove(email, pid);
+                pid.completeExceptionally(e);
+                throw e;
+            }
+        }
+
+        public CompletableFuture<String> resolveAsync(User.CreateUserRequest request) {
+            String email = key(request.getEmail());
+            CompletableFuture<String> pid = new CompletableFuture<>();
+            CompletableFuture<String> known = pids.putIfAbsent(email, pid);
+            if (known != null) {
+                reused.incrementAndGet();
+                return known;
+            }
+            String indexed = index == null ? null : index.get(email);
+            if (indexed != null) {
+                fromIndex.incrementAndGet();
+                pid.complete(indexed);
+                return pid;
+            }
+            userServiceClient.createUserAsync(request)
+                    .thenApply(userResponse -> {
+                        created.incrementAndGet();
+                        return userResponse.getPid();
+                    })
+                    .exceptionallyCompose(error -> {
+                        if (GrpcFutures.unwrap(error) instanceof UserAlreadyExistsException) {
+                            return userServiceClient.searchByEmailAsync(request.getEmail()).thenApply(users -> {
+                                searched.incrementAndGet();
+                                return findByEmail(request.getEmail(), users);
+                            });
+                        }
+                        return CompletableFuture.failedFuture(GrpcFutures.unwrap(error));
+                    })
+                    .whenComplete((resolved, error) -> {
+                        Throwable failure = error == null ? null : GrpcFutures.unwrap(error);
+                        if (failure == null) {
+                            try {
+                                remember(email, resolved);
+                                pid.complete(resolved);
+                                return;
+                            } catch (RuntimeException e) {
+                                failure = e;
+                            }
+                        }
+                        pids.remove(email, pid);
+                        pid.completeExceptionally(failure);
+                    });
+            return pid;
+        }
+
+        private String lookupOrCreate(String email, User.CreateUserRequest request) {
+            String indexed = index == null ? null : index.get(email);
+            if (indexed != null) {
+                fromIndex.incrementAndGet();
+                return indexed;
+            }
+            String resolved;
+            try {
+                resolved = userServiceClient.createUser(request).getPid();
+                created.incrementAndGet();
+            } catch (UserAlreadyExistsException e) {
+                resolved = findByEmail(request.getEmail(), userServiceClient.searchByEmail(request.getEmail()));
+                searched.incrementAndGet();
+            }
+            remember(email, resolved);
+            return resolved;
+        }
+
+        private void remember(String email, String userPid) {
+            if (index != null) {
+                index.put(email, userPid);
+            }
+        }
+
+        private String await(CompletableFuture<String> pid) {
+            try {
+                return pid.join();
+            } catch (CompletionException e) {
+                Throwable cause = GrpcFutures.unwrap(e);
+                if (cause instanceof RuntimeException runtimeException) {
+                    throw runtimeException;
+                }
+                throw e;
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "created=" + created + ", reused=" + reused + ", fromIndex=" + fromIndex
+                    + ", foundBySearch=" + searched;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.integration.service;
+
+import com.integration.model.OrderCsv;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads rows a chunk ahead and checks the chunk with {@link OrderValidator} on all cores, then hands
+ * the rows out one by one in input order together with their problems. With validation disabled rows
+ * are passed through as they are read.
+ */
+final class ValidatedRows implements Iterator<ValidatedRows.Row> {
+
+    /**
+     * A row and its problems, none if it can be imported.
+     */
+    record Row(OrderCsv order, List<String> problems) {
+
+        boolean isValid() {
+            return problems.isEmpty();
+        }
+    }
+
+    private final Iterator<OrderCsv> orders;
+
+    private final boolean validate;
+
+    private final int chunkSize;
+
+    private List<Row> chunk = List.of();
+
+    private int position;
+
+    ValidatedRows(Iterator<OrderCsv> orders, boolean validate, int chunkSize) {
+        this.orders = orders;
+        this.validate = validate;
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+
+    @Override
+    public boolean hasNext() {
+        return position < chunk.size() || orders.hasNext();
+    }
+
+    @Override
+    public Row next() {
+        if (!validate) {
+            return new Row(orders.next(), List.of());
+        }
+        if (position == chunk.size()) {
+            readChunk();
+        }
+        return chunk.get(position++);
+    }
+
+    private void readChunk() {
+        List<OrderCsv> read = new ArrayList<>(chunkSize);
+        while (read.size() < chunkSize && orders.hasNext()) {
+            read.add(orders.next());
+        }
+        if (read.isEmpty()) {
+            throw new NoSuchElementException();
+        }
+        chunk = read.parallelStream()
+                .map(order -> new Row(order, OrderValidator.validate(order)))
+                .toList();
+        position = 0;
+    }
+}
@@ -0,0 +1,154 @@
+package com.integration.util;
+
+import com.github.luben.zstd.ZstdInputStream;
+import com.github.luben.zstd.ZstdOutputStream;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streaming codecs for input and output files. Inputs are recognised by their magic bytes, so a
+ * compressed file is read as it is, whatever its name, without a decompressed copy on disk. Files are
+ * read and written through a file channel with large buffers on both sides of the codec.
+ */
+public enum Compression {
+
+    NONE(new byte[0], ""),
+    GZIP(new byte[]{0x1f, (byte) 0x8b}, ".gz"),
+    ZSTD(new byte[]{0x28, (byte) 0xb5, 0x2f, (byte) 0xfd}, ".zst");
+
+    public static final int BUFFER_SIZE = 256 * 1024;
+
+    private static final int MAGIC_LENGTH = 4;
+
+    private final byte[] magic;
+
+    private final String extension;
+
+    Compression(byte[] magic, String extension) {
+        this.magic = magic;
+        this.extension = extension;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * The codec configured by name: none, gzip or zstd.
+     */
+    public static Compression of(String name) {
+        return switch (name.toLowerCase(Locale.ROOT)) {
+            case "", "none" -> NONE;
+            case "gzip", "gz" -> GZIP;
+            case "zstd", "zst" -> ZSTD;
+            default -> throw new IllegalArgumentException("Unknown compression: " + name);
+        };
+    }
+
+    /**
+     * The codec implied by a file name ending in .gz or .zst, {@link #NONE} otherwise.
+     */
+    public static Compression fromFileName(Path file) {
+        String fileName = file.getFileName().toString();
+        for (Compression compression : values()) {
+            if (compression != NONE && fileName.endsWith(compression.extension)) {
+                return compression;
+            }
+        }
+        return NONE;
+    }
+
+    /**
+     * The codec of a file, from its first bytes.
+     */
+    public static Compression detect(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            byte[] head = new byte[MAGIC_LENGTH];
+            int length = Channels.newInputStream(channel).readNBytes(head, 0, MAGIC_LENGTH);
+            return detect(head, length);
+        }
+    }
+
+    private static Compression detect(byte[] head, int length) {
+        for (Compression compression : values()) {
+            if (compression != NONE && length >= compression.magic.length
+                    && Arrays.equals(head, 0, compression.magic.length, compression.magic, 0, compression.magic.length)) {
+                return compression;
+            }
+        }
+        return NONE;
+    }
+
+    /**
+     * Opens a file for reading, decompressing it if its first bytes say it is compressed.
+     */
+    public static InputStream openInput(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            return decompressing(Channels.newInputStream(channel));
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Wraps a stream that may be compressed, such as an upload, in one that reads it decompressed.
+     * Blocks until the first bytes have arrived.
+     */
+    public static InputStream decompressing(InputStream in) throws IOException {
+        BufferedInputStream buffered = new BufferedInputStream(in, BUFFER_SIZE);
+        buffered.mark(MAGIC_LENGTH);
+        byte[] head = new byte[MAGIC_LENGTH];
+        int length = buffered.readNBytes(head, 0, MAGIC_LENGTH);
+        buffered.reset();
+        return detect(head, length).decompress(buffered);
+    }
+
+    /**
+     * Creates or truncates a file and writes to it through this codec. Small writes are collected before
+     * they reach the codec, and the codec's output is written in large blocks.
+     */
+    public OutputStream openOutput(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        try {
+            return new BufferedOutputStream(compress(Channels.newOutputStream(channel)), BUFFER_SIZE);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private InputStream decompress(InputStream in) throws IOException {
+        return switch (this) {
+            case NONE -> in;
+            // Reads concatenated members too, as written by parallel gzip tools
+            case GZIP -> new GZIPInputStream(in, BUFFER_SIZE);
+            case ZSTD -> new BufferedInputStream(new ZstdInputStream(in), BUFFER_SIZE);
+        };
+    }
+
+    /**
+     * Compresses what is written to the returned stream into {@code out}; closing it finishes the stream.
+     */
+    public OutputStream compress(OutputStream out) throws IOException {
+        return switch (this) {
+            case NONE -> out;
+            case GZIP -> new GZIPOutputStream(out, BUFFER_SIZE);
+            case ZSTD -> new BufferedOutputStream(new ZstdOutputStream(out), BUFFER_SIZE);
+        };
+    }
+}
@@ -0,0 +1,24 @@
+package com.integration.runner;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.runner.JUnitCore;
+import org.junit.runner.Result;
+import org.junit.runner.notification.Failure;
+
+import java.util.stream.Collectors;
+
+/**
+ * Runs the features from {@code mvn test}: surefire only runs JUnit Platform tests, while the features
+ * run through the JUnit 4 {@link IntegrationServiceTestRunner}.
+ */
+class CucumberFeaturesTest {
+
+    @Test
+    void allScenariosPass() {
+        Result result = JUnitCore.runClasses(IntegrationServiceTestRunner.class);
+        Assertions.assertTrue(result.getRunCount() > 0, "No scenarios ran");
+        Assertions.assertTrue(result.wasSuccessful(), () -> result.getFailureCount() + " scenarios failed:\n"
+                + result.getFailures().stream().map(Failure::toString).collect(Collectors.joining("\n")));
+    }
+}
@@ -0,0 +1,223 @@
+package com.integration.stepdefinitions;
+
+import com.google.protobuf.StringValue;
+import com.integration.batch.BatchImportConfig;
+import com.integration.batch.BatchOrderImportService;
+import com.integration.grpc.OrderServiceClient;
+import com.integration.grpc.ProductServiceClient;
+import com.integration.grpc.SupplierServiceClient;
+import com.integration.grpc.UserServiceClient;
+import com.integration.model.ProcessedOrder;
+import com.integration.output.ProcessedOrderReader;
+import com.integration.output.ProcessedOrderWriterFactory;
+import com.integration.service.CsvReaderService;
+import com.integration.service.ProductCache;
+import com.integration.service.SupplierValidator;
+import com.integration.service.UserResolver;
+import io.cucumber.java.After;
+import io.cucumber.java.en.And;
+import io.cucumber.java.en.Given;
+import io.cucumber.java.en.Then;
+import io.cucumber.java.en.When;
+import io.grpc.Status;
+import order.Order;
+import org.junit.jupiter.api.Assertions;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.support.PropertySourcesPlaceholderConfigurer;
+import org.springframework.core.env.MapPropertySource;
+import product.Product;
+import user.User;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Runs the batch job, with its partitioner and merge step, in a context of its own against mocked clients.
+ */
+public class BatchImportSteps {
+
+    private static final String HEADER = "id,first_name,last_name,email,supplier_pid,credit_card_number,"
+            + "credit_card_type,order_id,product_pid,shipping_address,country,date_created,quantity,full_name,"
+            + "order_status";
+
+    private final UserServiceClient userServiceClient = mock(UserServiceClient.class);
+
+    private final OrderServiceClient orderServiceClient = mock(OrderServiceClient.class);
+
+    private final ProductServiceClient productServiceClient = mock(ProductServiceClient.class);
+
+    // Statuses the first call for a product pid fails with
+    private final Map<String, Status> failingOrders = new ConcurrentHashMap<>();
+
+    private final Map<String, Status> failingProducts = new ConcurrentHashMap<>();
+
+    private final Set<String> failedOnce = ConcurrentHashMap.newKeySet();
+
+    private final Path directory;
+
+    private Path inputFile;
+
+    private Path outputFile;
+
+    private int rows;
+
+    private AnnotationConfigApplicationContext context;
+
+    private JobExecution execution;
+
+    public BatchImportSteps() throws IOException {
+        directory = Files.createTempDirectory("batch-import-");
+        directory.toFile().deleteOnExit();
+    }
+
+    @After
+    public void closeContext() {
+        if (context != null) {
+            context.close();
+        }
+    }
+
+    @Given("{int} order rows for the batch job")
+    public void orderRowsForTheBatchJob(int rows) throws IOException {
+        writeOrderRows(rows, false);
+    }
+
+    @Given("{int} order rows for the batch job with their columns in reverse order")
+    public void orderRowsWithTheirColumnsInReverseOrder(int rows) throws IOException {
+        writeOrderRows(rows, true);
+    }
+
+    private void writeOrderRows(int rows, boolean reversed) throws IOException {
+        this.rows = rows;
+        StringBuilder csv = new StringBuilder(line(HEADER, reversed)).append('\n');
+        for (int row = 1; row <= rows; row++) {
+            csv.append(line(String.format("%d,First,Last,customer%d@example.com,s-1,4111111111111111,visa,o-%d,p-%d,"
+                    + "1 Main St,Portugal,2022-06-24T10:45:52Z,3,First Last,0", row, row, row, row), reversed))
+                    .append('\n');
+        }
+        inputFile = Files.writeString(directory.resolve("orders.csv"), csv);
+        inputFile.toFile().deleteOnExit();
+        outputFile = directory.resolve("processed-orders.json");
+        outputFile.toFile().deleteOnExit();
+
+        when(userServiceClient.createUser(any())).thenAnswer(invocation -> User.UserResponse.newBuilder()
+                .setPid("user-" + invocation.<User.CreateUserRequest>getArgument(0).getEmail())
+                .build());
+        when(productServiceClient.getProductByPid(any())).thenAnswer(invocation -> {
+            String productPid = invocation.<StringValue>getArgument(0).getValue();
+            failFirstCall("product " + productPid, failingProducts.get(productPid));
+            return Product.ProductResponse.newBuilder().setPid(productPid).setPricePerUnit(2.5f).build();
+        });
+        when(orderServiceClient.createOrder(any())).thenAnswer(invocation -> {
+            String productPid = invocation.<Order.CreateOrderRequest>getArgument(0).getProducts(0).getPid();
+            failFirstCall("order " + productPid, failingOrders.get(productPid));
+            return Order.OrderResponse.newBuilder().setPid("order-" + productPid).build();
+        });
+    }
+
+    @And("the order call of row {int} fails with {word}")
+    public void theOrderCallOfRowFailsWith(int row, String status) {
+        failingOrders.put("p-" + row, Status.fromCode(Status.Code.valueOf(status)));
+    }
+
+    @And("the product lookup of row {int} fails with {word}")
+    public void theProductLookupOfRowFailsWith(int row, String status) {
+        failingProducts.put("p-" + row, Status.fromCode(Status.Code.valueOf(status)));
+    }
+
+    @When("the batch job imports them in {int} partitions of chunks of {int} rows")
+    public void theBatchJobImportsThem(int partitions, int chunkSize) throws Exception {
+        context = new AnnotationConfigApplicationContext();
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("batch", Map.of(
+                "integration.batch.enabled", "true",
+                "integration.batch.repository-url", "jdbc:h2:mem:batch-" + UUID.randomUUID(),
+                "integration.batch.partitions", String.valueOf(partitions),
+                "integration.batch.chunk-size", String.valueOf(chunkSize),
+                "integration.batch.retry-limit", "3")));
+        context.registerBean(PropertySourcesPlaceholderConfigurer.class);
+        context.registerBean(CsvReaderService.class, () -> new CsvReaderService("opencsv"));
+        context.registerBean(UserResolver.class, () -> new UserResolver(userServiceClient, ""));
+        context.registerBean(SupplierValidator.class,
+                () -> new SupplierValidator(mock(SupplierServiceClient.class), false, 500));
+        context.registerBean(ProductCache.class, () -> new ProductCache(productServiceClient, 100, 60000, 100, false));
+        context.registerBean(OrderServiceClient.class, () -> orderServiceClient);
+        context.registerBean(ProcessedOrderWriterFactory.class,
+                () -> new ProcessedOrderWriterFactory(outputFile.toString(), "json", 500, 1000, "none", false));
+        context.register(BatchImportConfig.class, BatchOrderImportService.class);
+        context.refresh();
+        execution = context.getBean(BatchOrderImportService.class).run(inputFile.toString(), outputFile.toString());
+    }
+
+    @Then("the batch job ends with {string}")
+    public void theBatchJobEndsWith(String summary) {
+        Assertions.assertEquals(summary, BatchOrderImportService.summary(execution));
+    }
+
+    @And("the output holds the orders of rows {int} to {int} in order")
+    public void theOutputHoldsTheOrdersInOrder(int first, int last) throws IOException {
+        try (Stream<ProcessedOrder> processedOrders = ProcessedOrderReader.read(outputFile)) {
+            Assertions.assertEquals(IntStream.rangeClosed(first, last).mapToObj(row -> "order-p-" + row).toList(),
+                    processedOrders.map(ProcessedOrder::getOrderPid).toList());
+        }
+    }
+
+    @And("no partition output is left")
+    public void noPartitionOutputIsLeft() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            Assertions.assertEquals(List.of(), files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.contains(".part-"))
+                    .toList());
+        }
+    }
+
+    @And("the order of every row was requested once")
+    public void theOrderOfEveryRowWasRequestedOnce() {
+        Assertions.assertEquals(expectedOrderCalls(0, 1), orderCalls());
+    }
+
+    @And("the order of row {int} was requested {int} times and the others once")
+    public void theOrderOfRowWasRequested(int row, int times) {
+        Assertions.assertEquals(expectedOrderCalls(row, times), orderCalls());
+    }
+
+    private static String line(String line, boolean reversed) {
+        List<String> values = Arrays.asList(line.split(","));
+        if (reversed) {
+            Collections.reverse(values);
+        }
+        return String.join(",", values);
+    }
+
+    private void failFirstCall(String call, Status status) {
+        if (status != null && failedOnce.add(call)) {
+            throw status.withDescription("Failing the first call for " + call).asRuntimeException();
+        }
+    }
+
+    private Map<String, Long> expectedOrderCalls(int row, long times) {
+        return IntStream.rangeClosed(1, rows).boxed()
+                .collect(Collectors.toMap(r -> "p-" + r, r -> r == row ? times : 1L));
+    }
+
+    private Map<String, Long> orderCalls() {
+        return mockingDetails(orderServiceClient).getInvocations().stream()
+                .filter(invocation -> invocation.getMethod().getName().equals("createOrder"))
+                .map(invocation -> invocation.<Order.CreateOrderRequest>getArgument(0).getProducts(0).getPid())
+                .collect(Collectors.groupingBy(productPid -> productPid, Collectors.counting()));
+    }
+}
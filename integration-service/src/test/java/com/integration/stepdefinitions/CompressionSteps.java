@@ -0,0 +1,132 @@
+package com.integration.stepdefinitions;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.integration.model.OrderCsv;
+import com.integration.model.ProcessedOrder;
+import com.integration.output.ProcessedOrderWriter;
+import com.integration.output.ProcessedOrderWriterFactory;
+import com.integration.service.CsvReaderService;
+import com.integration.service.InputPartition;
+import com.integration.util.Compression;
+import io.cucumber.java.en.And;
+import io.cucumber.java.en.Given;
+import io.cucumber.java.en.Then;
+import io.cucumber.java.en.When;
+import org.junit.jupiter.api.Assertions;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+public class CompressionSteps {
+
+    private final Path directory;
+
+    private Path plainFile;
+
+    private Path compressedFile;
+
+    private CsvReaderService csvReaderService;
+
+    private List<OrderCsv> plainRows;
+
+    private List<OrderCsv> compressedRows;
+
+    private String compression;
+
+    private Path outputFile;
+
+    public CompressionSteps() throws IOException {
+        directory = Files.createTempDirectory("compression-");
+        directory.toFile().deleteOnExit();
+    }
+
+    @Given("the CSV file {string} compressed with {word} as {string}")
+    public void theCsvFileCompressedWith(String filePath, String compression, String fileName) throws IOException {
+        plainFile = Paths.get(filePath);
+        compressedFile = directory.resolve(fileName);
+        compressedFile.toFile().deleteOnExit();
+        try (OutputStream out = Compression.of(compression).openOutput(compressedFile)) {
+            Files.copy(plainFile, out);
+        }
+    }
+
+    @When("both files are read with the {string} parser")
+    public void bothFilesAreReadWith(String parser) throws IOException {
+        csvReaderService = new CsvReaderService(parser);
+        plainRows = csvReaderService.readOrders(plainFile.toString());
+        compressedRows = csvReaderService.readOrders(compressedFile.toString());
+    }
+
+    @Then("both files have the same rows")
+    public void bothFilesHaveTheSameRows() {
+        Assertions.assertFalse(plainRows.isEmpty());
+        Assertions.assertEquals(plainRows, compressedRows);
+    }
+
+    @And("both files have the same row count")
+    public void bothFilesHaveTheSameRowCount() throws IOException {
+        Assertions.assertEquals(csvReaderService.countRows(plainFile.toString()),
+                csvReaderService.countRows(compressedFile.toString()));
+    }
+
+    @And("the compressed file is a single partition")
+    public void theCompressedFileIsASinglePartition() throws IOException {
+        List<InputPartition> partitions = InputPartition.plan(compressedFile, 64);
+        Assertions.assertEquals(1, partitions.size());
+        try (Stream<OrderCsv> orders = csvReaderService.streamOrders(partitions.get(0).open())) {
+            Assertions.assertEquals(plainRows, orders.toList());
+        }
+    }
+
+    @Given("an output compression of {string}")
+    public void anOutputCompressionOf(String compression) {
+        this.compression = compression;
+    }
+
+    @When("{int} processed orders are written to {string}")
+    public void processedOrdersAreWrittenTo(int count, String fileName) throws IOException {
+        outputFile = directory.resolve(fileName);
+        outputFile.toFile().deleteOnExit();
+        String format = fileName.contains(".ndjson") ? "ndjson" : "json";
+        ProcessedOrderWriterFactory factory =
+                new ProcessedOrderWriterFactory(null, format, 500, 1000, compression, false);
+        try (ProcessedOrderWriter writer = factory.open(outputFile.toString())) {
+            for (int i = 0; i < count; i++) {
+                writer.write(new ProcessedOrder("user-" + i, "order-" + i, "supplier-" + i));
+            }
+        }
+    }
+
+    @Then("the output starts with the {word} magic bytes")
+    public void theOutputStartsWithTheMagicBytes(String compression) throws IOException {
+        Assertions.assertEquals(Compression.of(compression), Compression.detect(outputFile));
+    }
+
+    @And("the output reads back as the {int} processed orders")
+    public void theOutputReadsBackAs(int count) throws IOException {
+        List<ProcessedOrder> processedOrders = new ArrayList<>();
+        try (InputStream in = Compression.openInput(outputFile);
+             MappingIterator<ProcessedOrder> values = new ObjectMapper().readerFor(ProcessedOrder.class).readValues(in)) {
+            values.forEachRemaining(processedOrders::add);
+        }
+        Assertions.assertEquals(count, processedOrders.size());
+        for (int i = 0; i < count; i++) {
+            Assertions.assertEquals("user-" + i, processedOrders.get(i).getUserPid());
+            Assertions.assertEquals("order-" + i, processedOrders.get(i).getOrderPid());
+        }
+    }
+
+    @And("the rejects of the output go to {string}")
+    public void theRejectsOfTheOutputGoTo(String fileName) {
+        Assertions.assertEquals(directory.resolve(fileName),
+                ProcessedOrderWriterFactory.rejectsPath(outputFile.toString()));
+    }
+}
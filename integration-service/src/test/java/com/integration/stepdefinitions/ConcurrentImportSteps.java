@@ -0,0 +1,145 @@
+package com.integration.stepdefinitions;
+
+import com.integration.grpc.OrderServiceClient;
+import com.integration.grpc.ProductServiceClient;
+import com.integration.grpc.UserServiceClient;
+import com.integration.model.OrderCsv;
+import com.integration.model.ProcessedOrder;
+import com.integration.service.IntegrationService;
+import io.cucumber.java.en.And;
+import io.cucumber.java.en.Given;
+import io.cucumber.java.en.Then;
+import io.cucumber.java.en.When;
+import order.Order;
+import org.junit.jupiter.api.Assertions;
+import product.Product;
+import user.User;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ConcurrentImportSteps {
+
+    private final UserServiceClient userServiceClient = mock(UserServiceClient.class);
+
+    private final OrderServiceClient orderServiceClient = mock(OrderServiceClient.class);
+
+    private final ProductServiceClient productServiceClient = mock(ProductServiceClient.class);
+
+    private final List<OrderCsv> orders = new ArrayList<>();
+
+    private final List<ProcessedOrder> sequentialResults = new ArrayList<>();
+
+    private final List<ProcessedOrder> concurrentResults = new ArrayList<>();
+
+    private long sequentialNanos;
+
+    private long concurrentNanos;
+
+    @Given("{int} generated order rows and downstream stubs answering after {int} ms")
+    public void generatedOrderRowsAndDownstreamStubs(int rows, int latencyMillis) {
+        for (int i = 1; i <= rows; i++) {
+            orders.add(new OrderCsv(String.valueOf(i), "First" + i, "Last" + i, "user" + i + "@example.com",
+                    "supplier" + i, "4111111111111111", "visa", "order" + i, "product" + (i % 5), "1 Main St",
+                    "Portugal", "2022-06-24T10:45:52Z", "3", "First" + i + " Last" + i, "0"));
+        }
+
+        when(userServiceClient.createUser(any())).thenAnswer(invocation -> {
+            sleep(latencyMillis);
+            return userResponse(invocation.getArgument(0));
+        });
+        when(productServiceClient.getProductByPid(any())).thenAnswer(invocation -> {
+            sleep(latencyMillis);
+            return productResponse();
+        });
+        when(orderServiceClient.createOrder(any())).thenAnswer(invocation -> {
+            sleep(latencyMillis);
+            return orderResponse(invocation.getArgument(0));
+        });
+
+        Executor delayed = CompletableFuture.delayedExecutor(latencyMillis, TimeUnit.MILLISECONDS);
+        when(userServiceClient.createUserAsync(any())).thenAnswer(invocation ->
+                CompletableFuture.supplyAsync(() -> userResponse(invocation.getArgument(0)), delayed));
+        when(productServiceClient.getProductByPidAsync(any())).thenAnswer(invocation ->
+                CompletableFuture.supplyAsync(ConcurrentImportSteps::productResponse, delayed));
+        when(orderServiceClient.createOrderAsync(any())).thenAnswer(invocation ->
+                CompletableFuture.supplyAsync(() -> orderResponse(invocation.getArgument(0)), delayed));
+    }
+
+    @When("the rows are processed sequentially and with a parallelism of {int}")
+    public void theRowsAreProcessedSequentiallyAndConcurrently(int parallelism) {
+        sequentialNanos = run(1, false, sequentialResults);
+        concurrentNanos = run(parallelism, false, concurrentResults);
+        System.out.printf("Sequential: %.1f rows/s, parallelism %d: %.1f rows/s%n",
+                rowsPerSecond(sequentialNanos), parallelism, rowsPerSecond(concurrentNanos));
+    }
+
+    @When("the rows are processed sequentially and asynchronously with a parallelism of {int}")
+    public void theRowsAreProcessedSequentiallyAndAsynchronously(int parallelism) {
+        sequentialNanos = run(1, false, sequentialResults);
+        concurrentNanos = run(parallelism, true, concurrentResults);
+        System.out.printf("Sequential: %.1f rows/s, async with parallelism %d: %.1f rows/s%n",
+                rowsPerSecond(sequentialNanos), parallelism, rowsPerSecond(concurrentNanos));
+    }
+
+    @Then("both runs produce the same results in input order")
+    public void bothRunsProduceTheSameResultsInInputOrder() {
+        Assertions.assertEquals(orders.size(), sequentialResults.size());
+        Assertions.assertEquals(orders.size(), concurrentResults.size());
+        for (int i = 0; i < orders.size(); i++) {
+            String rowId = orders.get(i).getId();
+            Assertions.assertEquals("user-" + rowId, sequentialResults.get(i).getUserPid());
+            Assertions.assertEquals("user-" + rowId, concurrentResults.get(i).getUserPid());
+            Assertions.assertEquals("order-" + rowId, concurrentResults.get(i).getOrderPid());
+            Assertions.assertEquals(orders.get(i).getSupplierPid(), concurrentResults.get(i).getSupplierPid());
+        }
+    }
+
+    @And("the concurrent run has a higher throughput than the sequential run")
+    public void theConcurrentRunHasAHigherThroughput() {
+        Assertions.assertTrue(rowsPerSecond(concurrentNanos) > rowsPerSecond(sequentialNanos) * 2,
+                "Concurrent run should be well ahead of the sequential loop");
+    }
+
+    private long run(int parallelism, boolean async, List<ProcessedOrder> results) {
+        IntegrationService integrationService =
+                new IntegrationServiceFixture(userServiceClient, orderServiceClient, productServiceClient)
+                        .parallelism(parallelism)
+                        .async(async)
+                        .build();
+        long start = System.nanoTime();
+        integrationService.processOrders(orders.stream(), results::add);
+        return System.nanoTime() - start;
+    }
+
+    private double rowsPerSecond(long nanos) {
+        return orders.size() / (nanos / 1_000_000_000.0);
+    }
+
+    private static void sleep(int millis) throws InterruptedException {
+        Thread.sleep(millis);
+    }
+
+    private static User.UserResponse userResponse(User.CreateUserRequest request) {
+        String rowId = request.getEmail().substring("user".length(), request.getEmail().indexOf('@'));
+        return User.UserResponse.newBuilder().setPid("user-" + rowId).build();
+    }
+
+    private static Product.ProductResponse productResponse() {
+        return Product.ProductResponse.newBuilder().setPid("product").setPricePerUnit(9.5f).build();
+    }
+
+    private static Order.OrderResponse orderResponse(Order.CreateOrderRequest request) {
+        return Order.OrderResponse.newBuilder()
+                .setUserPid(request.getUserPid())
+                .setPid(request.getUserPid().replace("user-", "order-"))
+                .build();
+    }
+}
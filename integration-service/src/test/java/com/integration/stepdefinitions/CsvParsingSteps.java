@@ -0,0 +1,103 @@
+package com.integration.stepdefinitions;
+
+import com.integration.model.OrderCsv;
+import com.integration.service.CsvReaderService;
+import com.integration.service.OrderRequestMapper;
+import io.cucumber.java.en.And;
+import io.cucumber.java.en.Given;
+import io.cucumber.java.en.Then;
+import io.cucumber.java.en.When;
+import order.Order;
+import org.junit.jupiter.api.Assertions;
+import product.Product;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+import java.util.stream.Stream;
+
+public class CsvParsingSteps {
+
+    private String filePath;
+
+    private String input;
+
+    private List<OrderCsv> expectedRows;
+
+    private List<OrderCsv> actualRows;
+
+    private Order.CreateOrderRequest orderRequest;
+
+    private RuntimeException failure;
+
+    @Given("the CSV file {string}")
+    public void theCsvFile(String filePath) {
+        this.filePath = filePath;
+    }
+
+    @Given("a CSV input with quoted values")
+    public void aCsvInputWithQuotedValues(String input) {
+        this.input = input;
+    }
+
+    @When("the file is read with the {string} and the {string} parser")
+    public void theFileIsReadWith(String expectedParser, String actualParser) throws IOException {
+        expectedRows = new CsvReaderService(expectedParser).readOrders(filePath);
+        actualRows = new CsvReaderService(actualParser).readOrders(filePath);
+    }
+
+    @When("the input is read with the {string} and the {string} parser")
+    public void theInputIsReadWith(String expectedParser, String actualParser) {
+        expectedRows = read(expectedParser);
+        actualRows = read(actualParser);
+    }
+
+    @Then("both parsers return the same rows")
+    public void bothParsersReturnTheSameRows() {
+        Assertions.assertFalse(expectedRows.isEmpty());
+        Assertions.assertEquals(expectedRows, actualRows);
+    }
+
+    @And("row {int} has the shipping address {string}")
+    public void rowHasTheShippingAddress(int row, String shippingAddress) {
+        Assertions.assertEquals(shippingAddress.replace("\\\"", "\"").replace("\\n", "\n"),
+                actualRows.get(row - 1).getShippingAddress());
+    }
+
+    @And("row {int} has the quantity {string} and the full name {string}")
+    public void rowHasTheQuantityAndTheFullName(int row, String quantity, String fullName) {
+        Assertions.assertEquals(quantity, actualRows.get(row - 1).getQuantity());
+        Assertions.assertEquals(fullName, actualRows.get(row - 1).getFullName());
+    }
+
+    @When("an order request is built for a row created at {string}")
+    public void anOrderRequestIsBuiltForARowCreatedAt(String dateCreated) {
+        OrderCsv order = new OrderCsv("1", "Austin", "Humphries", "ahumphries0@mac.com", "s-1",
+                "4917352465154663", "visa", "o-1", "p-1", "894 Declaration Park", "Portugal", dateCreated, "3",
+                "Austin Humphries", "2");
+        Product.ProductResponse product = Product.ProductResponse.newBuilder().setPid("p-1").setPricePerUnit(2.5f).build();
+        try {
+            orderRequest = OrderRequestMapper.createOrderRequest(order, "user-1", product);
+        } catch (RuntimeException e) {
+            failure = e;
+        }
+    }
+
+    @Then("the order request has the creation date {string}")
+    public void theOrderRequestHasTheCreationDate(String date) {
+        Assertions.assertNull(failure);
+        Assertions.assertEquals(date, orderRequest.getDateCreated().getValue());
+        Assertions.assertEquals(3, orderRequest.getQuantity());
+    }
+
+    @Then("building the order request fails")
+    public void buildingTheOrderRequestFails() {
+        Assertions.assertNotNull(failure);
+    }
+
+    private List<OrderCsv> read(String parser) {
+        try (Stream<OrderCsv> orders = new CsvReaderService(parser).streamOrders(new StringReader(input))) {
+            return orders.toList();
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.integration.stepdefinitions;
+
+import com.integration.grpc.DownstreamLimiter;
+import io.cucumber.java.en.And;
+import io.cucumber.java.en.Given;
+import io.cucumber.java.en.Then;
+import io.cucumber.java.en.When;
+import io.grpc.Status;
+import org.junit.jupiter.api.Assertions;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+public class DownstreamLimiterSteps {
+
+    private DownstreamLimiter limiter;
+
+    // Calls the limiter has started and that have not been answered yet, oldest first
+    private final ConcurrentLinkedQueue<CompletableFuture<String>> started = new ConcurrentLinkedQueue<>();
+
+    private final List<CompletableFuture<String>> results = new ArrayList<>();
+
+    private final AtomicInteger attempts = new AtomicInteger();
+
+    private String result;
+
+    private RuntimeException failure;
+
+    @Given("a downstream limiter starting at {int} calls with a maximum of {int}")
+    public void aDownstreamLimiter(int initialLimit, int maxConcurrentCalls) {
+        // Latency never counts as overload and backoffs are immediate, so only the answers matter
+        limiter = new DownstreamLimiter("test-service", maxConcurrentCalls,
+                new DownstreamLimiter.Settings(initialLimit, 1, Double.POSITIVE_INFINITY, 0.5, 3, 0, 0));
+    }
+
+    @When("{int} asynchronous calls are started")
+    public void asynchronousCallsAreStarted(int calls) {
+        for (int i = 0; i < calls; i++) {
+            results.add(limiter.callAsync(() -> {
+                CompletableFuture<String> call = new CompletableFuture<>();
+                started.add(call);
+                return call;
+            }));
+        }
+    }
+
+    @When("{int} of the calls in flight succeeds/succeed")
+    public void ofTheCallsInFlightSucceed(int calls) {
+        for (int i = 0; i < calls; i++) {
+            started.poll().complete("ok");
+        }
+    }
+
+    @When("{int} of the calls in flight fails/fail with {string}")
+    public void ofTheCallsInFlightFailWith(int calls, String code) {
+        for (int i = 0; i < calls; i++) {
+            started.poll().completeExceptionally(Status.Code.valueOf(code).toStatus().asRuntimeException());
+        }
+    }
+
+    @When("the calls keep succeeding for {int} rounds")
+    public void theCallsKeepSucceeding(int rounds) {
+        for (int round = 0; round < rounds; round++) {
+            // Keep the limiter busy so it may grow
+            asynchronousCallsAreStarted(limiter.getLimit() - limiter.getInFlight() + 1);
+            ofTheCallsInFlightSucceed(started.size());
+        }
+    }
+
+    @Then("{int} calls are in flight")
+    public void callsAreInFlight(int calls) {
+        Assertions.assertEquals(calls, limiter.getInFlight());
+        Assertions.assertEquals(calls, started.size());
+    }
+
+    @And("{int} call has completed")
+    public void callHasCompleted(int calls) {
+        Assertions.assertEquals(calls, results.stream().filter(CompletableFuture::isDone).count());
+    }
+
+    @Then("the limit is {int}")
+    public void theLimitIs(int limit) {
+        Assertions.assertEquals(limit, limiter.getLimit());
+    }
+
+    @Then("the limit is above {int}")
+    public void theLimitIsAbove(int limit) {
+        Assertions.assertTrue(limiter.getLimit() > limit, "limit " + limiter.getLimit());
+    }
+
+    @When("a blocking call fails {int} time(s) with {string} before it succeeds")
+    public void aBlockingCallFails(int failures, String code) {
+        try {
+            result = limiter.call(failing(failures, code));
+        } catch (RuntimeException e) {
+            failure = e;
+        }
+    }
+
+    @When("an asynchronous call fails {int} time(s) with {string} before it succeeds")
+    public void anAsynchronousCallFails(int failures, String code)
+            throws InterruptedException, ExecutionException, TimeoutException {
+        Supplier<String> call = failing(failures, code);
+        result = limiter.callAsync(() -> CompletableFuture.supplyAsync(call)).get(5, TimeUnit.SECONDS);
+    }
+
+    @When("a blocking create call fails {int} time(s) with {string} before it succeeds")
+    public void aBlockingCreateCallFails(int failures, String code) {
+        try {
+            result = limiter.callCreate(failing(failures, code));
+        } catch (RuntimeException e) {
+            failure = e;
+        }
+    }
+
+    @When("an asynchronous create call fails {int} time(s) with {string} before it succeeds")
+    public void anAsynchronousCreateCallFails(int failures, String code) throws InterruptedException, TimeoutException {
+        Supplier<String> call = failing(failures, code);
+        try {
+            result = limiter.callCreateAsync(() -> CompletableFuture.supplyAsync(call)).get(5, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            failure = (RuntimeException) e.getCause();
+        }
+    }
+
+    @Then("the call succeeds after {int} attempts")
+    public void theCallSucceedsAfter(int expectedAttempts) {
+        Assertions.assertNull(failure);
+        Assertions.assertEquals("ok", result);
+        Assertions.assertEquals(expectedAttempts, attempts.get());
+    }
+
+    @Then("the call fails with {string} after {int} attempts")
+    public void theCallFailsWith(String code, int expectedAttempts) {
+        Assertions.assertNotNull(failure);
+        Assertions.assertEquals(Status.Code.valueOf(code), Status.fromThrowable(failure).getCode());
+        Assertions.assertEquals(expectedAttempts, attempts.get());
+    }
+
+    @And("the limiter counts {int} retries")
+    public void theLimiterCountsRetries(int retries) {
+        Assertions.assertEquals(retries, limiter.getRetries());
+        Assertions.assertEquals(0, limiter.getInFlight());
+    }
+
+    private Supplier<String> failing(int failures, String code) {
+        return () -> {
+            if (attempts.incrementAndGet() <= failures) {
+                throw Status.Code.valueOf(code).toStatus().withDescription("Injected failure").asRuntimeException();
+            }
+            return "ok";
+        };
+    }
+}
@@ -0,0 +1,764 @@
+package com.integration.stepdefinitions;
+
+import com.google.protobuf.ByteString;
+import com.integration.batch.BatchOrderImportService;
+import com.integration.grpc.OrderServiceClient;
+import com.integration.grpc.ProductServiceClient;
+import com.integration.grpc.UserServiceClient;
+import com.integration.model.ProcessedOrder;
+import com.integration.output.ProcessedOrderReader;
+import com.integration.output.ProcessedOrderWriter;
+import com.integration.output.ProcessedOrderWriterFactory;
+import com.integration.service.CsvReaderService;
+import com.integration.service.ImportJob;
+import com.integration.service.ImportJobService;
+import com.integration.service.IntegrationService;
+import com.integration.service.IntegrationServiceImpl;
+import com.integration.service.OrderReconciliationService;
+import com.integration.service.PartitionedImportService;
+import integration.IntegrationServiceGrpc;
+import io.cucumber.datatable.DataTable;
+import io.cucumber.java.After;
+import io.cucumber.java.en.And;
+import io.cucumber.java.en.Given;
+import io.cucumber.java.en.Then;
+import io.cucumber.java.en.When;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.ClientResponseObserver;
+import order.Order;
+import org.junit.jupiter.api.Assertions;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.ObjectProvider;
+import product.Product;
+import user.User;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BooleanSupplier;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static com.google.protobuf.StringValue.of;
+import static integration.IntegrationServiceProto.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Scenarios that call {@link IntegrationServiceImpl} through an in-process gRPC server, with the
+ * downstream clients mocked.
+ */
+public class IntegrationRpcSteps {
+
+    private static final String HEADER = "order_status,quantity,date_created,country,full_name,shipping_address,"
+            + "product_pid,order_id,credit_card_type,credit_card_number,supplier_pid,email,last_name,first_name,id";
+
+    private static final long TIMEOUT_SECONDS = 10;
+
+    private final UserServiceClient userServiceClient = mock(UserServiceClient.class);
+
+    private final OrderServiceClient orderServiceClient = mock(OrderServiceClient.class);
+
+    private final ProductServiceClient productServiceClient = mock(ProductServiceClient.class);
+
+    private final Set<String> unknownProducts = ConcurrentHashMap.newKeySet();
+
+    private final List<ProcessCsvEvent> events = new CopyOnWriteArrayList<>();
+
+    private final CountDownLatch streamClosed = new CountDownLatch(1);
+
+    private final Path directory;
+
+    private Path inputFile;
+
+    private Path outputFile;
+
+    private Server server;
+
+    private ManagedChannel channel;
+
+    private ImportJobService importJobService;
+
+    private ClientCallStreamObserver<ProcessCsvRequest> streamCall;
+
+    private volatile Throwable streamError;
+
+    private volatile boolean userServiceHeld;
+
+    private volatile boolean userServiceBroken;
+
+    private int maxRetainedJobs = 100;
+
+    private boolean checkpointEnabled;
+
+    private int reconciliationBatchSize = 100;
+
+    private ReconcileOrdersResponse reconciliation;
+
+    private StatusRuntimeException reconciliationError;
+
+    private final List<ProcessCsvResponse> queueReplies = new ArrayList<>();
+
+    private final CountDownLatch userServiceReleased = new CountDownLatch(1);
+
+    private final List<ImportJob> jobs = new CopyOnWriteArrayList<>();
+
+    private final CompletableFuture<ProcessCsvResponse> uploadReply = new CompletableFuture<>();
+
+    private ClientCallStreamObserver<UploadCsvChunk> uploadCall;
+
+    private List<UploadCsvChunk> uploadChunks;
+
+    private int uploadLimit;
+
+    private int chunksSent;
+
+    private boolean uploadCompleted;
+
+    public IntegrationRpcSteps() throws IOException {
+        directory = Files.createTempDirectory("integration-rpc-");
+        directory.toFile().deleteOnExit();
+        outputFile = directory.resolve("processed-orders.json");
+        outputFile.toFile().deleteOnExit();
+    }
+
+    @After
+    public void shutDown() {
+        userServiceReleased.countDown();
+        if (channel != null) {
+            channel.shutdownNow();
+        }
+        if (server != null) {
+            server.shutdownNow();
+        }
+        if (importJobService != null) {
+            importJobService.destroy();
+        }
+    }
+
+    @Given("{int} order rows to import over gRPC")
+    public void orderRowsToImportOverGrpc(int rows) throws IOException {
+        StringBuilder csv = new StringBuilder(HEADER).append('\n');
+        for (int row = 1; row <= rows; row++) {
+            csv.append(String.format("0,3,2022-06-24T10:45:52Z,Portugal,First Last,1 Main St,p-%d,o-%d,visa,"
+                    + "4111111111111111,s-1,customer%d@example.com,Last,First,%d%n", row, row, row, row));
+        }
+        inputFile = Files.writeString(directory.resolve("orders.csv"), csv);
+        inputFile.toFile().deleteOnExit();
+
+        when(userServiceClient.createUser(any())).thenAnswer(invocation -> {
+            if (userServiceHeld) {
+                Assertions.assertTrue(userServiceReleased.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+            }
+            if (userServiceBroken) {
+                throw new NoClassDefFoundError("user/User");
+            }
+            return user(invocation.getArgument(0));
+        });
+        when(userServiceClient.createUserAsync(any()))
+                .thenAnswer(invocation -> CompletableFuture.completedFuture(user(invocation.getArgument(0))));
+        when(orderServiceClient.createOrder(any())).thenAnswer(invocation -> order(invocation.getArgument(0)));
+        when(orderServiceClient.createOrderAsync(any()))
+                .thenAnswer(invocation -> CompletableFuture.completedFuture(order(invocation.getArgument(0))));
+        when(productServiceClient.getProductByPid(any())).thenAnswer(invocation -> {
+            String productPid = invocation.<com.google.protobuf.StringValue>getArgument(0).getValue();
+            if (unknownProducts.contains(productPid)) {
+                throw unknownProduct(productPid);
+            }
+            return product(productPid);
+        });
+        when(productServiceClient.getProductByPidAsync(any())).thenAnswer(invocation -> {
+            String productPid = invocation.<com.google.protobuf.StringValue>getArgument(0).getValue();
+            return unknownProducts.contains(productPid)
+                    ? CompletableFuture.failedFuture(unknownProduct(productPid))
+                    : CompletableFuture.completedFuture(product(productPid));
+        });
+    }
+
+    @And("the product of row {int} is unknown to the product service")
+    public void theProductOfRowIsUnknown(int row) {
+        unknownProducts.add("p-" + row);
+    }
+
+    @When("the rows are streamed with a parallelism of {int} and async {word}")
+    public void theRowsAreStreamed(int parallelism, String async) throws Exception {
+        startServer(parallelism, Boolean.parseBoolean(async));
+        stream(0);
+        awaitStreamClosed();
+    }
+
+    @When("the rows are streamed to a client that reads {int} events")
+    public void theRowsAreStreamedToAClientThatReads(int events) throws IOException {
+        startServer(1, false);
+        stream(events);
+    }
+
+    @Then("the client has received {int} events")
+    public void theClientHasReceivedEvents(int count) throws InterruptedException {
+        awaitSteady(() -> events.size() == count, "events received: " + events.size());
+    }
+
+    @And("{int} orders were created while the client was not reading")
+    public void ordersWereCreatedWhileTheClientWasNotReading(int orders) throws InterruptedException {
+        // The import blocks handing over the event of the last row it completed
+        awaitSteady(() -> ordersCreated() == orders, "orders created: " + ordersCreated());
+    }
+
+    @When("the client reads the remaining events")
+    public void theClientReadsTheRemainingEvents() throws InterruptedException {
+        streamCall.request(Integer.MAX_VALUE);
+        awaitStreamClosed();
+    }
+
+    @And("the client cancels the stream")
+    public void theClientCancelsTheStream() throws InterruptedException {
+        streamCall.cancel("Client stopped reading", null);
+        Assertions.assertTrue(streamClosed.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        Assertions.assertEquals(Status.Code.CANCELLED, Status.fromThrowable(streamError).getCode());
+    }
+
+    @And("the streamed import ends {word}")
+    public void theStreamedImportEnds(String state) throws InterruptedException {
+        ImportJob job = jobs.get(0);
+        try {
+            job.getCompletion().get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (ExecutionException | CancellationException e) {
+            // The state tells how it ended
+        } catch (TimeoutException e) {
+            Assertions.fail("The streamed import has not finished");
+        }
+        Assertions.assertEquals(ImportJob.State.valueOf(state), job.getState());
+    }
+
+    @Then("the stream has row events for rows {int} to {int} in order")
+    public void theStreamHasRowEventsInOrder(int first, int last) {
+        Assertions.assertEquals(LongStream.rangeClosed(first, last).boxed().toList(),
+                rowEvents().stream().map(RowEvent::getRowNumber).toList());
+    }
+
+    @And("row event {int} has the error {string}")
+    public void rowEventHasTheError(int row, String error) {
+        RowEvent event = rowEvents().get(row - 1);
+        Assertions.assertEquals(error, event.getError());
+        Assertions.assertTrue(event.getOrderPid().isEmpty());
+    }
+
+    @And("the other row events have an order")
+    public void theOtherRowEventsHaveAnOrder() {
+        for (RowEvent event : rowEvents()) {
+            if (event.getError().isEmpty()) {
+                Assertions.assertEquals("order-p-" + event.getRowNumber(), event.getOrderPid());
+                Assertions.assertEquals("s-1", event.getSupplierPid());
+            }
+        }
+    }
+
+    @And("the stream ends with the progress of {long} succeeded and {long} failed rows and the outcome")
+    public void theStreamEndsWithTheProgressAndTheOutcome(long succeeded, long failed) {
+        Assertions.assertNull(streamError);
+        Assertions.assertTrue(events.size() >= 2);
+        ProcessCsvEvent progress = events.get(events.size() - 2);
+        Assertions.assertTrue(progress.hasProgress());
+        Assertions.assertEquals(succeeded, progress.getProgress().getSucceeded());
+        Assertions.assertEquals(failed, progress.getProgress().getFailed());
+        Assertions.assertEquals(succeeded + failed, progress.getProgress().getRowsRead());
+        ProcessCsvEvent completed = events.get(events.size() - 1);
+        Assertions.assertEquals("CSV file processed successfully.", completed.getCompleted().getMessage());
+    }
+
+    @And("the user service does not answer until released")
+    public void theUserServiceDoesNotAnswerUntilReleased() {
+        userServiceHeld = true;
+    }
+
+    @And("the user service has been called")
+    public void theUserServiceHasBeenCalled() throws InterruptedException {
+        awaitSteady(() -> mockingDetails(userServiceClient).getInvocations().stream()
+                .anyMatch(invocation -> invocation.getMethod().getName().equals("createUser")),
+                "the user service is not called");
+    }
+
+    @When("the user service is released")
+    public void theUserServiceIsReleased() {
+        userServiceReleased.countDown();
+    }
+
+    @When("the file is uploaded in chunks of {int} bytes")
+    public void theFileIsUploadedInChunksOf(int chunkSize) throws IOException {
+        List<UploadCsvChunk> chunks = chunks(chunkSize);
+        upload(chunks, chunks.size());
+    }
+
+    @When("the first {int} chunks of {int} bytes are uploaded")
+    public void theFirstChunksAreUploaded(int count, int chunkSize) throws IOException, InterruptedException {
+        upload(chunks(chunkSize), count);
+        awaitSteady(() -> chunksSent() == count, "chunks sent: " + chunksSent());
+    }
+
+    @When("an upload is completed without any chunk")
+    public void anUploadIsCompletedWithoutAnyChunk() throws IOException {
+        upload(List.of(), 0);
+    }
+
+    @Then("the client has sent less than a quarter of the chunks")
+    public void theClientHasSentLessThanAQuarterOfTheChunks() throws InterruptedException {
+        // Wait for the import to be stuck on the first row and for the server to stop asking for chunks
+        int sent;
+        do {
+            sent = chunksSent();
+            Thread.sleep(300);
+        } while (sent == 0 || sent != chunksSent());
+        Assertions.assertTrue(sent < uploadChunks.size() / 4, sent + " of " + uploadChunks.size() + " chunks sent");
+        Assertions.assertEquals(0, ordersCreated());
+    }
+
+    @And("the client has sent every chunk")
+    public void theClientHasSentEveryChunk() {
+        Assertions.assertEquals(uploadChunks.size(), chunksSent());
+    }
+
+    @And("the client cancels the upload")
+    public void theClientCancelsTheUpload() {
+        uploadCall.cancel("Client stopped uploading", null);
+    }
+
+    @And("the client fails the upload")
+    public void theClientFailsTheUpload() {
+        synchronized (this) {
+            uploadCall.onError(new IllegalStateException("Reading the file to upload failed"));
+        }
+    }
+
+    @Then("the upload reply is {string}")
+    public void theUploadReplyIs(String message) throws Exception {
+        Assertions.assertEquals(message, uploadReply.get(TIMEOUT_SECONDS, TimeUnit.SECONDS).getMessage());
+    }
+
+    @And("{int} orders were created")
+    public void ordersWereCreated(int orders) {
+        Assertions.assertEquals(orders, ordersCreated());
+    }
+
+    @Then("the upload job failed because of {string}")
+    public void theUploadJobFailedBecauseOf(String reason) {
+        Assertions.assertEquals(1, jobs.size());
+        ImportJob job = jobs.get(0);
+        ExecutionException failure = Assertions.assertThrows(ExecutionException.class,
+                () -> job.getCompletion().get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        Assertions.assertEquals(ImportJob.State.FAILED, job.getState());
+        // The parser may wrap the failure of the upload stream
+        Throwable cause = failure.getCause();
+        while (cause != null && !String.valueOf(cause.getMessage()).startsWith(reason)) {
+            cause = cause.getCause();
+        }
+        Assertions.assertNotNull(cause, failure.getCause().toString());
+    }
+
+    @And("the rest of the file is not imported")
+    public void theRestOfTheFileIsNotImported() {
+        // Rows already parsed when the upload ended are still imported, the ones never sent are not
+        long sentRows = uploadChunks.stream().limit(chunksSent()).mapToLong(chunk -> chunk.getData().toStringUtf8()
+                .chars().filter(c -> c == '\n').count()).sum();
+        Assertions.assertTrue(ordersCreated() < sentRows, ordersCreated() + " orders for " + sentRows + " lines sent");
+    }
+
+    @And("the server keeps at most {int} finished jobs")
+    public void theServerKeepsAtMostFinishedJobs(int jobs) {
+        maxRetainedJobs = jobs;
+    }
+
+    @And("the user service client throws a NoClassDefFoundError")
+    public void theUserServiceClientThrowsANoClassDefFoundError() {
+        userServiceBroken = true;
+    }
+
+    @And("imports keep a checkpoint")
+    public void importsKeepACheckpoint() {
+        checkpointEnabled = true;
+    }
+
+    @When("{int} import(s) is/are queued")
+    public void importsAreQueued(int imports) throws IOException {
+        for (int i = 0; i < imports; i++) {
+            queue(ProcessCsvRequest.newBuilder().setFilePath(inputFile.toString()).setAsync(true).build());
+        }
+    }
+
+    @When("1 import is queued into {string}")
+    public void anImportIsQueuedInto(String output) throws IOException {
+        queue(ProcessCsvRequest.newBuilder()
+                .setFilePath(inputFile.toString())
+                .setAsync(true)
+                .setOutputPath(directory.resolve(output).toString())
+                .build());
+    }
+
+    private void queue(ProcessCsvRequest request) throws IOException {
+        if (server == null) {
+            startServer(1, false);
+        }
+        try {
+            queueReplies.add(IntegrationServiceGrpc.newBlockingStub(channel).processCsvFile(request));
+        } catch (StatusRuntimeException e) {
+            queueReplies.add(ProcessCsvResponse.newBuilder().setMessage(e.getMessage()).build());
+        }
+    }
+
+    @When("{int} imports are queued one after the other")
+    public void importsAreQueuedOneAfterTheOther(int imports) throws IOException, InterruptedException {
+        for (int i = 0; i < imports; i++) {
+            importsAreQueued(1);
+            awaitFinished(queueReplies.size());
+        }
+    }
+
+    @Then("the reply of import {int} is {string}")
+    public void theReplyOfImportIs(int number, String message) {
+        ProcessCsvResponse reply = queueReplies.get(number - 1);
+        Assertions.assertEquals(message, reply.getMessage());
+        Assertions.assertFalse(reply.getJobId().isEmpty());
+    }
+
+    @Then("import {int} is rejected with {string}")
+    public void importIsRejectedWith(int number, String message) {
+        ProcessCsvResponse reply = queueReplies.get(number - 1);
+        Assertions.assertEquals(message, reply.getMessage());
+        Assertions.assertTrue(reply.getJobId().isEmpty());
+    }
+
+    @And("import {int} is {word}")
+    public void importIs(int number, String state) throws InterruptedException {
+        awaitSteady(() -> jobStatus(number).getState() == JobState.valueOf(state),
+                "import " + number + " is " + jobStatus(number).getState());
+    }
+
+    @Then("import {int} ends {word} with {long} rows imported out of {long} and the message {string}")
+    public void importEnds(int number, String state, long succeeded, long totalRows, String message)
+            throws InterruptedException {
+        JobStatusResponse status = awaitFinished(number);
+        Assertions.assertEquals(JobState.valueOf(state), status.getState());
+        Assertions.assertEquals(succeeded, status.getSucceeded());
+        Assertions.assertEquals(totalRows, status.getTotalRows());
+        Assertions.assertEquals(message, status.getMessage());
+    }
+
+    @Then("import {int} ends {word} with a message starting with {string}")
+    public void importEndsWithAMessageStartingWith(int number, String state, String message)
+            throws InterruptedException {
+        JobStatusResponse status = awaitFinished(number);
+        Assertions.assertEquals(JobState.valueOf(state), status.getState());
+        Assertions.assertTrue(status.getMessage().startsWith(message), status.getMessage());
+    }
+
+    @And("{string} holds {int} orders")
+    public void holdsOrders(String output, int orders) throws IOException {
+        try (Stream<ProcessedOrder> processedOrders = ProcessedOrderReader.read(directory.resolve(output))) {
+            Assertions.assertEquals(orders, processedOrders.count());
+        }
+    }
+
+    @Then("import {int} is unknown to the server")
+    public void importIsUnknownToTheServer(int number) {
+        StatusRuntimeException e = Assertions.assertThrows(StatusRuntimeException.class, () -> jobStatus(number));
+        Assertions.assertEquals(Status.Code.NOT_FOUND, e.getStatus().getCode());
+    }
+
+    @Given("the processed orders")
+    public void theProcessedOrders(DataTable processedOrders) throws IOException {
+        ProcessedOrderWriterFactory writerFactory =
+                new ProcessedOrderWriterFactory(outputFile.toString(), "json", 500, 1000, "none", false);
+        try (ProcessedOrderWriter writer = writerFactory.open(outputFile.toString())) {
+            for (Map<String, String> row : processedOrders.asMaps()) {
+                writer.write(new ProcessedOrder(row.get("user_pid"), row.get("order_pid"), "s-1"));
+            }
+        }
+    }
+
+    @And("the order service holds the orders")
+    public void theOrderServiceHoldsTheOrders(DataTable orders) {
+        Map<String, String> userPidByOrderPid = new HashMap<>();
+        orders.asMaps().forEach(order -> userPidByOrderPid.put(order.get("order_pid"), order.get("user_pid")));
+        when(orderServiceClient.getOrdersByPids(any())).thenAnswer(invocation -> {
+            Order.OrdersResponse.Builder response = Order.OrdersResponse.newBuilder();
+            for (String orderPid : invocation.<Order.StringsRequest>getArgument(0).getRequestList()) {
+                if (userPidByOrderPid.containsKey(orderPid)) {
+                    response.addOrders(Order.OrderResponse.newBuilder()
+                            .setPid(orderPid)
+                            .setUserPid(userPidByOrderPid.get(orderPid)));
+                }
+            }
+            return response.build();
+        });
+    }
+
+    @And("orders are reconciled in batches of {int}")
+    public void ordersAreReconciledInBatchesOf(int batchSize) {
+        reconciliationBatchSize = batchSize;
+    }
+
+    @When("the processed orders are reconciled over gRPC")
+    public void theProcessedOrdersAreReconciledOverGrpc() throws IOException {
+        startServer(1, false);
+        try {
+            reconciliation = IntegrationServiceGrpc.newBlockingStub(channel).reconcileOrders(
+                    ReconcileOrdersRequest.newBuilder().setOutputPath(outputFile.toString()).build());
+        } catch (StatusRuntimeException e) {
+            reconciliationError = e;
+        }
+    }
+
+    @Then("the reconciliation checked {long} orders, verified {long}, found {long} missing, {long} of another user "
+            + "and {long} without order pid")
+    public void theReconciliationChecked(long checked, long verified, long missing, long userMismatches,
+                                         long withoutOrderPid) {
+        Assertions.assertEquals("Reconciliation completed.", reconciliation.getMessage());
+        Assertions.assertEquals(checked, reconciliation.getChecked());
+        Assertions.assertEquals(verified, reconciliation.getVerified());
+        Assertions.assertEquals(missing, reconciliation.getMissing());
+        Assertions.assertEquals(userMismatches, reconciliation.getUserMismatches());
+        Assertions.assertEquals(withoutOrderPid, reconciliation.getWithoutOrderPid());
+    }
+
+    @And("the failed order pids are {string}")
+    public void theFailedOrderPidsAre(String orderPids) {
+        Assertions.assertEquals(List.of(orderPids.split(",")), reconciliation.getFailedOrderPidsList());
+    }
+
+    @And("the order service was asked for the orders {string}, {string}")
+    public void theOrderServiceWasAskedForTheOrders(String firstBatch, String secondBatch) {
+        ArgumentCaptor<Order.StringsRequest> requests = ArgumentCaptor.forClass(Order.StringsRequest.class);
+        verify(orderServiceClient, times(2)).getOrdersByPids(requests.capture());
+        Assertions.assertEquals(List.of(List.of(firstBatch.split(",")), List.of(secondBatch.split(","))),
+                requests.getAllValues().stream().map(Order.StringsRequest::getRequestList).toList());
+    }
+
+    @Then("the reconciliation message starts with {string}")
+    public void theReconciliationMessageStartsWith(String message) {
+        Assertions.assertTrue(reconciliation.getMessage().startsWith(message), reconciliation.getMessage());
+        Assertions.assertEquals(0, reconciliation.getChecked());
+    }
+
+    @And("the order service fails to look up orders with {word}")
+    public void theOrderServiceFailsToLookUpOrders(String status) {
+        when(orderServiceClient.getOrdersByPids(any())).thenThrow(Status.fromCode(Status.Code.valueOf(status))
+                .withDescription("Order lookup failed").asRuntimeException());
+    }
+
+    @Then("the reconciliation fails with {word} and the description {string}")
+    public void theReconciliationFailsWith(String status, String description) {
+        Assertions.assertNotNull(reconciliationError, "Reconciliation should have failed");
+        Assertions.assertEquals(Status.Code.valueOf(status), reconciliationError.getStatus().getCode());
+        Assertions.assertEquals(description, reconciliationError.getStatus().getDescription());
+    }
+
+    @And("the order service was not asked for any order")
+    public void theOrderServiceWasNotAskedForAnyOrder() {
+        verify(orderServiceClient, never()).getOrdersByPids(any());
+    }
+
+    private void startServer(int parallelism, boolean async) throws IOException {
+        CsvReaderService csvReaderService = new CsvReaderService("opencsv");
+        ProcessedOrderWriterFactory writerFactory =
+                new ProcessedOrderWriterFactory(outputFile.toString(), "json", 500, 1000, "none", false);
+        IntegrationService integrationService =
+                new IntegrationServiceFixture(userServiceClient, orderServiceClient, productServiceClient)
+                        .reading(csvReaderService)
+                        .writingWith(writerFactory)
+                        .keepingCheckpoints(checkpointEnabled)
+                        .parallelism(parallelism)
+                        .async(async)
+                        .validationChunkSize(100)
+                        .build();
+        PartitionedImportService partitionedImportService = mock(PartitionedImportService.class);
+        importJobService = spy(new ImportJobService(integrationService, csvReaderService, partitionedImportService,
+                2, 2, maxRetainedJobs));
+        doAnswer(invocation -> {
+            ImportJob job = (ImportJob) invocation.callRealMethod();
+            jobs.add(job);
+            return job;
+        }).when(importJobService).submit(any(), any(), any());
+        @SuppressWarnings("unchecked")
+        ObjectProvider<BatchOrderImportService> noBatch = mock(ObjectProvider.class);
+        IntegrationServiceImpl service = new IntegrationServiceImpl(integrationService,
+                new OrderReconciliationService(orderServiceClient, reconciliationBatchSize), writerFactory, importJobService,
+                partitionedImportService, noBatch, 4);
+        String name = InProcessServerBuilder.generateName();
+        server = InProcessServerBuilder.forName(name).addService(service).build().start();
+        channel = InProcessChannelBuilder.forName(name).build();
+    }
+
+    /**
+     * Starts a streaming import; a client that reads a given number of events requests no more until told to.
+     */
+    private void stream(int eventsToRead) {
+        ProcessCsvRequest request = ProcessCsvRequest.newBuilder().setFilePath(inputFile.toString()).build();
+        IntegrationServiceGrpc.newStub(channel).processCsvFileStream(request,
+                new ClientResponseObserver<ProcessCsvRequest, ProcessCsvEvent>() {
+                    @Override
+                    public void beforeStart(ClientCallStreamObserver<ProcessCsvRequest> call) {
+                        streamCall = call;
+                        if (eventsToRead > 0) {
+                            call.disableAutoRequestWithInitial(eventsToRead);
+                        }
+                    }
+
+                    @Override
+                    public void onNext(ProcessCsvEvent event) {
+                        events.add(event);
+                    }
+
+                    @Override
+                    public void onError(Throwable t) {
+                        streamError = t;
+                        streamClosed.countDown();
+                    }
+
+                    @Override
+                    public void onCompleted() {
+                        streamClosed.countDown();
+                    }
+                });
+    }
+
+    private JobStatusResponse jobStatus(int number) {
+        return IntegrationServiceGrpc.newBlockingStub(channel).getJobStatus(
+                JobRequest.newBuilder().setJobId(queueReplies.get(number - 1).getJobId()).build());
+    }
+
+    /**
+     * Polls the status of a queued import until it has finished.
+     */
+    private JobStatusResponse awaitFinished(int number) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS);
+        JobStatusResponse status = jobStatus(number);
+        while (!ImportJob.State.valueOf(status.getState().name()).isFinished() && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+            status = jobStatus(number);
+        }
+        return status;
+    }
+
+    private List<UploadCsvChunk> chunks(int chunkSize) throws IOException {
+        byte[] file = Files.readAllBytes(inputFile);
+        List<UploadCsvChunk> chunks = new ArrayList<>();
+        for (int offset = 0; offset < file.length; offset += chunkSize) {
+            UploadCsvChunk.Builder chunk = UploadCsvChunk.newBuilder()
+                    .setData(ByteString.copyFrom(file, offset, Math.min(chunkSize, file.length - offset)));
+            if (offset == 0) {
+                chunk.setOutputPath(outputFile.toString());
+            }
+            chunks.add(chunk.build());
+        }
+        return chunks;
+    }
+
+    /**
+     * Starts an upload that sends chunks only while the server is ready for them, and completes once all
+     * chunks are sent unless it was told to stop after the first {@code limit} chunks.
+     */
+    private void upload(List<UploadCsvChunk> chunks, int limit) throws IOException {
+        startServer(1, false);
+        uploadChunks = chunks;
+        uploadLimit = limit;
+        IntegrationServiceGrpc.newStub(channel).uploadCsv(
+                new ClientResponseObserver<UploadCsvChunk, ProcessCsvResponse>() {
+                    @Override
+                    public void beforeStart(ClientCallStreamObserver<UploadCsvChunk> call) {
+                        uploadCall = call;
+                        call.setOnReadyHandler(IntegrationRpcSteps.this::sendChunks);
+                    }
+
+                    @Override
+                    public void onNext(ProcessCsvResponse response) {
+                        uploadReply.complete(response);
+                    }
+
+                    @Override
+                    public void onError(Throwable t) {
+                        uploadReply.completeExceptionally(t);
+                    }
+
+                    @Override
+                    public void onCompleted() {
+                    }
+                });
+        sendChunks();
+    }
+
+    private synchronized void sendChunks() {
+        while (chunksSent < uploadLimit && uploadCall.isReady()) {
+            uploadCall.onNext(uploadChunks.get(chunksSent++));
+        }
+        if (chunksSent == uploadChunks.size() && !uploadCompleted) {
+            uploadCompleted = true;
+            uploadCall.onCompleted();
+        }
+    }
+
+    private synchronized int chunksSent() {
+        return chunksSent;
+    }
+
+    private void awaitStreamClosed() throws InterruptedException {
+        Assertions.assertTrue(streamClosed.await(TIMEOUT_SECONDS, TimeUnit.SECONDS), "The stream did not end");
+    }
+
+    /**
+     * Waits for the condition to hold and checks it still holds a little later, once the import had
+     * the time to go on if it was not held back.
+     */
+    private static void awaitSteady(BooleanSupplier condition, String state) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        Assertions.assertTrue(condition.getAsBoolean(), state);
+        Thread.sleep(300);
+        Assertions.assertTrue(condition.getAsBoolean(), state);
+    }
+
+    private long ordersCreated() {
+        return mockingDetails(orderServiceClient).getInvocations().stream()
+                .filter(invocation -> invocation.getMethod().getName().startsWith("createOrder"))
+                .count();
+    }
+
+    private List<RowEvent> rowEvents() {
+        return events.stream().filter(ProcessCsvEvent::hasRow).map(ProcessCsvEvent::getRow).toList();
+    }
+
+    private static RuntimeException unknownProduct(String productPid) {
+        return Status.NOT_FOUND.withDescription("Unknown product " + productPid).asRuntimeException();
+    }
+
+    private static Product.ProductResponse product(String productPid) {
+        return Product.ProductResponse.newBuilder().setPid(productPid).setPricePerUnit(2.5f).build();
+    }
+
+    private static User.UserResponse user(User.CreateUserRequest request) {
+        return User.UserResponse.newBuilder().setPid("user-" + request.getEmail()).build();
+    }
+
+    private static Order.OrderResponse order(Order.CreateOrderRequest request) {
+        return Order.OrderResponse.newBuilder().setPid("order-" + request.getProducts(0).getPid()).build();
+    }
+}
@@ -0,0 +1,136 @@
+package com.integration.stepdefinitions;
+
+import com.integration.grpc.OrderServiceClient;
+import com.integration.grpc.ProductServiceClient;
+import com.integration.grpc.SupplierServiceClient;
+import com.integration.grpc.UserServiceClient;
+import com.integration.output.ProcessedOrderWriterFactory;
+import com.integration.service.CsvReaderService;
+import com.integration.service.ImportCheckpointStore;
+import com.integration.service.ImportMetrics;
+import com.integration.service.ImportSettings;
+import com.integration.service.IntegrationService;
+import com.integration.service.ProductCache;
+import com.integration.service.SupplierValidator;
+import com.integration.service.UserResolver;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.trace.Tracer;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * Builds the {@link IntegrationService} the steps import with, around their mocked clients. Unless a step
+ * says otherwise it reads nothing, writes no output, keeps no checkpoint, does not check suppliers and
+ * imports one row at a time with the default validation.
+ */
+final class IntegrationServiceFixture {
+
+    private final UserServiceClient userServiceClient;
+
+    private final OrderServiceClient orderServiceClient;
+
+    private final ProductServiceClient productServiceClient;
+
+    private CsvReaderService csvReaderService = mock(CsvReaderService.class);
+
+    private UserResolver userResolver;
+
+    private boolean prefetchProducts;
+
+    private SupplierValidator supplierValidator = new SupplierValidator(mock(SupplierServiceClient.class), false, 500);
+
+    private ProcessedOrderWriterFactory processedOrderWriterFactory = mock(ProcessedOrderWriterFactory.class);
+
+    private boolean checkpoints;
+
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private Tracer tracer = OpenTelemetry.noop().getTracer("test");
+
+    private int parallelism = 1;
+
+    private boolean async;
+
+    private int validationChunkSize = 1024;
+
+    IntegrationServiceFixture(UserServiceClient userServiceClient, OrderServiceClient orderServiceClient,
+                              ProductServiceClient productServiceClient) {
+        this.userServiceClient = userServiceClient;
+        this.orderServiceClient = orderServiceClient;
+        this.productServiceClient = productServiceClient;
+    }
+
+    IntegrationServiceFixture reading(CsvReaderService csvReaderService) {
+        this.csvReaderService = csvReaderService;
+        return this;
+    }
+
+    IntegrationServiceFixture resolvingUsersWith(UserResolver userResolver) {
+        this.userResolver = userResolver;
+        return this;
+    }
+
+    IntegrationServiceFixture prefetchingProducts() {
+        this.prefetchProducts = true;
+        return this;
+    }
+
+    IntegrationServiceFixture validatingSuppliersWith(SupplierServiceClient supplierServiceClient) {
+        this.supplierValidator = new SupplierValidator(supplierServiceClient, true, 500);
+        return this;
+    }
+
+    /**
+     * Writes JSON output, to {@code defaultOutputPath} unless an import names its own.
+     */
+    IntegrationServiceFixture writingJsonTo(String defaultOutputPath) {
+        return writingWith(new ProcessedOrderWriterFactory(defaultOutputPath, "json", 500, 1000, "none", false));
+    }
+
+    IntegrationServiceFixture writingWith(ProcessedOrderWriterFactory processedOrderWriterFactory) {
+        this.processedOrderWriterFactory = processedOrderWriterFactory;
+        return this;
+    }
+
+    IntegrationServiceFixture keepingCheckpoints(boolean checkpoints) {
+        this.checkpoints = checkpoints;
+        return this;
+    }
+
+    IntegrationServiceFixture measuringIn(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        return this;
+    }
+
+    IntegrationServiceFixture tracingWith(Tracer tracer) {
+        this.tracer = tracer;
+        return this;
+    }
+
+    IntegrationServiceFixture parallelism(int parallelism) {
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    IntegrationServiceFixture async(boolean async) {
+        this.async = async;
+        return this;
+    }
+
+    IntegrationServiceFixture validationChunkSize(int validationChunkSize) {
+        this.validationChunkSize = validationChunkSize;
+        return this;
+    }
+
+    IntegrationService build() {
+        return new IntegrationService(csvReaderService,
+                userResolver != null ? userResolver : new UserResolver(userServiceClient, ""), orderServiceClient,
+                new ProductCache(productServiceClient, 100, 60000, 100, prefetchProducts), supplierValidator,
+                processedOrderWriterFactory, new ImportCheckpointStore(checkpoints, false),
+                new ImportMetrics(meterRegistry), tracer,
+                new ImportSettings(parallelism, async, new ImportSettings.Progress(100),
+                        new ImportSettings.Validation(true, validationChunkSize)));
+    }
+}
@@ -5,6 +5,7 @@ import com.google.protobuf.StringValue;
 import com.integration.config.CucumberSpringConfiguration;
 import com.integration.grpc.OrderServiceClient;
 import com.integration.grpc.ProductServiceClient;
+import com.integration.grpc.SupplierServiceClient;
 import com.integration.grpc.UserServiceClient;
 import com.integration.model.OrderCsv;
 import com.integration.model.ProcessedOrder;
@@ -14,13 +15,14 @@ import io.cucumber.java.en.And;
 import io.cucumber.java.en.Given;
 import io.cucumber.java.en.Then;
 import io.cucumber.java.en.When;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import order.Order;
 import org.junit.jupiter.api.Assertions;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.boot.test.context.SpringBootTest;
 import product.Product;
+import supplier.Supplier;
 import user.User;
 
 import java.io.File;
@@ -45,15 +47,29 @@ public class IntegrationServieSteps {
     @Mock
     private ProductServiceClient productServiceClient;
 
-    @InjectMocks
+    @Mock
+    private SupplierServiceClient supplierServiceClient;
+
     private IntegrationService integrationService;
 
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     private String csvFilePath;
 
+    private static final String OUTPUT_FILE_PATH = "src/test/resources/output/processed-order-test.json";
+
     @Given("the CSV file {string} is loaded")
     public void theCSVFileIsLoaded(String inputFilePath) {
         csvFilePath = inputFilePath;
         MockitoAnnotations.openMocks(this);
+        integrationService = new IntegrationServiceFixture(userServiceClient, orderServiceClient, productServiceClient)
+                .reading(csvReaderService)
+                .prefetchingProducts()
+                .validatingSuppliersWith(supplierServiceClient)
+                .writingJsonTo(OUTPUT_FILE_PATH)
+                .keepingCheckpoints(true)
+                .measuringIn(meterRegistry)
+                .build();
     }
 
     @When("the IntegrationService processes the CSV file")
@@ -65,19 +81,25 @@ public class IntegrationServieSteps {
         );
 
 
-        when(csvReaderService.readOrders(csvFilePath)).thenReturn(orders);
+        when(csvReaderService.streamOrders(csvFilePath)).thenAnswer(invocation -> orders.stream());
+        when(productServiceClient.getProductsByPids(any())).thenReturn(Product.ProductsResponse.getDefaultInstance());
+        when(supplierServiceClient.getSuppliersByPids(any())).thenReturn(Supplier.SuppliersResponse.newBuilder()
+                .addSuppliers(Supplier.SupplierResponse.newBuilder().setPid("supplier1"))
+                .addSuppliers(Supplier.SupplierResponse.newBuilder().setPid("supplier2"))
+                .build());
+        // Every run processes all rows, so every product has to be known before the first run
+        Product.ProductResponse productResponse = Product.ProductResponse.newBuilder().setPid("product-id").build();
+        for (OrderCsv order : orders) {
+            when(productServiceClient.getProductByPid(StringValue.of(order.getProductPid()))).thenReturn(productResponse);
+        }
 
         for(OrderCsv order : orders) {
             User.UserResponse userResponse = User.UserResponse.newBuilder().setPid("user-id").build();
             when(userServiceClient.createUser(any())).thenReturn(userResponse);
 
-            Product.ProductResponse productResponse = Product.ProductResponse.newBuilder().setPid("product-id").build();
-            when(productServiceClient.getProductByPid(StringValue.of(order.getProductPid()))).thenReturn(productResponse);
-
-            Order.PageableResponse pageableResponse = Order.PageableResponse.newBuilder()
-                    .addData(Order.OrderResponse.newBuilder().setUserPid("user-id").setPid("order-id").build())
-                    .build();
-            when(orderServiceClient.getALlOrders(any())).thenReturn(pageableResponse);
+            Order.OrderResponse orderResponse = Order.OrderResponse.newBuilder()
+                    .setUserPid("user-id").setPid("order-id").build();
+            when(orderServiceClient.createOrder(any())).thenReturn(orderResponse);
 
             integrationService.processCsvFile(csvFilePath);
         }
@@ -87,7 +109,11 @@ public class IntegrationServieSteps {
     public void theOrdersShouldBeCreatedSuccessfully() {
         // Verify that the createUser and createOrder methods were called
         verify(userServiceClient, times(4)).createUser(any());
-        verify(orderServiceClient, times(4)).getALlOrders(any());
+        verify(orderServiceClient, times(4)).createOrder(any());
+        verify(orderServiceClient, never()).getALlOrders(any());
+        // Suppliers are resolved in one batch by the pre-pass of each run
+        verify(supplierServiceClient, times(2)).getSuppliersByPids(any());
+        verify(supplierServiceClient, never()).getSuppliersByPidsAsync(any());
     }
 
     @And("the json with userId orderId and supplierId should be created in path {string}")
@@ -103,4 +129,13 @@ public class IntegrationServieSteps {
         Assertions.assertNotNull(processedOrders, "Processed orders should not be null");
         Assertions.assertTrue(processedOrders.length > 0, "Processed orders should not be empty");
     }
+
+    @And("the import metrics count {int} succeeded rows and {int} written orders")
+    public void theImportMetricsCount(int succeededRows, int writtenOrders) {
+        Assertions.assertEquals(succeededRows,
+                meterRegistry.get("integration.rows").tag("outcome", "succeeded").counter().count());
+        Assertions.assertEquals(0, meterRegistry.get("integration.rows").tag("outcome", "failed").counter().count());
+        Assertions.assertEquals(writtenOrders, meterRegistry.get("integration.output.write").timer().count());
+        Assertions.assertTrue(meterRegistry.get("integration.csv.parse").timer().count() > 0);
+    }
 }
@@ -0,0 +1,80 @@
+package com.integration.stepdefinitions;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.integration.model.ProcessedOrder;
+import com.integration.output.JsonProcessedOrderWriter;
+import io.cucumber.java.en.Given;
+import io.cucumber.java.en.Then;
+import io.cucumber.java.en.When;
+import org.junit.jupiter.api.Assertions;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public class JsonOutputSteps {
+
+    private static final Pattern ORDER_PID = Pattern.compile("\"orderPid\"");
+
+    private final ByteArrayOutputStream file = new ByteArrayOutputStream();
+
+    private boolean ndjson;
+
+    private JsonProcessedOrderWriter writer;
+
+    private int written;
+
+    @Given("a {word} writer that flushes every {int} records or every {long} ms")
+    public void aWriterThatFlushes(String format, int flushEveryRecords, long flushIntervalMillis) throws IOException {
+        ndjson = format.equals("ndjson");
+        writer = new JsonProcessedOrderWriter(file, ndjson, flushEveryRecords, flushIntervalMillis);
+    }
+
+    @When("{int} processed order(s) is/are written")
+    public void processedOrdersAreWritten(int count) throws IOException {
+        for (int i = 0; i < count; i++) {
+            written++;
+            writer.write(new ProcessedOrder("user-" + written, "order-" + written, "supplier-" + written));
+        }
+    }
+
+    @Then("{int} processed orders have reached the file")
+    public void processedOrdersHaveReachedTheFile(int count) {
+        Matcher matcher = ORDER_PID.matcher(file.toString(StandardCharsets.UTF_8));
+        int reached = 0;
+        while (matcher.find()) {
+            reached++;
+        }
+        Assertions.assertEquals(count, reached);
+    }
+
+    @When("the writer is closed")
+    public void theWriterIsClosed() throws IOException {
+        writer.close();
+    }
+
+    @Then("the file holds {int} processed orders")
+    public void theFileHoldsProcessedOrders(int count) throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        int read = 0;
+        if (ndjson) {
+            try (MappingIterator<ProcessedOrder> orders =
+                         mapper.readerFor(ProcessedOrder.class).readValues(file.toByteArray())) {
+                while (orders.hasNext()) {
+                    read++;
+                    Assertions.assertEquals("order-" + read, orders.next().getOrderPid());
+                }
+            }
+        } else {
+            ProcessedOrder[] orders = mapper.readValue(file.toByteArray(), ProcessedOrder[].class);
+            for (ProcessedOrder order : orders) {
+                read++;
+                Assertions.assertEquals("order-" + read, order.getOrderPid());
+            }
+        }
+        Assertions.assertEquals(count, read);
+    }
+}
@@ -0,0 +1,73 @@
+package com.integration.stepdefinitions;
+
+import com.integration.OrderImportCommand;
+import com.integration.batch.BatchOrderImportService;
+import com.integration.config.GrpcServerConfig;
+import com.integration.service.IntegrationService;
+import com.integration.service.IntegrationServiceImpl;
+import io.cucumber.java.After;
+import io.cucumber.java.en.And;
+import io.cucumber.java.en.Then;
+import io.cucumber.java.en.When;
+import org.junit.jupiter.api.Assertions;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class OneShotImportSteps {
+
+    private final Path directory;
+
+    private ConfigurableApplicationContext context;
+
+    private int exitStatus;
+
+    public OneShotImportSteps() throws IOException {
+        directory = Files.createTempDirectory("one-shot-import-");
+        directory.toFile().deleteOnExit();
+    }
+
+    @When("the one-shot import application is started")
+    public void theOneShotImportApplicationIsStarted() {
+        context = OrderImportCommand.application().run();
+    }
+
+    @Then("it has an IntegrationService")
+    public void itHasAnIntegrationService() {
+        Assertions.assertNotNull(context.getBean(IntegrationService.class));
+    }
+
+    @And("it has no web server, gRPC server or batch job")
+    public void itHasNoWebServerGrpcServerOrBatchJob() {
+        Assertions.assertFalse(context instanceof WebServerApplicationContext);
+        Assertions.assertTrue(context.getBeansOfType(GrpcServerConfig.class).isEmpty());
+        Assertions.assertTrue(context.getBeansOfType(IntegrationServiceImpl.class).isEmpty());
+        Assertions.assertTrue(context.getBeansOfType(BatchOrderImportService.class).isEmpty());
+    }
+
+    @When("the one-shot import is run with {string}")
+    public void theOneShotImportIsRunWith(String argument) {
+        exitStatus = OrderImportCommand.run(new String[]{argument});
+    }
+
+    @When("the one-shot import is run with {string} and {string}")
+    public void theOneShotImportIsRunWithAnd(String input, String output) {
+        exitStatus = OrderImportCommand.run(new String[]{directory.resolve(input).toString(),
+                directory.resolve(output).toString(), "--integration.checkpoint.enabled=false"});
+    }
+
+    @Then("the command exits with status {int}")
+    public void theCommandExitsWithStatus(int status) {
+        Assertions.assertEquals(status, exitStatus);
+    }
+
+    @After
+    public void closeContext() {
+        if (context != null) {
+            context.close();
+        }
+    }
+}
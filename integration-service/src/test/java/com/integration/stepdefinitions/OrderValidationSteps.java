@@ -0,0 +1,162 @@
+package com.integration.stepdefinitions;
+
+import com.integration.grpc.OrderServiceClient;
+import com.integration.grpc.ProductServiceClient;
+import com.integration.grpc.UserServiceClient;
+import com.integration.output.ProcessedOrderWriterFactory;
+import com.integration.service.CsvReaderService;
+import com.integration.service.ImportListener;
+import com.integration.service.IntegrationService;
+import com.integration.service.RowResult;
+import com.opencsv.CSVReader;
+import com.opencsv.exceptions.CsvException;
+import io.cucumber.java.en.And;
+import io.cucumber.java.en.Given;
+import io.cucumber.java.en.Then;
+import io.cucumber.java.en.When;
+import order.Order;
+import org.junit.jupiter.api.Assertions;
+import product.Product;
+import user.User;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class OrderValidationSteps {
+
+    private final UserServiceClient userServiceClient = mock(UserServiceClient.class);
+
+    private final OrderServiceClient orderServiceClient = mock(OrderServiceClient.class);
+
+    private final ProductServiceClient productServiceClient = mock(ProductServiceClient.class);
+
+    private final CsvReaderService csvReaderService = new CsvReaderService("opencsv");
+
+    private final List<RowResult> rowResults = new ArrayList<>();
+
+    private String input;
+
+    private Path outputFile;
+
+    private boolean async;
+
+    @Given("the order rows")
+    public void theOrderRows(String input) {
+        this.input = input;
+        when(userServiceClient.createUser(any())).thenAnswer(invocation -> user(invocation.getArgument(0)));
+        when(userServiceClient.createUserAsync(any()))
+                .thenAnswer(invocation -> CompletableFuture.completedFuture(user(invocation.getArgument(0))));
+        when(orderServiceClient.createOrder(any())).thenAnswer(invocation -> order(invocation.getArgument(0)));
+        when(orderServiceClient.createOrderAsync(any()))
+                .thenAnswer(invocation -> CompletableFuture.completedFuture(order(invocation.getArgument(0))));
+        Product.ProductResponse product = Product.ProductResponse.newBuilder().setPid("product").build();
+        when(productServiceClient.getProductByPid(any())).thenReturn(product);
+        when(productServiceClient.getProductByPidAsync(any())).thenReturn(CompletableFuture.completedFuture(product));
+    }
+
+    @When("the order rows are imported from a file")
+    public void theOrderRowsAreImportedFromAFile() throws IOException {
+        Path directory = Files.createTempDirectory("order-validation-");
+        directory.toFile().deleteOnExit();
+        Path inputFile = Files.writeString(directory.resolve("orders.csv"), input);
+        outputFile = directory.resolve("processed-orders.json");
+        integrationService(1, false, 1024).processCsvFile(inputFile.toString(), outputFile.toString(), listener());
+    }
+
+    @When("the order rows are imported asynchronously with a parallelism of {int} and a validation chunk of {int}")
+    public void theOrderRowsAreImportedAsynchronously(int parallelism, int chunkSize) {
+        async = true;
+        integrationService(parallelism, true, chunkSize).processOrders(
+                csvReaderService.streamOrders(new StringReader(input)), processedOrder -> {
+                }, listener());
+    }
+
+    @Then("the results are in input order")
+    public void theResultsAreInInputOrder() {
+        for (int i = 0; i < rowResults.size(); i++) {
+            Assertions.assertEquals(i + 1, rowResults.get(i).rowNumber());
+        }
+    }
+
+    @Then("rows {int} and {int} have an order")
+    public void rowsHaveAnOrder(int first, int second) {
+        for (int row : List.of(first, second)) {
+            Assertions.assertTrue(rowResults.get(row - 1).isSuccess(), "row " + row);
+        }
+    }
+
+    @And("row {int} is rejected because {string}")
+    public void rowIsRejectedBecause(int row, String reasons) {
+        RowResult rowResult = rowResults.get(row - 1);
+        Assertions.assertFalse(rowResult.isSuccess());
+        Assertions.assertEquals(reasons, rowResult.error());
+    }
+
+    @And("only {int} users were created")
+    public void onlyUsersWereCreated(int users) {
+        // The async pipeline creates users through the future stub, the sync one through the blocking stub
+        if (async) {
+            verify(userServiceClient, times(users)).createUserAsync(any());
+            verify(userServiceClient, never()).createUser(any());
+        } else {
+            verify(userServiceClient, times(users)).createUser(any());
+            verify(userServiceClient, never()).createUserAsync(any());
+        }
+        verify(userServiceClient, never()).searchByEmail(any());
+    }
+
+    @And("the rejects file lists rows {int}, {int} and {int} with their reasons")
+    public void theRejectsFileListsRows(int first, int second, int third) throws IOException, CsvException {
+        Path rejectsFile = ProcessedOrderWriterFactory.rejectsPath(outputFile.toString());
+        rejectsFile.toFile().deleteOnExit();
+        outputFile.toFile().deleteOnExit();
+        List<String[]> rejects;
+        try (CSVReader reader = new CSVReader(Files.newBufferedReader(rejectsFile))) {
+            rejects = reader.readAll();
+        }
+        Assertions.assertEquals("row_number", rejects.get(0)[0]);
+        Assertions.assertEquals(4, rejects.size());
+        List<Integer> rows = List.of(first, second, third);
+        for (int i = 0; i < rows.size(); i++) {
+            String[] reject = rejects.get(i + 1);
+            Assertions.assertEquals(String.valueOf(rows.get(i)), reject[0]);
+            Assertions.assertEquals(rowResults.get(rows.get(i) - 1).error(), reject[1]);
+            Assertions.assertEquals(String.valueOf(rows.get(i)), reject[2]);
+        }
+    }
+
+    private IntegrationService integrationService(int parallelism, boolean async, int chunkSize) {
+        return new IntegrationServiceFixture(userServiceClient, orderServiceClient, productServiceClient)
+                .reading(csvReaderService)
+                .writingJsonTo(null)
+                .parallelism(parallelism)
+                .async(async)
+                .validationChunkSize(chunkSize)
+                .build();
+    }
+
+    private ImportListener listener() {
+        return new ImportListener() {
+            @Override
+            public void onRow(RowResult rowResult) {
+                rowResults.add(rowResult);
+            }
+        };
+    }
+
+    private static User.UserResponse user(User.CreateUserRequest request) {
+        return User.UserResponse.newBuilder().setPid("user-" + request.getEmail()).build();
+    }
+
+    private static Order.OrderResponse order(Order.CreateOrderRequest request) {
+        return Order.OrderResponse.newBuilder().setPid("order-" + request.getUserPid()).build();
+    }
+}
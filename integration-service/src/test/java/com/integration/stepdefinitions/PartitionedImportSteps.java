@@ -0,0 +1,346 @@
+package com.integration.stepdefinitions;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.integration.grpc.OrderServiceClient;
+import com.integration.grpc.ProductServiceClient;
+import com.integration.grpc.UserServiceClient;
+import com.integration.model.ProcessedOrder;
+import com.integration.output.ProcessedOrderWriter;
+import com.integration.output.ProcessedOrderWriterFactory;
+import com.integration.service.CsvReaderService;
+import com.integration.service.ImportListener;
+import com.integration.service.ImportProgress;
+import com.integration.service.InputPartition;
+import com.integration.service.IntegrationService;
+import com.integration.service.PartitionedImportService;
+import com.opencsv.CSVReader;
+import io.cucumber.java.en.And;
+import io.cucumber.java.en.Given;
+import io.cucumber.java.en.Then;
+import io.cucumber.java.en.When;
+import order.Order;
+import org.junit.jupiter.api.Assertions;
+import org.mockito.ArgumentCaptor;
+import org.springframework.util.unit.DataSize;
+import product.Product;
+import user.User;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class PartitionedImportSteps {
+
+    private static final String HEADER = "id,first_name,last_name,email,supplier_pid,credit_card_number,"
+            + "credit_card_type,order_id,product_pid,shipping_address,country,date_created,quantity,full_name,"
+            + "order_status";
+
+    private final UserServiceClient userServiceClient = mock(UserServiceClient.class);
+
+    private final OrderServiceClient orderServiceClient = mock(OrderServiceClient.class);
+
+    private final ProductServiceClient productServiceClient = mock(ProductServiceClient.class);
+
+    private Path inputFile;
+
+    private Path outputFile;
+
+    private int rows;
+
+    private final List<ImportProgress> runs = new ArrayList<>();
+
+    // Orders in the output each time an instance returned
+    private final List<Integer> outputOnReturn = new ArrayList<>();
+
+    private long claimTimeoutMillis = 600000;
+
+    private long orderDelayMillis;
+
+    private long mergeDelayMillis;
+
+    private final Set<Integer> rowsWithoutEmail = new HashSet<>();
+
+    private final CountDownLatch heldUserReleased = new CountDownLatch(1);
+
+    private final CountDownLatch heldUserAskedFor = new CountDownLatch(1);
+
+    private final AtomicBoolean userHeld = new AtomicBoolean();
+
+    private volatile String heldEmail;
+
+    private final Map<String, Thread> instances = new HashMap<>();
+
+    private final List<Throwable> failures = new ArrayList<>();
+
+    @Given("an input file with {int} order rows split into partitions of {int} bytes")
+    public void anInputFileSplitIntoPartitions(int rows, int partitionBytes) throws IOException {
+        anInputFileWithOrderRows(rows);
+        Assertions.assertTrue(InputPartition.plan(inputFile, partitionBytes).size() > 2,
+                "The input should be split into several partitions");
+    }
+
+    @Given("an input file with {int} order rows in one partition")
+    public void anInputFileWithOrderRows(int rows) throws IOException {
+        Path directory = Files.createTempDirectory("partitioned-import");
+        inputFile = directory.resolve("orders.csv");
+        outputFile = directory.resolve("processed-orders.json");
+        writeRows(rows, "row");
+
+        when(userServiceClient.createUser(any())).thenAnswer(invocation -> {
+            User.CreateUserRequest request = invocation.getArgument(0);
+            if (request.getEmail().equals(heldEmail) && userHeld.compareAndSet(false, true)) {
+                heldUserAskedFor.countDown();
+                Assertions.assertTrue(heldUserReleased.await(30, TimeUnit.SECONDS));
+            }
+            return User.UserResponse.newBuilder().setPid("user-" + request.getEmail()).build();
+        });
+        when(orderServiceClient.createOrder(any())).thenAnswer(invocation -> {
+            Thread.sleep(orderDelayMillis);
+            Order.CreateOrderRequest request = invocation.getArgument(0);
+            return Order.OrderResponse.newBuilder().setPid("order-" + request.getUserPid()).build();
+        });
+        when(productServiceClient.getProductByPid(any()))
+                .thenReturn(Product.ProductResponse.newBuilder().setPid("product").build());
+    }
+
+    @And("rows {int} and {int} have no email")
+    public void rowsHaveNoEmail(int first, int second) throws IOException {
+        rowsWithoutEmail.addAll(List.of(first, second));
+        writeRows(rows, "row");
+    }
+
+    @And("the first user of row {int} is not created until released")
+    public void theFirstUserOfRowIsNotCreatedUntilReleased(int row) {
+        heldEmail = "row" + row + "@example.com";
+    }
+
+    @When("instance {string} starts importing it with a claim timeout of {long} ms")
+    public void instanceStartsImportingIt(String node, long claimTimeoutMillis) {
+        this.claimTimeoutMillis = claimTimeoutMillis;
+        // One partition for the whole file
+        PartitionedImportService service = partitionedImportService(node, 1 << 20);
+        Thread instance = new Thread(() -> {
+            try {
+                service.importPartitioned(inputFile.toString(), outputFile.toString(), ImportListener.NONE);
+            } catch (Throwable e) {
+                synchronized (failures) {
+                    failures.add(e);
+                }
+            }
+        }, node);
+        instance.start();
+        instances.put(node, instance);
+    }
+
+    @And("the held user has been asked for")
+    public void theHeldUserHasBeenAskedFor() throws InterruptedException {
+        Assertions.assertTrue(heldUserAskedFor.await(30, TimeUnit.SECONDS));
+    }
+
+    @And("the held user is released")
+    public void theHeldUserIsReleased() {
+        heldUserReleased.countDown();
+    }
+
+    @And("instance {string} has finished")
+    public void instanceHasFinished(String node) throws InterruptedException {
+        instances.get(node).join(TimeUnit.SECONDS.toMillis(30));
+        Assertions.assertFalse(instances.get(node).isAlive(), node + " is still importing");
+        Assertions.assertEquals(List.of(), failures);
+    }
+
+    @Then("the order of row {int} was created {int} times and every other order once")
+    public void theOrderOfRowWasCreated(int row, int times) {
+        ArgumentCaptor<Order.CreateOrderRequest> requests = ArgumentCaptor.forClass(Order.CreateOrderRequest.class);
+        verify(orderServiceClient, atLeastOnce()).createOrder(requests.capture());
+        Map<String, Long> created = requests.getAllValues().stream()
+                .collect(Collectors.groupingBy(Order.CreateOrderRequest::getUserPid, Collectors.counting()));
+        for (int i = 1; i <= rows; i++) {
+            Assertions.assertEquals(i == row ? times : 1L, created.get("user-row" + i + "@example.com"),
+                    "orders of row " + i);
+        }
+    }
+
+    @And("the rejects of the output list rows {int} and {int} by partition")
+    public void theRejectsOfTheOutputListRows(int first, int second) throws Exception {
+        Path rejects = ProcessedOrderWriterFactory.rejectsPath(outputFile.toString());
+        try (CSVReader reader = new CSVReader(Files.newBufferedReader(rejects))) {
+            List<String[]> lines = reader.readAll();
+            List<String> header = List.of(lines.get(0));
+            Assertions.assertEquals("partition", header.get(0));
+            Assertions.assertEquals(List.of("supplier" + first, "supplier" + second), lines.subList(1, lines.size())
+                    .stream()
+                    .map(line -> line[header.indexOf("supplier_pid")])
+                    .toList());
+            for (String[] line : lines.subList(1, lines.size())) {
+                Assertions.assertEquals("email is missing", line[header.indexOf("reasons")]);
+            }
+        }
+    }
+
+    @And("the input file is replaced with {int} new order rows")
+    public void theInputFileIsReplacedWithNewOrderRows(int rows) throws IOException {
+        writeRows(rows, "new-row");
+    }
+
+    @When("one instance imports it with a partition size of {int} bytes")
+    public void oneInstanceImportsIt(int partitionBytes) throws IOException {
+        runs.add(partitionedImportService("node-a", partitionBytes)
+                .importPartitioned(inputFile.toString(), outputFile.toString(), ImportListener.NONE));
+    }
+
+    @Then("{int} orders were created over all imports")
+    public void ordersWereCreatedOverAllImports(int orders) {
+        verify(orderServiceClient, times(orders)).createOrder(any());
+    }
+
+    @And("the last import imported nothing")
+    public void theLastImportImportedNothing() {
+        Assertions.assertEquals(0, runs.get(runs.size() - 1).getRowsCompleted());
+    }
+
+    @And("every order takes {long} ms to create")
+    public void everyOrderTakesMsToCreate(long millis) {
+        orderDelayMillis = millis;
+    }
+
+    @And("every merged order takes {long} ms to write")
+    public void everyMergedOrderTakesMsToWrite(long millis) {
+        mergeDelayMillis = millis;
+    }
+
+    @When("two instances import it with a partition size of {int} bytes and a claim timeout of {long} ms")
+    public void twoInstancesImportItWithAClaimTimeout(int partitionBytes, long claimTimeoutMillis) throws Exception {
+        this.claimTimeoutMillis = claimTimeoutMillis;
+        twoInstancesImportIt(partitionBytes);
+    }
+
+    @When("two instances import it with a partition size of {int} bytes")
+    public void twoInstancesImportIt(int partitionBytes) throws Exception {
+        // Both instances share the work directory next to the output, like two nodes on a shared volume
+        List<Thread> instances = new ArrayList<>();
+        List<Throwable> failures = new ArrayList<>();
+        for (String node : List.of("node-a", "node-b")) {
+            PartitionedImportService service = partitionedImportService(node, partitionBytes);
+            Thread instance = new Thread(() -> {
+                try {
+                    ImportProgress progress =
+                            service.importPartitioned(inputFile.toString(), outputFile.toString(), ImportListener.NONE);
+                    int merged = Files.exists(outputFile) ? readOutput().length : 0;
+                    synchronized (runs) {
+                        runs.add(progress);
+                        outputOnReturn.add(merged);
+                    }
+                } catch (Throwable e) {
+                    synchronized (failures) {
+                        failures.add(e);
+                    }
+                }
+            }, node);
+            instance.start();
+            instances.add(instance);
+        }
+        for (Thread instance : instances) {
+            instance.join();
+        }
+        Assertions.assertEquals(List.of(), failures);
+    }
+
+    @Then("every row is imported exactly once")
+    public void everyRowIsImportedExactlyOnce() {
+        verify(orderServiceClient, times(rows)).createOrder(any());
+        Assertions.assertEquals(rows, runs.stream().mapToLong(ImportProgress::getSucceeded).sum());
+    }
+
+    @And("every instance returned once the output was merged")
+    public void everyInstanceReturnedOnceTheOutputWasMerged() {
+        Assertions.assertEquals(List.of(rows, rows), outputOnReturn);
+    }
+
+    @And("the merged output contains all orders in input order")
+    public void theMergedOutputContainsAllOrdersInInputOrder() throws IOException {
+        List<String> expected = IntStream.rangeClosed(1, rows)
+                .filter(row -> !rowsWithoutEmail.contains(row))
+                .mapToObj(row -> "supplier" + row)
+                .toList();
+        Assertions.assertEquals(expected, Stream.of(readOutput()).map(ProcessedOrder::getSupplierPid).toList());
+    }
+
+    private ProcessedOrder[] readOutput() throws IOException {
+        return new ObjectMapper().readValue(outputFile.toFile(), ProcessedOrder[].class);
+    }
+
+    private void writeRows(int rows, String emailPrefix) throws IOException {
+        this.rows = rows;
+        StringBuilder csv = new StringBuilder(HEADER).append('\n');
+        for (int i = 1; i <= rows; i++) {
+            String email = rowsWithoutEmail.contains(i) ? "" : emailPrefix + i + "@example.com";
+            csv.append(i).append(",First").append(i).append(",Last").append(i).append(",").append(email)
+                    .append(",supplier").append(i).append(",4111111111111111,visa,order")
+                    .append(i).append(",product,1 Main St,Portugal,2022-06-24T10:45:52Z,3,First").append(i)
+                    .append(" Last").append(i).append(",0\n");
+        }
+        Files.writeString(inputFile, csv);
+    }
+
+    private PartitionedImportService partitionedImportService(String node, int partitionBytes) {
+        IntegrationService integrationService =
+                new IntegrationServiceFixture(userServiceClient, orderServiceClient, productServiceClient)
+                        .reading(new CsvReaderService("opencsv"))
+                        .writingJsonTo(outputFile.toString())
+                        .keepingCheckpoints(true)
+                        .build();
+        ProcessedOrderWriterFactory mergeWriterFactory =
+                new ProcessedOrderWriterFactory(outputFile.toString(), "json", 500, 1000, "none", false) {
+
+                    @Override
+                    public ProcessedOrderWriter open(String outputPath) throws IOException {
+                        return slowly(super.open(outputPath));
+                    }
+                };
+        return new PartitionedImportService(integrationService, mergeWriterFactory, DataSize.ofBytes(partitionBytes), 2,
+                "", claimTimeoutMillis, 10, node);
+    }
+
+    private ProcessedOrderWriter slowly(ProcessedOrderWriter writer) {
+        return new ProcessedOrderWriter() {
+
+            @Override
+            public void write(ProcessedOrder processedOrder) throws IOException {
+                try {
+                    Thread.sleep(mergeDelayMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException();
+                }
+                writer.write(processedOrder);
+            }
+
+            @Override
+            public void flush() throws IOException {
+                writer.flush();
+            }
+
+            @Override
+            public void close() throws IOException {
+                writer.close();
+            }
+        };
+    }
+}
@@ -0,0 +1,124 @@
+package com.integration.stepdefinitions;
+
+import com.google.protobuf.StringValue;
+import com.integration.grpc.ProductServiceClient;
+import com.integration.service.ProductCache;
+import io.cucumber.java.en.And;
+import io.cucumber.java.en.Given;
+import io.cucumber.java.en.Then;
+import io.cucumber.java.en.When;
+import org.junit.jupiter.api.Assertions;
+import org.mockito.ArgumentCaptor;
+import product.Product;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class ProductCacheSteps {
+
+    private final ProductServiceClient productServiceClient = mock(ProductServiceClient.class);
+
+    private int maxSize;
+
+    private long ttlMillis;
+
+    private ProductCache productCache;
+
+    @Given("a product cache of {int} entries that expire after {long} ms")
+    public void aProductCacheOfEntries(int maxSize, long ttlMillis) {
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlMillis;
+        productCache = new ProductCache(productServiceClient, maxSize, ttlMillis, 100, true);
+        when(productServiceClient.getProductByPid(any()))
+                .thenAnswer(invocation -> product(invocation.<StringValue>getArgument(0).getValue()));
+        when(productServiceClient.getProductByPidAsync(any())).thenAnswer(invocation ->
+                CompletableFuture.completedFuture(product(invocation.<StringValue>getArgument(0).getValue())));
+    }
+
+    @And("the product service returns only {string} in a batch")
+    public void theProductServiceReturnsOnlyInABatch(String productPids) {
+        Set<String> known = Set.copyOf(pids(productPids));
+        when(productServiceClient.getProductsByPids(any())).thenAnswer(invocation -> {
+            Product.StringsRequest request = invocation.getArgument(0);
+            Product.ProductsResponse.Builder products = Product.ProductsResponse.newBuilder();
+            request.getRequestList().stream().filter(known::contains).forEach(pid -> products.addProducts(product(pid)));
+            return products.build();
+        });
+    }
+
+    @When("the products {string} are looked up")
+    public void theProductsAreLookedUp(String productPids) {
+        for (String productPid : pids(productPids)) {
+            Assertions.assertEquals(productPid, productCache.get(productPid).getPid());
+        }
+    }
+
+    @And("the products {string} are looked up asynchronously")
+    public void theProductsAreLookedUpAsynchronously(String productPids) {
+        for (String productPid : pids(productPids)) {
+            Assertions.assertEquals(productPid, productCache.getAsync(productPid).join().getPid());
+        }
+    }
+
+    @And("{int} ms pass")
+    public void msPass(int millis) throws InterruptedException {
+        Thread.sleep(millis);
+    }
+
+    @When("the products {string} are prefetched in batches of {int}")
+    public void theProductsArePrefetchedInBatchesOf(String productPids, int batchSize) {
+        productCache = new ProductCache(productServiceClient, maxSize, ttlMillis, batchSize, true);
+        productCache.prefetch(pids(productPids));
+    }
+
+    @Then("the product service was asked for {string}")
+    public void theProductServiceWasAskedFor(String productPids) {
+        ArgumentCaptor<StringValue> blocking = ArgumentCaptor.forClass(StringValue.class);
+        ArgumentCaptor<StringValue> async = ArgumentCaptor.forClass(StringValue.class);
+        verify(productServiceClient, atLeast(0)).getProductByPid(blocking.capture());
+        verify(productServiceClient, atLeast(0)).getProductByPidAsync(async.capture());
+        List<String> asked = new ArrayList<>();
+        blocking.getAllValues().forEach(pid -> asked.add(pid.getValue()));
+        async.getAllValues().forEach(pid -> asked.add(pid.getValue()));
+        Assertions.assertEquals(pids(productPids), asked);
+    }
+
+    @Then("the products were prefetched with {int} batched calls")
+    public void theProductsWerePrefetchedWithBatchedCalls(int calls) {
+        verify(productServiceClient, times(calls)).getProductsByPids(any());
+    }
+
+    @And("the cache counted {long} hits and {long} misses")
+    public void theCacheCountedHitsAndMisses(long hits, long misses) {
+        Assertions.assertEquals(hits, productCache.getHits());
+        Assertions.assertEquals(misses, productCache.getMisses());
+    }
+
+    @And("the cache holds {int} products")
+    public void theCacheHoldsProducts(int size) {
+        Assertions.assertEquals(size, productCache.size());
+    }
+
+    @And("the cache saved {long} round-trips")
+    public void theCacheSavedRoundTrips(long roundTrips) {
+        Assertions.assertEquals(roundTrips, productCache.getRoundTripsSaved());
+    }
+
+    private static List<String> pids(String productPids) {
+        return Arrays.stream(productPids.split(","))
+                .map(String::trim)
+                .filter(pid -> !pid.isEmpty())
+                .collect(Collectors.toList());
+    }
+
+    private static Product.ProductResponse product(String productPid) {
+        return Product.ProductResponse.newBuilder().setPid(productPid).build();
+    }
+}
@@ -0,0 +1,195 @@
+package com.integration.stepdefinitions;
+
+import com.integration.model.ProcessedOrder;
+import com.integration.output.ProcessedOrderLogConverter;
+import com.integration.output.ProcessedOrderLogReader;
+import com.integration.output.ProcessedOrderReader;
+import com.integration.output.ProcessedOrderWriter;
+import com.integration.output.ProcessedOrderWriterFactory;
+import io.cucumber.java.After;
+import io.cucumber.java.en.And;
+import io.cucumber.java.en.Given;
+import io.cucumber.java.en.Then;
+import io.cucumber.java.en.When;
+import org.junit.jupiter.api.Assertions;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+public class ResultLogSteps {
+
+    private final Path directory;
+
+    private ProcessedOrderWriterFactory factory;
+
+    private Path log;
+
+    private ProcessedOrderWriter writer;
+
+    private ProcessedOrderLogReader follower;
+
+    private int logged;
+
+    // Characters the pids are padded to, so records can take more than one size byte
+    private int pidLength;
+
+    private CompletableFuture<List<ProcessedOrder>> followed;
+
+    public ResultLogSteps() throws IOException {
+        directory = Files.createTempDirectory("result-log-");
+        directory.toFile().deleteOnExit();
+    }
+
+    @Given("result logs written as a stream")
+    public void resultLogsWrittenAsAStream() {
+        // Flushed after every record, so a follower sees each one
+        factory = new ProcessedOrderWriterFactory(null, "pblog", 1, 1000, "none", false);
+    }
+
+    @Given("result logs written memory-mapped")
+    public void resultLogsWrittenMemoryMapped() {
+        factory = new ProcessedOrderWriterFactory(null, "pblog", 1, 1000, "none", true);
+    }
+
+    @And("processed orders with pids of {int} characters")
+    public void processedOrdersWithPidsOf(int length) {
+        pidLength = length;
+    }
+
+    @When("{int} processed orders are logged to {string}")
+    public void processedOrdersAreLoggedTo(int count, String fileName) throws IOException {
+        processedOrdersAreLoggedWithoutClosing(count, fileName);
+        writer.close();
+    }
+
+    @When("{int} processed orders are logged to {string} without closing the log")
+    public void processedOrdersAreLoggedWithoutClosing(int count, String fileName) throws IOException {
+        log = directory.resolve(fileName);
+        log.toFile().deleteOnExit();
+        writer = factory.open(log.toString());
+        processedOrdersAreLogged(count);
+    }
+
+    @When("{int} processed orders are logged to {string} while a reader follows it on another thread")
+    public void processedOrdersAreLoggedWhileFollowed(int count, String fileName) throws IOException {
+        log = directory.resolve(fileName);
+        log.toFile().deleteOnExit();
+        writer = factory.open(log.toString());
+        followed = CompletableFuture.supplyAsync(() -> follow(count));
+        processedOrdersAreLogged(count);
+        writer.close();
+    }
+
+    @When("{int} more processed orders are logged")
+    public void processedOrdersAreLogged(int count) throws IOException {
+        for (int i = 0; i < count; i++) {
+            logged++;
+            writer.write(processedOrder(logged));
+        }
+    }
+
+    @When("the log is closed")
+    public void theLogIsClosed() throws IOException {
+        writer.close();
+    }
+
+    @Then("the log reads back as the {int} processed orders")
+    public void theLogReadsBackAs(int count) throws IOException {
+        try (Stream<ProcessedOrder> processedOrders = ProcessedOrderReader.read(log)) {
+            assertProcessedOrders(processedOrders.toList(), 1, count);
+        }
+    }
+
+    @And("the log converts to JSON with the same {int} processed orders")
+    public void theLogConvertsToJson(int count) throws IOException {
+        Path json = directory.resolve("processed-orders.json");
+        json.toFile().deleteOnExit();
+        Assertions.assertEquals(count, ProcessedOrderLogConverter.toJson(log, json, false));
+        Assertions.assertEquals('[', Files.readString(json).charAt(0));
+        try (Stream<ProcessedOrder> processedOrders = ProcessedOrderReader.read(json)) {
+            assertProcessedOrders(processedOrders.toList(), 1, count);
+        }
+    }
+
+    @Then("a/the reader following the log gets processed orders {int} to {int}")
+    public void theReaderFollowingTheLogGets(int first, int last) throws IOException {
+        if (follower == null) {
+            follower = new ProcessedOrderLogReader(log);
+        }
+        assertProcessedOrders(poll(), first, last);
+    }
+
+    @Then("the reader following the log gets no more processed orders")
+    public void theReaderFollowingTheLogGetsNoMore() throws IOException {
+        Assertions.assertEquals(List.of(), poll());
+    }
+
+    @Then("the reader on the other thread gets processed orders {int} to {int}")
+    public void theReaderOnTheOtherThreadGets(int first, int last) throws Exception {
+        assertProcessedOrders(followed.get(30, TimeUnit.SECONDS), first, last);
+    }
+
+    @After
+    public void closeFollower() throws IOException {
+        if (follower != null) {
+            follower.close();
+        }
+    }
+
+    private List<ProcessedOrder> poll() throws IOException {
+        List<ProcessedOrder> processedOrders = new ArrayList<>();
+        ProcessedOrder processedOrder;
+        while ((processedOrder = follower.poll()) != null) {
+            processedOrders.add(processedOrder);
+        }
+        return processedOrders;
+    }
+
+    /**
+     * Polls a reader of its own until {@code count} processed orders have been read, failing on the
+     * first malformed record.
+     */
+    private List<ProcessedOrder> follow(int count) {
+        List<ProcessedOrder> processedOrders = new ArrayList<>();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(20);
+        try (ProcessedOrderLogReader reader = new ProcessedOrderLogReader(log)) {
+            while (processedOrders.size() < count && System.nanoTime() < deadline) {
+                ProcessedOrder processedOrder = reader.poll();
+                if (processedOrder == null) {
+                    Thread.onSpinWait();
+                } else {
+                    processedOrders.add(processedOrder);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return processedOrders;
+    }
+
+    private ProcessedOrder processedOrder(int number) {
+        return new ProcessedOrder(pid("user-", number), pid("order-", number), "supplier-" + number % 10);
+    }
+
+    private String pid(String prefix, int number) {
+        String pid = prefix + number;
+        return pid.length() < pidLength ? pid + "-".repeat(pidLength - pid.length()) : pid;
+    }
+
+    private void assertProcessedOrders(List<ProcessedOrder> processedOrders, int first, int last) {
+        Assertions.assertEquals(last - first + 1, processedOrders.size());
+        for (int i = 0; i < processedOrders.size(); i++) {
+            ProcessedOrder expected = processedOrder(first + i);
+            Assertions.assertEquals(expected.getUserPid(), processedOrders.get(i).getUserPid());
+            Assertions.assertEquals(expected.getOrderPid(), processedOrders.get(i).getOrderPid());
+            Assertions.assertEquals(expected.getSupplierPid(), processedOrders.get(i).getSupplierPid());
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.integration.stepdefinitions;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.integration.grpc.OrderServiceClient;
+import com.integration.grpc.ProductServiceClient;
+import com.integration.grpc.UserServiceClient;
+import com.integration.model.ProcessedOrder;
+import com.integration.service.CsvReaderService;
+import com.integration.service.IntegrationService;
+import io.cucumber.java.en.And;
+import io.cucumber.java.en.Given;
+import io.cucumber.java.en.Then;
+import io.cucumber.java.en.When;
+import order.Order;
+import org.junit.jupiter.api.Assertions;
+import product.Product;
+import user.User;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+public class ResumableImportSteps {
+
+    private static final String HEADER = "id,first_name,last_name,email,supplier_pid,credit_card_number,"
+            + "credit_card_type,order_id,product_pid,shipping_address,country,date_created,quantity,full_name,"
+            + "order_status";
+
+    private final UserServiceClient userServiceClient = mock(UserServiceClient.class);
+
+    private final OrderServiceClient orderServiceClient = mock(OrderServiceClient.class);
+
+    private final ProductServiceClient productServiceClient = mock(ProductServiceClient.class);
+
+    private Path inputFile;
+
+    private Path outputFile;
+
+    private volatile String failingUserPid;
+
+    @Given("an input file with {int} order rows")
+    public void anInputFileWithOrderRows(int rows) throws IOException {
+        Path directory = Files.createTempDirectory("resumable-import");
+        inputFile = directory.resolve("orders.csv");
+        outputFile = directory.resolve("processed-orders.json");
+        StringBuilder csv = new StringBuilder(HEADER).append('\n');
+        for (int i = 1; i <= rows; i++) {
+            csv.append(i).append(",First").append(i).append(",Last").append(i).append(",row").append(i)
+                    .append("@example.com,supplier").append(i).append(",4111111111111111,visa,order").append(i)
+                    .append(",product").append(i).append(",1 Main St,Portugal,2022-06-24T10:45:52Z,3,First")
+                    .append(i).append(" Last").append(i).append(",0\n");
+        }
+        Files.writeString(inputFile, csv);
+
+        when(userServiceClient.createUser(any())).thenAnswer(invocation -> {
+            User.CreateUserRequest request = invocation.getArgument(0);
+            return User.UserResponse.newBuilder().setPid("user-" + request.getEmail()).build();
+        });
+        when(orderServiceClient.createOrder(any())).thenAnswer(invocation -> {
+            Order.CreateOrderRequest request = invocation.getArgument(0);
+            if (request.getUserPid().equals(failingUserPid)) {
+                throw new IllegalStateException("Order service connection lost");
+            }
+            return Order.OrderResponse.newBuilder().setPid("order-" + request.getUserPid()).build();
+        });
+        when(productServiceClient.getProductByPid(any()))
+                .thenReturn(Product.ProductResponse.newBuilder().setPid("product").build());
+    }
+
+    @And("the order service fails unexpectedly while creating the order of row {int}")
+    public void theOrderServiceFailsWhileCreatingTheOrderOfRow(int row) {
+        failingUserPid = "user-row" + row + "@example.com";
+    }
+
+    @When("the import is run and aborted")
+    public void theImportIsRunAndAborted() {
+        Assertions.assertThrows(IllegalStateException.class, this::runImport);
+        Assertions.assertTrue(Files.exists(Path.of(outputFile + ".checkpoint")), "Checkpoint should be kept");
+    }
+
+    @And("the import is run again with working services")
+    public void theImportIsRunAgainWithWorkingServices() throws IOException {
+        failingUserPid = null;
+        runImport();
+    }
+
+    @Then("every user is created once and only the unfinished orders are created again")
+    public void everyUserIsCreatedOnce() {
+        for (String email : List.of("row1@example.com", "row2@example.com", "row3@example.com")) {
+            verify(userServiceClient, times(1)).createUser(argThat(request -> request.getEmail().equals(email)));
+        }
+        verify(orderServiceClient, times(1)).createOrder(
+                argThat(request -> request.getUserPid().equals("user-row1@example.com")));
+        // Once failing in the first run, once in the second
+        verify(orderServiceClient, times(2)).createOrder(
+                argThat(request -> request.getUserPid().equals("user-row2@example.com")));
+        verify(orderServiceClient, times(1)).createOrder(
+                argThat(request -> request.getUserPid().equals("user-row3@example.com")));
+    }
+
+    @And("the output contains the orders of all {int} rows in input order")
+    public void theOutputContainsTheOrdersOfAllRows(int rows) throws IOException {
+        ProcessedOrder[] processedOrders = new ObjectMapper().readValue(outputFile.toFile(), ProcessedOrder[].class);
+        Assertions.assertEquals(rows, processedOrders.length);
+        for (int i = 1; i <= rows; i++) {
+            Assertions.assertEquals("order-user-row" + i + "@example.com", processedOrders[i - 1].getOrderPid());
+            Assertions.assertEquals("supplier" + i, processedOrders[i - 1].getSupplierPid());
+        }
+        Assertions.assertFalse(Files.exists(Path.of(outputFile + ".checkpoint")),
+                "Checkpoint should be removed once the import has finished");
+        Assertions.assertEquals(rows, Arrays.stream(processedOrders).map(ProcessedOrder::getUserPid).distinct().count());
+    }
+
+    private void runImport() throws IOException {
+        IntegrationService integrationService =
+                new IntegrationServiceFixture(userServiceClient, orderServiceClient, productServiceClient)
+                        .reading(new CsvReaderService("opencsv"))
+                        .writingJsonTo(outputFile.toString())
+                        .keepingCheckpoints(true)
+                        .build();
+        integrationService.processCsvFile(inputFile.toString(), outputFile.toString());
+    }
+}
@@ -0,0 +1,178 @@
+package com.integration.stepdefinitions;
+
+import com.integration.grpc.OrderServiceClient;
+import com.integration.grpc.ProductServiceClient;
+import com.integration.grpc.SupplierServiceClient;
+import com.integration.grpc.UserServiceClient;
+import com.integration.model.OrderCsv;
+import com.integration.service.CsvReaderService;
+import com.integration.service.ImportListener;
+import com.integration.service.IntegrationService;
+import com.integration.service.RowResult;
+import io.cucumber.java.en.And;
+import io.cucumber.java.en.Given;
+import io.cucumber.java.en.Then;
+import io.cucumber.java.en.When;
+import order.Order;
+import org.junit.jupiter.api.Assertions;
+import product.Product;
+import supplier.Supplier;
+import user.User;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+public class SupplierValidationSteps {
+
+    private final UserServiceClient userServiceClient = mock(UserServiceClient.class);
+
+    private final OrderServiceClient orderServiceClient = mock(OrderServiceClient.class);
+
+    private final ProductServiceClient productServiceClient = mock(ProductServiceClient.class);
+
+    private final SupplierServiceClient supplierServiceClient = mock(SupplierServiceClient.class);
+
+    private final CsvReaderService csvReaderService = mock(CsvReaderService.class);
+
+    private final List<OrderCsv> orders = new ArrayList<>();
+
+    private final List<RowResult> rowResults = new ArrayList<>();
+
+    @Given("order rows with the suppliers {string}")
+    public void orderRowsWithTheSuppliers(String supplierPids) {
+        String[] suppliers = supplierPids.split(",");
+        for (int i = 0; i < suppliers.length; i++) {
+            orders.add(new OrderCsv(String.valueOf(i + 1), "First", "Last", "customer" + i + "@example.com",
+                    suppliers[i].trim(), "4111111111111111", "visa", "order" + i, "product", "1 Main St", "Portugal",
+                    "2022-06-24T10:45:52Z", "3", "First Last", "0"));
+        }
+        when(userServiceClient.createUser(any())).thenAnswer(invocation -> user(invocation.getArgument(0)));
+        when(userServiceClient.createUserAsync(any()))
+                .thenAnswer(invocation -> CompletableFuture.completedFuture(user(invocation.getArgument(0))));
+        when(orderServiceClient.createOrder(any())).thenAnswer(invocation -> order(invocation.getArgument(0)));
+        when(orderServiceClient.createOrderAsync(any()))
+                .thenAnswer(invocation -> CompletableFuture.completedFuture(order(invocation.getArgument(0))));
+        Product.ProductResponse product = Product.ProductResponse.newBuilder().setPid("product").build();
+        when(productServiceClient.getProductByPid(any())).thenReturn(product);
+        when(productServiceClient.getProductByPidAsync(any())).thenReturn(CompletableFuture.completedFuture(product));
+    }
+
+    @And("the supplier service knows {string}")
+    public void theSupplierServiceKnows(String supplierPids) {
+        Set<String> known = Arrays.stream(supplierPids.split(",")).map(String::trim).collect(Collectors.toSet());
+        when(supplierServiceClient.getSuppliersByPids(any()))
+                .thenAnswer(invocation -> suppliers(invocation.getArgument(0), known));
+        // Answered later, so rows of the same supplier are in flight together
+        when(supplierServiceClient.getSuppliersByPidsAsync(any())).thenAnswer(invocation -> CompletableFuture
+                .supplyAsync(() -> suppliers(invocation.getArgument(0), known),
+                        CompletableFuture.delayedExecutor(20, TimeUnit.MILLISECONDS)));
+    }
+
+    @When("the rows are imported from a file")
+    public void theRowsAreImportedFromAFile() throws IOException {
+        Path output = Files.createTempFile("processed-orders-", ".json");
+        output.toFile().deleteOnExit();
+        when(csvReaderService.streamOrders("orders.csv")).thenAnswer(invocation -> orders.stream());
+        integrationService(1, false).processCsvFile("orders.csv", output.toString(), listener());
+    }
+
+    @When("the rows are imported asynchronously with a parallelism of {int}")
+    public void theRowsAreImportedAsynchronously(int parallelism) {
+        integrationService(parallelism, true).processOrders(orders.stream(), processedOrder -> {
+        }, listener());
+    }
+
+    @Then("rows {int}, {int}, {int} and {int} have an order")
+    public void rowsHaveAnOrder(int first, int second, int third, int fourth) {
+        for (int row : List.of(first, second, third, fourth)) {
+            Assertions.assertTrue(rowResults.get(row - 1).isSuccess(), "row " + row);
+        }
+    }
+
+    @Then("rows {int}, {int} and {int} have an order")
+    public void rowsHaveAnOrder(int first, int second, int third) {
+        for (int row : List.of(first, second, third)) {
+            Assertions.assertTrue(rowResults.get(row - 1).isSuccess(), "row " + row);
+        }
+    }
+
+    @And("row {int} is rejected with {string}")
+    public void rowIsRejectedWith(int row, String error) {
+        RowResult rowResult = rowResults.get(row - 1);
+        Assertions.assertFalse(rowResult.isSuccess());
+        Assertions.assertEquals(error, rowResult.error());
+    }
+
+    @And("no user or order was created for supplier {string}")
+    public void noUserOrOrderWasCreatedForSupplier(String supplierPid) {
+        Set<String> emails = orders.stream()
+                .filter(order -> order.getSupplierPid().equals(supplierPid))
+                .map(OrderCsv::getEmail)
+                .collect(Collectors.toSet());
+        verify(userServiceClient, never()).createUser(argThat(request -> emails.contains(request.getEmail())));
+        verify(userServiceClient, never()).createUserAsync(argThat(request -> emails.contains(request.getEmail())));
+        verify(orderServiceClient, never())
+                .createOrder(argThat(request -> emails.contains(request.getUserPid().substring("user-".length()))));
+        verify(orderServiceClient, never())
+                .createOrderAsync(argThat(request -> emails.contains(request.getUserPid().substring("user-".length()))));
+    }
+
+    @And("the suppliers were resolved with {int} batched call(s)")
+    public void theSuppliersWereResolvedWithBatchedCalls(int calls) {
+        verify(supplierServiceClient, times(calls)).getSuppliersByPids(any());
+        verify(supplierServiceClient, never()).getSuppliersByPidsAsync(any());
+    }
+
+    @And("the suppliers were looked up {int} times")
+    public void theSuppliersWereLookedUp(int lookups) {
+        verify(supplierServiceClient, times(lookups)).getSuppliersByPidsAsync(any());
+        verify(supplierServiceClient, never()).getSuppliersByPids(any());
+    }
+
+    private IntegrationService integrationService(int parallelism, boolean async) {
+        return new IntegrationServiceFixture(userServiceClient, orderServiceClient, productServiceClient)
+                .reading(csvReaderService)
+                .validatingSuppliersWith(supplierServiceClient)
+                .writingJsonTo(null)
+                .parallelism(parallelism)
+                .async(async)
+                .build();
+    }
+
+    private ImportListener listener() {
+        return new ImportListener() {
+            @Override
+            public void onRow(RowResult rowResult) {
+                rowResults.add(rowResult);
+            }
+        };
+    }
+
+    private static User.UserResponse user(User.CreateUserRequest request) {
+        return User.UserResponse.newBuilder().setPid("user-" + request.getEmail()).build();
+    }
+
+    private static Order.OrderResponse order(Order.CreateOrderRequest request) {
+        return Order.OrderResponse.newBuilder().setPid("order-" + request.getUserPid()).build();
+    }
+
+    private static Supplier.SuppliersResponse suppliers(Supplier.StringsRequest request, Set<String> known) {
+        Supplier.SuppliersResponse.Builder response = Supplier.SuppliersResponse.newBuilder();
+        request.getRequestList().stream()
+                .filter(known::contains)
+                .forEach(pid -> response.addSuppliers(Supplier.SupplierResponse.newBuilder().setPid(pid)));
+        return response.build();
+    }
+}
@@ -0,0 +1,181 @@
+package com.integration.stepdefinitions;
+
+import com.integration.grpc.OrderServiceClient;
+import com.integration.grpc.ProductServiceClient;
+import com.integration.grpc.TracingClientInterceptor;
+import com.integration.grpc.TracingServerInterceptor;
+import com.integration.grpc.UserServiceClient;
+import com.integration.model.OrderCsv;
+import com.integration.model.ProcessedOrder;
+import com.integration.service.CsvReaderService;
+import com.integration.service.IntegrationService;
+import io.cucumber.java.After;
+import io.cucumber.java.en.And;
+import io.cucumber.java.en.Given;
+import io.cucumber.java.en.Then;
+import io.cucumber.java.en.When;
+import io.grpc.ClientInterceptors;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.ServerInterceptors;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.StreamObserver;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.propagation.W3CTraceContextPropagator;
+import io.opentelemetry.context.Scope;
+import io.opentelemetry.context.propagation.ContextPropagators;
+import io.opentelemetry.sdk.OpenTelemetrySdk;
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import order.Order;
+import org.junit.jupiter.api.Assertions;
+import product.Product;
+import user.User;
+import user.UserServiceGrpc;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class TracingSteps {
+
+    private final InMemorySpanExporter spans = InMemorySpanExporter.create();
+
+    private final OpenTelemetrySdk openTelemetry = OpenTelemetrySdk.builder()
+            .setTracerProvider(SdkTracerProvider.builder().addSpanProcessor(SimpleSpanProcessor.create(spans)).build())
+            .setPropagators(ContextPropagators.create(W3CTraceContextPropagator.getInstance()))
+            .build();
+
+    private final UserServiceClient userServiceClient = mock(UserServiceClient.class);
+
+    private final OrderServiceClient orderServiceClient = mock(OrderServiceClient.class);
+
+    private final ProductServiceClient productServiceClient = mock(ProductServiceClient.class);
+
+    private final List<OrderCsv> orders = new ArrayList<>();
+
+    private final List<ProcessedOrder> results = new ArrayList<>();
+
+    private Server server;
+
+    private ManagedChannel channel;
+
+    @After("@tracing")
+    public void shutDown() {
+        if (channel != null) {
+            channel.shutdownNow();
+        }
+        if (server != null) {
+            server.shutdownNow();
+        }
+        openTelemetry.close();
+    }
+
+    @Given("{int} order rows to trace")
+    public void orderRowsToTrace(int rows) {
+        for (int i = 1; i <= rows; i++) {
+            orders.add(new OrderCsv("row-" + i, "First", "Last", "row" + i + "@example.com", "supplier" + i,
+                    "4111111111111111", "visa", "order" + i, "product", "1 Main St", "Portugal",
+                    "2022-06-24T10:45:52Z", "3", "First Last", "0"));
+        }
+        when(userServiceClient.createUser(any())).thenAnswer(invocation -> {
+            User.CreateUserRequest request = invocation.getArgument(0);
+            return User.UserResponse.newBuilder().setPid("user-" + request.getEmail()).build();
+        });
+        when(orderServiceClient.createOrder(any()))
+                .thenReturn(Order.OrderResponse.newBuilder().setPid("order").build());
+        when(productServiceClient.getProductByPid(any()))
+                .thenReturn(Product.ProductResponse.newBuilder().setPid("product").build());
+    }
+
+    @When("the rows are imported with a parallelism of {int} inside a {string} span")
+    public void theRowsAreImportedInsideASpan(int parallelism, String rootName) {
+        IntegrationService integrationService =
+                new IntegrationServiceFixture(userServiceClient, orderServiceClient, productServiceClient)
+                        .reading(new CsvReaderService("opencsv"))
+                        .tracingWith(openTelemetry.getTracer("test"))
+                        .parallelism(parallelism)
+                        .build();
+        Span root = openTelemetry.getTracer("test").spanBuilder(rootName).startSpan();
+        try (Scope ignored = root.makeCurrent()) {
+            integrationService.processOrders(orders.stream(), results::add);
+        } finally {
+            root.end();
+        }
+        Assertions.assertEquals(orders.size(), results.size());
+    }
+
+    @Then("every row has an {string} span carrying its row id")
+    public void everyRowHasASpanCarryingItsRowId(String rowSpanName) {
+        List<String> rowIds = spansNamed(rowSpanName).stream()
+                .map(span -> span.getAttributes().get(AttributeKey.stringKey("row.id")))
+                .sorted()
+                .toList();
+        Assertions.assertEquals(orders.stream().map(OrderCsv::getId).sorted().toList(), rowIds);
+    }
+
+    @And("the {string} spans are children of the {string} span below {string}")
+    public void theRowSpansAreChildrenOf(String rowSpanName, String importSpanName, String rootName) {
+        SpanData root = spansNamed(rootName).get(0);
+        SpanData importSpan = spansNamed(importSpanName).get(0);
+        Assertions.assertEquals(root.getSpanId(), importSpan.getParentSpanId());
+        for (SpanData row : spansNamed(rowSpanName)) {
+            Assertions.assertEquals(root.getTraceId(), row.getTraceId());
+            Assertions.assertEquals(importSpan.getSpanId(), row.getParentSpanId());
+        }
+    }
+
+    @Given("an in-process user service behind the tracing server interceptor")
+    public void anInProcessUserService() throws IOException {
+        String name = InProcessServerBuilder.generateName();
+        UserServiceGrpc.UserServiceImplBase userService = new UserServiceGrpc.UserServiceImplBase() {
+            @Override
+            public void createUser(User.CreateUserRequest request, StreamObserver<User.UserResponse> responseObserver) {
+                responseObserver.onNext(User.UserResponse.newBuilder().setPid("user-1").build());
+                responseObserver.onCompleted();
+            }
+        };
+        server = InProcessServerBuilder.forName(name)
+                .directExecutor()
+                .addService(ServerInterceptors.intercept(userService, new TracingServerInterceptor(openTelemetry)))
+                .build()
+                .start();
+        channel = InProcessChannelBuilder.forName(name).directExecutor().build();
+    }
+
+    @When("a user is created through a traced channel inside a {string} span")
+    public void aUserIsCreatedThroughATracedChannel(String rootName) {
+        UserServiceGrpc.UserServiceBlockingStub stub = UserServiceGrpc.newBlockingStub(
+                ClientInterceptors.intercept(channel, new TracingClientInterceptor(openTelemetry)));
+        Span root = openTelemetry.getTracer("test").spanBuilder(rootName).startSpan();
+        try (Scope ignored = root.makeCurrent()) {
+            Assertions.assertEquals("user-1",
+                    stub.createUser(User.CreateUserRequest.newBuilder().setEmail("ann@example.com").build()).getPid());
+        } finally {
+            root.end();
+        }
+    }
+
+    @Then("the server span of {string} continues the trace of the client span")
+    public void theServerSpanContinuesTheTraceOfTheClientSpan(String method) {
+        SpanData client = spansNamed(method).stream().filter(span -> span.getKind() == SpanKind.CLIENT)
+                .findFirst().orElseThrow();
+        SpanData server = spansNamed(method).stream().filter(span -> span.getKind() == SpanKind.SERVER)
+                .findFirst().orElseThrow();
+        Assertions.assertEquals(client.getTraceId(), server.getTraceId());
+        Assertions.assertEquals(client.getSpanId(), server.getParentSpanId());
+        Assertions.assertEquals(0L, server.getAttributes().get(AttributeKey.longKey("rpc.grpc.status_code")));
+    }
+
+    private List<SpanData> spansNamed(String name) {
+        return spans.getFinishedSpanItems().stream().filter(span -> span.getName().equals(name)).toList();
+    }
+}
@@ -0,0 +1,148 @@
+package com.integration.stepdefinitions;
+
+import com.integration.exception.UserAlreadyExistsException;
+import com.integration.grpc.OrderServiceClient;
+import com.integration.grpc.ProductServiceClient;
+import com.integration.grpc.UserServiceClient;
+import com.integration.model.OrderCsv;
+import com.integration.model.ProcessedOrder;
+import com.integration.service.IntegrationService;
+import com.integration.service.UserResolver;
+import io.cucumber.java.en.And;
+import io.cucumber.java.en.Given;
+import io.cucumber.java.en.Then;
+import io.cucumber.java.en.When;
+import order.Order;
+import org.junit.jupiter.api.Assertions;
+import product.Product;
+import user.User;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+public class UserResolutionSteps {
+
+    private final UserServiceClient userServiceClient = mock(UserServiceClient.class);
+
+    private final OrderServiceClient orderServiceClient = mock(OrderServiceClient.class);
+
+    private final ProductServiceClient productServiceClient = mock(ProductServiceClient.class);
+
+    private final List<OrderCsv> orders = new ArrayList<>();
+
+    private final List<ProcessedOrder> results = new ArrayList<>();
+
+    // The user index shared by the runs of a scenario, if any
+    private String indexPath = "";
+
+    @Given("order rows for the customers {string}")
+    public void orderRowsForTheCustomers(String emails) {
+        String[] customers = emails.split(",");
+        for (int i = 0; i < customers.length; i++) {
+            String email = customers[i].trim();
+            orders.add(new OrderCsv(String.valueOf(i + 1), "First", "Last", email, "supplier" + i,
+                    "4111111111111111", "visa", "order" + i, "product", "1 Main St", "Portugal",
+                    "2022-06-24T10:45:52Z", "3", "First Last", "0"));
+        }
+        when(userServiceClient.createUser(any())).thenAnswer(invocation -> {
+            User.CreateUserRequest request = invocation.getArgument(0);
+            return User.UserResponse.newBuilder().setPid("user-" + request.getEmail()).build();
+        });
+        when(orderServiceClient.createOrder(any())).thenAnswer(invocation -> {
+            Order.CreateOrderRequest request = invocation.getArgument(0);
+            return Order.OrderResponse.newBuilder().setPid("order-" + request.getUserPid()).build();
+        });
+        when(productServiceClient.getProductByPid(any()))
+                .thenReturn(Product.ProductResponse.newBuilder().setPid("product").build());
+    }
+
+    @And("the user service already knows {string} as {string}")
+    public void theUserServiceAlreadyKnows(String email, String userPid) {
+        doThrow(new UserAlreadyExistsException("User already exists with email: " + email))
+                .when(userServiceClient).createUser(argThat(request -> request.getEmail().equals(email)));
+        when(userServiceClient.searchByEmail(email)).thenReturn(User.UsersResponse.newBuilder()
+                .addUsers(User.UserResponse.newBuilder().setPid(userPid).setEmail(email))
+                .build());
+    }
+
+    @And("users are indexed in a file")
+    public void usersAreIndexedInAFile() throws IOException {
+        Path directory = Files.createTempDirectory("user-index-");
+        directory.toFile().deleteOnExit();
+        Path index = directory.resolve("users.tsv");
+        index.toFile().deleteOnExit();
+        indexPath = index.toString();
+    }
+
+    @And("the user index already holds {string} as {string}")
+    public void theUserIndexAlreadyHolds(String email, String userPid) throws IOException {
+        appendToIndex(email + "\t" + userPid + "\n");
+    }
+
+    @And("the user index ends with a line for {string} cut short after {string}")
+    public void theUserIndexEndsWithACutShortLine(String email, String userPid) throws IOException {
+        appendToIndex(email + "\t" + userPid);
+    }
+
+    @When("the rows are imported")
+    public void theRowsAreImported() throws IOException {
+        results.clear();
+        UserResolver userResolver = new UserResolver(userServiceClient, indexPath);
+        IntegrationService integrationService =
+                new IntegrationServiceFixture(userServiceClient, orderServiceClient, productServiceClient)
+                        .resolvingUsersWith(userResolver)
+                        .build();
+        integrationService.processOrders(orders.stream(), results::add);
+        userResolver.destroy();
+    }
+
+    @When("the rows are imported again by another run")
+    public void theRowsAreImportedAgain() throws IOException {
+        clearInvocations(userServiceClient);
+        theRowsAreImported();
+    }
+
+    @Then("every row has an order")
+    public void everyRowHasAnOrder() {
+        Assertions.assertEquals(orders.size(), results.size());
+    }
+
+    @And("{string} was created once")
+    public void wasCreatedOnce(String email) {
+        verify(userServiceClient, times(1)).createUser(argThat(request -> request.getEmail().equals(email)));
+    }
+
+    @And("{string} was not created")
+    public void wasNotCreated(String email) {
+        verify(userServiceClient, never()).createUser(argThat(request -> request.getEmail().equals(email)));
+    }
+
+    @Then("no user was created")
+    public void noUserWasCreated() {
+        verify(userServiceClient, never()).createUser(any());
+    }
+
+    @And("the orders of {string} belong to {string}")
+    public void theOrdersBelongTo(String email, String userPid) {
+        for (int i = 0; i < orders.size(); i++) {
+            if (orders.get(i).getEmail().equals(email)) {
+                Assertions.assertEquals(userPid, results.get(i).getUserPid());
+            }
+        }
+    }
+
+    private void appendToIndex(String text) throws IOException {
+        if (indexPath.isEmpty()) {
+            usersAreIndexedInAFile();
+        }
+        Files.writeString(Path.of(indexPath), text, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+}
@@ -0,0 +1,43 @@
+Feature: Importing with the Spring Batch job
+
+  Scenario: Every partition is imported and the output is merged in input order
+    Given 6 order rows for the batch job
+    When the batch job imports them in 2 partitions of chunks of 2 rows
+    Then the batch job ends with "COMPLETED: 6 rows read, 6 orders written, 0 rows skipped"
+    And the output holds the orders of rows 1 to 6 in order
+    And no partition output is left
+    And the order of every row was requested once
+
+  Scenario: Columns are bound by the header, not by their position
+    Given 6 order rows for the batch job with their columns in reverse order
+    When the batch job imports them in 2 partitions of chunks of 2 rows
+    Then the batch job ends with "COMPLETED: 6 rows read, 6 orders written, 0 rows skipped"
+    And the output holds the orders of rows 1 to 6 in order
+    And the order of every row was requested once
+
+  Scenario Outline: An order call that may have been applied is skipped, not retried
+    Given 6 order rows for the batch job
+    And the order call of row 3 fails with <status>
+    When the batch job imports them in 2 partitions of chunks of 2 rows
+    Then the batch job ends with "COMPLETED: 6 rows read, 5 orders written, 1 rows skipped"
+    And the order of every row was requested once
+
+    Examples:
+      | status            |
+      | DEADLINE_EXCEEDED |
+      | UNAVAILABLE       |
+
+  Scenario: An order call the service refused is retried
+    Given 6 order rows for the batch job
+    And the order call of row 3 fails with RESOURCE_EXHAUSTED
+    When the batch job imports them in 2 partitions of chunks of 2 rows
+    Then the batch job ends with "COMPLETED: 6 rows read, 6 orders written, 0 rows skipped"
+    And the output holds the orders of rows 1 to 6 in order
+    And the order of row 3 was requested 2 times and the others once
+
+  Scenario: A product lookup that timed out is retried without creating the order twice
+    Given 6 order rows for the batch job
+    And the product lookup of row 3 fails with DEADLINE_EXCEEDED
+    When the batch job imports them in 2 partitions of chunks of 2 rows
+    Then the batch job ends with "COMPLETED: 6 rows read, 6 orders written, 0 rows skipped"
+    And the order of every row was requested once
@@ -0,0 +1,28 @@
+Feature: Compressed input and output
+
+  Scenario Outline: A compressed CSV file is read like the plain file
+    Given the CSV file "src/test/resources/input/order-integration-test.csv" compressed with <compression> as "orders.csv<extension>"
+    When both files are read with the "<parser>" parser
+    Then both files have the same rows
+    And both files have the same row count
+    And the compressed file is a single partition
+
+    Examples:
+      | compression | extension | parser  |
+      | gzip        | .gz       | opencsv |
+      | zstd        | .zst      | fast    |
+      | gzip        |           | fast    |
+
+  Scenario Outline: Processed orders are written compressed
+    Given an output compression of "<configured>"
+    When 1000 processed orders are written to "processed-orders<name>"
+    Then the output starts with the <compression> magic bytes
+    And the output reads back as the 1000 processed orders
+    And the rejects of the output go to "processed-orders.rejects.csv"
+
+    Examples:
+      | configured | name         | compression |
+      | gzip       | .json        | gzip        |
+      | zstd       | .json        | zstd        |
+      | none       | .json.gz     | gzip        |
+      | none       | .ndjson.zst  | zstd        |
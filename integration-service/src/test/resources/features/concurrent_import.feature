@@ -0,0 +1,13 @@
+Feature: Concurrent order import
+
+  Scenario: Concurrent processing keeps the input order and outperforms the sequential loop
+    Given 120 generated order rows and downstream stubs answering after 3 ms
+    When the rows are processed sequentially and with a parallelism of 8
+    Then both runs produce the same results in input order
+    And the concurrent run has a higher throughput than the sequential run
+
+  Scenario: Asynchronous processing keeps the input order and outperforms the sequential loop
+    Given 120 generated order rows and downstream stubs answering after 3 ms
+    When the rows are processed sequentially and asynchronously with a parallelism of 8
+    Then both runs produce the same results in input order
+    And the concurrent run has a higher throughput than the sequential run
@@ -0,0 +1,34 @@
+Feature: CSV parsing
+
+  Scenario: The fast parser reads the same rows as opencsv
+    Given the CSV file "src/test/resources/input/order-integration-test.csv"
+    When the file is read with the "opencsv" and the "fast" parser
+    Then both parsers return the same rows
+
+  Scenario: The fast parser handles quoting like opencsv
+    Given a CSV input with quoted values
+      """
+      order_status,quantity,date_created,country,full_name,shipping_address,product_pid,order_id,credit_card_type,credit_card_number,supplier_pid,email,last_name,first_name,id
+      2,3,2022-06-24T10:45:52Z,Portugal,"Humphries, Austin","894 ""Declaration"" Park
+      Lisbon",p-1,o-1,visa,4917352465154663,s-1,ahumphries0@mac.com,Humphries,Austin,1
+      0,  7,2023-01-16T02:21:20Z,Albania,  "Willi Petheridge",659 Waxwing Point,p-2,o-2,mastercard,5415103981077514,s-1,wpetheridge1@comcast.net,Petheridge,Willi,2
+      """
+    When the input is read with the "opencsv" and the "fast" parser
+    Then both parsers return the same rows
+    And row 1 has the shipping address "894 \"Declaration\" Park\nLisbon"
+    And row 2 has the quantity "  7" and the full name "Willi Petheridge"
+
+  Scenario Outline: The order request carries the date an order was created on
+    When an order request is built for a row created at "<date created>"
+    Then the order request has the creation date "<date>"
+
+    Examples:
+      | date created                  | date       |
+      | 2022-06-24T10:45:52Z          | 2022-06-24 |
+      | 2024-02-29T23:59:59.123+02:00 | 2024-02-29 |
+      | 2023-01-16T02:21:20-05:00     | 2023-01-16 |
+      | 2022-06-24T10:45Z             | 2022-06-24 |
+
+  Scenario: An invalid creation date still fails the row
+    When an order request is built for a row created at "2023-02-29T10:45:52Z"
+    Then building the order request fails
@@ -0,0 +1,69 @@
+Feature: Adaptive downstream limiter
+
+  Scenario: Asynchronous calls beyond the limit wait for a permit
+    Given a downstream limiter starting at 3 calls with a maximum of 3
+    When 10 asynchronous calls are started
+    Then 3 calls are in flight
+    When 1 of the calls in flight succeeds
+    Then 3 calls are in flight
+    And 1 call has completed
+
+  Scenario: Rejections shrink the limit and successes grow it back
+    Given a downstream limiter starting at 8 calls with a maximum of 16
+    When 8 asynchronous calls are started
+    And 1 of the calls in flight fails with "RESOURCE_EXHAUSTED"
+    Then the limit is 4
+    When the calls keep succeeding for 20 rounds
+    Then the limit is above 4
+
+  Scenario: Only one decrease for calls that were in flight together
+    Given a downstream limiter starting at 8 calls with a maximum of 16
+    When 8 asynchronous calls are started
+    And 4 of the calls in flight fail with "UNAVAILABLE"
+    Then the limit is 4
+
+  Scenario: A rejected blocking call is retried
+    Given a downstream limiter starting at 4 calls with a maximum of 4
+    When a blocking call fails 2 times with "UNAVAILABLE" before it succeeds
+    Then the call succeeds after 3 attempts
+    And the limiter counts 2 retries
+
+  Scenario: A rejected asynchronous call is retried
+    Given a downstream limiter starting at 4 calls with a maximum of 4
+    When an asynchronous call fails 1 time with "RESOURCE_EXHAUSTED" before it succeeds
+    Then the call succeeds after 2 attempts
+    And the limiter counts 1 retries
+
+  Scenario: Calls are attempted at most max-attempts times
+    Given a downstream limiter starting at 4 calls with a maximum of 4
+    When a blocking call fails 5 times with "UNAVAILABLE" before it succeeds
+    Then the call fails with "UNAVAILABLE" after 3 attempts
+
+  Scenario: Other errors are not retried
+    Given a downstream limiter starting at 4 calls with a maximum of 4
+    When a blocking call fails 1 time with "INVALID_ARGUMENT" before it succeeds
+    Then the call fails with "INVALID_ARGUMENT" after 1 attempts
+    And the limit is 4
+
+  Scenario Outline: A create call is not retried when it may have been applied
+    Given a downstream limiter starting at 4 calls with a maximum of 4
+    When <kind> create call fails 1 time with "<code>" before it succeeds
+    Then the call fails with "<code>" after 1 attempts
+    And the limiter counts 0 retries
+
+    Examples:
+      | kind            | code              |
+      | a blocking      | UNAVAILABLE       |
+      | an asynchronous | UNAVAILABLE       |
+      | a blocking      | DEADLINE_EXCEEDED |
+
+  Scenario Outline: A create call the service refused is retried
+    Given a downstream limiter starting at 4 calls with a maximum of 4
+    When <kind> create call fails 2 times with "RESOURCE_EXHAUSTED" before it succeeds
+    Then the call succeeds after 3 attempts
+    And the limiter counts 2 retries
+
+    Examples:
+      | kind            |
+      | a blocking      |
+      | an asynchronous |
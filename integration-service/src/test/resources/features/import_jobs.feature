@@ -0,0 +1,62 @@
+Feature: Queued imports
+
+  Scenario: A queued import can be followed until it completes
+    Given 20 order rows to import over gRPC
+    When 1 import is queued
+    Then the reply of import 1 is "CSV file queued for processing."
+    And import 1 ends SUCCEEDED with 20 rows imported out of 20 and the message "Completed: 20 rows imported, 0 rows failed."
+
+  Scenario: Imports beyond the workers and the queue are rejected
+    Given 20 order rows to import over gRPC
+    And the user service does not answer until released
+    When 5 imports are queued
+    Then import 5 is rejected with "RESOURCE_EXHAUSTED: Import queue is full, try again later"
+    And import 1 is RUNNING
+    And import 2 is RUNNING
+    And import 3 is QUEUED
+    And import 4 is QUEUED
+    When the user service is released
+    Then import 4 ends SUCCEEDED with 20 rows imported out of 20 and the message "Completed: 20 rows imported, 0 rows failed."
+
+  Scenario: Only the most recent finished jobs are kept
+    Given 20 order rows to import over gRPC
+    And the server keeps at most 2 finished jobs
+    When 3 imports are queued one after the other
+    And 1 import is queued
+    Then import 1 is unknown to the server
+    And import 2 is unknown to the server
+    And import 3 ends SUCCEEDED with 20 rows imported out of 20 and the message "Completed: 20 rows imported, 0 rows failed."
+    And import 4 ends SUCCEEDED with 20 rows imported out of 20 and the message "Completed: 20 rows imported, 0 rows failed."
+
+  Scenario: A job whose import throws an error still ends
+    Given 20 order rows to import over gRPC
+    And the user service client throws a NoClassDefFoundError
+    When 1 import is queued
+    Then import 1 ends FAILED with 0 rows imported out of 20 and the message "user/User"
+
+  Scenario: An import into an output another import is writing to fails
+    Given 20 order rows to import over gRPC
+    And imports keep a checkpoint
+    And the user service does not answer until released
+    When 1 import is queued
+    And the user service has been called
+    And 1 import is queued
+    Then import 2 ends FAILED with a message starting with "Another import is writing to the output of"
+    And import 1 is RUNNING
+    When the user service is released
+    Then import 1 ends SUCCEEDED with 20 rows imported out of 20 and the message "Completed: 20 rows imported, 0 rows failed."
+    And 20 orders were created
+
+  Scenario: Imports into their own outputs run side by side
+    Given 20 order rows to import over gRPC
+    And imports keep a checkpoint
+    And the user service does not answer until released
+    When 1 import is queued into "first.json"
+    And 1 import is queued into "second.json"
+    Then import 1 is RUNNING
+    And import 2 is RUNNING
+    When the user service is released
+    Then import 1 ends SUCCEEDED with 20 rows imported out of 20 and the message "Completed: 20 rows imported, 0 rows failed."
+    And import 2 ends SUCCEEDED with 20 rows imported out of 20 and the message "Completed: 20 rows imported, 0 rows failed."
+    And "first.json" holds 20 orders
+    And "second.json" holds 20 orders
@@ -5,3 +5,4 @@ Feature: Integration Service
     When the IntegrationService processes the CSV file
     Then the orders should be created successfully
     And the json with userId orderId and supplierId should be created in path "src/test/resources/output/processed-order-test.json"
+    And the import metrics count 4 succeeded rows and 4 written orders
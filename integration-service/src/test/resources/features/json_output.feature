@@ -0,0 +1,32 @@
+Feature: Flushing the JSON output
+
+  Scenario Outline: Records reach the file every flush-every-records records
+    Given a <format> writer that flushes every 3 records or every 60000 ms
+    When 2 processed orders are written
+    Then 0 processed orders have reached the file
+    When 1 processed order is written
+    Then 3 processed orders have reached the file
+    When 2 processed orders are written
+    Then 3 processed orders have reached the file
+    When the writer is closed
+    Then the file holds 5 processed orders
+
+    Examples:
+      | format |
+      | json   |
+      | ndjson |
+
+  Scenario Outline: Records reach the file on the first write after the flush interval
+    Given a <format> writer that flushes every 1000 records or every 100 ms
+    When 1 processed order is written
+    And 150 ms pass
+    Then 0 processed orders have reached the file
+    When 1 processed order is written
+    Then 2 processed orders have reached the file
+    When the writer is closed
+    Then the file holds 2 processed orders
+
+    Examples:
+      | format |
+      | json   |
+      | ndjson |
@@ -0,0 +1,14 @@
+Feature: One-shot import from the command line
+
+  Scenario: Only the beans of an import are started
+    When the one-shot import application is started
+    Then it has an IntegrationService
+    And it has no web server, gRPC server or batch job
+
+  Scenario: The command needs an input and an output
+    When the one-shot import is run with "orders.csv"
+    Then the command exits with status 2
+
+  Scenario: A missing input file fails the command
+    When the one-shot import is run with "missing-orders.csv" and "processed-orders.json"
+    Then the command exits with status 3
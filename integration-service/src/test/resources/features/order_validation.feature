@@ -0,0 +1,35 @@
+Feature: Order validation
+
+  Scenario: Rows with problems are rejected before any call and written to the rejects file
+    Given the order rows
+      """
+      order_status,quantity,date_created,country,full_name,shipping_address,product_pid,order_id,credit_card_type,credit_card_number,supplier_pid,email,last_name,first_name,id
+      0,3,2022-06-24T10:45:52Z,Portugal,Austin Humphries,894 Declaration Park,p-1,o-1,visa,4917352465154663,s-1,ahumphries0@mac.com,Humphries,Austin,1
+      1,-1,2022-06-24T10:45:52Z,Portugal,Willi Petheridge,659 Waxwing Point,p-1,o-2,visa,5415103981077514,s-1,wpetheridge1@comcast.net,Petheridge,Willi,2
+      2,5,24/06/2022,Albania,Ola Nordmann,1 Main St,p-2,o-3,mastercard,5415103981077515,s-1,onordmann2@mail.com,Nordmann,Ola,3
+      0,7,2023-01-16T02:21:20Z,Albania,Jane Doe,2 Main St,p-2,o-4,mastercard,5415103981077516,s-1,jdoe3@mail.com,Doe,Jane,4
+      9,2,2023-01-16T02:21:20Z,Albania,John Doe,3 Main St,p-2,o-5,mastercard,5415103981077517,s-1,nobody,Doe,John,5
+      """
+    When the order rows are imported from a file
+    Then rows 1 and 4 have an order
+    And row 2 is rejected because "quantity is not positive: -1"
+    And row 3 is rejected because "date_created is not an ISO date-time with offset: 24/06/2022"
+    And row 5 is rejected because "email is not an address: nobody; order_status is unknown: 9"
+    And only 2 users were created
+    And the rejects file lists rows 2, 3 and 5 with their reasons
+
+  Scenario: Rejected rows keep their place in a concurrent import
+    Given the order rows
+      """
+      order_status,quantity,date_created,country,full_name,shipping_address,product_pid,order_id,credit_card_type,credit_card_number,supplier_pid,email,last_name,first_name,id
+      0,3,2022-06-24T10:45:52Z,Portugal,Austin Humphries,894 Declaration Park,p-1,o-1,visa,4917352465154663,s-1,ahumphries0@mac.com,Humphries,Austin,1
+      1,x,2022-06-24T10:45:52Z,Portugal,Willi Petheridge,659 Waxwing Point,p-1,o-2,visa,5415103981077514,s-1,wpetheridge1@comcast.net,Petheridge,Willi,2
+      2,5,2022-06-24T10:45:52Z,Albania,Ola Nordmann,1 Main St,p-2,o-3,mastercard,5415103981077515,s-1,onordmann2@mail.com,Nordmann,Ola,3
+      0,7,2023-01-16T02:21:20Z,Albania,Jane Doe,2 Main St,p-2,o-4,mastercard,5415103981077516,,jdoe3@mail.com,Doe,Jane,4
+      """
+    When the order rows are imported asynchronously with a parallelism of 4 and a validation chunk of 2
+    Then the results are in input order
+    And rows 1 and 3 have an order
+    And row 2 is rejected because "quantity is not a whole number: x"
+    And row 4 is rejected because "supplier_pid is missing"
+    And only 2 users were created
@@ -0,0 +1,58 @@
+Feature: Partitioned import
+
+  Scenario: Two instances share the partitions of one file and merge a single output
+    Given an input file with 40 order rows split into partitions of 600 bytes
+    When two instances import it with a partition size of 600 bytes
+    Then every row is imported exactly once
+    And the merged output contains all orders in input order
+
+  Scenario: A new input imported into the same output starts afresh
+    Given an input file with 40 order rows split into partitions of 600 bytes
+    When one instance imports it with a partition size of 600 bytes
+    And the input file is replaced with 30 new order rows
+    And one instance imports it with a partition size of 600 bytes
+    Then 70 orders were created over all imports
+    And the merged output contains all orders in input order
+
+  Scenario: An input that was imported already is not imported again
+    Given an input file with 40 order rows split into partitions of 600 bytes
+    When one instance imports it with a partition size of 600 bytes
+    And one instance imports it with a partition size of 600 bytes
+    Then 40 orders were created over all imports
+    And the last import imported nothing
+    And the merged output contains all orders in input order
+
+  Scenario: A partition that takes longer than the claim timeout is not taken over
+    Given an input file with 40 order rows split into partitions of 600 bytes
+    And every order takes 50 ms to create
+    When two instances import it with a partition size of 600 bytes and a claim timeout of 150 ms
+    Then every row is imported exactly once
+    And the merged output contains all orders in input order
+
+  Scenario: The instance that does not merge waits for the merge
+    Given an input file with 40 order rows split into partitions of 600 bytes
+    And every merged order takes 10 ms to write
+    When two instances import it with a partition size of 600 bytes
+    Then every instance returned once the output was merged
+    And the merged output contains all orders in input order
+
+  Scenario: The rows rejected in every partition are merged into the rejects of the output
+    Given an input file with 40 order rows split into partitions of 600 bytes
+    And rows 5 and 30 have no email
+    When two instances import it with a partition size of 600 bytes
+    Then the merged output contains all orders in input order
+    And the rejects of the output list rows 5 and 30 by partition
+
+  Scenario: A node whose claim was taken over stops and leaves the new owner's result alone
+    Given an input file with 10 order rows in one partition
+    And the first user of row 3 is not created until released
+    When instance "node-a" starts importing it with a claim timeout of 1500 ms
+    And the held user has been asked for
+    And instance "node-b" starts importing it with a claim timeout of 100 ms
+    And instance "node-b" has finished
+    # node-a renews, and so notices the takeover, every 500 ms
+    And 1000 ms pass
+    And the held user is released
+    And instance "node-a" has finished
+    Then the order of row 3 was created 2 times and every other order once
+    And the merged output contains all orders in input order
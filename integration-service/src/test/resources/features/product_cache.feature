@@ -0,0 +1,38 @@
+Feature: Product cache
+
+  Scenario: A product is looked up once and then served from the cache
+    Given a product cache of 10 entries that expire after 60000 ms
+    When the products "p-1,p-1,p-2,p-1" are looked up
+    Then the product service was asked for "p-1,p-2"
+    And the cache counted 2 hits and 2 misses
+
+  Scenario: The least recently used product is evicted when the cache is full
+    Given a product cache of 2 entries that expire after 60000 ms
+    When the products "p-1,p-2,p-1,p-3,p-1,p-2" are looked up
+    Then the product service was asked for "p-1,p-2,p-3,p-2"
+    And the cache holds 2 products
+
+  Scenario: An expired product is looked up again
+    Given a product cache of 10 entries that expire after 50 ms
+    When the products "p-1,p-1" are looked up
+    And 100 ms pass
+    And the products "p-1" are looked up asynchronously
+    Then the product service was asked for "p-1,p-1"
+    And the cache counted 1 hits and 2 misses
+
+  Scenario: Products missing from the prefetch fall back to single lookups
+    Given a product cache of 10 entries that expire after 60000 ms
+    And the product service returns only "p-1,p-3" in a batch
+    When the products "p-1,p-2,p-3,p-4,p-5" are prefetched in batches of 2
+    And the products "p-1,p-2,p-3,p-1" are looked up
+    Then the products were prefetched with 3 batched calls
+    And the product service was asked for "p-2"
+    And the cache counted 3 hits and 1 misses
+    And the cache saved 0 round-trips
+
+  Scenario: Round-trips saved never go below zero
+    Given a product cache of 10 entries that expire after 60000 ms
+    And the product service returns only "" in a batch
+    When the products "p-1,p-2,p-3" are prefetched in batches of 1
+    Then the products were prefetched with 3 batched calls
+    And the cache saved 0 round-trips
@@ -0,0 +1,37 @@
+Feature: Reconciling processed orders with the order service
+
+  Scenario: Missing orders and orders of another user are reported
+    Given the processed orders
+      | user_pid | order_pid |
+      | u-1      | o-1       |
+      | u-2      | o-2       |
+      | u-3      | o-3       |
+      | u-4      |           |
+      | u-5      | o-5       |
+    And the order service holds the orders
+      | order_pid | user_pid |
+      | o-1       | u-1      |
+      | o-2       | u-2      |
+      | o-5       | u-9      |
+      | o-7       | u-7      |
+    And orders are reconciled in batches of 2
+    When the processed orders are reconciled over gRPC
+    Then the reconciliation checked 4 orders, verified 2, found 1 missing, 1 of another user and 1 without order pid
+    And the failed order pids are "o-3,o-5"
+    And the order service was asked for the orders "o-1,o-2", "o-3,o-5"
+
+  Scenario: Reconciling a file that does not exist is answered with an error
+    Given the order service holds the orders
+      | order_pid | user_pid |
+      | o-1       | u-1      |
+    When the processed orders are reconciled over gRPC
+    Then the reconciliation message starts with "Error reading processed orders: "
+    And the order service was not asked for any order
+
+  Scenario: A failed order lookup is answered with the order service's status
+    Given the processed orders
+      | user_pid | order_pid |
+      | u-1      | o-1       |
+    And the order service fails to look up orders with UNAVAILABLE
+    When the processed orders are reconciled over gRPC
+    Then the reconciliation fails with UNAVAILABLE and the description "Order lookup failed"
@@ -0,0 +1,39 @@
+Feature: Protobuf result log
+
+  Scenario Outline: A result log reads back and converts to JSON
+    Given result logs written <mode>
+    When 1000 processed orders are logged to "processed-orders<name>"
+    Then the log reads back as the 1000 processed orders
+    And the log converts to JSON with the same 1000 processed orders
+
+    Examples:
+      | mode          | name           |
+      | as a stream   | .pblog         |
+      | memory-mapped | .pblog         |
+      | as a stream   | .pblog.gz      |
+      | memory-mapped | .pblog.zst     |
+
+  Scenario Outline: A result log can be followed while it is written
+    Given result logs written <mode>
+    When 300 processed orders are logged to "processed-orders.pblog" without closing the log
+    Then a reader following the log gets processed orders 1 to 300
+    When 200 more processed orders are logged
+    Then the reader following the log gets processed orders 301 to 500
+    When the log is closed
+    Then the reader following the log gets no more processed orders
+
+    Examples:
+      | mode          |
+      | as a stream   |
+      | memory-mapped |
+
+  Scenario Outline: A result log can be followed from another thread while long records are written
+    Given result logs written <mode>
+    And processed orders with pids of 200 characters
+    When 2000 processed orders are logged to "processed-orders.pblog" while a reader follows it on another thread
+    Then the reader on the other thread gets processed orders 1 to 2000
+
+    Examples:
+      | mode          |
+      | as a stream   |
+      | memory-mapped |
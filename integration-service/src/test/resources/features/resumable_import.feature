@@ -0,0 +1,9 @@
+Feature: Resumable import
+
+  Scenario: An interrupted import resumes without creating users or orders twice
+    Given an input file with 3 order rows
+    And the order service fails unexpectedly while creating the order of row 2
+    When the import is run and aborted
+    And the import is run again with working services
+    Then every user is created once and only the unfinished orders are created again
+    And the output contains the orders of all 3 rows in input order
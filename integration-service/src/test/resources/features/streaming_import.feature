@@ -0,0 +1,33 @@
+Feature: Streaming import over gRPC
+
+  Scenario Outline: Every row is streamed with its result, followed by the progress and the outcome
+    Given 5 order rows to import over gRPC
+    And the product of row 3 is unknown to the product service
+    When the rows are streamed with a parallelism of <parallelism> and async <async>
+    Then the stream has row events for rows 1 to 5 in order
+    And row event 3 has the error "NOT_FOUND: Unknown product p-3"
+    And the other row events have an order
+    And the stream ends with the progress of 4 succeeded and 1 failed rows and the outcome
+
+    Examples:
+      | parallelism | async |
+      | 1           | false |
+      | 4           | false |
+      | 4           | true  |
+
+  Scenario: A client that reads slowly holds the import back
+    Given 10 order rows to import over gRPC
+    When the rows are streamed to a client that reads 2 events
+    Then the client has received 2 events
+    And 3 orders were created while the client was not reading
+    When the client reads the remaining events
+    Then the stream has row events for rows 1 to 10 in order
+    And the stream ends with the progress of 10 succeeded and 0 failed rows and the outcome
+
+  Scenario: Cancelling the stream stops the import
+    Given 10 order rows to import over gRPC
+    When the rows are streamed to a client that reads 2 events
+    And 3 orders were created while the client was not reading
+    And the client cancels the stream
+    Then 3 orders were created while the client was not reading
+    And the streamed import ends CANCELLED
@@ -0,0 +1,20 @@
+Feature: Supplier validation
+
+  Scenario: Rows of an unknown supplier are rejected before any user or order is created
+    Given order rows with the suppliers "s-1,s-2,s-1,s-3,s-2"
+    And the supplier service knows "s-1,s-2"
+    When the rows are imported from a file
+    Then rows 1, 2, 3 and 5 have an order
+    And row 4 is rejected with "Unknown supplier s-3"
+    And no user or order was created for supplier "s-3"
+    And the suppliers were resolved with 1 batched call
+
+  Scenario: Without a pre-pass every supplier is looked up once
+    Given order rows with the suppliers "s-1,s-3,s-1,s-3,s-1"
+    And the supplier service knows "s-1"
+    When the rows are imported asynchronously with a parallelism of 4
+    Then rows 1, 3 and 5 have an order
+    And row 2 is rejected with "Unknown supplier s-3"
+    And row 4 is rejected with "Unknown supplier s-3"
+    And no user or order was created for supplier "s-3"
+    And the suppliers were looked up 2 times
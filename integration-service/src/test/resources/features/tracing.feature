@@ -0,0 +1,13 @@
+@tracing
+Feature: Tracing
+
+  Scenario: Rows of an import are traced below the call that started it
+    Given 4 order rows to trace
+    When the rows are imported with a parallelism of 2 inside a "ProcessCsvFile" span
+    Then every row has an "import row" span carrying its row id
+    And the "import row" spans are children of the "import" span below "ProcessCsvFile"
+
+  Scenario: Trace context is passed on to the called service
+    Given an in-process user service behind the tracing server interceptor
+    When a user is created through a traced channel inside a "ProcessCsvFile" span
+    Then the server span of "user.UserService/CreateUser" continues the trace of the client span
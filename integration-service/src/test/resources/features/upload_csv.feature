@@ -0,0 +1,36 @@
+Feature: Uploading a CSV file over gRPC
+
+  Scenario: An upload sent in many small chunks is imported
+    Given 20 order rows to import over gRPC
+    When the file is uploaded in chunks of 50 bytes
+    Then the upload reply is "CSV upload processed successfully: 20 rows imported, 0 rows failed."
+    And 20 orders were created
+
+  Scenario: The server only asks for chunks as fast as it imports them
+    Given 3000 order rows to import over gRPC
+    And the user service does not answer until released
+    When the file is uploaded in chunks of 64 bytes
+    Then the client has sent less than a quarter of the chunks
+    When the user service is released
+    Then the upload reply is "CSV upload processed successfully: 3000 rows imported, 0 rows failed."
+    And the client has sent every chunk
+
+  Scenario: Cancelling the upload stops the import
+    Given 3000 order rows to import over gRPC
+    When the first 200 chunks of 64 bytes are uploaded
+    And the client cancels the upload
+    Then the upload job failed because of "Upload failed: CANCELLED"
+    And the rest of the file is not imported
+
+  Scenario: An error from the client stops the import
+    Given 3000 order rows to import over gRPC
+    When the first 200 chunks of 64 bytes are uploaded
+    And the client fails the upload
+    Then the upload job failed because of "Upload failed: CANCELLED"
+    And the rest of the file is not imported
+
+  Scenario: An upload without any chunk is answered with an error
+    Given 20 order rows to import over gRPC
+    When an upload is completed without any chunk
+    Then the upload reply is "Error processing CSV upload: no data received"
+    And 0 orders were created
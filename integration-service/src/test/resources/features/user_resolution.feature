@@ -0,0 +1,36 @@
+Feature: User resolution
+
+  Scenario: Repeat customers and existing users are resolved without failing rows
+    Given order rows for the customers "ann@example.com, bob@example.com, ann@example.com, cid@example.com, bob@example.com"
+    And the user service already knows "cid@example.com" as "existing-cid"
+    When the rows are imported
+    Then every row has an order
+    And "ann@example.com" was created once
+    And "bob@example.com" was created once
+    And the orders of "ann@example.com" belong to "user-ann@example.com"
+    And the orders of "cid@example.com" belong to "existing-cid"
+
+  Scenario: A run sharing the user index of an earlier run creates no users
+    Given order rows for the customers "ann@example.com, bob@example.com, ann@example.com"
+    And users are indexed in a file
+    When the rows are imported
+    Then "ann@example.com" was created once
+    And "bob@example.com" was created once
+    When the rows are imported again by another run
+    Then no user was created
+    And every row has an order
+    And the orders of "ann@example.com" belong to "user-ann@example.com"
+    And the orders of "bob@example.com" belong to "user-bob@example.com"
+
+  Scenario: A user index line cut short by a crash is ignored
+    Given order rows for the customers "ann@example.com, bob@example.com"
+    And the user index already holds "ann@example.com" as "user-ann@example.com"
+    And the user index ends with a line for "bob@example.com" cut short after "user-b"
+    When the rows are imported
+    Then "ann@example.com" was not created
+    And "bob@example.com" was created once
+    And the orders of "bob@example.com" belong to "user-bob@example.com"
+    When the rows are imported again by another run
+    Then no user was created
+    And the orders of "ann@example.com" belong to "user-ann@example.com"
+    And the orders of "bob@example.com" belong to "user-bob@example.com"